@@ -1,6 +1,6 @@
 package fi.vm.yti.comments.api.api;
 
-import java.util.Set;
+import java.util.Collection;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
@@ -15,7 +15,7 @@ public class ResponseWrapper<T> {
 
     private Meta meta;
 
-    private Set<T> results;
+    private Collection<T> results;
 
     public ResponseWrapper() {
     }
@@ -32,11 +32,11 @@ public class ResponseWrapper<T> {
         this.meta = meta;
     }
 
-    public Set<T> getResults() {
+    public Collection<T> getResults() {
         return results;
     }
 
-    public void setResults(final Set<T> results) {
+    public void setResults(final Collection<T> results) {
         this.results = results;
     }
 }
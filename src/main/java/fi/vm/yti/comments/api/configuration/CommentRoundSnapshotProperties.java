@@ -0,0 +1,41 @@
+package fi.vm.yti.comments.api.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("commentround.snapshot")
+@Component
+@Validated
+public class CommentRoundSnapshotProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSizeInBytes = 64 * 1024 * 1024;
+
+    private String directory;
+
+    public boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSizeInBytes() {
+        return maximumSizeInBytes;
+    }
+
+    public void setMaximumSizeInBytes(final long maximumSizeInBytes) {
+        this.maximumSizeInBytes = maximumSizeInBytes;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+}
@@ -0,0 +1,132 @@
+package fi.vm.yti.comments.api.configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import static fi.vm.yti.comments.api.constants.ApiConstants.*;
+
+/**
+ * Hibernate second level cache for the rarely changing organizations, sources and comment rounds, backed by bounded
+ * Caffeine caches, with per region hit ratio metrics.
+ */
+@Configuration
+public class HibernateCacheConfiguration {
+
+    private static final String METRIC_PREFIX = "hibernate.cache.region.";
+    private static final String TAG_REGION = "region";
+    private static final String TAG_RESULT = "result";
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager() {
+        final CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        getEntityRegions().forEach((region, maximumSize) -> createCache(cacheManager, region, maximumSize, Duration.ofHours(1)));
+        createCache(cacheManager, CACHE_REGION_LOOKUPS, 10000, Duration.ofMinutes(10));
+        createCache(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 1000, Duration.ofMinutes(10));
+        createCache(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 1000, null);
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCachePropertiesCustomizer(final CacheManager hibernateCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    MeterBinder hibernateCacheMetrics(final EntityManagerFactory entityManagerFactory) {
+        return meterRegistry -> {
+            final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            final Map<String, Function<Statistics, CacheRegionStatistics>> regions = new LinkedHashMap<>();
+            getEntityRegions().keySet().forEach(region -> regions.put(region, stats -> stats.getDomainDataRegionStatistics(region)));
+            regions.put(CACHE_REGION_LOOKUPS, stats -> stats.getQueryRegionStatistics(CACHE_REGION_LOOKUPS));
+            regions.forEach((region, regionStatistics) -> {
+                FunctionCounter.builder(METRIC_PREFIX + "requests", statistics, stats -> getCount(regionStatistics.apply(stats), CacheRegionStatistics::getHitCount))
+                    .tag(TAG_REGION, region)
+                    .tag(TAG_RESULT, "hit")
+                    .register(meterRegistry);
+                FunctionCounter.builder(METRIC_PREFIX + "requests", statistics, stats -> getCount(regionStatistics.apply(stats), CacheRegionStatistics::getMissCount))
+                    .tag(TAG_REGION, region)
+                    .tag(TAG_RESULT, "miss")
+                    .register(meterRegistry);
+                FunctionCounter.builder(METRIC_PREFIX + "puts", statistics, stats -> getCount(regionStatistics.apply(stats), CacheRegionStatistics::getPutCount))
+                    .tag(TAG_REGION, region)
+                    .register(meterRegistry);
+                Gauge.builder(METRIC_PREFIX + "hit.ratio", statistics, stats -> getHitRatio(regionStatistics.apply(stats)))
+                    .tag(TAG_REGION, region)
+                    .register(meterRegistry);
+            });
+        };
+    }
+
+    private static Map<String, Integer> getEntityRegions() {
+        final Map<String, Integer> regions = new LinkedHashMap<>();
+        regions.put(CACHE_REGION_ORGANIZATION, 2000);
+        regions.put(CACHE_REGION_ORGANIZATION_PREFLABEL, 2000);
+        regions.put(CACHE_REGION_ORGANIZATION_DESCRIPTION, 2000);
+        regions.put(CACHE_REGION_SOURCE, 10000);
+        return regions;
+    }
+
+    private static void createCache(final CacheManager cacheManager,
+                                    final String region,
+                                    final long maximumSize,
+                                    final Duration expireAfterWrite) {
+        if (cacheManager.getCache(region) != null) {
+            return;
+        }
+        final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        if (expireAfterWrite != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        }
+        cacheManager.createCache(region, configuration);
+    }
+
+    /**
+     * Query regions are built on first use, so the statistics of a region may not exist yet.
+     */
+    private static double getCount(final CacheRegionStatistics stats,
+                                   final ToLongFunction<CacheRegionStatistics> count) {
+        return stats != null ? count.applyAsLong(stats) : 0;
+    }
+
+    private static double getHitRatio(final CacheRegionStatistics stats) {
+        if (stats == null) {
+            return 0;
+        }
+        final long hits = stats.getHitCount();
+        final long requests = hits + stats.getMissCount();
+        return requests > 0 ? (double) hits / requests : 0;
+    }
+}
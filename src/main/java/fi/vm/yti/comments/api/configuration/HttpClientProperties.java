@@ -0,0 +1,121 @@
+package fi.vm.yti.comments.api.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("httpclient")
+@Component
+@Validated
+public class HttpClientProperties {
+
+    private int maxTotalConnections = 100;
+
+    private int defaultMaxConnectionsPerRoute = 20;
+
+    private int connectTimeout = 10000;
+
+    private int readTimeout = 60000;
+
+    private int connectionRequestTimeout = 10000;
+
+    private int idleConnectionTimeout = 30000;
+
+    private Map<String, UpstreamProperties> upstreams = new HashMap<>();
+
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    public void setMaxTotalConnections(final int maxTotalConnections) {
+        this.maxTotalConnections = maxTotalConnections;
+    }
+
+    public int getDefaultMaxConnectionsPerRoute() {
+        return defaultMaxConnectionsPerRoute;
+    }
+
+    public void setDefaultMaxConnectionsPerRoute(final int defaultMaxConnectionsPerRoute) {
+        this.defaultMaxConnectionsPerRoute = defaultMaxConnectionsPerRoute;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(final int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(final int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(final int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public int getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    public void setIdleConnectionTimeout(final int idleConnectionTimeout) {
+        this.idleConnectionTimeout = idleConnectionTimeout;
+    }
+
+    public Map<String, UpstreamProperties> getUpstreams() {
+        return upstreams;
+    }
+
+    public void setUpstreams(final Map<String, UpstreamProperties> upstreams) {
+        this.upstreams = upstreams;
+    }
+
+    public UpstreamProperties getUpstream(final String name) {
+        return upstreams.getOrDefault(name, new UpstreamProperties());
+    }
+
+    public static class UpstreamProperties {
+
+        private Integer maxConnections;
+
+        private Integer connectTimeout;
+
+        private Integer readTimeout;
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(final Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Integer getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(final Integer connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Integer getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(final Integer readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+}
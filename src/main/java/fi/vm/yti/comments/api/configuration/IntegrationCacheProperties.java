@@ -0,0 +1,51 @@
+package fi.vm.yti.comments.api.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("integration.cache")
+@Component
+@Validated
+public class IntegrationCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 500;
+
+    private long refreshAfterSeconds = 60;
+
+    private long expireAfterSeconds = 600;
+
+    public boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(final long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public long getRefreshAfterSeconds() {
+        return refreshAfterSeconds;
+    }
+
+    public void setRefreshAfterSeconds(final long refreshAfterSeconds) {
+        this.refreshAfterSeconds = refreshAfterSeconds;
+    }
+
+    public long getExpireAfterSeconds() {
+        return expireAfterSeconds;
+    }
+
+    public void setExpireAfterSeconds(final long expireAfterSeconds) {
+        this.expireAfterSeconds = expireAfterSeconds;
+    }
+}
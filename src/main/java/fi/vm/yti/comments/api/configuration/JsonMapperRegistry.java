@@ -0,0 +1,65 @@
+package fi.vm.yti.comments.api.configuration;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Shared Jackson configuration for parsing request payloads and integration responses.
+ *
+ * The underlying ObjectMapper is configured once and never modified afterwards, readers and writers are immutable and
+ * cached per type, so they can be used concurrently and keep their serializer and deserializer caches between requests.
+ */
+@Component
+public class JsonMapperRegistry {
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final ObjectWriter sortedKeysWriter;
+    private final Map<JavaType, ObjectReader> readers;
+
+    public JsonMapperRegistry() {
+        mapper = new ObjectMapper();
+        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        writer = mapper.writer();
+        sortedKeysWriter = writer.with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        readers = new ConcurrentHashMap<>();
+    }
+
+    public ObjectReader readerFor(final Class<?> type) {
+        return readerFor(mapper.getTypeFactory().constructType(type));
+    }
+
+    public ObjectReader readerForSetOf(final Class<?> elementType) {
+        return readerFor(mapper.getTypeFactory().constructCollectionType(Set.class, elementType));
+    }
+
+    public ObjectReader readerForMapOf(final Class<?> keyType,
+                                       final Class<?> valueType) {
+        return readerFor(mapper.getTypeFactory().constructMapType(Map.class, keyType, valueType));
+    }
+
+    public ObjectWriter writer() {
+        return writer;
+    }
+
+    /**
+     * Writer that orders map entries by key, for producing a canonical form of untyped JSON.
+     */
+    public ObjectWriter sortedKeysWriter() {
+        return sortedKeysWriter;
+    }
+
+    private ObjectReader readerFor(final JavaType javaType) {
+        return readers.computeIfAbsent(javaType, mapper::readerFor);
+    }
+}
@@ -1,14 +1,30 @@
 package fi.vm.yti.comments.api.configuration;
 
 import java.net.InetAddress;
+import java.net.URI;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
 import org.apache.catalina.connector.Connector;
 import org.apache.coyote.ajp.AjpNioProtocol;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.boot.web.server.ErrorPage;
@@ -19,7 +35,6 @@ import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.stereotype.Component;
@@ -27,13 +42,22 @@ import org.springframework.web.client.RestTemplate;
 
 import com.zaxxer.hikari.HikariDataSource;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+
 @Component
 @Configuration
 @EnableScheduling
 @PropertySource(value = "classpath", ignoreResourceNotFound = true)
 public class SpringAppConfig {
 
-    private static final int CONNECTION_TIMEOUT = 180000;
+    private static final String HTTP_CLIENT_POOL_NAME = "outbound";
+    private static final int JDBC_BATCH_SIZE = 50;
+    private static final String UPSTREAM_GROUPMANAGEMENT = "groupmanagement";
+    private static final String UPSTREAM_CODELIST = "codelist";
+    private static final String UPSTREAM_DATAMODEL = "datamodel";
+    private static final String UPSTREAM_TERMINOLOGY = "terminology";
 
     @Value(value = "${application.contextPath}")
     private String contextPath;
@@ -72,21 +96,142 @@ public class SpringAppConfig {
     }
 
     @Bean
-    ClientHttpRequestFactory httpRequestFactory() {
-        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(CONNECTION_TIMEOUT);
-        requestFactory.setReadTimeout(CONNECTION_TIMEOUT);
-        return requestFactory;
+    HibernatePropertiesCustomizer hibernatePropertiesCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_BATCH_SIZE, JDBC_BATCH_SIZE);
+            hibernateProperties.put(AvailableSettings.ORDER_INSERTS, true);
+            hibernateProperties.put(AvailableSettings.ORDER_UPDATES, true);
+            hibernateProperties.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager httpClientConnectionManager(final HttpClientProperties httpClientProperties,
+                                                                   final GroupManagementProperties groupManagementProperties,
+                                                                   final CodelistProperties codelistProperties,
+                                                                   final DatamodelProperties datamodelProperties,
+                                                                   final TerminologyProperties terminologyProperties,
+                                                                   final MeterRegistry meterRegistry) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(httpClientProperties.getMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(httpClientProperties.getDefaultMaxConnectionsPerRoute());
+        final Map<HttpRoute, Set<String>> upstreamsByRoute = new LinkedHashMap<>();
+        createUpstreamUrls(groupManagementProperties, codelistProperties, datamodelProperties, terminologyProperties)
+            .forEach((upstream, url) -> upstreamsByRoute.computeIfAbsent(createHttpRoute(url), route -> new TreeSet<>()).add(upstream));
+        upstreamsByRoute.forEach((route, upstreams) -> {
+            final Integer maxConnections = getRouteMaxConnections(httpClientProperties, route, upstreams);
+            if (maxConnections != null) {
+                connectionManager.setMaxPerRoute(route, maxConnections);
+            }
+            final String upstreamTag = String.join(",", upstreams);
+            Gauge.builder("httpcomponents.httpclient.route.leased", connectionManager, manager -> manager.getStats(route).getLeased())
+                .tag("upstream", upstreamTag)
+                .register(meterRegistry);
+            Gauge.builder("httpcomponents.httpclient.route.pending", connectionManager, manager -> manager.getStats(route).getPending())
+                .tag("upstream", upstreamTag)
+                .register(meterRegistry);
+            Gauge.builder("httpcomponents.httpclient.route.max", connectionManager, manager -> manager.getStats(route).getMax())
+                .tag("upstream", upstreamTag)
+                .register(meterRegistry);
+        });
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, HTTP_CLIENT_POOL_NAME).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient httpClient(final PoolingHttpClientConnectionManager httpClientConnectionManager,
+                                   final HttpClientProperties httpClientProperties) {
+        return HttpClients.custom()
+            .setConnectionManager(httpClientConnectionManager)
+            .setDefaultRequestConfig(createRequestConfig(httpClientProperties.getConnectTimeout(), httpClientProperties.getReadTimeout(), httpClientProperties.getConnectionRequestTimeout()))
+            .evictExpiredConnections()
+            .evictIdleConnections(httpClientProperties.getIdleConnectionTimeout(), TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    @Bean
+    ClientHttpRequestFactory httpRequestFactory(final CloseableHttpClient httpClient,
+                                                final HttpClientProperties httpClientProperties,
+                                                final GroupManagementProperties groupManagementProperties,
+                                                final CodelistProperties codelistProperties,
+                                                final DatamodelProperties datamodelProperties,
+                                                final TerminologyProperties terminologyProperties) {
+        final Map<String, RequestConfig> requestConfigsByBaseUrl = new HashMap<>();
+        createUpstreamUrls(groupManagementProperties, codelistProperties, datamodelProperties, terminologyProperties).forEach((upstream, url) -> {
+            final HttpClientProperties.UpstreamProperties upstreamProperties = httpClientProperties.getUpstream(upstream);
+            final int connectTimeout = upstreamProperties.getConnectTimeout() != null ? upstreamProperties.getConnectTimeout() : httpClientProperties.getConnectTimeout();
+            final int readTimeout = upstreamProperties.getReadTimeout() != null ? upstreamProperties.getReadTimeout() : httpClientProperties.getReadTimeout();
+            final RequestConfig requestConfig = createRequestConfig(connectTimeout, readTimeout, httpClientProperties.getConnectionRequestTimeout());
+            final RequestConfig existingRequestConfig = requestConfigsByBaseUrl.put(UpstreamAwareHttpRequestFactory.createBaseUrlKey(URI.create(url)), requestConfig);
+            if (existingRequestConfig != null && !isSameTimeouts(existingRequestConfig, requestConfig)) {
+                throw new IllegalStateException("Upstream " + upstream + " has the same base URL " + url + " as another upstream but different timeouts.");
+            }
+        });
+        return new UpstreamAwareHttpRequestFactory(httpClient, requestConfigsByBaseUrl);
     }
 
     @Bean
-    RestTemplate restTemplate() {
-        final RestTemplate restTemplate = new RestTemplate(httpRequestFactory());
+    RestTemplate restTemplate(final ClientHttpRequestFactory httpRequestFactory) {
+        final RestTemplate restTemplate = new RestTemplate(httpRequestFactory);
         restTemplate.getMessageConverters()
             .add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
         return restTemplate;
     }
 
+    private Map<String, String> createUpstreamUrls(final GroupManagementProperties groupManagementProperties,
+                                                   final CodelistProperties codelistProperties,
+                                                   final DatamodelProperties datamodelProperties,
+                                                   final TerminologyProperties terminologyProperties) {
+        final Map<String, String> upstreamUrls = new HashMap<>();
+        upstreamUrls.put(UPSTREAM_GROUPMANAGEMENT, groupManagementProperties.getUrl());
+        upstreamUrls.put(UPSTREAM_CODELIST, codelistProperties.getUrl());
+        upstreamUrls.put(UPSTREAM_DATAMODEL, datamodelProperties.getUrl());
+        upstreamUrls.put(UPSTREAM_TERMINOLOGY, terminologyProperties.getUrl());
+        return upstreamUrls;
+    }
+
+    /**
+     * Upstreams behind the same gateway share a connection pool route, so they must agree on its connection limit.
+     */
+    private Integer getRouteMaxConnections(final HttpClientProperties httpClientProperties,
+                                           final HttpRoute route,
+                                           final Set<String> upstreams) {
+        final Set<Integer> maxConnections = new HashSet<>();
+        upstreams.forEach(upstream -> {
+            final Integer upstreamMaxConnections = httpClientProperties.getUpstream(upstream).getMaxConnections();
+            if (upstreamMaxConnections != null) {
+                maxConnections.add(upstreamMaxConnections);
+            }
+        });
+        if (maxConnections.size() > 1) {
+            throw new IllegalStateException("Upstreams " + upstreams + " share the route " + route.getTargetHost() + " but configure different max connections " + maxConnections + ".");
+        }
+        return maxConnections.isEmpty() ? null : maxConnections.iterator().next();
+    }
+
+    private boolean isSameTimeouts(final RequestConfig requestConfig,
+                                   final RequestConfig otherRequestConfig) {
+        return requestConfig.getConnectTimeout() == otherRequestConfig.getConnectTimeout() &&
+            requestConfig.getSocketTimeout() == otherRequestConfig.getSocketTimeout();
+    }
+
+    private HttpRoute createHttpRoute(final String url) {
+        final URI uri = URI.create(url);
+        final boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        final int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getHost(), port, secure ? "https" : "http"), null, secure);
+    }
+
+    private RequestConfig createRequestConfig(final int connectTimeout,
+                                              final int readTimeout,
+                                              final int connectionRequestTimeout) {
+        return RequestConfig.custom()
+            .setConnectTimeout(connectTimeout)
+            .setSocketTimeout(readTimeout)
+            .setConnectionRequestTimeout(connectionRequestTimeout)
+            .build();
+    }
+
     @Bean
     public ResourceBundleMessageSource messageSource() {
 
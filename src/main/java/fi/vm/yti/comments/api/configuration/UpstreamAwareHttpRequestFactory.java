@@ -0,0 +1,66 @@
+package fi.vm.yti.comments.api.configuration;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Request factory that applies upstream specific timeouts based on the base URL of the upstream the request targets.
+ * Upstreams may share a host behind a gateway, so the longest base URL that prefixes the request URL wins.
+ */
+public class UpstreamAwareHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final Map<String, RequestConfig> requestConfigsByBaseUrl;
+
+    public UpstreamAwareHttpRequestFactory(final HttpClient httpClient,
+                                           final Map<String, RequestConfig> requestConfigsByBaseUrl) {
+        super(httpClient);
+        this.requestConfigsByBaseUrl = new LinkedHashMap<>();
+        requestConfigsByBaseUrl.entrySet().stream()
+            .sorted(Map.Entry.<String, RequestConfig>comparingByKey(Comparator.comparingInt(String::length)).reversed())
+            .forEach(entry -> this.requestConfigsByBaseUrl.put(entry.getKey(), entry.getValue()));
+    }
+
+    public static String createBaseUrlKey(final URI uri) {
+        final String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase() : "http";
+        final int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        while (path.endsWith(PATH_SEPARATOR)) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return scheme + "://" + (uri.getHost() != null ? uri.getHost().toLowerCase() : "") + ":" + port + path;
+    }
+
+    @Override
+    protected HttpContext createHttpContext(final HttpMethod httpMethod,
+                                            final URI uri) {
+        final RequestConfig requestConfig = findRequestConfig(uri);
+        if (requestConfig == null) {
+            return null;
+        }
+        final HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig);
+        return context;
+    }
+
+    private RequestConfig findRequestConfig(final URI uri) {
+        final String urlKey = createBaseUrlKey(uri);
+        for (final Map.Entry<String, RequestConfig> entry : requestConfigsByBaseUrl.entrySet()) {
+            final String baseUrl = entry.getKey();
+            if (urlKey.equals(baseUrl) || urlKey.startsWith(baseUrl + PATH_SEPARATOR)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -71,6 +71,11 @@ public abstract class ApiConstants {
     public static final String EXPORT_HEADER_MAIN_LEVEL = "PÄÄTASO";
     public static final String EXPORT_HEADER_LEVEL = "TASO";
     public static final String EXPORT_HEADER_SUGGESTED_STATUS = "EHDOTETTU TILA";
+    public static final String CACHE_REGION_ORGANIZATION = "organization";
+    public static final String CACHE_REGION_ORGANIZATION_PREFLABEL = "organization.prefLabel";
+    public static final String CACHE_REGION_ORGANIZATION_DESCRIPTION = "organization.description";
+    public static final String CACHE_REGION_SOURCE = "source";
+    public static final String CACHE_REGION_LOOKUPS = "lookups";
     public static final String EXPORT_HEADER_COMMENT_URI = "KOMMENTIN URI";
 
     private ApiConstants() {
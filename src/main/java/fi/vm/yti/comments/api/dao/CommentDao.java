@@ -7,6 +7,7 @@ import fi.vm.yti.comments.api.dto.CommentDTO;
 import fi.vm.yti.comments.api.entity.Comment;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 
 public interface CommentDao {
 
@@ -17,6 +18,11 @@ public interface CommentDao {
     Comment findByCommentThreadIdAndCommentIdentifier(final UUID commentThreadId,
                                                       final String commentIdentifier);
 
+    ResourceVersion findVersionById(final UUID commentId);
+
+    ResourceVersion findVersionByCommentThreadIdAndCommentIdentifier(final UUID commentThreadId,
+                                                                     final String commentIdentifier);
+
     Comment findByCommentThreadIdAndSequenceId(final UUID commentRoundId,
                                                final Integer sequenceId);
 
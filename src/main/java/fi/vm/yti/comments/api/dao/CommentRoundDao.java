@@ -6,10 +6,13 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
 import fi.vm.yti.comments.api.dto.CommentRoundDTO;
 import fi.vm.yti.comments.api.entity.CommentRound;
+import fi.vm.yti.comments.api.model.PageCursor;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 
 public interface CommentRoundDao {
 
@@ -21,38 +24,42 @@ public interface CommentRoundDao {
 
     Set<CommentRound> findAll(final PageRequest pageRequest);
 
-    Set<CommentRound> findAll(final LocalDateTime after,
-                              final LocalDateTime before,
-                              final PageRequest pageRequest);
+    Page<CommentRound> findByFilters(final UUID organizationId,
+                                     final Set<String> statuses,
+                                     final String containerType,
+                                     final String searchTerm,
+                                     final boolean filterIncomplete,
+                                     final boolean filterContent,
+                                     final PageRequest pageRequest);
+
+    List<CommentRound> findPage(final Set<String> uris,
+                                final LocalDateTime after,
+                                final LocalDateTime before,
+                                final PageCursor cursor,
+                                final int offset,
+                                final int limit);
+
+    List<String> updateStatusByEndDateBefore(final String currentStatus,
+                                             final String endStatus,
+                                             final LocalDate date,
+                                             final LocalDateTime timeStamp);
+
+    List<String> updateStatusByStartDateAndQueueInvitations(final String currentStatus,
+                                                            final String endStatus,
+                                                            final LocalDate date,
+                                                            final LocalDateTime timeStamp);
 
-    Set<CommentRound> findByOrganizationsIdAndStatusIn(final UUID organizationId,
-                                                       final Set<String> statuses);
-
-    Set<CommentRound> findByOrganizationsId(final UUID organizationId);
-
-    Set<CommentRound> findByStatusIn(final Set<String> statuses);
-
-    Set<CommentRound> findByStatusAndEndDateBefore(final String status,
-                                                   final LocalDate now);
-
-    Set<CommentRound> findByStatusAndStartDateLessThanEqual(final String status,
-                                                            final LocalDate now);
-
-    Set<CommentRound> findBySourceContainerType(final String containerType);
+    CommentRound findById(final UUID commentRoundId);
 
-    Set<CommentRound> findByOrganizationsIdAndSourceContainerTypeAndStatusIn(final UUID organizationId,
-                                                                             final String containerType,
-                                                                             final Set<String> statuses);
+    CommentRound findByIdentifier(final String commentRoundIdentifier);
 
-    Set<CommentRound> findByOrganizationsIdAndSourceContainerType(final UUID organizationId,
-                                                                  final String containerType);
+    CommentRound findDeepByIdentifier(final String commentRoundIdentifier);
 
-    Set<CommentRound> findBySourceContainerTypeAndStatusIn(final String containerType,
-                                                           final Set<String> statuses);
+    ResourceVersion findVersionByIdentifier(final String commentRoundIdentifier);
 
-    CommentRound findById(final UUID commentRoundId);
+    String findOrganizationsVersionById(final UUID commentRoundId);
 
-    CommentRound findByIdentifier(final String commentRoundIdentifier);
+    LocalDateTime findOrganizationsModifiedById(final UUID commentRoundId);
 
     CommentRound findBySequenceId(final Integer sequenceId);
 
@@ -64,13 +71,7 @@ public interface CommentRoundDao {
 
     void deleteCommentRound(final CommentRound commentRound);
 
-    Set<CommentRound> findByUriIn(final Set<String> uris,
-                                  final LocalDateTime after,
-                                  final LocalDateTime before,
-                                  final PageRequest pageRequest);
-
-    void updateContentModified(final UUID commentRoundId,
-                               final LocalDateTime timeStamp);
+    void updateContentModified(final UUID commentRoundId);
 
     int getCommentRoundCount(final Set<String> commentRoundUris,
                              final LocalDateTime after,
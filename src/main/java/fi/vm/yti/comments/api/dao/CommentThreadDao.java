@@ -1,6 +1,7 @@
 package fi.vm.yti.comments.api.dao;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -9,6 +10,8 @@ import org.springframework.data.domain.PageRequest;
 import fi.vm.yti.comments.api.dto.CommentThreadDTO;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.model.PageCursor;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 
 public interface CommentThreadDao {
 
@@ -22,9 +25,16 @@ public interface CommentThreadDao {
 
     CommentThread findById(final UUID commentThreadId);
 
+    CommentThread findDeepById(final UUID commentThreadId);
+
     CommentThread findByCommentRoundIdAndCommentThreadIdentifier(final UUID commentRoundId,
                                                                  final String commentThreadIdentifier);
 
+    ResourceVersion findVersionById(final UUID commentThreadId);
+
+    ResourceVersion findVersionByCommentRoundIdAndCommentThreadIdentifier(final UUID commentRoundId,
+                                                                          final String commentThreadIdentifier);
+
     CommentThread findByCommentRoundIdAndSequenceId(final UUID commentThreadId,
                                                     final Integer commentThreadSequenceId);
 
@@ -33,25 +43,20 @@ public interface CommentThreadDao {
 
     Set<CommentThread> findByCommentRoundId(final UUID commentRoundId);
 
-    Set<CommentThread> findByCommentRoundUriInAndUriIn(final Set<String> commentRoundUris,
-                                                       final Set<String> uris,
-                                                       final LocalDateTime after,
-                                                       final LocalDateTime before,
-                                                       final PageRequest pageRequest);
+    Set<CommentThread> findByCommentRoundIdAndIds(final UUID commentRoundId,
+                                                  final Set<UUID> commentThreadIds);
 
-    Set<CommentThread> findByCommentRoundUriIn(final Set<String> commentRoundUris,
-                                               final LocalDateTime after,
-                                               final LocalDateTime before,
-                                               final PageRequest pageRequest);
+    Set<CommentThread> findDeepByCommentRoundId(final UUID commentRoundId);
 
-    Set<CommentThread> findAll(final LocalDateTime after,
-                               final LocalDateTime before,
-                               final PageRequest pageRequest);
+    Set<CommentThread> findWithLabelsByCommentRoundId(final UUID commentRoundId);
 
-    Set<CommentThread> findByUriIn(final Set<String> uris,
-                                   final LocalDateTime after,
-                                   final LocalDateTime before,
-                                   final PageRequest pageRequest);
+    List<CommentThread> findPage(final Set<String> commentRoundUris,
+                                 final Set<String> uris,
+                                 final LocalDateTime after,
+                                 final LocalDateTime before,
+                                 final PageCursor cursor,
+                                 final int offset,
+                                 final int limit);
 
     CommentThread addOrUpdateCommentThreadFromDto(final CommentRound commentRound,
                                                   final CommentThreadDTO commentThreadDto);
@@ -65,8 +70,9 @@ public interface CommentThreadDao {
 
     void deleteCommentThread(final CommentThread commentThread);
 
-    void updateCommentsModified(final UUID commentThreadId,
-                                final LocalDateTime timeStamp);
+    void updateCommentsModified(final UUID commentThreadId);
+
+    void updateCommentsModified(final Set<UUID> commentThreadIds);
 
     int getCommentThreadCount(final Set<String> commentThreadUris,
                               final Set<String> commentRoundUris,
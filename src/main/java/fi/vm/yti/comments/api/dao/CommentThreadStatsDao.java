@@ -0,0 +1,18 @@
+package fi.vm.yti.comments.api.dao;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
+
+public interface CommentThreadStatsDao {
+
+    CommentThreadStats findByCommentThreadId(final UUID commentThreadId);
+
+    Map<UUID, CommentThreadStats> findByCommentThreadIds(final Set<UUID> commentThreadIds);
+
+    void refreshCommentThreadStats(final UUID commentThreadId);
+
+    void refreshCommentThreadStats(final Set<UUID> commentThreadIds);
+}
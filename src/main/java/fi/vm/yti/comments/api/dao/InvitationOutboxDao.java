@@ -0,0 +1,16 @@
+package fi.vm.yti.comments.api.dao;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import fi.vm.yti.comments.api.entity.InvitationOutboxEntry;
+
+public interface InvitationOutboxDao {
+
+    List<InvitationOutboxEntry> claimPending(final LocalDateTime now,
+                                             final LocalDateTime claimedUntil,
+                                             final int maxAttempts,
+                                             final int limit);
+
+    void saveAttempts(final List<InvitationOutboxEntry> entries);
+}
@@ -0,0 +1,23 @@
+package fi.vm.yti.comments.api.dao;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import fi.vm.yti.comments.api.entity.ScheduledJob;
+
+public interface ScheduledJobDao {
+
+    Set<ScheduledJob> findAll();
+
+    boolean acquireLease(final String jobName,
+                         final String owner,
+                         final Duration leaseDuration);
+
+    void updateLastRun(final String jobName,
+                       final String node,
+                       final LocalDateTime started,
+                       final LocalDateTime finished,
+                       final String status,
+                       final String error);
+}
@@ -0,0 +1,11 @@
+package fi.vm.yti.comments.api.dao;
+
+import java.util.Map;
+
+public interface SequenceCounterDao {
+
+    Integer allocateSequenceIds(final String sequenceName,
+                                final int count);
+
+    Map<String, Integer> allocateSequenceIds(final Map<String, Integer> countsBySequenceName);
+}
@@ -1,9 +1,16 @@
 package fi.vm.yti.comments.api.dao.impl;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -15,13 +22,17 @@ import fi.vm.yti.comments.api.api.ApiUtils;
 import fi.vm.yti.comments.api.dao.CommentDao;
 import fi.vm.yti.comments.api.dao.CommentRoundDao;
 import fi.vm.yti.comments.api.dao.CommentThreadDao;
+import fi.vm.yti.comments.api.dao.CommentThreadStatsDao;
+import fi.vm.yti.comments.api.dao.SequenceCounterDao;
 import fi.vm.yti.comments.api.dto.CommentDTO;
+import fi.vm.yti.comments.api.dto.CommentThreadDTO;
 import fi.vm.yti.comments.api.entity.Comment;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
 import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.exception.YtiCommentsException;
 import fi.vm.yti.comments.api.jpa.CommentRepository;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 import fi.vm.yti.comments.api.security.AuthorizationManager;
 import static fi.vm.yti.comments.api.exception.ErrorConstants.*;
 import static fi.vm.yti.comments.api.utils.StringUtils.parseIntegerFromString;
@@ -35,6 +46,8 @@ public class CommentDaoImpl implements CommentDao {
     private final CommentRepository commentRepository;
     private final CommentThreadDao commentThreadDao;
     private final CommentRoundDao commentRoundDao;
+    private final CommentThreadStatsDao commentThreadStatsDao;
+    private final SequenceCounterDao sequenceCounterDao;
     private final AuthorizationManager authorizationManager;
     private final ApiUtils apiUtils;
 
@@ -42,11 +55,15 @@ public class CommentDaoImpl implements CommentDao {
     public CommentDaoImpl(final CommentRepository commentRepository,
                           final CommentThreadDao commentThreadDao,
                           final CommentRoundDao commentRoundDao,
+                          final CommentThreadStatsDao commentThreadStatsDao,
+                          final SequenceCounterDao sequenceCounterDao,
                           final AuthorizationManager authorizationManager,
                           final ApiUtils apiUtils) {
         this.commentRepository = commentRepository;
         this.commentThreadDao = commentThreadDao;
         this.commentRoundDao = commentRoundDao;
+        this.commentThreadStatsDao = commentThreadStatsDao;
+        this.sequenceCounterDao = sequenceCounterDao;
         this.authorizationManager = authorizationManager;
         this.apiUtils = apiUtils;
     }
@@ -81,6 +98,26 @@ public class CommentDaoImpl implements CommentDao {
         return null;
     }
 
+    @Transactional
+    public ResourceVersion findVersionById(final UUID commentId) {
+        return commentRepository.findVersionById(commentId);
+    }
+
+    @Transactional
+    public ResourceVersion findVersionByCommentThreadIdAndCommentIdentifier(final UUID commentThreadId,
+                                                                            final String commentIdentifier) {
+        final UUID commentId = parseUuidFromString(commentIdentifier);
+        if (commentId != null) {
+            return findVersionById(commentId);
+        } else {
+            final Integer commentSequenceId = parseIntegerFromString(commentIdentifier);
+            if (commentSequenceId != null) {
+                return commentRepository.findVersionByCommentThreadIdAndSequenceId(commentThreadId, commentSequenceId);
+            }
+        }
+        return null;
+    }
+
     @Transactional
     public Comment findByCommentThreadIdAndSequenceId(final UUID commentThreadId,
                                                       final Integer commentSequenceId) {
@@ -95,7 +132,7 @@ public class CommentDaoImpl implements CommentDao {
 
     @Transactional
     public Set<Comment> findByCommentThreadId(final UUID commentThreadId) {
-        return commentRepository.findByCommentThreadIdOrderByCreatedAsc(commentThreadId);
+        return commentRepository.findDeepByCommentThreadIdOrderByCreatedAsc(commentThreadId);
     }
 
     @Transactional
@@ -107,7 +144,10 @@ public class CommentDaoImpl implements CommentDao {
     public Comment addOrUpdateCommentFromDto(final CommentThread commentThread,
                                              final CommentDTO fromComment) {
         final Comment comment = createOrUpdateComment(commentThread, fromComment);
+        assignSequenceIds(Collections.singleton(comment));
         commentRepository.save(comment);
+        updateTimeStamps(commentThread.getCommentRound().getId(), commentThread.getId());
+        commentThreadStatsDao.refreshCommentThreadStats(commentThread.getId());
         return comment;
     }
 
@@ -118,18 +158,53 @@ public class CommentDaoImpl implements CommentDao {
         for (final CommentDTO fromComment : fromComments) {
             comments.add(createOrUpdateComment(commentThread, fromComment));
         }
+        assignSequenceIds(comments);
         commentRepository.saveAll(comments);
+        if (!comments.isEmpty()) {
+            updateTimeStamps(commentThread.getCommentRound().getId(), commentThread.getId());
+        }
+        commentThreadStatsDao.refreshCommentThreadStats(commentThread.getId());
         return comments;
     }
 
+    /**
+     * Stores the main level comments of the current user for several threads of a round. Referenced threads and the
+     * user's existing comments are prefetched with one query each, sequence ids are allocated in bulk and the
+     * modification timestamps of the round and the touched threads are updated once for the whole submission.
+     */
     @Transactional
     public Set<Comment> addOrUpdateCommentsFromDtos(final CommentRound commentRound,
                                                     final Set<CommentDTO> fromComments) {
+        final UUID userId = authorizationManager.getUserId();
+        final Set<UUID> commentThreadIds = fromComments.stream()
+            .map(CommentDTO::getCommentThread)
+            .filter(Objects::nonNull)
+            .map(CommentThreadDTO::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        final Map<UUID, CommentThread> commentThreadsById = commentThreadDao.findByCommentRoundIdAndIds(commentRound.getId(), commentThreadIds).stream()
+            .collect(Collectors.toMap(CommentThread::getId, Function.identity()));
+        final Map<UUID, Comment> existingCommentsByCommentThreadId = new HashMap<>();
+        if (!commentThreadsById.isEmpty()) {
+            commentRepository.findByCommentThreadIdInAndUserIdAndParentCommentIsNull(commentThreadsById.keySet(), userId)
+                .forEach(comment -> existingCommentsByCommentThreadId.putIfAbsent(comment.getCommentThread().getId(), comment));
+        }
         final Set<Comment> comments = new HashSet<>();
         for (final CommentDTO fromComment : fromComments) {
-            comments.add(createOrUpdateComment(commentRound, fromComment));
+            final CommentThread commentThread = fromComment.getCommentThread() != null ? commentThreadsById.get(fromComment.getCommentThread().getId()) : null;
+            if (commentThread == null) {
+                throw new YtiCommentsException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_COMMENT_DOES_NOT_HAVE_COMMENT_THREAD));
+            }
+            comments.add(createOrUpdateComment(commentThread, existingCommentsByCommentThreadId.get(commentThread.getId()), fromComment));
         }
+        assignSequenceIds(comments);
         commentRepository.saveAll(comments);
+        final Set<UUID> modifiedCommentThreadIds = comments.stream().map(comment -> comment.getCommentThread().getId()).collect(Collectors.toSet());
+        if (!modifiedCommentThreadIds.isEmpty()) {
+            commentRoundDao.updateContentModified(commentRound.getId());
+            commentThreadDao.updateCommentsModified(modifiedCommentThreadIds);
+            commentThreadStatsDao.refreshCommentThreadStats(modifiedCommentThreadIds);
+        }
         return comments;
     }
 
@@ -158,23 +233,13 @@ public class CommentDaoImpl implements CommentDao {
         } else {
             comment = createComment(commentThread, fromComment);
         }
-        updateTimeStamps(commentThread.getCommentRound().getId(), commentThread.getId());
         return comment;
     }
 
-    private Comment createOrUpdateComment(final CommentRound commentRound,
+    private Comment createOrUpdateComment(final CommentThread commentThread,
+                                          final Comment existingComment,
                                           final CommentDTO fromComment) {
-        final CommentThread commentThread = commentThreadDao.findByCommentRoundAndId(commentRound, fromComment.getCommentThread().getId());
-        if (commentThread == null) {
-            throw new YtiCommentsException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_COMMENT_DOES_NOT_HAVE_COMMENT_THREAD));
-        }
         validateCommentThread(commentThread, fromComment);
-        final Comment existingComment;
-        if (fromComment.getCommentThread() != null && fromComment.getCommentThread().getId() != null) {
-            existingComment = commentRepository.findByCommentThreadIdAndUserIdAndParentCommentIsNull(fromComment.getCommentThread().getId(), authorizationManager.getUserId());
-        } else {
-            existingComment = null;
-        }
         final Comment comment;
         if (existingComment != null) {
             if (!fromComment.getContent().equals(existingComment.getContent())) {
@@ -184,15 +249,13 @@ public class CommentDaoImpl implements CommentDao {
         } else {
             comment = createComment(commentThread, fromComment);
         }
-        updateTimeStamps(commentRound.getId(), commentThread.getId());
         return comment;
     }
 
     private void updateTimeStamps(final UUID commentRoundId,
                                   final UUID commentThreadId) {
-        final LocalDateTime now = LocalDateTime.now();
-        commentRoundDao.updateContentModified(commentRoundId, now);
-        commentThreadDao.updateCommentsModified(commentThreadId, now);
+        commentRoundDao.updateContentModified(commentRoundId);
+        commentThreadDao.updateCommentsModified(commentThreadId);
     }
 
     private Comment createComment(final CommentThread commentThread,
@@ -218,9 +281,6 @@ public class CommentDaoImpl implements CommentDao {
         final LocalDateTime timeStamp = LocalDateTime.now();
         comment.setCreated(timeStamp);
         comment.setModified(timeStamp);
-        final Integer sequenceId = getNextSequenceId(commentThread.getId());
-        comment.setSequenceId(sequenceId);
-        comment.setUri(apiUtils.createCommentUri(commentThread.getCommentRound().getSequenceId(), commentThread.getSequenceId(), sequenceId));
         return comment;
     }
 
@@ -255,7 +315,10 @@ public class CommentDaoImpl implements CommentDao {
     @Transactional
     public void deleteComment(final Comment comment) {
         Comment theComment = commentRepository.findById(comment.getId());
+        final CommentThread commentThread = theComment.getCommentThread();
         commentRepository.delete(theComment);
+        commentThreadStatsDao.refreshCommentThreadStats(commentThread.getId());
+        updateTimeStamps(commentThread.getCommentRound().getId(), commentThread.getId());
     }
 
     @Transactional
@@ -269,9 +332,25 @@ public class CommentDaoImpl implements CommentDao {
         }
     }
 
-    private Integer getNextSequenceId(final UUID commentRoundId) {
-        final String postfix = commentRoundId.toString().replaceAll("-", "_");
-        final String sequenceName = PREFIX_FOR_COMMENTS_SEQUENCE + postfix;
-        return commentRepository.getNextSequenceId(sequenceName);
+    private void assignSequenceIds(final Set<Comment> comments) {
+        final Map<CommentThread, List<Comment>> newCommentsByCommentThread = comments.stream()
+            .filter(comment -> comment.getSequenceId() == null)
+            .collect(Collectors.groupingBy(Comment::getCommentThread));
+        final Map<String, Integer> countsBySequenceName = new HashMap<>();
+        newCommentsByCommentThread.forEach((commentThread, newComments) -> countsBySequenceName.put(getSequenceName(commentThread.getId()), newComments.size()));
+        final Map<String, Integer> firstSequenceIdsBySequenceName = sequenceCounterDao.allocateSequenceIds(countsBySequenceName);
+        newCommentsByCommentThread.forEach((commentThread, newComments) -> {
+            int sequenceId = firstSequenceIdsBySequenceName.get(getSequenceName(commentThread.getId()));
+            for (final Comment comment : newComments) {
+                comment.setSequenceId(sequenceId);
+                comment.setUri(apiUtils.createCommentUri(commentThread.getCommentRound().getSequenceId(), commentThread.getSequenceId(), sequenceId));
+                sequenceId++;
+            }
+        });
+    }
+
+    private String getSequenceName(final UUID commentThreadId) {
+        final String postfix = commentThreadId.toString().replaceAll("-", "_");
+        return PREFIX_FOR_COMMENTS_SEQUENCE + postfix;
     }
 }
@@ -2,6 +2,8 @@ package fi.vm.yti.comments.api.dao.impl;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -10,8 +12,16 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
-
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,8 +44,11 @@ import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.exception.NotFoundException;
 import fi.vm.yti.comments.api.exception.YtiCommentsException;
 import fi.vm.yti.comments.api.jpa.CommentRoundRepository;
+import fi.vm.yti.comments.api.model.PageCursor;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 import fi.vm.yti.comments.api.security.AuthorizationManager;
 import static fi.vm.yti.comments.api.constants.ApiConstants.*;
+import static fi.vm.yti.comments.api.dao.impl.KeysetQueries.addModifiedPredicates;
 import static fi.vm.yti.comments.api.exception.ErrorConstants.ERR_MSG_NO_RESOURCES_TO_COMMENT_STATUS_CHANGE_NOT_ALLOWED;
 import static fi.vm.yti.comments.api.utils.StringUtils.parseIntegerFromString;
 import static fi.vm.yti.comments.api.utils.StringUtils.parseUuidFromString;
@@ -50,6 +63,8 @@ public class CommentRoundDaoImpl implements CommentRoundDao {
     private final AuthorizationManager authorizationManager;
     private final CommentThreadDao commentThreadDao;
     private final ApiUtils apiUtils;
+    private final EntityManager entityManager;
+    private final ModificationTimeStampCoalescer modificationTimeStampCoalescer;
 
     @Inject
     public CommentRoundDaoImpl(final CommentRoundRepository commentRoundRepository,
@@ -57,13 +72,17 @@ public class CommentRoundDaoImpl implements CommentRoundDao {
                                final OrganizationDao organizationDao,
                                final AuthorizationManager authorizationManager,
                                final CommentThreadDao commentThreadDao,
-                               final ApiUtils apiUtils) {
+                               final ApiUtils apiUtils,
+                               final EntityManager entityManager,
+                               final ModificationTimeStampCoalescer modificationTimeStampCoalescer) {
         this.commentRoundRepository = commentRoundRepository;
         this.sourceDao = sourceDao;
         this.organizationDao = organizationDao;
         this.authorizationManager = authorizationManager;
         this.commentThreadDao = commentThreadDao;
         this.apiUtils = apiUtils;
+        this.entityManager = entityManager;
+        this.modificationTimeStampCoalescer = modificationTimeStampCoalescer;
     }
 
     @Transactional
@@ -87,76 +106,161 @@ public class CommentRoundDaoImpl implements CommentRoundDao {
     }
 
     @Transactional
-    public Set<CommentRound> findByOrganizationsIdAndStatusIn(final UUID organizationId,
-                                                              final Set<String> statuses) {
-        return commentRoundRepository.findByOrganizationsIdAndStatusIn(organizationId, statuses);
-    }
-
-    @Transactional
-    public Set<CommentRound> findByOrganizationsId(final UUID organizationId) {
-        return commentRoundRepository.findByOrganizationsId(organizationId);
-    }
-
-    @Transactional
-    public Set<CommentRound> findByStatusIn(final Set<String> statuses) {
-        return commentRoundRepository.findByStatusIn(statuses);
+    public Page<CommentRound> findByFilters(final UUID organizationId,
+                                            final Set<String> statuses,
+                                            final String containerType,
+                                            final String searchTerm,
+                                            final boolean filterIncomplete,
+                                            final boolean filterContent,
+                                            final PageRequest pageRequest) {
+        final UUID userId = authorizationManager.getUserId();
+        final boolean superUser = authorizationManager.isSuperUser();
+        final Specification<CommentRound> specification = (root, query, cb) -> {
+            final List<Predicate> predicates = new ArrayList<>();
+            if (organizationId != null) {
+                predicates.add(cb.exists(createOrganizationSubquery(root, query.subquery(UUID.class), cb, Collections.singleton(organizationId))));
+            }
+            if (statuses != null && !statuses.isEmpty()) {
+                predicates.add(root.get("status").in(statuses));
+            }
+            if (containerType != null) {
+                predicates.add(cb.equal(root.get("source").get("containerType"), containerType));
+            }
+            if (searchTerm != null && !searchTerm.isEmpty()) {
+                final String escapedSearchTerm = searchTerm.toUpperCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                predicates.add(cb.or(cb.like(cb.upper(root.<String>get("label")), escapedSearchTerm + "%", '\\'),
+                    cb.like(cb.upper(root.<String>get("label")), "%" + escapedSearchTerm, '\\')));
+            }
+            if (filterIncomplete && !superUser) {
+                predicates.add(cb.or(cb.notEqual(root.get("status"), STATUS_INCOMPLETE), cb.equal(root.get("userId"), userId)));
+            }
+            if (filterContent && !superUser) {
+                final List<Predicate> visibilityPredicates = new ArrayList<>();
+                visibilityPredicates.add(cb.equal(root.get("userId"), userId));
+                final String containerUri = authorizationManager.getContainerUri();
+                if (containerUri != null) {
+                    visibilityPredicates.add(cb.equal(cb.lower(root.<String>get("uri")), containerUri.toLowerCase()));
+                }
+                final Set<UUID> userOrganizationIds = authorizationManager.getUserOrganizations();
+                if (userOrganizationIds != null && !userOrganizationIds.isEmpty()) {
+                    visibilityPredicates.add(cb.and(cb.notEqual(root.get("status"), STATUS_INCOMPLETE),
+                        cb.exists(createOrganizationSubquery(root, query.subquery(UUID.class), cb, userOrganizationIds))));
+                }
+                predicates.add(cb.or(visibilityPredicates.toArray(new Predicate[0])));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        return commentRoundRepository.findAll(specification, pageRequest);
     }
 
-    @Transactional
-    public Set<CommentRound> findByStatusAndEndDateBefore(final String status,
-                                                          final LocalDate now) {
-        return commentRoundRepository.findByStatusAndEndDateBefore(status, now);
+    private Subquery<UUID> createOrganizationSubquery(final Root<CommentRound> root,
+                                                      final Subquery<UUID> subquery,
+                                                      final CriteriaBuilder cb,
+                                                      final Set<UUID> organizationIds) {
+        final Root<CommentRound> subqueryRoot = subquery.correlate(root);
+        final Join<CommentRound, Organization> organizations = subqueryRoot.join("organizations");
+        return subquery.select(organizations.<UUID>get("id")).where(organizations.<UUID>get("id").in(organizationIds));
     }
 
+    /**
+     * Moves all rounds in the current status whose end date has passed to the end status with a single statement and
+     * returns the uris of the changed rounds.
+     */
     @Transactional
-    public Set<CommentRound> findByStatusAndStartDateLessThanEqual(final String status,
-                                                                   final LocalDate now) {
-        return commentRoundRepository.findByStatusAndStartDateLessThanEqual(status, now);
+    public List<String> updateStatusByEndDateBefore(final String currentStatus,
+                                                    final String endStatus,
+                                                    final LocalDate date,
+                                                    final LocalDateTime timeStamp) {
+        return toChangedUris(commentRoundRepository.updateStatusByStatusAndEndDateBefore(currentStatus, endStatus, date, timeStamp));
     }
 
+    /**
+     * Moves all rounds in the current status whose start date has been reached to the end status and queues their
+     * invitation emails to the outbox in the same statement. Returns the uris of the changed rounds.
+     */
     @Transactional
-    public Set<CommentRound> findBySourceContainerType(final String containerType) {
-        return commentRoundRepository.findBySourceContainerType(containerType);
+    public List<String> updateStatusByStartDateAndQueueInvitations(final String currentStatus,
+                                                                   final String endStatus,
+                                                                   final LocalDate date,
+                                                                   final LocalDateTime timeStamp) {
+        return toChangedUris(commentRoundRepository.updateStatusByStatusAndStartDateLessThanEqualAndQueueInvitations(currentStatus, endStatus, date, timeStamp));
     }
 
-    @Transactional
-    public Set<CommentRound> findByOrganizationsIdAndSourceContainerTypeAndStatusIn(final UUID organizationId,
-                                                                                    final String containerType,
-                                                                                    final Set<String> statuses) {
-        return commentRoundRepository.findByOrganizationsIdAndSourceContainerTypeAndStatusIn(organizationId, containerType, statuses);
+    private static List<String> toChangedUris(final List<Object[]> changedRows) {
+        final List<String> changedUris = new ArrayList<>(changedRows.size());
+        for (final Object[] row : changedRows) {
+            changedUris.add((String) row[1]);
+        }
+        return changedUris;
     }
 
     @Transactional
-    public Set<CommentRound> findByOrganizationsIdAndSourceContainerType(final UUID organizationId,
-                                                                         final String containerType) {
-        return commentRoundRepository.findByOrganizationsIdAndSourceContainerType(organizationId, containerType);
+    public CommentRound findById(final UUID commentRoundId) {
+        return commentRoundRepository.findById(commentRoundId);
     }
 
     @Transactional
-    public Set<CommentRound> findBySourceContainerTypeAndStatusIn(final String containerType,
-                                                                  final Set<String> statuses) {
-        return commentRoundRepository.findBySourceContainerTypeAndStatusIn(containerType, statuses);
+    public CommentRound findByIdentifier(final String commentRoundIdentifier) {
+        final UUID commentRoundId = parseUuidFromString(commentRoundIdentifier);
+        if (commentRoundId != null) {
+            return findById(commentRoundId);
+        } else {
+            final Integer commentRoundSequenceId = parseIntegerFromString(commentRoundIdentifier);
+            if (commentRoundSequenceId != null) {
+                return findBySequenceId(commentRoundSequenceId);
+            }
+        }
+        return null;
     }
 
     @Transactional
-    public CommentRound findById(final UUID commentRoundId) {
-        return commentRoundRepository.findById(commentRoundId);
+    public CommentRound findDeepByIdentifier(final String commentRoundIdentifier) {
+        final CommentRound commentRound;
+        final UUID commentRoundId = parseUuidFromString(commentRoundIdentifier);
+        if (commentRoundId != null) {
+            commentRound = commentRoundRepository.findDeepById(commentRoundId);
+        } else {
+            final Integer commentRoundSequenceId = parseIntegerFromString(commentRoundIdentifier);
+            commentRound = commentRoundSequenceId != null ? commentRoundRepository.findDeepBySequenceId(commentRoundSequenceId) : null;
+        }
+        if (commentRound != null) {
+            // Preloads threads with labels so that initializing commentThreads does not trigger per thread queries.
+            commentThreadDao.findWithLabelsByCommentRoundId(commentRound.getId());
+        }
+        return commentRound;
     }
 
     @Transactional
-    public CommentRound findByIdentifier(final String commentRoundIdentifier) {
+    public ResourceVersion findVersionByIdentifier(final String commentRoundIdentifier) {
         final UUID commentRoundId = parseUuidFromString(commentRoundIdentifier);
         if (commentRoundId != null) {
-            return findById(commentRoundId);
+            return commentRoundRepository.findVersionById(commentRoundId);
         } else {
             final Integer commentRoundSequenceId = parseIntegerFromString(commentRoundIdentifier);
             if (commentRoundSequenceId != null) {
-                return findBySequenceId(commentRoundSequenceId);
+                return commentRoundRepository.findVersionBySequenceId(commentRoundSequenceId);
             }
         }
         return null;
     }
 
+    /**
+     * Returns the ids and content hashes of the organizations of the round, which change when the organization sync
+     * updates their labels without touching the round itself.
+     */
+    @Transactional
+    public String findOrganizationsVersionById(final UUID commentRoundId) {
+        return commentRoundRepository.findOrganizationsVersionById(commentRoundId);
+    }
+
+    /**
+     * Returns the latest time the organization sync changed an organization of the round.
+     */
+    @Transactional
+    public LocalDateTime findOrganizationsModifiedById(final UUID commentRoundId) {
+        return commentRoundRepository.findOrganizationsModifiedById(commentRoundId);
+    }
+
     @Transactional
     public CommentRound findBySequenceId(final Integer commentRoundSequenceId) {
         return commentRoundRepository.findBySequenceId(commentRoundSequenceId);
@@ -204,40 +308,26 @@ public class CommentRoundDaoImpl implements CommentRoundDao {
     }
 
     @Transactional
-    public Set<CommentRound> findByUriIn(final Set<String> uris,
-                                         final LocalDateTime after,
-                                         final LocalDateTime before,
-                                         final PageRequest pageRequest) {
-        if (after != null && before != null) {
-            return new HashSet<>(commentRoundRepository.findByUriInAndModifiedBetweenOrContentModifiedBetween(uris, after, before, after, before, pageRequest).getContent());
-        } else if (after != null) {
-            return new HashSet<>(commentRoundRepository.findByUriInAndModifiedAfterOrContentModifiedAfter(uris, after, after, pageRequest).getContent());
-        } else if (before != null) {
-            return new HashSet<>(commentRoundRepository.findByUriInAndModifiedBeforeOrContentModifiedBefore(uris, before, before, pageRequest).getContent());
-        } else {
-            return new HashSet<>(commentRoundRepository.findByUriIn(uris, pageRequest).getContent());
-        }
-    }
-
-    @Transactional
-    public Set<CommentRound> findAll(final LocalDateTime after,
-                                     final LocalDateTime before,
-                                     final PageRequest pageRequest) {
-        if (after != null && before != null) {
-            return new HashSet<>(commentRoundRepository.findByModifiedBetweenOrContentModifiedBetween(after, before, after, before, pageRequest).getContent());
-        } else if (after != null) {
-            return new HashSet<>(commentRoundRepository.findByModifiedAfterOrContentModifiedAfter(after, after, pageRequest).getContent());
-        } else if (before != null) {
-            return new HashSet<>(commentRoundRepository.findByModifiedBeforeOrContentModifiedBefore(before, before, pageRequest).getContent());
-        } else {
-            return new HashSet<>(commentRoundRepository.findAll(pageRequest).getContent());
-        }
+    public List<CommentRound> findPage(final Set<String> uris,
+                                       final LocalDateTime after,
+                                       final LocalDateTime before,
+                                       final PageCursor cursor,
+                                       final int offset,
+                                       final int limit) {
+        final Specification<CommentRound> specification = (root, query, cb) -> {
+            final List<Predicate> predicates = new ArrayList<>();
+            if (uris != null && !uris.isEmpty()) {
+                predicates.add(root.get("uri").in(uris));
+            }
+            addModifiedPredicates(predicates, cb, root.get("modified"), root.get("contentModified"), after, before);
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        return KeysetQueries.findPage(entityManager, CommentRound.class, specification, cursor, offset, limit);
     }
 
     @Transactional
-    public void updateContentModified(final UUID commentRoundId,
-                                      final LocalDateTime timeStamp) {
-        commentRoundRepository.updateContentModified(commentRoundId, timeStamp);
+    public void updateContentModified(final UUID commentRoundId) {
+        modificationTimeStampCoalescer.contentModified(commentRoundId);
     }
 
     @Transactional
@@ -1,16 +1,22 @@
 package fi.vm.yti.comments.api.dao.impl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.Predicate;
 
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,13 +25,17 @@ import fi.vm.yti.comments.api.api.ApiUtils;
 import fi.vm.yti.comments.api.constants.ApiConstants;
 import fi.vm.yti.comments.api.dao.CommentRoundDao;
 import fi.vm.yti.comments.api.dao.CommentThreadDao;
+import fi.vm.yti.comments.api.dao.SequenceCounterDao;
 import fi.vm.yti.comments.api.dto.CommentThreadDTO;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
 import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.exception.YtiCommentsException;
 import fi.vm.yti.comments.api.jpa.CommentThreadRepository;
+import fi.vm.yti.comments.api.model.PageCursor;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 import fi.vm.yti.comments.api.security.AuthorizationManager;
+import static fi.vm.yti.comments.api.dao.impl.KeysetQueries.addModifiedPredicates;
 import static fi.vm.yti.comments.api.exception.ErrorConstants.ERR_MSG_USER_CANNOT_MODIFY_EXISTING_COMMENTTHREAD;
 import static fi.vm.yti.comments.api.exception.ErrorConstants.ERR_MSG_USER_COMMENTTHREAD_HAS_INVALID_COMMENTROUND_ID;
 import static fi.vm.yti.comments.api.utils.StringUtils.parseIntegerFromString;
@@ -39,17 +49,26 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
     private final CommentThreadRepository commentThreadRepository;
     private final AuthorizationManager authorizationManager;
     private final CommentRoundDao commentRoundDao;
+    private final SequenceCounterDao sequenceCounterDao;
     private final ApiUtils apiUtils;
+    private final EntityManager entityManager;
+    private final ModificationTimeStampCoalescer modificationTimeStampCoalescer;
 
     @Inject
     public CommentThreadDaoImpl(final CommentThreadRepository commentThreadRepository,
                                 final AuthorizationManager authorizationManager,
                                 @Lazy final CommentRoundDao commentRoundDao,
-                                final ApiUtils apiUtils) {
+                                final SequenceCounterDao sequenceCounterDao,
+                                final ApiUtils apiUtils,
+                                final EntityManager entityManager,
+                                final ModificationTimeStampCoalescer modificationTimeStampCoalescer) {
         this.commentThreadRepository = commentThreadRepository;
         this.authorizationManager = authorizationManager;
         this.commentRoundDao = commentRoundDao;
+        this.sequenceCounterDao = sequenceCounterDao;
         this.apiUtils = apiUtils;
+        this.entityManager = entityManager;
+        this.modificationTimeStampCoalescer = modificationTimeStampCoalescer;
     }
 
     @Transactional
@@ -73,64 +92,35 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
     }
 
     @Transactional
-    public Set<CommentThread> findByCommentRoundUriInAndUriIn(final Set<String> commentRoundUris,
-                                                              final Set<String> uris,
-                                                              final LocalDateTime after,
-                                                              final LocalDateTime before,
-                                                              final PageRequest pageRequest) {
-        if (commentRoundUris != null && !commentRoundUris.isEmpty() && uris != null && !uris.isEmpty()) {
-            if (after != null && before != null) {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndUriInAndCreatedBetweenOrCommentRoundUriInAndUriInAndCommentsModifiedBetween(commentRoundUris, uris, after, before, commentRoundUris, uris, after, before, pageRequest).getContent());
-            } else if (after != null) {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndUriInAndCreatedAfterOrCommentRoundUriInAndUriInAndCommentsModifiedAfter(commentRoundUris, uris, after, commentRoundUris, uris, after, pageRequest).getContent());
-            } else if (before != null) {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndUriInAndCreatedBeforeOrCommentRoundUriInAndUriInAndCommentsModifiedAfter(commentRoundUris, uris, before, commentRoundUris, uris, before, pageRequest).getContent());
-            } else {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndUriIn(commentRoundUris, uris, pageRequest).getContent());
+    public List<CommentThread> findPage(final Set<String> commentRoundUris,
+                                        final Set<String> uris,
+                                        final LocalDateTime after,
+                                        final LocalDateTime before,
+                                        final PageCursor cursor,
+                                        final int offset,
+                                        final int limit) {
+        final Specification<CommentThread> specification = (root, query, cb) -> {
+            final List<Predicate> predicates = new ArrayList<>();
+            if (commentRoundUris != null && !commentRoundUris.isEmpty()) {
+                predicates.add(root.get("commentRound").get("uri").in(commentRoundUris));
             }
-        } else if (commentRoundUris != null && !commentRoundUris.isEmpty()) {
-            if (after != null && before != null) {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndCreatedBetweenOrCommentRoundUriInAndCommentsModifiedBetween(commentRoundUris, after, before, commentRoundUris, after, before, pageRequest).getContent());
-            } else if (after != null) {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndCreatedAfterOrCommentRoundUriInAndCommentsModifiedAfter(commentRoundUris, after, commentRoundUris, after, pageRequest).getContent());
-            } else if (before != null) {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndCreatedBeforeOrCommentRoundUriInAndCommentsModifiedBefore(commentRoundUris, before, commentRoundUris, before, pageRequest).getContent());
-            } else {
-                return new HashSet<>(commentThreadRepository.findByCommentRoundUriIn(commentRoundUris, pageRequest).getContent());
+            if (uris != null && !uris.isEmpty()) {
+                predicates.add(root.get("uri").in(uris));
             }
-        } else if (uris != null && !uris.isEmpty()) {
-            if (after != null && before != null) {
-                return new HashSet<>(commentThreadRepository.findByUriInAndCreatedBetweenOrUriInAndCommentsModifiedBetween(uris, after, before, uris, after, before, pageRequest).getContent());
-            } else if (after != null) {
-                return new HashSet<>(commentThreadRepository.findByUriInAndCreatedAfterOrUriInAndCommentsModifiedAfter(uris, after, uris, after, pageRequest).getContent());
-            } else if (before != null) {
-                return new HashSet<>(commentThreadRepository.findByUriInAndCreatedBeforeOrUriInAndCommentsModifiedBefore(uris, before, uris, before, pageRequest).getContent());
-            } else {
-                return new HashSet<>(commentThreadRepository.findByUriIn(uris, pageRequest).getContent());
-            }
-        }
-        return new HashSet<>(commentThreadRepository.findAll(pageRequest).getContent());
+            addModifiedPredicates(predicates, cb, root.get("created"), root.get("commentsModified"), after, before);
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        return KeysetQueries.findPage(entityManager, CommentThread.class, specification, cursor, offset, limit);
     }
 
     @Transactional
-    public Set<CommentThread> findByCommentRoundUriIn(final Set<String> commentRoundUris,
-                                                      final LocalDateTime after,
-                                                      final LocalDateTime before,
-                                                      final PageRequest pageRequest) {
-        if (after != null && before != null) {
-            return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndCreatedBetweenOrCommentRoundUriInAndCommentsModifiedBetween(commentRoundUris, after, before, commentRoundUris, after, before, pageRequest).getContent());
-        } else if (after != null) {
-            return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndCreatedAfterOrCommentRoundUriInAndCommentsModifiedAfter(commentRoundUris, after, commentRoundUris, after, pageRequest).getContent());
-        } else if (before != null) {
-            return new HashSet<>(commentThreadRepository.findByCommentRoundUriInAndCreatedBeforeOrCommentRoundUriInAndCommentsModifiedBefore(commentRoundUris, before, commentRoundUris, before, pageRequest).getContent());
-        } else {
-            return new HashSet<>(commentThreadRepository.findByCommentRoundUriIn(commentRoundUris, pageRequest).getContent());
-        }
+    public CommentThread findById(final UUID commentThreadId) {
+        return commentThreadRepository.findById(commentThreadId);
     }
 
     @Transactional
-    public CommentThread findById(final UUID commentThreadId) {
-        return commentThreadRepository.findById(commentThreadId);
+    public CommentThread findDeepById(final UUID commentThreadId) {
+        return commentThreadRepository.findDeepById(commentThreadId);
     }
 
     @Transactional
@@ -148,6 +138,26 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
         return null;
     }
 
+    @Transactional
+    public ResourceVersion findVersionById(final UUID commentThreadId) {
+        return commentThreadRepository.findVersionById(commentThreadId);
+    }
+
+    @Transactional
+    public ResourceVersion findVersionByCommentRoundIdAndCommentThreadIdentifier(final UUID commentRoundId,
+                                                                                 final String commentThreadIdentifier) {
+        final UUID commentThreadId = parseUuidFromString(commentThreadIdentifier);
+        if (commentThreadId != null) {
+            return findVersionById(commentThreadId);
+        } else {
+            final Integer commentThreadSequenceId = parseIntegerFromString(commentThreadIdentifier);
+            if (commentThreadSequenceId != null) {
+                return commentThreadRepository.findVersionByCommentRoundIdAndSequenceId(commentRoundId, commentThreadSequenceId);
+            }
+        }
+        return null;
+    }
+
     @Transactional
     public CommentThread findByCommentRoundIdAndSequenceId(final UUID commentRoundId,
                                                            final Integer commentThreadSequenceId) {
@@ -166,40 +176,29 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
     }
 
     @Transactional
-    public Set<CommentThread> findByUriIn(final Set<String> uris,
-                                          final LocalDateTime after,
-                                          final LocalDateTime before,
-                                          final PageRequest pageRequest) {
-        if (after != null && before != null) {
-            return new HashSet<>(commentThreadRepository.findByUriInAndCreatedBetweenOrUriInAndCommentsModifiedBetween(uris, after, before, uris, after, before, pageRequest).getContent());
-        } else if (after != null) {
-            return new HashSet<>(commentThreadRepository.findByUriInAndCreatedAfterOrUriInAndCommentsModifiedAfter(uris, after, uris, after, pageRequest).getContent());
-        } else if (before != null) {
-            return new HashSet<>(commentThreadRepository.findByUriInAndCreatedBeforeOrUriInAndCommentsModifiedBefore(uris, before, uris, before, pageRequest).getContent());
-        } else {
-            return new HashSet<>(commentThreadRepository.findByUriIn(uris, pageRequest).getContent());
+    public Set<CommentThread> findByCommentRoundIdAndIds(final UUID commentRoundId,
+                                                         final Set<UUID> commentThreadIds) {
+        if (commentThreadIds == null || commentThreadIds.isEmpty()) {
+            return new HashSet<>();
         }
+        return commentThreadRepository.findByCommentRoundIdAndIdIn(commentRoundId, commentThreadIds);
     }
 
     @Transactional
-    public Set<CommentThread> findAll(final LocalDateTime after,
-                                      final LocalDateTime before,
-                                      final PageRequest pageRequest) {
-        if (after != null && before != null) {
-            return new HashSet<>(commentThreadRepository.findByCreatedBetweenOrCommentsModifiedBetween(after, before, after, before, pageRequest).getContent());
-        } else if (after != null) {
-            return new HashSet<>(commentThreadRepository.findByCreatedAfterOrCommentsModifiedAfter(after, after, pageRequest).getContent());
-        } else if (before != null) {
-            return new HashSet<>(commentThreadRepository.findByCreatedBeforeOrCommentsModifiedBefore(before, before, pageRequest).getContent());
-        } else {
-            return new HashSet<>(commentThreadRepository.findAll(pageRequest).getContent());
-        }
+    public Set<CommentThread> findDeepByCommentRoundId(final UUID commentRoundId) {
+        return commentThreadRepository.findDeepByCommentRoundId(commentRoundId);
+    }
+
+    @Transactional
+    public Set<CommentThread> findWithLabelsByCommentRoundId(final UUID commentRoundId) {
+        return commentThreadRepository.findWithLabelsByCommentRoundId(commentRoundId);
     }
 
     @Transactional
     public CommentThread addOrUpdateCommentThreadFromDto(final CommentRound commentRound,
                                                          final CommentThreadDTO fromCommentThread) {
         final CommentThread commentThread = createOrUpdateCommentThread(commentRound, fromCommentThread);
+        assignSequenceIds(commentRound, Collections.singleton(commentThread));
         commentThreadRepository.save(commentThread);
         return commentThread;
     }
@@ -218,6 +217,7 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
         if (fromCommentThreads != null) {
             fromCommentThreads.forEach(fromCommentThread -> commentThreads.add(createOrUpdateCommentThread(commentRound, fromCommentThread)));
         }
+        assignSequenceIds(commentRound, commentThreads);
         if (removeOrphans && ApiConstants.STATUS_INCOMPLETE.equalsIgnoreCase(commentRound.getStatus())) {
             final Set<CommentThread> existingCommentThreads = commentRound.getCommentThreads();
             if (existingCommentThreads != null) {
@@ -291,7 +291,7 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
         } else {
             commentThread = createCommentThread(commentRound, fromCommentThread);
         }
-        commentRoundDao.updateContentModified(commentRound.getId(), LocalDateTime.now());
+        commentRoundDao.updateContentModified(commentRound.getId());
         return commentThread;
 
     }
@@ -308,9 +308,6 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
         commentThread.setCurrentStatus(fromCommentThread.getCurrentStatus());
         commentThread.setProposedStatus(fromCommentThread.getProposedStatus());
         commentThread.setProposedText(fromCommentThread.getProposedText());
-        final Integer sequenceId = getNextSequenceId(commentRound.getId());
-        commentThread.setSequenceId(sequenceId);
-        commentThread.setUri(apiUtils.createCommentThreadUri(commentRound.getSequenceId(), sequenceId));
         final LocalDateTime timeStamp = LocalDateTime.now();
         commentThread.setCreated(timeStamp);
         commentThread.setCommentRound(commentRound);
@@ -319,18 +316,41 @@ public class CommentThreadDaoImpl implements CommentThreadDao {
 
     @Transactional
     public void deleteCommentThread(final CommentThread commentThread) {
+        final CommentRound commentRound = commentThread.getCommentRound();
         commentThreadRepository.delete(commentThread);
+        if (commentRound != null) {
+            commentRoundDao.updateContentModified(commentRound.getId());
+        }
     }
 
     @Transactional
-    public void updateCommentsModified(final UUID commentThreadId,
-                                       final LocalDateTime timeStamp) {
-        commentThreadRepository.updateCommentsModified(commentThreadId, timeStamp);
+    public void updateCommentsModified(final UUID commentThreadId) {
+        modificationTimeStampCoalescer.commentsModified(Collections.singleton(commentThreadId));
+    }
+
+    @Transactional
+    public void updateCommentsModified(final Set<UUID> commentThreadIds) {
+        if (commentThreadIds != null && !commentThreadIds.isEmpty()) {
+            modificationTimeStampCoalescer.commentsModified(commentThreadIds);
+        }
+    }
+
+    private void assignSequenceIds(final CommentRound commentRound,
+                                   final Set<CommentThread> commentThreads) {
+        final List<CommentThread> newCommentThreads = commentThreads.stream().filter(commentThread -> commentThread.getSequenceId() == null).collect(Collectors.toList());
+        if (newCommentThreads.isEmpty()) {
+            return;
+        }
+        int sequenceId = sequenceCounterDao.allocateSequenceIds(getSequenceName(commentRound.getId()), newCommentThreads.size());
+        for (final CommentThread commentThread : newCommentThreads) {
+            commentThread.setSequenceId(sequenceId);
+            commentThread.setUri(apiUtils.createCommentThreadUri(commentRound.getSequenceId(), sequenceId));
+            sequenceId++;
+        }
     }
 
-    private Integer getNextSequenceId(final UUID commentRoundId) {
+    private String getSequenceName(final UUID commentRoundId) {
         final String postfix = commentRoundId.toString().replaceAll("-", "_");
-        final String sequenceName = PREFIX_FOR_COMMENTTHREADS_SEQUENCE + postfix;
-        return commentThreadRepository.getNextSequenceId(sequenceName);
+        return PREFIX_FOR_COMMENTTHREADS_SEQUENCE + postfix;
     }
 }
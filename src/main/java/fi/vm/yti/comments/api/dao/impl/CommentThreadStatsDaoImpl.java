@@ -0,0 +1,63 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.dao.CommentThreadStatsDao;
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
+import fi.vm.yti.comments.api.jpa.CommentThreadStatsRepository;
+
+@Component
+public class CommentThreadStatsDaoImpl implements CommentThreadStatsDao {
+
+    private final CommentThreadStatsRepository commentThreadStatsRepository;
+
+    @Inject
+    public CommentThreadStatsDaoImpl(final CommentThreadStatsRepository commentThreadStatsRepository) {
+        this.commentThreadStatsRepository = commentThreadStatsRepository;
+    }
+
+    @Transactional
+    public CommentThreadStats findByCommentThreadId(final UUID commentThreadId) {
+        return commentThreadStatsRepository.findByCommentThreadId(commentThreadId);
+    }
+
+    @Transactional
+    public Map<UUID, CommentThreadStats> findByCommentThreadIds(final Set<UUID> commentThreadIds) {
+        final Map<UUID, CommentThreadStats> commentThreadStats = new HashMap<>();
+        if (commentThreadIds != null && !commentThreadIds.isEmpty()) {
+            commentThreadStatsRepository.findByCommentThreadIdIn(commentThreadIds).forEach(stats -> commentThreadStats.put(stats.getCommentThreadId(), stats));
+        }
+        return commentThreadStats;
+    }
+
+    @Transactional
+    public void refreshCommentThreadStats(final UUID commentThreadId) {
+        refreshCommentThreadStats(Collections.singleton(commentThreadId));
+    }
+
+    /**
+     * Recounts the statistics of the given threads. The statistics rows are locked before counting, so a concurrent
+     * writer of the same thread waits for this transaction to commit and then counts with a fresh snapshot that
+     * includes its comments, instead of overwriting the counts with values computed before the commit.
+     */
+    @Transactional
+    public void refreshCommentThreadStats(final Set<UUID> commentThreadIds) {
+        if (commentThreadIds == null || commentThreadIds.isEmpty()) {
+            return;
+        }
+        commentThreadStatsRepository.insertMissingStatsIn(commentThreadIds);
+        commentThreadStatsRepository.lockStatsIn(commentThreadIds);
+        commentThreadStatsRepository.refreshCommentCountsIn(commentThreadIds);
+        commentThreadStatsRepository.deleteStatusCountsIn(commentThreadIds);
+        commentThreadStatsRepository.insertStatusCountsIn(commentThreadIds);
+    }
+}
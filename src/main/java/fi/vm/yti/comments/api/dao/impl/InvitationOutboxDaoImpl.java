@@ -0,0 +1,47 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.dao.InvitationOutboxDao;
+import fi.vm.yti.comments.api.entity.InvitationOutboxEntry;
+import fi.vm.yti.comments.api.jpa.InvitationOutboxRepository;
+
+@Component
+public class InvitationOutboxDaoImpl implements InvitationOutboxDao {
+
+    private final InvitationOutboxRepository invitationOutboxRepository;
+
+    @Inject
+    public InvitationOutboxDaoImpl(final InvitationOutboxRepository invitationOutboxRepository) {
+        this.invitationOutboxRepository = invitationOutboxRepository;
+    }
+
+    /**
+     * Claims the invitations that are due for sending in a short transaction. Rows locked by another instance are
+     * skipped, and the claimed rows count the attempt and are pushed out of the pending window until claimedUntil, so
+     * other nodes do not pick them up while they are being sent outside the transaction.
+     */
+    @Transactional
+    public List<InvitationOutboxEntry> claimPending(final LocalDateTime now,
+                                                    final LocalDateTime claimedUntil,
+                                                    final int maxAttempts,
+                                                    final int limit) {
+        final List<InvitationOutboxEntry> entries = invitationOutboxRepository.findPendingForUpdate(now, maxAttempts, limit);
+        entries.forEach(entry -> {
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setNextAttempt(claimedUntil);
+        });
+        return entries;
+    }
+
+    @Transactional
+    public void saveAttempts(final List<InvitationOutboxEntry> entries) {
+        entries.forEach(entry -> invitationOutboxRepository.updateAttempt(entry.getCommentRoundId(), entry.getAttempts(), entry.getNextAttempt(), entry.getLastError(), entry.getSent()));
+    }
+}
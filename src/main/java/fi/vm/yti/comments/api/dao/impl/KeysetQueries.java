@@ -0,0 +1,68 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import fi.vm.yti.comments.api.model.PageCursor;
+
+/**
+ * Keyset paging over entities ordered by (sequenceId, id), fetching pages without an OFFSET scan or a COUNT query.
+ */
+final class KeysetQueries {
+
+    private static final String FIELD_SEQUENCE_ID = "sequenceId";
+    private static final String FIELD_ID = "id";
+
+    private KeysetQueries() {
+    }
+
+    static <T> List<T> findPage(final EntityManager entityManager,
+                                final Class<T> entityClass,
+                                final Specification<T> specification,
+                                final PageCursor cursor,
+                                final int offset,
+                                final int limit) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<T> query = cb.createQuery(entityClass);
+        final Root<T> root = query.from(entityClass);
+        final Path<Integer> sequenceId = root.get(FIELD_SEQUENCE_ID);
+        final Path<UUID> id = root.get(FIELD_ID);
+        final List<Predicate> predicates = new ArrayList<>();
+        final Predicate filter = specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (cursor != null) {
+            predicates.add(cb.or(cb.greaterThan(sequenceId, cursor.getSequenceId()),
+                cb.and(cb.equal(sequenceId, cursor.getSequenceId()), cb.greaterThan(id, cursor.getId()))));
+        }
+        query.select(root).where(predicates.toArray(new Predicate[0])).orderBy(cb.asc(sequenceId), cb.asc(id));
+        return entityManager.createQuery(query).setFirstResult(offset).setMaxResults(limit).getResultList();
+    }
+
+    static void addModifiedPredicates(final List<Predicate> predicates,
+                                      final CriteriaBuilder cb,
+                                      final Path<LocalDateTime> modified,
+                                      final Path<LocalDateTime> contentModified,
+                                      final LocalDateTime after,
+                                      final LocalDateTime before) {
+        if (after != null && before != null) {
+            predicates.add(cb.or(cb.between(modified, after, before), cb.between(contentModified, after, before)));
+        } else if (after != null) {
+            predicates.add(cb.or(cb.greaterThan(modified, after), cb.greaterThan(contentModified, after)));
+        } else if (before != null) {
+            predicates.add(cb.or(cb.lessThan(modified, before), cb.lessThan(contentModified, before)));
+        }
+    }
+}
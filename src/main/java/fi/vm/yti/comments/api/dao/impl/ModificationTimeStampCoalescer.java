@@ -0,0 +1,106 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import fi.vm.yti.comments.api.jpa.CommentRoundRepository;
+import fi.vm.yti.comments.api.jpa.CommentThreadRepository;
+
+/**
+ * Collects the comment rounds whose contentModified and the comment threads whose commentsModified timestamps changed
+ * during a transaction and stamps each row once, right before the transaction commits. The timestamps are taken from the
+ * database clock when the update statement gets the row locks, which the statements take in id order, so a transaction
+ * that commits later never leaves an earlier timestamp behind and overlapping transactions do not deadlock on the
+ * parent rows. Outside of a transaction the timestamps are written immediately.
+ */
+@Component
+public class ModificationTimeStampCoalescer {
+
+    private final CommentRoundRepository commentRoundRepository;
+    private final CommentThreadRepository commentThreadRepository;
+
+    @Inject
+    public ModificationTimeStampCoalescer(final CommentRoundRepository commentRoundRepository,
+                                          final CommentThreadRepository commentThreadRepository) {
+        this.commentRoundRepository = commentRoundRepository;
+        this.commentThreadRepository = commentThreadRepository;
+    }
+
+    public void contentModified(final UUID commentRoundId) {
+        final PendingTimeStamps pendingTimeStamps = getPendingTimeStamps();
+        if (pendingTimeStamps != null) {
+            pendingTimeStamps.contentModified.add(commentRoundId);
+        } else {
+            commentRoundRepository.updateContentModifiedIn(Collections.singleton(commentRoundId));
+        }
+    }
+
+    public void commentsModified(final Set<UUID> commentThreadIds) {
+        final PendingTimeStamps pendingTimeStamps = getPendingTimeStamps();
+        if (pendingTimeStamps != null) {
+            pendingTimeStamps.commentsModified.addAll(commentThreadIds);
+        } else if (!commentThreadIds.isEmpty()) {
+            commentThreadRepository.updateCommentsModifiedIn(commentThreadIds);
+        }
+    }
+
+    private PendingTimeStamps getPendingTimeStamps() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingTimeStamps pendingTimeStamps = (PendingTimeStamps) TransactionSynchronizationManager.getResource(this);
+        if (pendingTimeStamps == null) {
+            pendingTimeStamps = new PendingTimeStamps();
+            TransactionSynchronizationManager.bindResource(this, pendingTimeStamps);
+            TransactionSynchronizationManager.registerSynchronization(new TimeStampSynchronization(pendingTimeStamps));
+        }
+        return pendingTimeStamps;
+    }
+
+    /**
+     * Rounds are always stamped before threads, so all transactions lock the two tables in the same order.
+     */
+    private void flush(final PendingTimeStamps pendingTimeStamps) {
+        if (!pendingTimeStamps.contentModified.isEmpty()) {
+            commentRoundRepository.updateContentModifiedIn(pendingTimeStamps.contentModified);
+        }
+        if (!pendingTimeStamps.commentsModified.isEmpty()) {
+            commentThreadRepository.updateCommentsModifiedIn(pendingTimeStamps.commentsModified);
+        }
+        pendingTimeStamps.contentModified.clear();
+        pendingTimeStamps.commentsModified.clear();
+    }
+
+    private static class PendingTimeStamps {
+
+        private final Set<UUID> contentModified = new TreeSet<>();
+        private final Set<UUID> commentsModified = new TreeSet<>();
+    }
+
+    private class TimeStampSynchronization implements TransactionSynchronization {
+
+        private final PendingTimeStamps pendingTimeStamps;
+
+        private TimeStampSynchronization(final PendingTimeStamps pendingTimeStamps) {
+            this.pendingTimeStamps = pendingTimeStamps;
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            flush(pendingTimeStamps);
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ModificationTimeStampCoalescer.this);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.dao.ScheduledJobDao;
+import fi.vm.yti.comments.api.entity.ScheduledJob;
+import fi.vm.yti.comments.api.jpa.ScheduledJobRepository;
+
+@Component
+public class ScheduledJobDaoImpl implements ScheduledJobDao {
+
+    private final ScheduledJobRepository scheduledJobRepository;
+
+    @Inject
+    public ScheduledJobDaoImpl(final ScheduledJobRepository scheduledJobRepository) {
+        this.scheduledJobRepository = scheduledJobRepository;
+    }
+
+    @Transactional
+    public Set<ScheduledJob> findAll() {
+        return scheduledJobRepository.findAll();
+    }
+
+    /**
+     * Takes the lease of the job for the given duration unless another node holds an unexpired lease. The lease is
+     * committed in its own transaction and compared against the database clock, so clock skew between nodes does not matter.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean acquireLease(final String jobName,
+                                final String owner,
+                                final Duration leaseDuration) {
+        return !scheduledJobRepository.acquireLease(jobName, owner, leaseDuration.getSeconds()).isEmpty();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateLastRun(final String jobName,
+                              final String node,
+                              final LocalDateTime started,
+                              final LocalDateTime finished,
+                              final String status,
+                              final String error) {
+        scheduledJobRepository.updateLastRun(jobName, node, started, finished, status, error);
+    }
+}
@@ -0,0 +1,78 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.dao.SequenceCounterDao;
+import fi.vm.yti.comments.api.jpa.SequenceCounterRepository;
+
+@Component
+public class SequenceCounterDaoImpl implements SequenceCounterDao {
+
+    private final SequenceCounterRepository sequenceCounterRepository;
+    private final EntityManager entityManager;
+
+    @Inject
+    public SequenceCounterDaoImpl(final SequenceCounterRepository sequenceCounterRepository,
+                                  final EntityManager entityManager) {
+        this.sequenceCounterRepository = sequenceCounterRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Reserves a block of consecutive sequence ids and returns the first one of the block.
+     */
+    @Transactional
+    public Integer allocateSequenceIds(final String sequenceName,
+                                       final int count) {
+        return sequenceCounterRepository.allocateSequenceIds(sequenceName, count);
+    }
+
+    /**
+     * Reserves blocks of consecutive sequence ids for several sequences in a single statement and returns the first id
+     * of each block by sequence name. Rows are written in name order so that concurrent allocations lock them consistently.
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Map<String, Integer> allocateSequenceIds(final Map<String, Integer> countsBySequenceName) {
+        final Map<String, Integer> firstIdsBySequenceName = new HashMap<>();
+        if (countsBySequenceName == null || countsBySequenceName.isEmpty()) {
+            return firstIdsBySequenceName;
+        }
+        if (countsBySequenceName.size() == 1) {
+            countsBySequenceName.forEach((sequenceName, count) -> firstIdsBySequenceName.put(sequenceName, allocateSequenceIds(sequenceName, count)));
+            return firstIdsBySequenceName;
+        }
+        final Map<String, Integer> sortedCounts = new TreeMap<>(countsBySequenceName);
+        final StringBuilder values = new StringBuilder();
+        int index = 0;
+        for (int i = 0; i < sortedCounts.size(); i++) {
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append("(?").append(++index).append(", 1 + ?").append(++index).append(")");
+        }
+        final Query query = entityManager.createNativeQuery("INSERT INTO sequence_counter AS sc (name, next_value) VALUES " + values +
+            " ON CONFLICT (name) DO UPDATE SET next_value = sc.next_value + EXCLUDED.next_value - 1 RETURNING sc.name, sc.next_value");
+        index = 0;
+        for (final Map.Entry<String, Integer> entry : sortedCounts.entrySet()) {
+            query.setParameter(++index, entry.getKey());
+            query.setParameter(++index, entry.getValue());
+        }
+        for (final Object[] row : (List<Object[]>) query.getResultList()) {
+            final String sequenceName = (String) row[0];
+            final int nextValue = ((Number) row[1]).intValue();
+            firstIdsBySequenceName.put(sequenceName, nextValue - sortedCounts.get(sequenceName));
+        }
+        return firstIdsBySequenceName;
+    }
+}
@@ -6,6 +6,8 @@ public class AbstractBaseIntegrationRequestDTO {
 
     private Integer pageFrom;
     private Integer pageSize;
+    private String cursor;
+    private boolean includeTotalResults = true;
     private List<String> status;
     private String after;
     private String before;
@@ -30,6 +32,22 @@ public class AbstractBaseIntegrationRequestDTO {
         this.pageSize = pageSize;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(final String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean getIncludeTotalResults() {
+        return includeTotalResults;
+    }
+
+    public void setIncludeTotalResults(final boolean includeTotalResults) {
+        this.includeTotalResults = includeTotalResults;
+    }
+
     public List<String> getStatus() {
         return status;
     }
@@ -1,10 +1,14 @@
 package fi.vm.yti.comments.api.dto;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -15,6 +19,7 @@ import fi.vm.yti.comments.api.api.UrlGenerator;
 import fi.vm.yti.comments.api.entity.Comment;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
 import fi.vm.yti.comments.api.entity.Organization;
 import fi.vm.yti.comments.api.entity.Source;
 import fi.vm.yti.comments.api.service.ResultService;
@@ -182,8 +187,10 @@ public class DtoMapperService {
                                                    final boolean deep) {
         final Set<CommentThreadDTO> commentThreadDtos = new HashSet<>();
         if (commentThreads != null && !commentThreads.isEmpty()) {
+            final Set<UUID> commentThreadIds = commentThreads.stream().map(CommentThread::getId).collect(Collectors.toSet());
+            final Map<UUID, CommentThreadStats> commentThreadStats = resultService.getCommentThreadStats(commentThreadIds);
             for (final CommentThread commentThread : commentThreads) {
-                commentThreadDtos.add(mapCommentThread(commentThread, deep));
+                commentThreadDtos.add(mapCommentThread(commentThread, deep, commentThreadStats.get(commentThread.getId())));
             }
         }
         return commentThreadDtos;
@@ -205,6 +212,13 @@ public class DtoMapperService {
         if (commentThread == null) {
             return null;
         }
+        final UUID commentThreadId = commentThread.getId();
+        return mapCommentThread(commentThread, deep, resultService.getCommentThreadStats(Collections.singleton(commentThreadId)).get(commentThreadId));
+    }
+
+    private CommentThreadDTO mapCommentThread(final CommentThread commentThread,
+                                              final boolean deep,
+                                              final CommentThreadStats commentThreadStats) {
         final CommentThreadDTO commentThreadDto = new CommentThreadDTO();
         final UUID id = commentThread.getId();
         commentThreadDto.setId(id);
@@ -218,12 +232,10 @@ public class DtoMapperService {
         commentThreadDto.setDescription(copyStringMap(commentThread.getDescription()));
         commentThreadDto.setLocalName(commentThread.getLocalName());
         commentThreadDto.setUser(userService.getUserById(commentThread.getUserId()));
-        commentThreadDto.setResults(resultService.getResultsForCommentThread(commentThread.getId()));
+        commentThreadDto.setResults(resultService.getResultsForCommentThreadStats(commentThreadStats));
         commentThreadDto.setUri(commentThread.getUri());
         commentThreadDto.setSequenceId(commentThread.getSequenceId());
-        if (commentThread.getComments() != null) {
-            commentThreadDto.setCommentCount(commentThread.getComments().size());
-        }
+        commentThreadDto.setCommentCount(commentThreadStats != null ? commentThreadStats.getCommentCount() : 0);
         if (deep) {
             commentThreadDto.setCommentRound(mapCommentRound(commentThread.getCommentRound(), false, true, true, true));
             commentThreadDto.setComments(mapComments(commentThread.getComments(), false));
@@ -267,6 +279,7 @@ public class DtoMapperService {
         organizationDto.setPrefLabel(copyStringMap(organization.getPrefLabel()));
         if (deep && organization.getCommentRounds() != null) {
             organizationDto.setCommentRounds(mapCommentRounds(organization.getCommentRounds(), false));
+            organizationDto.setCommentRoundCount(organization.getCommentRounds().size());
         }
         return organizationDto;
     }
@@ -282,8 +295,8 @@ public class DtoMapperService {
     }
 
     @Transactional
-    public Set<ResourceDTO> mapCommentRoundsToResources(final Set<CommentRound> commentRounds) {
-        final Set<ResourceDTO> resourceDtos = new HashSet<>();
+    public List<ResourceDTO> mapCommentRoundsToResources(final List<CommentRound> commentRounds) {
+        final List<ResourceDTO> resourceDtos = new ArrayList<>();
         commentRounds.forEach(resource -> resourceDtos.add(mapCommentRoundToResource(resource)));
         return resourceDtos;
     }
@@ -305,8 +318,8 @@ public class DtoMapperService {
     }
 
     @Transactional
-    public Set<ResourceDTO> mapCommentThreadsToResources(final Set<CommentThread> commentThreads) {
-        final Set<ResourceDTO> resourceDtos = new HashSet<>();
+    public List<ResourceDTO> mapCommentThreadsToResources(final List<CommentThread> commentThreads) {
+        final List<ResourceDTO> resourceDtos = new ArrayList<>();
         commentThreads.forEach(resource -> resourceDtos.add(mapCommentThreadToResource(resource)));
         return resourceDtos;
     }
@@ -13,7 +13,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import static fi.vm.yti.comments.api.constants.ApiConstants.LANGUAGE_CODE_EN;
 
 @JsonFilter("organization")
-@XmlType(propOrder = { "id", "url", "prefLabel", "description", "removed", "commentRounds" })
+@XmlType(propOrder = { "id", "url", "prefLabel", "description", "removed", "commentRoundCount", "commentRounds" })
 @Schema(name = "Organization", description = "Organization DTO that represents data for one single Organization.")
 public class OrganizationDTO extends AbstractIdentifyableDTO implements Serializable {
 
@@ -24,6 +24,7 @@ public class OrganizationDTO extends AbstractIdentifyableDTO implements Serializ
     private Map<String, String> prefLabel;
     private Map<String, String> description;
     private Set<CommentRoundDTO> commentRounds;
+    private Integer commentRoundCount;
 
     public String getUrl() {
         return url;
@@ -109,4 +110,12 @@ public class OrganizationDTO extends AbstractIdentifyableDTO implements Serializ
     public void setCommentRounds(final Set<CommentRoundDTO> commentRounds) {
         this.commentRounds = commentRounds;
     }
+
+    public Integer getCommentRoundCount() {
+        return commentRoundCount;
+    }
+
+    public void setCommentRoundCount(final Integer commentRoundCount) {
+        this.commentRoundCount = commentRoundCount;
+    }
 }
@@ -5,11 +5,21 @@ import java.util.UUID;
 import javax.persistence.Column;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
 
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Base class for entities with an identifier assigned in the application. The entity tracks whether it has been
+ * loaded or persisted, so that saving a new instance issues a plain INSERT instead of a merge that selects the row first.
+ */
 @MappedSuperclass
-public class AbstractIdentifyableEntity {
+public class AbstractIdentifyableEntity implements Persistable<UUID> {
 
     private UUID id;
+    private boolean persisted;
 
     @Id
     @Column(name = "id", unique = true)
@@ -20,4 +30,15 @@ public class AbstractIdentifyableEntity {
     public void setId(final UUID id) {
         this.id = id;
     }
+
+    @Transient
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -8,12 +8,17 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.xml.bind.annotation.XmlRootElement;
 
 @Entity
 @Table(name = "comment")
+@NamedEntityGraph(name = "Comment.deep", attributeNodes = {
+    @NamedAttributeNode("parentComment"),
+    @NamedAttributeNode("commentThread") })
 @XmlRootElement
 public class Comment extends AbstractIdentifyableEntity implements Serializable {
 
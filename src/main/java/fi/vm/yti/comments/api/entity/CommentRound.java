@@ -18,6 +18,8 @@ import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderColumn;
 import javax.persistence.Table;
@@ -25,6 +27,10 @@ import javax.xml.bind.annotation.XmlRootElement;
 
 @Entity
 @Table(name = "commentround")
+@NamedEntityGraph(name = "CommentRound.deep", attributeNodes = {
+    @NamedAttributeNode("source"),
+    @NamedAttributeNode("organizations"),
+    @NamedAttributeNode("sourceLabel") })
 @XmlRootElement
 public class CommentRound extends AbstractTimeStampedIdentifyableEntity implements Serializable {
 
@@ -15,17 +15,32 @@ import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.hibernate.annotations.BatchSize;
+
 @Entity
 @Table(name = "commentthread")
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = "CommentThread.labels", attributeNodes = {
+        @NamedAttributeNode("label"),
+        @NamedAttributeNode("description") }),
+    @NamedEntityGraph(name = "CommentThread.deep", attributeNodes = {
+        @NamedAttributeNode("commentRound"),
+        @NamedAttributeNode(value = "comments", subgraph = "comments") },
+        subgraphs = @NamedSubgraph(name = "comments", attributeNodes = @NamedAttributeNode("parentComment"))) })
 @XmlRootElement
 public class CommentThread extends AbstractIdentifyableEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
+    private static final int LABEL_BATCH_SIZE = 100;
 
     private String resourceUri;
     private Map<String, String> label;
@@ -52,6 +67,7 @@ public class CommentThread extends AbstractIdentifyableEntity implements Seriali
     }
 
     @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
+    @BatchSize(size = LABEL_BATCH_SIZE)
     @CollectionTable(name = "commentthread_label", joinColumns = @JoinColumn(name = "commentthread_id", referencedColumnName = "id"))
     @MapKeyColumn(name = "language")
     @Column(name = "label")
@@ -65,6 +81,7 @@ public class CommentThread extends AbstractIdentifyableEntity implements Seriali
     }
 
     @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
+    @BatchSize(size = LABEL_BATCH_SIZE)
     @CollectionTable(name = "commentthread_description", joinColumns = @JoinColumn(name = "commentthread_id", referencedColumnName = "id"))
     @MapKeyColumn(name = "language")
     @Column(name = "description")
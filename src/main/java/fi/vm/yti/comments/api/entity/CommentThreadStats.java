@@ -0,0 +1,80 @@
+package fi.vm.yti.comments.api.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.MapKeyColumn;
+import javax.persistence.Table;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@Entity
+@Table(name = "commentthread_stats")
+@XmlRootElement
+public class CommentThreadStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID commentThreadId;
+    private Integer mainCommentCount;
+    private Integer commentCount;
+    private LocalDateTime lastComment;
+    private Map<String, Integer> statusCounts;
+
+    @Id
+    @Column(name = "commentthread_id", unique = true)
+    public UUID getCommentThreadId() {
+        return commentThreadId;
+    }
+
+    public void setCommentThreadId(final UUID commentThreadId) {
+        this.commentThreadId = commentThreadId;
+    }
+
+    @Column(name = "maincomment_count")
+    public Integer getMainCommentCount() {
+        return mainCommentCount;
+    }
+
+    public void setMainCommentCount(final Integer mainCommentCount) {
+        this.mainCommentCount = mainCommentCount;
+    }
+
+    @Column(name = "comment_count")
+    public Integer getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(final Integer commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    @Column(name = "lastcomment")
+    public LocalDateTime getLastComment() {
+        return lastComment;
+    }
+
+    public void setLastComment(final LocalDateTime lastComment) {
+        this.lastComment = lastComment;
+    }
+
+    @ElementCollection(targetClass = Integer.class, fetch = FetchType.EAGER)
+    @CollectionTable(name = "commentthread_stats_status", joinColumns = @JoinColumn(name = "commentthread_id", referencedColumnName = "commentthread_id"))
+    @MapKeyColumn(name = "status")
+    @Column(name = "statuscount")
+    public Map<String, Integer> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(final Map<String, Integer> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+}
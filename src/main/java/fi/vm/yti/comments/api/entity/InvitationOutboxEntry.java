@@ -0,0 +1,89 @@
+package fi.vm.yti.comments.api.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "invitation_outbox")
+public class InvitationOutboxEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID commentRoundId;
+    private String containerUri;
+    private Integer attempts;
+    private LocalDateTime nextAttempt;
+    private String lastError;
+    private LocalDateTime created;
+    private LocalDateTime sent;
+
+    @Id
+    @Column(name = "commentround_id", unique = true)
+    public UUID getCommentRoundId() {
+        return commentRoundId;
+    }
+
+    public void setCommentRoundId(final UUID commentRoundId) {
+        this.commentRoundId = commentRoundId;
+    }
+
+    @Column(name = "container_uri")
+    public String getContainerUri() {
+        return containerUri;
+    }
+
+    public void setContainerUri(final String containerUri) {
+        this.containerUri = containerUri;
+    }
+
+    @Column(name = "attempts")
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(final Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    @Column(name = "next_attempt")
+    public LocalDateTime getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(final LocalDateTime nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+
+    @Column(name = "last_error")
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(final String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Column(name = "created")
+    public LocalDateTime getCreated() {
+        return created;
+    }
+
+    public void setCreated(final LocalDateTime created) {
+        this.created = created;
+    }
+
+    @Column(name = "sent")
+    public LocalDateTime getSent() {
+        return sent;
+    }
+
+    public void setSent(final LocalDateTime sent) {
+        this.sent = sent;
+    }
+}
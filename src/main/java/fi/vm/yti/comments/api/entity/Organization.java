@@ -1,11 +1,13 @@
 package fi.vm.yti.comments.api.entity;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -18,11 +20,15 @@ import javax.persistence.MapKeyColumn;
 import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import static fi.vm.yti.comments.api.constants.ApiConstants.LANGUAGE_CODE_EN;
+import static fi.vm.yti.comments.api.constants.ApiConstants.*;
 
 @Entity
 @Table(name = "organization")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CACHE_REGION_ORGANIZATION)
 public class Organization extends AbstractIdentifyableEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -32,6 +38,8 @@ public class Organization extends AbstractIdentifyableEntity implements Serializ
     private Map<String, String> prefLabel;
     private Map<String, String> description;
     private Set<CommentRound> commentRounds;
+    private String contentHash;
+    private LocalDateTime modified;
 
     @Column(name = "url")
     public String getUrl() {
@@ -42,6 +50,24 @@ public class Organization extends AbstractIdentifyableEntity implements Serializ
         this.url = url;
     }
 
+    @Column(name = "content_hash")
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(final String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    @Column(name = "modified")
+    public LocalDateTime getModified() {
+        return modified;
+    }
+
+    public void setModified(final LocalDateTime modified) {
+        this.modified = modified;
+    }
+
     @Column(name = "removed")
     public Boolean getRemoved() {
         return removed;
@@ -52,6 +78,7 @@ public class Organization extends AbstractIdentifyableEntity implements Serializ
     }
 
     @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CACHE_REGION_ORGANIZATION_PREFLABEL)
     @CollectionTable(name = "organization_preflabel", joinColumns = @JoinColumn(name = "organization_id", referencedColumnName = "id"))
     @MapKeyColumn(name = "language")
     @Column(name = "preflabel")
@@ -92,6 +119,7 @@ public class Organization extends AbstractIdentifyableEntity implements Serializ
     }
 
     @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CACHE_REGION_ORGANIZATION_DESCRIPTION)
     @CollectionTable(name = "organization_description", joinColumns = @JoinColumn(name = "organization_id", referencedColumnName = "id"))
     @MapKeyColumn(name = "language")
     @Column(name = "description")
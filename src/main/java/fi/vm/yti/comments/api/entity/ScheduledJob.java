@@ -0,0 +1,98 @@
+package fi.vm.yti.comments.api.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "scheduled_job")
+public class ScheduledJob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+    private String lastNode;
+    private LocalDateTime lastStarted;
+    private LocalDateTime lastFinished;
+    private String lastStatus;
+    private String lastError;
+
+    @Id
+    @Column(name = "name", unique = true)
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    @Column(name = "lease_owner")
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(final String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    @Column(name = "lease_until")
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(final LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    @Column(name = "last_node")
+    public String getLastNode() {
+        return lastNode;
+    }
+
+    public void setLastNode(final String lastNode) {
+        this.lastNode = lastNode;
+    }
+
+    @Column(name = "last_started")
+    public LocalDateTime getLastStarted() {
+        return lastStarted;
+    }
+
+    public void setLastStarted(final LocalDateTime lastStarted) {
+        this.lastStarted = lastStarted;
+    }
+
+    @Column(name = "last_finished")
+    public LocalDateTime getLastFinished() {
+        return lastFinished;
+    }
+
+    public void setLastFinished(final LocalDateTime lastFinished) {
+        this.lastFinished = lastFinished;
+    }
+
+    @Column(name = "last_status")
+    public String getLastStatus() {
+        return lastStatus;
+    }
+
+    public void setLastStatus(final String lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+
+    @Column(name = "last_error")
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(final String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,37 @@
+package fi.vm.yti.comments.api.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "sequence_counter")
+public class SequenceCounter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private Integer nextValue;
+
+    @Id
+    @Column(name = "name", unique = true)
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    @Column(name = "next_value")
+    public Integer getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(final Integer nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -2,13 +2,21 @@ package fi.vm.yti.comments.api.entity;
 
 import java.io.Serializable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import static fi.vm.yti.comments.api.constants.ApiConstants.CACHE_REGION_SOURCE;
+
 @Entity
 @Table(name = "source")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CACHE_REGION_SOURCE)
 @XmlRootElement
 public class Source extends AbstractIdentifyableEntity implements Serializable {
 
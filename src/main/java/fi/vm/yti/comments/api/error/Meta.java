@@ -15,7 +15,7 @@ import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
 import fi.vm.yti.comments.api.exception.YtiCommentsException;
 import io.swagger.v3.oas.annotations.media.Schema;
 
-@XmlType(propOrder = { "code", "message", "pageSize", "from", "resultCount", "totalResults", "after", "afterResourceUrl", "nextPage" })
+@XmlType(propOrder = { "code", "message", "pageSize", "from", "resultCount", "totalResults", "after", "afterResourceUrl", "nextPage", "cursor", "nextCursor" })
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 @Schema(name = "Meta", description = "Meta information model for API responses.")
 public class Meta {
@@ -32,6 +32,8 @@ public class Meta {
     private Date before;
     private String afterResourceUrl;
     private String nextPage;
+    private String cursor;
+    private String nextCursor;
     private String entityIdentifier;
 
     public Meta() {
@@ -155,6 +157,22 @@ public class Meta {
         this.nextPage = nextPage;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(final String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(final String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     public String getEntityIdentifier() {
         return entityIdentifier;
     }
@@ -23,7 +23,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,11 +31,11 @@ import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Component;
 
 import fi.vm.yti.comments.api.configuration.CommentsApiProperties;
-import fi.vm.yti.comments.api.dao.CommentDao;
 import fi.vm.yti.comments.api.dto.UserDTO;
 import fi.vm.yti.comments.api.entity.Comment;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
 import fi.vm.yti.comments.api.entity.Organization;
 import fi.vm.yti.comments.api.export.ExportService;
 import fi.vm.yti.comments.api.service.ResultService;
@@ -50,143 +50,157 @@ public class ExportServiceImpl implements ExportService {
 
     private static final String DATEFORMAT = "dd/MM/yyyy";
     private static final String DATEFORMAT_WITH_MINUTES = "dd/MM/yyyy HH:mm";
-
-    private String exportLanguage = LANGUAGE_CODE_EN;
+    private static final int EXPORT_ROW_ACCESS_WINDOW_SIZE = 100;
+    private static final int MAX_COLUMN_WIDTH = 15000;
 
     private final UserService userService;
     private final ResultService resultService;
-    private final CommentDao commentDao;
     
     @Autowired
     private MessageSource messageSource;
 
     public ExportServiceImpl(final UserService userService,
                              final ResultService resultService,
-                             final CommentDao commentDao,
                              final CommentsApiProperties commentsApiProperties) {
         this.userService = userService;
         this.resultService = resultService;
-        this.commentDao = commentDao;
     }
 
     public Workbook exportCommentRoundToExcel(final CommentRound commentRound, final String lang) {
-        this.exportLanguage = lang;
-        final Workbook workbook = new XSSFWorkbook();
-        addCommentRoundSheet(workbook, commentRound);
+        final SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_ACCESS_WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        return exportCommentRoundToExcel(commentRound, lang, workbook);
+    }
+
+    /**
+     * Writes the export sheets into the given workbook. Production exports use the streaming workbook above, other
+     * workbook types are only passed in by the export benchmark for comparison.
+     */
+    public Workbook exportCommentRoundToExcel(final CommentRound commentRound,
+                                              final String lang,
+                                              final Workbook workbook) {
+        final ExportContext context = new ExportContext(workbook, lang != null ? lang : LANGUAGE_CODE_EN, messageSource);
+        addCommentRoundSheet(context, commentRound);
         final Set<CommentThread> commentThreads = commentRound.getCommentThreads().stream().sorted(Comparator.comparing(CommentThread::getCreated)).collect(Collectors.toCollection(LinkedHashSet::new));
-        addCommentThreadsSheet(workbook, commentThreads);
-        addCommentsSheet(workbook, commentThreads);
+        addCommentThreadsSheet(context, commentThreads);
+        addCommentsSheet(context, commentThreads);
         return workbook;
     }
 
-    private void addCommentRoundSheet(final Workbook workbook,
+    private void addCommentRoundSheet(final ExportContext context,
                                       final CommentRound commentRound) {
-        final Sheet sheet = workbook.createSheet(messageSource.getMessage("l19", null, Locale.forLanguageTag(this.exportLanguage)));
+        final Sheet sheet = context.workbook.createSheet(context.getMessage("l19"));
         final Row rowhead = sheet.createRow((short) 0);
+        final ColumnWidths columnWidths = new ColumnWidths();
         int headerCellIndex = 0;
-        final CellStyle style = createCellStyle(workbook);
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l22", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l23", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l24", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l25", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l26", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l27", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l28", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l29", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l30", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l31", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l32", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l33", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex, messageSource.getMessage("l34", null, Locale.forLanguageTag(this.exportLanguage)));
+        final CellStyle style = context.defaultStyle;
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l22"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l23"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l24"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l25"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l26"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l27"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l28"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l29"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l30"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l31"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l32"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l33"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex, context.getMessage("l34"));
         final Row row = sheet.createRow(1);
         int cellIndex = 0;
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(commentRound.getLabel()));
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(commentRound.getDescription()));
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(localizeRoundStatus(commentRound.getStatus())));
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(commentRound.getUri()));
-        addCellToRow(row, style, cellIndex++, getUserName(commentRound.getUserId()));
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(getOrganizationsOfCommentRound(commentRound)));
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(localizeSourceLabel(commentRound.getSourceLabel())));
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(localizeSourceType(commentRound.getSource().getContainerType())));
-        addCellToRow(row, style, cellIndex++, checkEmptyValue(commentRound.getSource().getContainerUri()));
-        addCellToRow(row, style, cellIndex++, formatDateToExport(commentRound.getStartDate()));
-        addCellToRow(row, style, cellIndex++, formatDateToExport(commentRound.getEndDate()));
-        addCellToRow(row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(commentRound.getCreated()));
-        addCellToRow(row, style, cellIndex, formatDateToExportWithMinutesInHelsinkiTimezone(commentRound.getModified()));
-        autoSizeColumns(sheet, headerCellIndex);
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(commentRound.getLabel()));
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(commentRound.getDescription()));
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(localizeRoundStatus(context, commentRound.getStatus())));
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(commentRound.getUri()));
+        addCellToRow(columnWidths, row, style, cellIndex++, getUserName(context, commentRound.getUserId()));
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(getOrganizationsOfCommentRound(context, commentRound)));
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(localizeSourceLabel(context, commentRound.getSourceLabel())));
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(localizeSourceType(context, commentRound.getSource().getContainerType())));
+        addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(commentRound.getSource().getContainerUri()));
+        addCellToRow(columnWidths, row, style, cellIndex++, formatDateToExport(commentRound.getStartDate()));
+        addCellToRow(columnWidths, row, style, cellIndex++, formatDateToExport(commentRound.getEndDate()));
+        addCellToRow(columnWidths, row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(commentRound.getCreated()));
+        addCellToRow(columnWidths, row, style, cellIndex, formatDateToExportWithMinutesInHelsinkiTimezone(commentRound.getModified()));
+        columnWidths.applyTo(sheet);
     }
 
-    private void addCommentThreadsSheet(final Workbook workbook,
+    private void addCommentThreadsSheet(final ExportContext context,
                                         final Set<CommentThread> commentThreads) {
-        final Sheet sheet = workbook.createSheet(messageSource.getMessage("l20", null, Locale.forLanguageTag(this.exportLanguage)));
+        final Sheet sheet = context.workbook.createSheet(context.getMessage("l20"));
         final Row rowhead = sheet.createRow((short) 0);
+        final ColumnWidths columnWidths = new ColumnWidths();
         int headerCellIndex = 0;
-        final CellStyle style = createCellStyle(workbook);
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l36", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l35", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l37", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l38", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l39", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l40", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l41", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l42", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l43", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l33", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex, messageSource.getMessage("l45", null, Locale.forLanguageTag(this.exportLanguage)));
+        final CellStyle style = context.defaultStyle;
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l36"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l35"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l37"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l38"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l39"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l40"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l41"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l42"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l43"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l33"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex, context.getMessage("l45"));
+        final Set<UUID> commentThreadIds = commentThreads.stream().map(CommentThread::getId).collect(Collectors.toSet());
+        final Map<UUID, CommentThreadStats> commentThreadStatsMap = resultService.getCommentThreadStats(commentThreadIds);
         int rowIndex = 1;
         for (final CommentThread commentThread : commentThreads) {
             final Row row = sheet.createRow(rowIndex++);
             int cellIndex = 0;
-            addCellToRow(row, style, cellIndex++, formatResourceLabel(commentThread.getLabel(), null));
-            addCellToRow(row, style, cellIndex++, checkEmptyValue(commentThread.getLocalName()));
-            addCellToRow(row, style, cellIndex++, formatResourceLabel(commentThread.getDescription(), null));
-            addCellToRow(row, style, cellIndex++, checkEmptyValue(commentThread.getResourceUri()));
-            addCellToRow(row, style, cellIndex++, Long.toString(commentDao.getCommentThreadMainCommentCount(commentThread.getId())));
-            addCellToRow(row, style, cellIndex++, resultService.getResultsForCommentThreadAsTextInDefaultLanguage(commentThread.getId()));
-            addCellToRow(row, style, cellIndex++, checkEmptyValue(localizeResourceStatusToDefaultLanguage(commentThread.getCurrentStatus(), messageSource, Locale.forLanguageTag(this.exportLanguage))));
-            addCellToRow(row, style, cellIndex++, checkEmptyValue(localizeResourceStatusToDefaultLanguage(commentThread.getProposedStatus(), messageSource, Locale.forLanguageTag(this.exportLanguage))));
-            addCellToRow(row, style, cellIndex++, checkEmptyValue(commentThread.getProposedText()));
-            addCellToRow(row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(commentThread.getCreated()));
-            addCellToRow(row, style, cellIndex, getUserName(commentThread.getUserId()));
+            addCellToRow(columnWidths, row, style, cellIndex++, formatResourceLabel(commentThread.getLabel(), null));
+            addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(commentThread.getLocalName()));
+            addCellToRow(columnWidths, row, style, cellIndex++, formatResourceLabel(commentThread.getDescription(), null));
+            addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(commentThread.getResourceUri()));
+            final CommentThreadStats commentThreadStats = commentThreadStatsMap.get(commentThread.getId());
+            addCellToRow(columnWidths, row, style, cellIndex++, Integer.toString(commentThreadStats != null ? commentThreadStats.getMainCommentCount() : 0));
+            addCellToRow(columnWidths, row, style, cellIndex++, resultService.getResultsAsTextInDefaultLanguage(resultService.getResultsForCommentThreadStats(commentThreadStats)));
+            addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(context.localizeResourceStatus(commentThread.getCurrentStatus())));
+            addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(context.localizeResourceStatus(commentThread.getProposedStatus())));
+            addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(commentThread.getProposedText()));
+            addCellToRow(columnWidths, row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(commentThread.getCreated()));
+            addCellToRow(columnWidths, row, style, cellIndex, getUserName(context, commentThread.getUserId()));
         }
-        autoSizeColumns(sheet, headerCellIndex);
+        columnWidths.applyTo(sheet);
     }
 
-    private void addCommentsSheet(final Workbook workbook,
+    private void addCommentsSheet(final ExportContext context,
                                   final Set<CommentThread> commentThreads) {
-        final Sheet sheet = workbook.createSheet(messageSource.getMessage("l21", null, Locale.forLanguageTag(this.exportLanguage)));
+        final Sheet sheet = context.workbook.createSheet(context.getMessage("l21"));
         final Row rowhead = sheet.createRow((short) 0);
+        final ColumnWidths columnWidths = new ColumnWidths();
         int headerCellIndex = 0;
-        final CellStyle style = createCellStyle(workbook);
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l44", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l45", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l46", null, Locale.forLanguageTag(this.exportLanguage)));
+        final CellStyle style = context.defaultStyle;
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l44"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l45"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l46"));
         final int maxLevel = getCommentsMaxLevels(commentThreads);
         int level = 2;
         while (level <= maxLevel) {
-            addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l47", null, Locale.forLanguageTag(this.exportLanguage)) + " " + level);
+            addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l47") + " " + level);
             level++;
         }
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l48", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l33", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l34", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex++, messageSource.getMessage("l49", null, Locale.forLanguageTag(this.exportLanguage)));
-        addCellToRow(rowhead, style, headerCellIndex, messageSource.getMessage("l38", null, Locale.forLanguageTag(this.exportLanguage)));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l48"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l33"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l34"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex++, context.getMessage("l49"));
+        addCellToRow(columnWidths, rowhead, style, headerCellIndex, context.getMessage("l38"));
         final int resourceUriHeaderIndex = headerCellIndex;
         int rowIndex = 1;
         for (final CommentThread commentThread : commentThreads) {
             final Row row = sheet.createRow(rowIndex++);
             int cellIndex = 0;
-            addCellToRow(row, createCellStyle(workbook, true), cellIndex, formatResourceLabel(commentThread.getLabel(), commentThread.getLocalName()));
-            addCellToRow(row, createCellStyle(workbook, false), resourceUriHeaderIndex, commentThread.getResourceUri());
+            addCellToRow(columnWidths, row, context.boldStyle, cellIndex, formatResourceLabel(commentThread.getLabel(), commentThread.getLocalName()));
+            addCellToRow(columnWidths, row, context.defaultStyle, resourceUriHeaderIndex, commentThread.getResourceUri());
             final Map<UUID, Set<Comment>> childCommentMap = new HashMap<>();
             final Set<Comment> topLevelComments = mapMainLevelComments(commentThread, childCommentMap);
             if (!topLevelComments.isEmpty()) {
-                rowIndex = addCommentRows(sheet, rowIndex, 1, maxLevel, topLevelComments, style, childCommentMap);
+                rowIndex = addCommentRows(context, sheet, columnWidths, rowIndex, 1, maxLevel, topLevelComments, style, childCommentMap);
             }
             rowIndex++;
         }
-        autoSizeColumns(sheet, headerCellIndex);
+        columnWidths.applyTo(sheet);
     }
 
     private Set<Comment> mapMainLevelComments(final CommentThread commentThread,
@@ -241,7 +255,8 @@ public class ExportServiceImpl implements ExportService {
         return maxLevel;
     }
 
-    private String getUserName(final UUID userId) {
+    private String getUserName(final ExportContext context,
+                               final UUID userId) {
         final UserDTO user = userService.getUserById(userId);
         if (user != null) {
             final String firstName = user.getFirstName();
@@ -250,10 +265,12 @@ public class ExportServiceImpl implements ExportService {
                 return firstName + " " + lastName;
             }
         }
-        return messageSource.getMessage("l18", null, Locale.forLanguageTag(this.exportLanguage));
+        return context.getMessage("l18");
     }
 
-    private int addCommentRows(final Sheet sheet,
+    private int addCommentRows(final ExportContext context,
+                               final Sheet sheet,
+                               final ColumnWidths columnWidths,
                                int rowIndex,
                                final int level,
                                final int maxLevel,
@@ -263,51 +280,36 @@ public class ExportServiceImpl implements ExportService {
         for (final Comment comment : comments) {
             final Row row = sheet.createRow(rowIndex++);
             int cellIndex = 1;
-            addCellToRow(row, style, cellIndex, getUserName(comment.getUserId()));
+            addCellToRow(columnWidths, row, style, cellIndex, getUserName(context, comment.getUserId()));
             cellIndex = cellIndex + level;
-            addCellToRow(row, style, cellIndex, checkEmptyValue(comment.getContent()));
+            addCellToRow(columnWidths, row, style, cellIndex, checkEmptyValue(comment.getContent()));
             cellIndex = 2 + maxLevel;
             if (level == 1) {
-                addCellToRow(row, style, cellIndex++, checkEmptyValue(localizeResourceStatusToDefaultLanguage(comment.getProposedStatus(), messageSource, Locale.forLanguageTag(this.exportLanguage))));
+                addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(context.localizeResourceStatus(comment.getProposedStatus())));
             } else {
                 cellIndex++;
             }
-            addCellToRow(row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(comment.getCreated()));
-            addCellToRow(row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(comment.getModified()));
-            addCellToRow(row, style, cellIndex++, checkEmptyValue(comment.getUri()));
-            addCellToRow(row, style, cellIndex, checkEmptyValue(comment.getCommentThread().getResourceUri()));
+            addCellToRow(columnWidths, row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(comment.getCreated()));
+            addCellToRow(columnWidths, row, style, cellIndex++, formatDateToExportWithMinutesInHelsinkiTimezone(comment.getModified()));
+            addCellToRow(columnWidths, row, style, cellIndex++, checkEmptyValue(comment.getUri()));
+            addCellToRow(columnWidths, row, style, cellIndex, checkEmptyValue(comment.getCommentThread().getResourceUri()));
             final Set<Comment> childComments = childCommentMap.get(comment.getId());
             if (childComments != null && !childComments.isEmpty()) {
-                rowIndex = addCommentRows(sheet, rowIndex, level + 1, maxLevel, childComments, style, childCommentMap);
+                rowIndex = addCommentRows(context, sheet, columnWidths, rowIndex, level + 1, maxLevel, childComments, style, childCommentMap);
             }
         }
         return rowIndex;
     }
 
-    private CellStyle createCellStyle(final Workbook workbook) {
-        return createCellStyle(workbook, false);
-    }
-
-    private CellStyle createCellStyle(final Workbook workbook,
-                                      final boolean bold) {
-        final CellStyle style = workbook.createCellStyle();
-        style.setWrapText(true);
-        if (bold) {
-            final Font font = workbook.createFont();
-            font.setBold(true);
-            style.setFont(font);
-        }
-        style.setVerticalAlignment(VerticalAlignment.TOP);
-        return style;
-    }
-
-    private void addCellToRow(final Row row,
+    private void addCellToRow(final ColumnWidths columnWidths,
+                              final Row row,
                               final CellStyle style,
                               final int index,
                               final String value) {
         final Cell cell = row.createCell(index);
         cell.setCellStyle(style);
         cell.setCellValue(value);
+        columnWidths.update(index, value);
     }
 
     private String checkEmptyValue(final String value) {
@@ -317,21 +319,6 @@ public class ExportServiceImpl implements ExportService {
         return value;
     }
 
-    private void autoSizeColumns(final Sheet sheet,
-                                 final int columnCount) {
-        for (int i = 0; i <= columnCount; i++) {
-            try {
-                sheet.autoSizeColumn(i);
-                final int columnWidth = sheet.getColumnWidth(i);
-                if (columnWidth > 15000) {
-                    sheet.setColumnWidth(i, 15000);
-                }
-            } catch (final NullPointerException e) {
-                LOG.warn("Auto sizing Excel columns failed due to issue for column " + i + ", with column count: " + columnCount, e);
-            }
-        }
-    }
-
     private String formatDateToExport(final LocalDate date) {
         if (date != null) {
             final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATEFORMAT);
@@ -353,7 +340,8 @@ public class ExportServiceImpl implements ExportService {
         }
     }
 
-    private String getOrganizationsOfCommentRound(final CommentRound commentRound) {
+    private String getOrganizationsOfCommentRound(final ExportContext context,
+                                                  final CommentRound commentRound) {
         final Set<Organization> organizations = commentRound.getOrganizations();
         final StringBuffer buffer = new StringBuffer();
         boolean first = true;
@@ -365,7 +353,7 @@ public class ExportServiceImpl implements ExportService {
                     first = false;
                 }
 
-                buffer.append(organization.getPrefLabel(this.exportLanguage));
+                buffer.append(organization.getPrefLabel(context.language));
                 
             }
         } else {
@@ -374,8 +362,9 @@ public class ExportServiceImpl implements ExportService {
         return buffer.toString();
     }
 
-    private String localizeSourceLabel(final Map<String, String> sourceLabel) {
-        String label = sourceLabel.get(this.exportLanguage);
+    private String localizeSourceLabel(final ExportContext context,
+                                       final Map<String, String> sourceLabel) {
+        String label = sourceLabel.get(context.language);
         if (StringUtils.isEmpty(label)) {
             Iterator<Map.Entry<String,String>> iterator = sourceLabel.entrySet().iterator();
             while(iterator.hasNext()) {
@@ -388,25 +377,26 @@ public class ExportServiceImpl implements ExportService {
         return label;
     }
 
-    private String localizeSourceType(final String type) {
+    private String localizeSourceType(final ExportContext context,
+                                      final String type) {
         switch (type) {
             case "codelist": {
-                return messageSource.getMessage("l1", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l1");
             }
             case "terminology": {
-                return messageSource.getMessage("l2", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l2");
             }
             case "datamodel": {
-                return messageSource.getMessage("l3", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l3");
             }
             case "library": {
-                return messageSource.getMessage("l4", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l4");
             }
             case "profile": {
-                return messageSource.getMessage("l5", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l5");
             }
             case "commentround": {
-                return messageSource.getMessage("l6", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l6");
             }
             default: {
                 return type;
@@ -414,19 +404,20 @@ public class ExportServiceImpl implements ExportService {
         }
     }
 
-    private String localizeRoundStatus(final String status) {
+    private String localizeRoundStatus(final ExportContext context,
+                                       final String status) {
         switch (status) {
             case "INPROGRESS": {
-                return messageSource.getMessage("l7", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l7");
             }
             case "ENDED": {
-                return messageSource.getMessage("l8", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l8");
             }
             case "INCOMPLETE": {
-                return messageSource.getMessage("l9", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l9");
             }
             case "AWAIT": {
-                return messageSource.getMessage("l10", null, Locale.forLanguageTag(this.exportLanguage));
+                return context.getMessage("l10");
             }
             default: {
                 return status;
@@ -447,4 +438,81 @@ public class ExportServiceImpl implements ExportService {
         }        
         return labelOut;
     }
+
+    /**
+     * Tracks the longest line written to each column so that column widths can be set without sheet.autoSizeColumn,
+     * which needs every row of the sheet in memory and measures each cell with font metrics.
+     */
+    private static final class ColumnWidths {
+
+        private final Map<Integer, Integer> maxLineLengths = new HashMap<>();
+
+        private void update(final int columnIndex,
+                            final String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            int longestLine = 0;
+            for (final String line : value.split("\n")) {
+                longestLine = Math.max(longestLine, line.length());
+            }
+            maxLineLengths.merge(columnIndex, longestLine, Math::max);
+        }
+
+        private void applyTo(final Sheet sheet) {
+            maxLineLengths.forEach((columnIndex, lineLength) -> sheet.setColumnWidth(columnIndex, Math.min((lineLength + 2) * 256, MAX_COLUMN_WIDTH)));
+        }
+    }
+
+    /**
+     * Per export state: the target workbook, the export language, shared cell styles and resolved messages.
+     */
+    private static final class ExportContext {
+
+        private final Workbook workbook;
+        private final String language;
+        private final Locale locale;
+        private final MessageSource messageSource;
+        private final CellStyle defaultStyle;
+        private final CellStyle boldStyle;
+        private final Map<String, String> messages;
+        private final Map<String, String> resourceStatuses;
+
+        private ExportContext(final Workbook workbook,
+                              final String language,
+                              final MessageSource messageSource) {
+            this.workbook = workbook;
+            this.language = language;
+            this.locale = Locale.forLanguageTag(language);
+            this.messageSource = messageSource;
+            this.defaultStyle = createCellStyle(workbook, false);
+            this.boldStyle = createCellStyle(workbook, true);
+            this.messages = new HashMap<>();
+            this.resourceStatuses = new HashMap<>();
+        }
+
+        private String getMessage(final String code) {
+            return messages.computeIfAbsent(code, key -> messageSource.getMessage(key, null, locale));
+        }
+
+        private String localizeResourceStatus(final String status) {
+            if (status == null) {
+                return null;
+            }
+            return resourceStatuses.computeIfAbsent(status, key -> localizeResourceStatusToDefaultLanguage(key, messageSource, locale));
+        }
+
+        private static CellStyle createCellStyle(final Workbook workbook,
+                                                 final boolean bold) {
+            final CellStyle style = workbook.createCellStyle();
+            style.setWrapText(true);
+            if (bold) {
+                final Font font = workbook.createFont();
+                font.setBold(true);
+                style.setFont(font);
+            }
+            style.setVerticalAlignment(VerticalAlignment.TOP);
+            return style;
+        }
+    }
 }
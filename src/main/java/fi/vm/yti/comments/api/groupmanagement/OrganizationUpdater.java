@@ -1,6 +1,6 @@
 package fi.vm.yti.comments.api.groupmanagement;
 
-import java.util.Set;
+import java.time.Duration;
 
 import javax.inject.Inject;
 
@@ -8,11 +8,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import fi.vm.yti.comments.api.configuration.GroupManagementProperties;
-import fi.vm.yti.comments.api.dto.OrganizationDTO;
+import fi.vm.yti.comments.api.model.OrganizationSyncResult;
+import fi.vm.yti.comments.api.scheduler.ScheduledJobRunner;
 import fi.vm.yti.comments.api.service.OrganizationService;
 import static fi.vm.yti.comments.api.constants.ApiConstants.GROUPMANAGEMENT_API_CONTEXT_PATH;
 import static fi.vm.yti.comments.api.constants.ApiConstants.GROUPMANAGEMENT_API_ORGANIZATIONS;
@@ -21,38 +21,48 @@ import static fi.vm.yti.comments.api.constants.ApiConstants.GROUPMANAGEMENT_API_
 public class OrganizationUpdater {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrganizationUpdater.class);
+    private static final String JOB_NAME = "organization-sync";
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(4);
     private final OrganizationService organizationService;
     private final RestTemplate restTemplate;
     private final GroupManagementProperties groupManagementProperties;
+    private final ScheduledJobRunner scheduledJobRunner;
 
     @Inject
     public OrganizationUpdater(final GroupManagementProperties groupManagementProperties,
                                final OrganizationService organizationService,
-                               final RestTemplate restTemplate) {
+                               final RestTemplate restTemplate,
+                               final ScheduledJobRunner scheduledJobRunner) {
         this.groupManagementProperties = groupManagementProperties;
         this.organizationService = organizationService;
         this.restTemplate = restTemplate;
+        this.scheduledJobRunner = scheduledJobRunner;
     }
 
-    @Transactional
     @Scheduled(cron = "0 */5 * * * *")
     public void fetchOrganizations() {
-        updateOrganizations();
+        scheduledJobRunner.runOncePerCluster(JOB_NAME, LEASE_DURATION, this::syncOrganizations);
     }
 
-    @Transactional
     public void updateOrganizations() {
         try {
-            final String response = restTemplate.getForObject(getGroupManagementOrganizationsApiUrl(), String.class);
-            final Set<OrganizationDTO> organizations = organizationService.parseAndPersistGroupManagementOrganizationsFromJson(response);
-            if (organizations != null) {
-                LOG.info(String.format("Successfully synced %d organizations from groupmanagement service!", organizations.size()));
-            }
+            syncOrganizations();
         } catch (final Exception e) {
             LOG.error("Organization fetching failed due to exception.", e);
         }
     }
 
+    /**
+     * Fetches the organizations from groupmanagement without a transaction, so that a slow upstream does not keep a
+     * database connection open. Only the parsing and persisting of the response runs in a transaction.
+     */
+    private void syncOrganizations() {
+        final String response = restTemplate.getForObject(getGroupManagementOrganizationsApiUrl(), String.class);
+        final OrganizationSyncResult syncResult = organizationService.parseAndPersistGroupManagementOrganizationsFromJson(response);
+        LOG.info(String.format("Successfully synced %d organizations from groupmanagement service: %d added, %d changed, %d unchanged.",
+            syncResult.getTotal(), syncResult.getAdded(), syncResult.getChanged(), syncResult.getUnchanged()));
+    }
+
     private String getGroupManagementOrganizationsApiUrl() {
         return groupManagementProperties.getUrl() + "/" + GROUPMANAGEMENT_API_CONTEXT_PATH + "/" + GROUPMANAGEMENT_API_ORGANIZATIONS + "/";
     }
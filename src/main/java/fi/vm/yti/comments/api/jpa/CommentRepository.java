@@ -4,6 +4,7 @@ import java.util.Date;
 import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.comments.api.entity.Comment;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 
 @Repository
 @Transactional
@@ -21,13 +23,24 @@ public interface CommentRepository extends PagingAndSortingRepository<Comment, S
     Comment findByCommentThreadIdAndSequenceId(final UUID commentThreadId,
                                                final Integer commentThreadSequenceId);
 
+    @Query(value = "SELECT new fi.vm.yti.comments.api.model.ResourceVersion(c.id, c.created, c.modified) FROM Comment AS c WHERE c.id = :commentId")
+    ResourceVersion findVersionById(@Param("commentId") final UUID commentId);
+
+    @Query(value = "SELECT new fi.vm.yti.comments.api.model.ResourceVersion(c.id, c.created, c.modified) FROM Comment AS c WHERE c.commentThread.id = :commentThreadId AND c.sequenceId = :sequenceId")
+    ResourceVersion findVersionByCommentThreadIdAndSequenceId(@Param("commentThreadId") final UUID commentThreadId,
+                                                              @Param("sequenceId") final Integer commentSequenceId);
+
     Set<Comment> findByCommentThreadCommentRoundIdAndUserIdAndParentCommentIsNull(final UUID commentRoundId,
                                                                                   final UUID userId);
 
     Comment findByCommentThreadIdAndUserIdAndParentCommentIsNull(final UUID commentRoundId,
                                                                  final UUID userId);
 
-    Set<Comment> findByCommentThreadIdOrderByCreatedAsc(final UUID commentThreadId);
+    Set<Comment> findByCommentThreadIdInAndUserIdAndParentCommentIsNull(final Set<UUID> commentThreadIds,
+                                                                        final UUID userId);
+
+    @EntityGraph(value = "Comment.deep")
+    Set<Comment> findDeepByCommentThreadIdOrderByCreatedAsc(final UUID commentThreadId);
 
     Set<Comment> findByCommentThreadIdAndParentCommentIsNullOrderByCreatedAsc(final UUID commentThreadId);
 
@@ -41,9 +54,6 @@ public interface CommentRepository extends PagingAndSortingRepository<Comment, S
     @Query(value = "SELECT COUNT(c) FROM comment AS c WHERE c.created >= :createdAfter", nativeQuery = true)
     long createdAfterCount(@Param("createdAfter") final Date createdAfter);
 
-    @Query(value = "SELECT nextval(:sequenceName)", nativeQuery = true)
-    Integer getNextSequenceId(@Param("sequenceName") final String sequenceName);
-
     @Query(value = "SELECT COUNT(c) FROM comment AS c WHERE c.commentthread_id = :commentThreadId AND c.parentcomment_id IS NULL", nativeQuery = true)
     long getCommentThreadMainCommentCount(@Param("commentThreadId") final UUID commentThreadId);
 }
@@ -7,85 +7,75 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.comments.api.entity.CommentRound;
+import fi.vm.yti.comments.api.model.ResourceVersion;
+import static fi.vm.yti.comments.api.jpa.CommentThreadStatsRepository.HINT_NATIVE_SPACES;
 
 @Repository
 @Transactional
-public interface CommentRoundRepository extends PagingAndSortingRepository<CommentRound, String> {
+public interface CommentRoundRepository extends PagingAndSortingRepository<CommentRound, String>, JpaSpecificationExecutor<CommentRound> {
+
+    /**
+     * Query space of the native content modified update. It matches no entity table, so Hibernate does not invalidate
+     * the second level cache regions on every comment write.
+     */
+    String QUERY_SPACE_CONTENT_MODIFIED = "commentround_content_modified";
 
     CommentRound findById(final UUID commentRoundId);
 
     CommentRound findBySequenceId(final Integer commentRoundSequenceId);
 
-    Set<CommentRound> findAll();
-
-    Set<CommentRound> findByOrganizationsIdAndStatusIn(final UUID id,
-                                                       final Set<String> statuses);
-
-    Set<CommentRound> findByOrganizationsId(final UUID id);
-
-    Set<CommentRound> findByStatusIn(final Set<String> statuses);
-
-    Set<CommentRound> findByStatusAndEndDateBefore(final String status,
-                                                   final LocalDate now);
+    @EntityGraph(value = "CommentRound.deep")
+    CommentRound findDeepById(final UUID commentRoundId);
 
-    Set<CommentRound> findByStatusAndStartDateLessThanEqual(final String status,
-                                                            final LocalDate now);
+    @EntityGraph(value = "CommentRound.deep")
+    CommentRound findDeepBySequenceId(final Integer commentRoundSequenceId);
 
-    Set<CommentRound> findBySourceContainerType(final String containerType);
+    @Query(value = "SELECT new fi.vm.yti.comments.api.model.ResourceVersion(cr.id, cr.modified, cr.contentModified) FROM CommentRound AS cr WHERE cr.id = :commentRoundId")
+    ResourceVersion findVersionById(@Param("commentRoundId") final UUID commentRoundId);
 
-    Set<CommentRound> findByOrganizationsIdAndSourceContainerTypeAndStatusIn(final UUID id,
-                                                                             final String containerType,
-                                                                             final Set<String> statuses);
+    @Query(value = "SELECT new fi.vm.yti.comments.api.model.ResourceVersion(cr.id, cr.modified, cr.contentModified) FROM CommentRound AS cr WHERE cr.sequenceId = :sequenceId")
+    ResourceVersion findVersionBySequenceId(@Param("sequenceId") final Integer commentRoundSequenceId);
 
-    Set<CommentRound> findByOrganizationsIdAndSourceContainerType(final UUID id,
-                                                                  final String containerType);
+    @Query(value = "SELECT string_agg(CAST(o.id AS text) || ':' || COALESCE(o.content_hash, ''), ',' ORDER BY o.id) " +
+        "FROM commentround_organization AS cro JOIN organization AS o ON o.id = cro.organization_id WHERE cro.commentround_id = :commentRoundId", nativeQuery = true)
+    String findOrganizationsVersionById(@Param("commentRoundId") final UUID commentRoundId);
 
-    Set<CommentRound> findBySourceContainerTypeAndStatusIn(final String containerType,
-                                                           final Set<String> statuses);
+    @Query(value = "SELECT MAX(o.modified) FROM CommentRound AS cr JOIN cr.organizations AS o WHERE cr.id = :commentRoundId")
+    LocalDateTime findOrganizationsModifiedById(@Param("commentRoundId") final UUID commentRoundId);
 
-    Page<CommentRound> findByUriInAndModifiedBetweenOrContentModifiedBetween(final Set<String> uris,
-                                                                             final LocalDateTime after,
-                                                                             final LocalDateTime before,
-                                                                             final LocalDateTime contentModifiedAfter,
-                                                                             final LocalDateTime contentModifiedBefore,
-                                                                             final Pageable pageable);
-
-    Page<CommentRound> findByUriInAndModifiedAfterOrContentModifiedAfter(final Set<String> uris,
-                                                                         final LocalDateTime after,
-                                                                         final LocalDateTime contentModifiedAfter,
-                                                                         final Pageable pageable);
-
-    Page<CommentRound> findByUriInAndModifiedBeforeOrContentModifiedBefore(final Set<String> uris,
-                                                                           final LocalDateTime before,
-                                                                           final LocalDateTime contentModifiedBefore,
-                                                                           final Pageable pageable);
-
-    Page<CommentRound> findByUriIn(final Set<String> uris,
-                                   final Pageable pageable);
-
-    Page<CommentRound> findByModifiedBetweenOrContentModifiedBetween(final LocalDateTime after,
-                                                                     final LocalDateTime before,
-                                                                     final LocalDateTime contentModifiedAfter,
-                                                                     final LocalDateTime contentModifiedBefore,
-                                                                     final Pageable pageable);
-
-    Page<CommentRound> findByModifiedAfterOrContentModifiedAfter(final LocalDateTime after,
-                                                                 final LocalDateTime contentModifiedAfter,
-                                                                 final Pageable pageable);
+    Set<CommentRound> findAll();
 
-    Page<CommentRound> findByModifiedBeforeOrContentModifiedBefore(final LocalDateTime before,
-                                                                   final LocalDateTime contentModifiedBefore,
-                                                                   final Pageable pageable);
+    @Query(value = "UPDATE commentround SET status = :endStatus, modified = :timeStamp, status_modified = :timeStamp " +
+        "WHERE status = :currentStatus AND enddate < :date RETURNING CAST(id AS text), uri", nativeQuery = true)
+    List<Object[]> updateStatusByStatusAndEndDateBefore(@Param("currentStatus") final String currentStatus,
+                                                        @Param("endStatus") final String endStatus,
+                                                        @Param("date") final LocalDate date,
+                                                        @Param("timeStamp") final LocalDateTime timeStamp);
+
+    @Query(value = "WITH changed AS (UPDATE commentround SET status = :endStatus, modified = :timeStamp, status_modified = :timeStamp " +
+        "WHERE status = :currentStatus AND startdate <= :date RETURNING id, uri), " +
+        "queued AS (INSERT INTO invitation_outbox (commentround_id, container_uri, attempts, next_attempt, created) " +
+        "SELECT id, uri, 0, :timeStamp, :timeStamp FROM changed " +
+        "ON CONFLICT (commentround_id) DO UPDATE SET container_uri = EXCLUDED.container_uri, attempts = 0, next_attempt = EXCLUDED.next_attempt, " +
+        "last_error = NULL, created = EXCLUDED.created, sent = NULL) " +
+        "SELECT CAST(id AS text), uri FROM changed", nativeQuery = true)
+    List<Object[]> updateStatusByStatusAndStartDateLessThanEqualAndQueueInvitations(@Param("currentStatus") final String currentStatus,
+                                                                                     @Param("endStatus") final String endStatus,
+                                                                                     @Param("date") final LocalDate date,
+                                                                                     @Param("timeStamp") final LocalDateTime timeStamp);
 
     @Query(value = "SELECT COUNT(cr) FROM CommentRound AS cr WHERE cr.modified >= :modifiedAfter")
     long modifiedAfterCount(@Param("modifiedAfter") final Date modifiedAfter);
@@ -94,9 +84,10 @@ public interface CommentRoundRepository extends PagingAndSortingRepository<Comme
     long createdAfterCount(@Param("createdAfter") final Date createdAfter);
 
     @Modifying
-    @Query(value = "UPDATE CommentRound AS cr SET cr.contentModified = :timeStamp WHERE cr.id = :commentRoundId")
-    int updateContentModified(@Param("commentRoundId") final UUID commentRoundId,
-                              @Param("timeStamp") final LocalDateTime timeStamp);
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = QUERY_SPACE_CONTENT_MODIFIED))
+    @Query(value = "UPDATE commentround AS cr SET content_modified = GREATEST(cr.content_modified, CAST(clock_timestamp() AS timestamp)) " +
+        "FROM (SELECT id FROM commentround WHERE id IN (:commentRoundIds) ORDER BY id FOR UPDATE) AS locked WHERE cr.id = locked.id", nativeQuery = true)
+    int updateContentModifiedIn(@Param("commentRoundIds") final Set<UUID> commentRoundIds);
 
     @Query(value = "SELECT COUNT(cr) FROM CommentRound AS cr WHERE cr.uri IN (:commentRoundUris) AND (cr.modified >= :after OR cr.contentModified >=: after) AND (cr.modified < :before OR cr.contentModified < :before)")
     int getCommentRoundCountWithUrisAndAfterAndBefore(@Param("commentRoundUris") final Set<String> commentRoundUris,
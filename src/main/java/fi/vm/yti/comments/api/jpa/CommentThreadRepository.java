@@ -5,10 +5,14 @@ import java.util.Date;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,6 +20,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.model.ResourceVersion;
+import static fi.vm.yti.comments.api.jpa.CommentThreadStatsRepository.HINT_NATIVE_SPACES;
 
 @Repository
 @Transactional
@@ -23,6 +29,9 @@ public interface CommentThreadRepository extends PagingAndSortingRepository<Comm
 
     CommentThread findById(final UUID commentThreadId);
 
+    @EntityGraph(value = "CommentThread.deep")
+    CommentThread findDeepById(final UUID commentThreadId);
+
     CommentThread findByCommentRoundIdAndSequenceId(final UUID commentRoundId,
                                                     final Integer commentThreadSequenceId);
 
@@ -34,108 +43,40 @@ public interface CommentThreadRepository extends PagingAndSortingRepository<Comm
 
     Set<CommentThread> findByCommentRoundId(final UUID commentRoundId);
 
-    Page<CommentThread> findByCommentRoundUriInAndUriInAndCreatedBetweenOrCommentRoundUriInAndUriInAndCommentsModifiedBetween(final Set<String> commentRoundUris,
-                                                                                                                              final Set<String> uris,
-                                                                                                                              final LocalDateTime after,
-                                                                                                                              final LocalDateTime before,
-                                                                                                                              final Set<String> commentRoundUrisSecondary,
-                                                                                                                              final Set<String> urisSecondary,
-                                                                                                                              final LocalDateTime commentsModifiedAfter,
-                                                                                                                              final LocalDateTime commentsModifiedBefore,
-                                                                                                                              final Pageable pageable);
-
-    Page<CommentThread> findByCommentRoundUriInAndUriInAndCreatedAfterOrCommentRoundUriInAndUriInAndCommentsModifiedAfter(final Set<String> commentRoundUris,
-                                                                                                                          final Set<String> uris,
-                                                                                                                          final LocalDateTime after,
-                                                                                                                          final Set<String> commentRoundUrisSecondary,
-                                                                                                                          final Set<String> urisSecondary,
-                                                                                                                          final LocalDateTime commentsModifiedAfter,
-                                                                                                                          final Pageable pageable);
-
-    Page<CommentThread> findByCommentRoundUriInAndUriInAndCreatedBeforeOrCommentRoundUriInAndUriInAndCommentsModifiedAfter(final Set<String> commentRoundUris,
-                                                                                                                           final Set<String> uris,
-                                                                                                                           final LocalDateTime before,
-                                                                                                                           final Set<String> commentRoundUrisSecondary,
-                                                                                                                           final Set<String> urisSecondary,
-                                                                                                                           final LocalDateTime commentsModifiedBefore,
-                                                                                                                           final Pageable pageable);
-
-    Page<CommentThread> findByCommentRoundUriInAndUriIn(final Set<String> commentRoundUris,
-                                                        final Set<String> uris,
-                                                        final Pageable pageable);
-
-    Page<CommentThread> findByCommentRoundUriInAndCreatedBetweenOrCommentRoundUriInAndCommentsModifiedBetween(final Set<String> commentRoundUris,
-                                                                                                              final LocalDateTime after,
-                                                                                                              final LocalDateTime before,
-                                                                                                              final Set<String> commentRoundUrisSecondary,
-                                                                                                              final LocalDateTime commentsModifiedAfter,
-                                                                                                              final LocalDateTime commentsModifiedBefore,
-                                                                                                              final Pageable pageable);
-
-    Page<CommentThread> findByCommentRoundUriInAndCreatedAfterOrCommentRoundUriInAndCommentsModifiedAfter(final Set<String> commentRoundUris,
-                                                                                                          final LocalDateTime after,
-                                                                                                          final Set<String> commentRoundUrisSecondary,
-                                                                                                          final LocalDateTime commentsModifiedAfter,
-                                                                                                          final Pageable pageable);
-
-    Page<CommentThread> findByCommentRoundUriInAndCreatedBeforeOrCommentRoundUriInAndCommentsModifiedBefore(final Set<String> commentRoundUris,
-                                                                                                            final LocalDateTime before,
-                                                                                                            final Set<String> commentRoundUrisSecondary,
-                                                                                                            final LocalDateTime commentsModifiedBefore,
-                                                                                                            final Pageable pageable);
-
-    Page<CommentThread> findByCommentRoundUriIn(final Set<String> commentRoundUris,
-                                                final Pageable pageable);
+    Set<CommentThread> findByCommentRoundIdAndIdIn(final UUID commentRoundId,
+                                                   final Set<UUID> commentThreadIds);
+
+    @Query(value = "SELECT new fi.vm.yti.comments.api.model.ResourceVersion(ct.id, ct.created, ct.commentsModified) FROM CommentThread AS ct WHERE ct.id = :commentThreadId")
+    ResourceVersion findVersionById(@Param("commentThreadId") final UUID commentThreadId);
+
+    @Query(value = "SELECT new fi.vm.yti.comments.api.model.ResourceVersion(ct.id, ct.created, ct.commentsModified) FROM CommentThread AS ct WHERE ct.commentRound.id = :commentRoundId AND ct.sequenceId = :sequenceId")
+    ResourceVersion findVersionByCommentRoundIdAndSequenceId(@Param("commentRoundId") final UUID commentRoundId,
+                                                             @Param("sequenceId") final Integer commentThreadSequenceId);
+
+    @EntityGraph(value = "CommentThread.labels")
+    Set<CommentThread> findWithLabelsByCommentRoundId(final UUID commentRoundId);
+
+    @EntityGraph(value = "CommentThread.deep")
+    Set<CommentThread> findDeepByCommentRoundId(final UUID commentRoundId);
 
     Set<CommentThread> findAll();
 
     Page<CommentThread> findAll(final Pageable pageable);
 
-    Page<CommentThread> findByUriInAndCreatedBetweenOrUriInAndCommentsModifiedBetween(final Set<String> uris,
-                                                                                      final LocalDateTime after,
-                                                                                      final LocalDateTime before,
-                                                                                      final Set<String> urisSecondary,
-                                                                                      final LocalDateTime commentsModifiedAfter,
-                                                                                      final LocalDateTime commentsModifiedBefore,
-                                                                                      final Pageable pageable);
-
-    Page<CommentThread> findByUriInAndCreatedAfterOrUriInAndCommentsModifiedAfter(final Set<String> uris,
-                                                                                  final LocalDateTime after,
-                                                                                  final Set<String> urisSecondary,
-                                                                                  final LocalDateTime commentsModifiedAfter,
-                                                                                  final Pageable pageable);
-
-    Page<CommentThread> findByUriInAndCreatedBeforeOrUriInAndCommentsModifiedBefore(final Set<String> uris,
-                                                                                    final LocalDateTime before,
-                                                                                    final Set<String> urisSecondary,
-                                                                                    final LocalDateTime commentsModifiedBefore,
-                                                                                    final Pageable pageable);
-
-    Page<CommentThread> findByCreatedBetweenOrCommentsModifiedBetween(final LocalDateTime after,
-                                                                      final LocalDateTime before,
-                                                                      final LocalDateTime commentsModifiedAfter,
-                                                                      final LocalDateTime commentsModifiedBefore,
-                                                                      final Pageable pageable);
-
-    Page<CommentThread> findByCreatedAfterOrCommentsModifiedAfter(final LocalDateTime after,
-                                                                  final LocalDateTime commentsModifiedAfter,
-                                                                  final Pageable pageable);
-
-    Page<CommentThread> findByCreatedBeforeOrCommentsModifiedBefore(final LocalDateTime before,
-                                                                    final LocalDateTime commentsModifiedBefore,
-                                                                    final Pageable pageable);
-
-    Page<CommentThread> findByUriIn(final Set<String> uris,
-                                    final Pageable pageable);
-
     @Query(value = "SELECT COUNT(ct) FROM CommentThread AS ct WHERE ct.created >= :createdAfter")
     long createdAfterCount(@Param("createdAfter") final Date createdAfter);
 
     @Modifying
-    @Query(value = "UPDATE CommentThread AS ct SET ct.commentsModified = :timeStamp WHERE ct.id = :commentThreadId")
+    @Query(value = "UPDATE CommentThread AS ct SET ct.commentsModified = :timeStamp WHERE ct.id = :commentThreadId AND (ct.commentsModified IS NULL OR ct.commentsModified < :timeStamp)")
     int updateCommentsModified(@Param("commentThreadId") final UUID commentThreadId,
                                @Param("timeStamp") final LocalDateTime timeStamp);
 
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "commentthread"))
+    @Query(value = "UPDATE commentthread AS ct SET comments_modified = GREATEST(ct.comments_modified, CAST(clock_timestamp() AS timestamp)) " +
+        "FROM (SELECT id FROM commentthread WHERE id IN (:commentThreadIds) ORDER BY id FOR UPDATE) AS locked WHERE ct.id = locked.id", nativeQuery = true)
+    int updateCommentsModifiedIn(@Param("commentThreadIds") final Set<UUID> commentThreadIds);
+
     @Query(value = "SELECT COUNT(ct) FROM CommentThread AS ct WHERE ct.uri IN (:uris) AND ((ct.commentsModified >= :after AND ct.commentsModified < :before) OR (ct.created >= :after AND ct.created < :before))")
     int getCommentThreadCountWithUrisAndAfterAndBefore(@Param("uris") final Set<String> uris,
                                                        @Param("after") final LocalDateTime after,
@@ -167,7 +108,4 @@ public interface CommentThreadRepository extends PagingAndSortingRepository<Comm
 
     @Query(value = "SELECT COUNT(ct) FROM CommentThread AS ct")
     int getCommentThreadCount();
-
-    @Query(value = "SELECT nextval(:sequenceName)", nativeQuery = true)
-    Integer getNextSequenceId(@Param("sequenceName") final String sequenceName);
 }
@@ -0,0 +1,70 @@
+package fi.vm.yti.comments.api.jpa;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
+
+@Repository
+@Transactional
+public interface CommentThreadStatsRepository extends PagingAndSortingRepository<CommentThreadStats, String> {
+
+    /**
+     * Query spaces of the native statements below. Without them Hibernate would evict every second level cache region
+     * on each statistics refresh.
+     */
+    String HINT_NATIVE_SPACES = "org.hibernate.query.native.spaces";
+    String QUERY_SPACE_STATS = "commentthread_stats";
+    String QUERY_SPACE_STATUS = "commentthread_stats_status";
+
+    CommentThreadStats findByCommentThreadId(final UUID commentThreadId);
+
+    /**
+     * Fetches the status counts in the same statement, the eager collection would otherwise be loaded with one select
+     * per statistics row.
+     */
+    @Query("SELECT DISTINCT cts FROM CommentThreadStats AS cts LEFT JOIN FETCH cts.statusCounts WHERE cts.commentThreadId IN (:commentThreadIds)")
+    Set<CommentThreadStats> findByCommentThreadIdIn(@Param("commentThreadIds") final Collection<UUID> commentThreadIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = QUERY_SPACE_STATS))
+    @Query(value = "INSERT INTO commentthread_stats (commentthread_id) SELECT ct.id FROM commentthread AS ct WHERE ct.id IN (:commentThreadIds) " +
+        "ON CONFLICT (commentthread_id) DO NOTHING", nativeQuery = true)
+    int insertMissingStatsIn(@Param("commentThreadIds") final Collection<UUID> commentThreadIds);
+
+    @Query(value = "SELECT CAST(cts.commentthread_id AS text) FROM commentthread_stats AS cts WHERE cts.commentthread_id IN (:commentThreadIds) " +
+        "ORDER BY cts.commentthread_id FOR UPDATE", nativeQuery = true)
+    List<String> lockStatsIn(@Param("commentThreadIds") final Collection<UUID> commentThreadIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = QUERY_SPACE_STATS))
+    @Query(value = "INSERT INTO commentthread_stats (commentthread_id, maincomment_count, comment_count, lastcomment) " +
+        "SELECT ct.id, COUNT(c.id) FILTER (WHERE c.parentcomment_id IS NULL), COUNT(c.id), MAX(c.created) FROM commentthread AS ct LEFT JOIN comment AS c ON c.commentthread_id = ct.id " +
+        "WHERE ct.id IN (:commentThreadIds) GROUP BY ct.id " +
+        "ON CONFLICT (commentthread_id) DO UPDATE SET maincomment_count = EXCLUDED.maincomment_count, comment_count = EXCLUDED.comment_count, lastcomment = EXCLUDED.lastcomment", nativeQuery = true)
+    int refreshCommentCountsIn(@Param("commentThreadIds") final Collection<UUID> commentThreadIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = QUERY_SPACE_STATUS))
+    @Query(value = "DELETE FROM commentthread_stats_status WHERE commentthread_id IN (:commentThreadIds)", nativeQuery = true)
+    int deleteStatusCountsIn(@Param("commentThreadIds") final Collection<UUID> commentThreadIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = QUERY_SPACE_STATUS))
+    @Query(value = "INSERT INTO commentthread_stats_status (commentthread_id, status, statuscount) " +
+        "SELECT c.commentthread_id, c.endstatus, COUNT(c.id) FROM comment AS c WHERE c.commentthread_id IN (:commentThreadIds) AND c.parentcomment_id IS NULL " +
+        "AND c.endstatus IS NOT NULL AND c.endstatus <> '' AND UPPER(c.endstatus) <> 'NOSTATUS' GROUP BY c.commentthread_id, c.endstatus", nativeQuery = true)
+    int insertStatusCountsIn(@Param("commentThreadIds") final Collection<UUID> commentThreadIds);
+}
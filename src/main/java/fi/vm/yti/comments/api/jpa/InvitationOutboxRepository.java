@@ -0,0 +1,34 @@
+package fi.vm.yti.comments.api.jpa;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.entity.InvitationOutboxEntry;
+
+@Repository
+@Transactional
+public interface InvitationOutboxRepository extends CrudRepository<InvitationOutboxEntry, String> {
+
+    @Query(value = "SELECT * FROM invitation_outbox WHERE sent IS NULL AND attempts < :maxAttempts AND next_attempt <= :now " +
+        "ORDER BY next_attempt LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<InvitationOutboxEntry> findPendingForUpdate(@Param("now") final LocalDateTime now,
+                                                     @Param("maxAttempts") final int maxAttempts,
+                                                     @Param("limit") final int limit);
+
+    @Modifying
+    @Query(value = "UPDATE InvitationOutboxEntry AS io SET io.attempts = :attempts, io.nextAttempt = :nextAttempt, io.lastError = :lastError, io.sent = :sent " +
+        "WHERE io.commentRoundId = :commentRoundId AND io.sent IS NULL")
+    int updateAttempt(@Param("commentRoundId") final UUID commentRoundId,
+                      @Param("attempts") final Integer attempts,
+                      @Param("nextAttempt") final LocalDateTime nextAttempt,
+                      @Param("lastError") final String lastError,
+                      @Param("sent") final LocalDateTime sent);
+}
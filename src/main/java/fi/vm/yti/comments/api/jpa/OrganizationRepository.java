@@ -1,18 +1,29 @@
 package fi.vm.yti.comments.api.jpa;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.comments.api.entity.Organization;
+import static fi.vm.yti.comments.api.constants.ApiConstants.CACHE_REGION_LOOKUPS;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
 
 @Repository
 @Transactional
 public interface OrganizationRepository extends CrudRepository<Organization, String> {
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CACHE_REGION_LOOKUPS) })
     Organization findById(final UUID id);
 
     Set<Organization> findByRemovedIsFalse();
@@ -20,4 +31,18 @@ public interface OrganizationRepository extends CrudRepository<Organization, Str
     Set<Organization> findByRemovedIsFalseAndCommentRoundsIsNotNull();
 
     Set<Organization> findAll();
+
+    Set<Organization> findByIdIn(final Collection<UUID> ids);
+
+    @Query(value = "SELECT CAST(o.id AS text), o.url, o.removed, " +
+        "(SELECT CAST(json_object_agg(p.language, p.preflabel) AS text) FROM organization_preflabel AS p WHERE p.organization_id = o.id), " +
+        "(SELECT CAST(json_object_agg(d.language, d.description) AS text) FROM organization_description AS d WHERE d.organization_id = o.id), " +
+        "(SELECT string_agg(CAST(cro.commentround_id AS text), ',') FROM commentround_organization AS cro WHERE cro.organization_id = o.id) " +
+        "FROM organization AS o WHERE (:includeRemoved = true OR o.removed = false) " +
+        "AND (:hasCommentRounds = false OR EXISTS (SELECT 1 FROM commentround_organization AS cro WHERE cro.organization_id = o.id))", nativeQuery = true)
+    List<Object[]> findSummaries(@Param("includeRemoved") final boolean includeRemoved,
+                                 @Param("hasCommentRounds") final boolean hasCommentRounds);
+
+    @Query(value = "SELECT o.id, o.contentHash FROM Organization AS o")
+    List<Object[]> findContentHashes();
 }
@@ -0,0 +1,37 @@
+package fi.vm.yti.comments.api.jpa;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.entity.ScheduledJob;
+
+@Repository
+@Transactional
+public interface ScheduledJobRepository extends CrudRepository<ScheduledJob, String> {
+
+    Set<ScheduledJob> findAll();
+
+    @Query(value = "INSERT INTO scheduled_job AS sj (name, lease_owner, lease_until) VALUES (:name, :owner, LOCALTIMESTAMP + make_interval(secs => :leaseSeconds)) " +
+        "ON CONFLICT (name) DO UPDATE SET lease_owner = EXCLUDED.lease_owner, lease_until = EXCLUDED.lease_until " +
+        "WHERE sj.lease_until IS NULL OR sj.lease_until <= LOCALTIMESTAMP RETURNING sj.lease_owner", nativeQuery = true)
+    List<String> acquireLease(@Param("name") final String name,
+                              @Param("owner") final String owner,
+                              @Param("leaseSeconds") final long leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE ScheduledJob AS sj SET sj.lastNode = :node, sj.lastStarted = :started, sj.lastFinished = :finished, sj.lastStatus = :status, sj.lastError = :error WHERE sj.name = :name")
+    int updateLastRun(@Param("name") final String name,
+                      @Param("node") final String node,
+                      @Param("started") final LocalDateTime started,
+                      @Param("finished") final LocalDateTime finished,
+                      @Param("status") final String status,
+                      @Param("error") final String error);
+}
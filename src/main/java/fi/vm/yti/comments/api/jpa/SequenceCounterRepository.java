@@ -0,0 +1,19 @@
+package fi.vm.yti.comments.api.jpa;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.comments.api.entity.SequenceCounter;
+
+@Repository
+@Transactional
+public interface SequenceCounterRepository extends CrudRepository<SequenceCounter, String> {
+
+    @Query(value = "INSERT INTO sequence_counter AS sc (name, next_value) VALUES (:name, 1 + :count) " +
+        "ON CONFLICT (name) DO UPDATE SET next_value = sc.next_value + :count RETURNING sc.next_value - :count", nativeQuery = true)
+    Integer allocateSequenceIds(@Param("name") final String name,
+                                @Param("count") final int count);
+}
@@ -3,16 +3,23 @@ package fi.vm.yti.comments.api.jpa;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.comments.api.entity.Source;
+import static fi.vm.yti.comments.api.constants.ApiConstants.CACHE_REGION_LOOKUPS;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
 
 @Repository
 @Transactional
 public interface SourceRepository extends PagingAndSortingRepository<Source, String> {
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CACHE_REGION_LOOKUPS) })
     Source findById(final UUID sourceId);
 
     Source findByContainerUri(final String containerUri);
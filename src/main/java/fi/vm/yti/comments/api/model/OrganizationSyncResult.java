@@ -0,0 +1,35 @@
+package fi.vm.yti.comments.api.model;
+
+/**
+ * Counts of organizations added, changed and left unchanged by a groupmanagement organization sync.
+ */
+public class OrganizationSyncResult {
+
+    private final int added;
+    private final int changed;
+    private final int unchanged;
+
+    public OrganizationSyncResult(final int added,
+                                  final int changed,
+                                  final int unchanged) {
+        this.added = added;
+        this.changed = changed;
+        this.unchanged = unchanged;
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public int getTotal() {
+        return added + changed + unchanged;
+    }
+}
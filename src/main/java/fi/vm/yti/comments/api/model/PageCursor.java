@@ -0,0 +1,53 @@
+package fi.vm.yti.comments.api.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+
+import fi.vm.yti.comments.api.error.ErrorModel;
+import fi.vm.yti.comments.api.exception.YtiCommentsException;
+
+/**
+ * Keyset position of the last item of a page, ordered by (sequenceId, id), encoded as an opaque string for clients.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final Integer sequenceId;
+    private final UUID id;
+
+    public PageCursor(final Integer sequenceId,
+                      final UUID id) {
+        this.sequenceId = sequenceId;
+        this.id = id;
+    }
+
+    public Integer getSequenceId() {
+        return sequenceId;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String encode() {
+        final String value = sequenceId + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(final String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separatorIndex = value.indexOf(SEPARATOR);
+            return new PageCursor(Integer.valueOf(value.substring(0, separatorIndex)), UUID.fromString(value.substring(separatorIndex + 1)));
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.BAD_REQUEST.value(), "Cursor input not valid: " + cursor));
+        }
+    }
+}
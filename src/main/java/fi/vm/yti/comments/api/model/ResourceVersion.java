@@ -0,0 +1,48 @@
+package fi.vm.yti.comments.api.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of the identifier and the latest modification timestamp of a resource, used for
+ * answering conditional requests without loading the entity graph. The version identifies the output of the
+ * resource and defaults to the modification timestamp.
+ */
+public class ResourceVersion {
+
+    private final UUID id;
+    private final LocalDateTime lastModified;
+    private final String version;
+
+    public ResourceVersion(final UUID id,
+                           final LocalDateTime modified,
+                           final LocalDateTime contentModified) {
+        this.id = id;
+        if (modified == null || (contentModified != null && contentModified.isAfter(modified))) {
+            this.lastModified = contentModified;
+        } else {
+            this.lastModified = modified;
+        }
+        this.version = String.valueOf(lastModified);
+    }
+
+    public ResourceVersion(final UUID id,
+                           final LocalDateTime lastModified,
+                           final String version) {
+        this.id = id;
+        this.lastModified = lastModified;
+        this.version = version;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,65 @@
+package fi.vm.yti.comments.api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of the latest run of a scheduled job, either cluster wide from the lease table or local to this node.
+ */
+public class ScheduledJobStatus {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final String name;
+    private final boolean clusterWide;
+    private final String node;
+    private final LocalDateTime lastStarted;
+    private final LocalDateTime lastFinished;
+    private final String lastStatus;
+    private final String lastError;
+
+    public ScheduledJobStatus(final String name,
+                              final boolean clusterWide,
+                              final String node,
+                              final LocalDateTime lastStarted,
+                              final LocalDateTime lastFinished,
+                              final String lastStatus,
+                              final String lastError) {
+        this.name = name;
+        this.clusterWide = clusterWide;
+        this.node = node;
+        this.lastStarted = lastStarted;
+        this.lastFinished = lastFinished;
+        this.lastStatus = lastStatus;
+        this.lastError = lastError;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isClusterWide() {
+        return clusterWide;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public LocalDateTime getLastStarted() {
+        return lastStarted;
+    }
+
+    public LocalDateTime getLastFinished() {
+        return lastFinished;
+    }
+
+    public String getLastStatus() {
+        return lastStatus;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
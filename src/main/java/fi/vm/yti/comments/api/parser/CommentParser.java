@@ -1,12 +1,13 @@
 package fi.vm.yti.comments.api.parser;
 
+import java.io.InputStream;
 import java.util.Set;
 
 import fi.vm.yti.comments.api.dto.CommentDTO;
 
 public interface CommentParser {
 
-    CommentDTO parseCommentFromJson(final String jsonPayload);
+    CommentDTO parseCommentFromJson(final InputStream jsonPayload);
 
-    Set<CommentDTO> parseCommentsFromJson(final String jsonPayload);
+    Set<CommentDTO> parseCommentsFromJson(final InputStream jsonPayload);
 }
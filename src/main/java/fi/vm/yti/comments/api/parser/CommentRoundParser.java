@@ -1,12 +1,13 @@
 package fi.vm.yti.comments.api.parser;
 
+import java.io.InputStream;
 import java.util.Set;
 
 import fi.vm.yti.comments.api.dto.CommentRoundDTO;
 
 public interface CommentRoundParser {
 
-    CommentRoundDTO parseCommentRoundFromJson(final String jsonPayload);
+    CommentRoundDTO parseCommentRoundFromJson(final InputStream jsonPayload);
 
-    Set<CommentRoundDTO> parseCommentRoundsFromJson(final String jsonPayload);
+    Set<CommentRoundDTO> parseCommentRoundsFromJson(final InputStream jsonPayload);
 }
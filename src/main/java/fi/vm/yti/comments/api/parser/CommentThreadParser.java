@@ -1,12 +1,13 @@
 package fi.vm.yti.comments.api.parser;
 
+import java.io.InputStream;
 import java.util.Set;
 
 import fi.vm.yti.comments.api.dto.CommentThreadDTO;
 
 public interface CommentThreadParser {
 
-    CommentThreadDTO parseCommentThreadFromJson(final String jsonPayload);
+    CommentThreadDTO parseCommentThreadFromJson(final InputStream jsonPayload);
 
-    Set<CommentThreadDTO> parseCommentThreadsFromJson(final String jsonPayload);
+    Set<CommentThreadDTO> parseCommentThreadsFromJson(final InputStream jsonPayload);
 }
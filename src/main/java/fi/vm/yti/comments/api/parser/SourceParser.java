@@ -1,12 +1,13 @@
 package fi.vm.yti.comments.api.parser;
 
+import java.io.InputStream;
 import java.util.Set;
 
 import fi.vm.yti.comments.api.dto.SourceDTO;
 
 public interface SourceParser {
 
-    SourceDTO parseSourceFromJson(final String jsonPayload);
+    SourceDTO parseSourceFromJson(final InputStream jsonPayload);
 
-    Set<SourceDTO> parseSourcesFromJson(final String jsonPayload);
+    Set<SourceDTO> parseSourcesFromJson(final InputStream jsonPayload);
 }
@@ -1,17 +1,18 @@
 package fi.vm.yti.comments.api.parser.impl;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.Set;
 
+import javax.inject.Inject;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
 import fi.vm.yti.comments.api.dto.CommentRoundDTO;
 import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.exception.JsonParsingException;
@@ -21,15 +22,21 @@ import static fi.vm.yti.comments.api.exception.ErrorConstants.ERR_MSG_USER_406;
 import static fi.vm.yti.comments.api.exception.ErrorConstants.ERR_MSG_USER_END_BEFORE_START_DATE;
 
 @Component
-public class CommentRoundParserImpl implements AbstractBaseParser, CommentRoundParser {
+public class CommentRoundParserImpl implements CommentRoundParser {
 
     private static final Logger LOG = LoggerFactory.getLogger(CommentRoundParserImpl.class);
 
-    public CommentRoundDTO parseCommentRoundFromJson(final String jsonPayload) {
-        final ObjectMapper mapper = createObjectMapper();
+    private final JsonMapperRegistry jsonMapperRegistry;
+
+    @Inject
+    public CommentRoundParserImpl(final JsonMapperRegistry jsonMapperRegistry) {
+        this.jsonMapperRegistry = jsonMapperRegistry;
+    }
+
+    public CommentRoundDTO parseCommentRoundFromJson(final InputStream jsonPayload) {
         final CommentRoundDTO commentRound;
         try {
-            commentRound = mapper.readValue(jsonPayload, CommentRoundDTO.class);
+            commentRound = jsonMapperRegistry.readerFor(CommentRoundDTO.class).readValue(jsonPayload);
             validateDatesForCommentRound(commentRound);
         } catch (final IOException e) {
             LOG.error("CommentRound parsing failed from JSON!", e);
@@ -38,12 +45,10 @@ public class CommentRoundParserImpl implements AbstractBaseParser, CommentRoundP
         return commentRound;
     }
 
-    public Set<CommentRoundDTO> parseCommentRoundsFromJson(final String jsonPayload) {
-        final ObjectMapper mapper = createObjectMapper();
+    public Set<CommentRoundDTO> parseCommentRoundsFromJson(final InputStream jsonPayload) {
         final Set<CommentRoundDTO> commentRounds;
         try {
-            commentRounds = mapper.readValue(jsonPayload, new TypeReference<Set<CommentRoundDTO>>() {
-            });
+            commentRounds = jsonMapperRegistry.readerForSetOf(CommentRoundDTO.class).readValue(jsonPayload);
             commentRounds.forEach(this::validateDatesForCommentRound);
         } catch (final IOException e) {
             LOG.error("CommentRounds parsing failed from JSON!", e);
@@ -1,38 +1,48 @@
 package fi.vm.yti.comments.api.resource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.glassfish.jersey.jackson.internal.jackson.jaxrs.cfg.EndpointConfigBase;
 import org.glassfish.jersey.jackson.internal.jackson.jaxrs.cfg.ObjectWriterModifier;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import fi.vm.yti.comments.api.api.ResponseWrapper;
-import fi.vm.yti.comments.api.dto.ResourceDTO;
 import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.error.Meta;
 import fi.vm.yti.comments.api.exception.YtiCommentsException;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 import fi.vm.yti.comments.api.model.Status;
 import static fi.vm.yti.comments.api.constants.ApiConstants.*;
 
@@ -44,6 +54,10 @@ public interface AbstractBaseResource {
 
     String UTF_8_ENCODING = "UTF-8";
 
+    String MEDIA_TYPE_EXCEL = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    String CONTENT_ENCODING_GZIP = "gzip";
+
     default SimpleFilterProvider createSimpleFilterProviderWithSingleFilter(final String baseFilter,
                                                                             final String expand) {
         final List<String> baseFilters = new ArrayList<>();
@@ -87,6 +101,10 @@ public interface AbstractBaseResource {
                 workbook.write(output);
             } catch (final Exception e) {
                 throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Excel output generation failed!"));
+            } finally {
+                if (workbook instanceof SXSSFWorkbook) {
+                    ((SXSSFWorkbook) workbook).dispose();
+                }
             }
         };
         try {
@@ -96,6 +114,128 @@ public interface AbstractBaseResource {
         }
     }
 
+    default byte[] writeExcelOutput(final Workbook workbook) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            workbook.write(output);
+        } catch (final IOException e) {
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Excel output generation failed!"));
+        } finally {
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Serves a gzip compressed snapshot as is to clients accepting gzip encoding and decompresses it for the others.
+     * Both variants vary by Accept-Encoding, so shared caches keep them apart.
+     */
+    default Response createSnapshotResponse(final byte[] snapshot,
+                                            final String mediaType,
+                                            final HttpHeaders httpHeaders) {
+        if (acceptsGzip(httpHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return Response.ok(snapshot, mediaType)
+                .header(HttpHeaders.CONTENT_ENCODING, CONTENT_ENCODING_GZIP)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        final StreamingOutput stream = output -> {
+            try (final GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(snapshot))) {
+                input.transferTo(output);
+            }
+        };
+        return Response.ok(stream, mediaType)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .build();
+    }
+
+    /**
+     * Parses the Accept-Encoding header values with their quality values. An explicit gzip or x-gzip coding decides,
+     * otherwise a wildcard does, and a coding with q=0 is not acceptable.
+     */
+    static boolean acceptsGzip(final List<String> acceptEncodings) {
+        if (acceptEncodings == null) {
+            return false;
+        }
+        Boolean gzipAccepted = null;
+        boolean wildcardAccepted = false;
+        for (final String acceptEncoding : acceptEncodings) {
+            for (final String codingValue : acceptEncoding.split(",")) {
+                final String[] parameters = codingValue.split(";");
+                final String coding = parameters[0].trim().toLowerCase();
+                final boolean accepted = getQualityValue(parameters) > 0;
+                if (CONTENT_ENCODING_GZIP.equals(coding) || ("x-" + CONTENT_ENCODING_GZIP).equals(coding)) {
+                    gzipAccepted = gzipAccepted != null ? gzipAccepted || accepted : accepted;
+                } else if ("*".equals(coding)) {
+                    wildcardAccepted = accepted;
+                }
+            }
+        }
+        return gzipAccepted != null ? gzipAccepted : wildcardAccepted;
+    }
+
+    private static double getQualityValue(final String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            final String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (final NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    default EntityTag createEntityTag(final String variant,
+                                      final ResourceVersion... versions) {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putString(String.valueOf(variant), StandardCharsets.UTF_8);
+        for (final ResourceVersion version : versions) {
+            hasher.putString(version.getId().toString(), StandardCharsets.UTF_8);
+            hasher.putString(String.valueOf(version.getVersion()), StandardCharsets.UTF_8);
+        }
+        return new EntityTag(hasher.hash().toString(), true);
+    }
+
+    default Date getLastModified(final ResourceVersion... versions) {
+        LocalDateTime lastModified = null;
+        for (final ResourceVersion version : versions) {
+            final LocalDateTime versionModified = version.getLastModified();
+            if (versionModified != null && (lastModified == null || versionModified.isAfter(lastModified))) {
+                lastModified = versionModified;
+            }
+        }
+        if (lastModified == null) {
+            return null;
+        }
+        return Date.from(lastModified.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Evaluates conditional request headers against the given validators.
+     *
+     * @return 304 or 412 response when the request preconditions were met, otherwise null.
+     */
+    default Response evaluatePreconditions(final Request request,
+                                           final EntityTag entityTag,
+                                           final Date lastModified) {
+        final Response.ResponseBuilder builder = lastModified != null ? request.evaluatePreconditions(lastModified, entityTag) : request.evaluatePreconditions(entityTag);
+        if (builder != null) {
+            return builder.tag(entityTag).lastModified(lastModified).build();
+        }
+        return null;
+    }
+
+    default Response withValidators(final Response response,
+                                    final EntityTag entityTag,
+                                    final Date lastModified) {
+        return Response.fromResponse(response).tag(entityTag).lastModified(lastModified).build();
+    }
+
     default Response createDeleteResponse(final String objectType) {
         final Meta meta = new Meta();
         meta.setCode(200);
@@ -107,7 +247,13 @@ public interface AbstractBaseResource {
     default <T> Response createResponse(final String objectType,
                                         final String messageType,
                                         final Set<T> set) {
-        final Meta meta = new Meta();
+        return createResponse(objectType, messageType, set, new Meta());
+    }
+
+    default <T> Response createResponse(final String objectType,
+                                        final String messageType,
+                                        final Set<T> set,
+                                        final Meta meta) {
         final ResponseWrapper<T> responseWrapper = new ResponseWrapper<>(meta);
         final String message;
         switch (messageType) {
@@ -129,30 +275,6 @@ public interface AbstractBaseResource {
         return Response.ok(responseWrapper).build();
     }
 
-    default Set<ResourceDTO> parseResourcesFromResponse(final ResponseEntity response) {
-        final Object responseBody = response.getBody();
-        if (responseBody != null) {
-            try {
-                final ObjectMapper mapper = new ObjectMapper();
-                mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
-                final String data = responseBody.toString();
-                final JsonNode jsonNode = mapper.readTree(data);
-                final String dataString;
-                if (!jsonNode.isArray() && jsonNode.has("results")) {
-                    dataString = jsonNode.get("results").toString();
-                } else {
-                    dataString = "[]";
-                }
-                return mapper.readValue(dataString, new TypeReference<Set<ResourceDTO>>() {
-                });
-            } catch (final IOException e) {
-                throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to parse integration resources!"));
-            }
-        } else {
-            throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to parse integration resources!"));
-        }
-    }
-
     class FilterModifier extends ObjectWriterModifier {
 
         private final FilterProvider provider;
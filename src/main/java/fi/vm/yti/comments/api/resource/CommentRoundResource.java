@@ -1,6 +1,13 @@
 package fi.vm.yti.comments.api.resource;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -17,8 +24,15 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
 
 import org.glassfish.jersey.jackson.internal.jackson.jaxrs.cfg.ObjectWriterInjector;
 import org.springframework.http.HttpStatus;
@@ -32,20 +46,22 @@ import fi.vm.yti.comments.api.dao.CommentThreadDao;
 import fi.vm.yti.comments.api.dto.CommentDTO;
 import fi.vm.yti.comments.api.dto.CommentRoundDTO;
 import fi.vm.yti.comments.api.dto.CommentThreadDTO;
-import fi.vm.yti.comments.api.dto.OrganizationDTO;
 import fi.vm.yti.comments.api.entity.Comment;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
 import fi.vm.yti.comments.api.error.ErrorModel;
+import fi.vm.yti.comments.api.error.Meta;
 import fi.vm.yti.comments.api.exception.NotFoundException;
 import fi.vm.yti.comments.api.exception.UnauthorizedException;
 import fi.vm.yti.comments.api.exception.YtiCommentsException;
 import fi.vm.yti.comments.api.export.ExportService;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 import fi.vm.yti.comments.api.parser.CommentParser;
 import fi.vm.yti.comments.api.parser.CommentRoundParser;
 import fi.vm.yti.comments.api.parser.CommentThreadParser;
 import fi.vm.yti.comments.api.security.AuthorizationManager;
 import fi.vm.yti.comments.api.service.CommentRoundService;
+import fi.vm.yti.comments.api.service.CommentRoundSnapshotService;
 import fi.vm.yti.comments.api.service.CommentService;
 import fi.vm.yti.comments.api.service.CommentThreadService;
 import fi.vm.yti.comments.api.service.GroupmanagementProxyService;
@@ -77,6 +93,7 @@ public class CommentRoundResource implements AbstractBaseResource {
     private final AuthorizationManager authorizationManager;
     private final ExportService exportService;
     private final GroupmanagementProxyService groupManagementProxyService;
+    private final CommentRoundSnapshotService commentRoundSnapshotService;
 
     @Inject
     public CommentRoundResource(final CommentRoundService commentRoundService,
@@ -90,7 +107,8 @@ public class CommentRoundResource implements AbstractBaseResource {
                                 final CommentParser commentParser,
                                 final AuthorizationManager authorizationManager,
                                 final ExportService exportService,
-                                final GroupmanagementProxyService groupManagementProxyService) {
+                                final GroupmanagementProxyService groupManagementProxyService,
+                                final CommentRoundSnapshotService commentRoundSnapshotService) {
         this.commentRoundService = commentRoundService;
         this.commentRoundDao = commentRoundDao;
         this.commentThreadDao = commentThreadDao;
@@ -103,6 +121,7 @@ public class CommentRoundResource implements AbstractBaseResource {
         this.authorizationManager = authorizationManager;
         this.exportService = exportService;
         this.groupManagementProxyService = groupManagementProxyService;
+        this.commentRoundSnapshotService = commentRoundSnapshotService;
     }
 
     @GET
@@ -117,69 +136,23 @@ public class CommentRoundResource implements AbstractBaseResource {
                                      @Parameter(description = "Filter option for integration source name match.", in = ParameterIn.QUERY) @QueryParam("searchTerm") final String searchTerm,
                                      @Parameter(description = "Filter option for incomplete filtering for round creator only", in = ParameterIn.QUERY) @QueryParam("filterIncomplete") @DefaultValue("false") final Boolean filterIncomplete,
                                      @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
-                                     @Parameter(description = "Filter by user organizations or user id.", in = ParameterIn.QUERY) @QueryParam("filterContent") @DefaultValue("false") final boolean filterContent) {
+                                     @Parameter(description = "Filter by user organizations or user id.", in = ParameterIn.QUERY) @QueryParam("filterContent") @DefaultValue("false") final boolean filterContent,
+                                     @Parameter(description = "Pagination parameter for page size.", in = ParameterIn.QUERY) @QueryParam("pageSize") final Integer pageSize,
+                                     @Parameter(description = "Pagination parameter for start index.", in = ParameterIn.QUERY) @QueryParam("from") @DefaultValue("0") final Integer from,
+                                     @Parameter(description = "Sort field, prefix with - for descending order.", in = ParameterIn.QUERY) @QueryParam("sort") final String sort) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENTROUND, expand)));
         final Set<String> statuses = parseStatusCsl(status);
         final UUID userUuid = authorizationManager.getUserId();
-        Set<CommentRoundDTO> commentRoundDtos;
-        final boolean includeCommentThreads = checkExpandCommentThreads(expand);
+        final Meta meta = new Meta(200, pageSize, from, null, null);
+        final Set<CommentRoundDTO> commentRoundDtos;
         if (userUuid == null) {
             commentRoundDtos = new HashSet<>();
-        } else if (organizationId != null && !statuses.isEmpty() && containerType != null) {
-            commentRoundDtos = commentRoundService.findByOrganizationsIdAndSourceContainerTypeAndStatusIn(organizationId, containerType, statuses, includeCommentThreads);
-        } else if (organizationId != null && !statuses.isEmpty()) {
-            commentRoundDtos = commentRoundService.findByOrganizationsIdAndStatusIn(organizationId, statuses, includeCommentThreads);
-        } else if (organizationId != null && containerType != null) {
-            commentRoundDtos = commentRoundService.findByOrganizationsIdAndSourceContainerType(organizationId, containerType, includeCommentThreads);
-        } else if (!statuses.isEmpty() && containerType != null) {
-            commentRoundDtos = commentRoundService.findBySourceContainerTypeAndStatusIn(containerType, statuses, includeCommentThreads);
-        } else if (organizationId != null) {
-            commentRoundDtos = commentRoundService.findByOrganizationsId(organizationId, includeCommentThreads);
-        } else if (!statuses.isEmpty()) {
-            commentRoundDtos = commentRoundService.findByStatusIn(statuses, includeCommentThreads);
-        } else if (containerType != null) {
-            commentRoundDtos = commentRoundService.findBySourceContainerType(containerType, includeCommentThreads);
+            meta.setTotalResults(0);
         } else {
-            commentRoundDtos = commentRoundService.findAll(includeCommentThreads);
+            commentRoundDtos = commentRoundService.findByFilters(organizationId, statuses, containerType, searchTerm, filterIncomplete, filterContent, sort, checkExpandCommentThreads(expand), meta);
         }
-        if (filterIncomplete && commentRoundDtos != null && !commentRoundDtos.isEmpty()) {
-            commentRoundDtos = commentRoundDtos.stream().filter(commentRound -> {
-                if (STATUS_INCOMPLETE.equalsIgnoreCase(commentRound.getStatus()) && userUuid != null && commentRound.getUser() != null && userUuid.equals(commentRound.getUser().getId()) || authorizationManager.isSuperUser()) {
-                    return true;
-                } else {
-                    return !STATUS_INCOMPLETE.equalsIgnoreCase(commentRound.getStatus());
-                }
-            }).collect(Collectors.toSet());
-        }
-        if (searchTerm != null && !searchTerm.isEmpty() && commentRoundDtos != null) {
-            commentRoundDtos = commentRoundDtos.stream().filter(commentRound -> {
-                if (commentRound.getLabel().toUpperCase().startsWith(searchTerm.toUpperCase()) || commentRound.getLabel().toUpperCase().endsWith(searchTerm.toUpperCase())) {
-                    return true;
-                } else {
-                    return false;
-                }
-            }).collect(Collectors.toSet());
-        }
-        final Set<CommentRoundDTO> commentRoundDtosToReturn = new HashSet<>();
-        if (filterContent && commentRoundDtos != null && !commentRoundDtos.isEmpty()) {
-            for (final CommentRoundDTO commentRoundDto : commentRoundDtos) {
-                if (authorizationManager.getContainerUri() != null && authorizationManager.getContainerUri().equalsIgnoreCase(commentRoundDto.getUri())) {
-                    commentRoundDtosToReturn.add(commentRoundDto);
-                } else if ((commentRoundDto.getUser() != null && commentRoundDto.getUser().getId().equals(userUuid)) || authorizationManager.isSuperUser()) {
-                    commentRoundDtosToReturn.add(commentRoundDto);
-                } else if (!STATUS_INCOMPLETE.equalsIgnoreCase(commentRoundDto.getStatus())) {
-                    for (final OrganizationDTO organization : commentRoundDto.getOrganizations()) {
-                        final Set<UUID> userOrganizationIds = authorizationManager.getUserOrganizations();
-                        if (userOrganizationIds.contains(organization.getId())) {
-                            commentRoundDtosToReturn.add(commentRoundDto);
-                        }
-                    }
-                }
-            }
-        } else if (commentRoundDtos != null) {
-            commentRoundDtosToReturn.addAll(commentRoundDtos);
-        }
-        return createResponse("CommentRounds", MESSAGE_TYPE_GET_RESOURCES, commentRoundDtosToReturn);
+        meta.setResultCount(commentRoundDtos.size());
+        return createResponse("CommentRounds", MESSAGE_TYPE_GET_RESOURCES, commentRoundDtos, meta);
     }
 
     @GET
@@ -193,27 +166,74 @@ public class CommentRoundResource implements AbstractBaseResource {
     public Response getCommentRound(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                     @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
                                     @Parameter(description = "Format for output.", in = ParameterIn.QUERY) @QueryParam("format") @DefaultValue(FORMAT_JSON) final String format,
-                                    @Parameter(description = "Language for output.", in = ParameterIn.QUERY) @QueryParam("lang") @DefaultValue(LANGUAGE_CODE_EN) final String lang) {
+                                    @Parameter(description = "Language for output.", in = ParameterIn.QUERY) @QueryParam("lang") @DefaultValue(LANGUAGE_CODE_EN) final String lang,
+                                    @Context final Request request,
+                                    @Context final HttpHeaders httpHeaders,
+                                    @Context final Providers providers) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENTROUND, expand)));
-        if (FORMAT_EXCEL.equalsIgnoreCase(format)) {
-            final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
-            if (commentRound != null) {
-                final String fileName = commentRound.getLabel() + ".xlsx";
-                return streamExcelOutput(exportService.exportCommentRoundToExcel(commentRound, lang), fileName);
-            } else {
-                throw new NotFoundException();
+        final ResourceVersion commentRoundVersion = commentRoundService.findVersionByIdentifier(commentRoundIdentifier);
+        if (commentRoundVersion == null) {
+            throw new NotFoundException();
+        }
+        final boolean excelOutput = FORMAT_EXCEL.equalsIgnoreCase(format);
+        final String variant = excelOutput ? FORMAT_EXCEL + ":" + lang : FORMAT_JSON + ":" + expand;
+        final EntityTag entityTag = createEntityTag(variant, commentRoundVersion);
+        final Date lastModified = getLastModified(commentRoundVersion);
+        final Response notModifiedResponse = evaluatePreconditions(request, entityTag, lastModified);
+        if (notModifiedResponse != null) {
+            return notModifiedResponse;
+        }
+        final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
+        if (commentRound == null) {
+            throw new NotFoundException();
+        }
+        final boolean snapshotOutput = commentRoundSnapshotService.isEnabled() && STATUS_ENDED.equals(commentRound.getStatus());
+        if (excelOutput) {
+            final String fileName = commentRound.getLabel() + ".xlsx";
+            if (snapshotOutput) {
+                final byte[] snapshot = commentRoundSnapshotService.getSnapshot(commentRoundVersion, variant, () -> writeExcelOutput(exportService.exportCommentRoundToExcel(commentRound, lang)));
+                final Response response = Response.fromResponse(createSnapshotResponse(snapshot, MEDIA_TYPE_EXCEL, httpHeaders))
+                    .header(HEADER_CONTENT_DISPOSITION, "attachment; filename = " + URLEncoder.encode(fileName.replace(" ", "_"), StandardCharsets.UTF_8))
+                    .build();
+                return withValidators(response, entityTag, lastModified);
             }
+            return withValidators(streamExcelOutput(exportService.exportCommentRoundToExcel(commentRound, lang), fileName), entityTag, lastModified);
         } else {
-            final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundIdentifier, checkExpandCommentThreads(expand));
-            if (commentRound != null) {
-                if (commentRound.getCommentThreads() != null) {
-                    commentRound.setCommentThreads(commentRound.getCommentThreads().stream().sorted(Comparator.comparing(CommentThreadDTO::getResourceUri, Comparator.nullsLast(Comparator.reverseOrder()))).collect(Collectors.toCollection(LinkedHashSet::new)));
-                }
-                return Response.ok(commentRound).build();
-            } else {
-                throw new NotFoundException();
+            if (snapshotOutput) {
+                final byte[] snapshot = commentRoundSnapshotService.getSnapshot(commentRoundVersion, variant, () -> writeJsonOutput(findSortedCommentRound(commentRoundIdentifier, expand), providers));
+                return withValidators(createSnapshotResponse(snapshot, MediaType.APPLICATION_JSON + ";charset=UTF-8", httpHeaders), entityTag, lastModified);
             }
+            return withValidators(Response.ok(findSortedCommentRound(commentRoundIdentifier, expand)).build(), entityTag, lastModified);
+        }
+    }
+
+    private CommentRoundDTO findSortedCommentRound(final String commentRoundIdentifier,
+                                                   final String expand) {
+        final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundIdentifier, checkExpandCommentThreads(expand));
+        if (commentRound == null) {
+            throw new NotFoundException();
+        }
+        if (commentRound.getCommentThreads() != null) {
+            commentRound.setCommentThreads(commentRound.getCommentThreads().stream().sorted(Comparator.comparing(CommentThreadDTO::getResourceUri, Comparator.nullsLast(Comparator.reverseOrder()))).collect(Collectors.toCollection(LinkedHashSet::new)));
+        }
+        return commentRound;
+    }
+
+    /**
+     * Serializes the comment round with the JSON provider of the application, so that the filters set for the request
+     * apply and the output is identical to a regular response.
+     */
+    private byte[] writeJsonOutput(final CommentRoundDTO commentRound,
+                                   final Providers providers) {
+        final Annotation[] annotations = new Annotation[0];
+        final MessageBodyWriter<CommentRoundDTO> writer = providers.getMessageBodyWriter(CommentRoundDTO.class, CommentRoundDTO.class, annotations, MediaType.APPLICATION_JSON_TYPE);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            writer.writeTo(commentRound, CommentRoundDTO.class, CommentRoundDTO.class, annotations, MediaType.APPLICATION_JSON_TYPE, new MultivaluedHashMap<>(), output);
+        } catch (final IOException e) {
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "CommentRound serialization failed!"));
         }
+        return output.toByteArray();
     }
 
     @GET
@@ -245,13 +265,20 @@ public class CommentRoundResource implements AbstractBaseResource {
     @Transactional
     @Path("{commentRoundId}/commentthreads/")
     public Response getCommentRoundCommentThreads(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundId") final String commentRoundIdentifier,
-                                                  @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand) {
+                                                  @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
+                                                  @Context final Request request) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENTTHREAD, expand)));
-        final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundIdentifier, checkExpandCommentThreads(expand));
-        if (commentRound != null) {
-            final Set<CommentThreadDTO> commentThreadDtos = commentThreadService.findByCommentRoundId(commentRound.getId());
+        final ResourceVersion commentRoundVersion = commentRoundService.findVersionByIdentifier(commentRoundIdentifier);
+        if (commentRoundVersion != null) {
+            final EntityTag entityTag = createEntityTag(expand, commentRoundVersion);
+            final Date lastModified = getLastModified(commentRoundVersion);
+            final Response notModifiedResponse = evaluatePreconditions(request, entityTag, lastModified);
+            if (notModifiedResponse != null) {
+                return notModifiedResponse;
+            }
+            final Set<CommentThreadDTO> commentThreadDtos = commentThreadService.findByCommentRoundId(commentRoundVersion.getId());
             final Set<CommentThreadDTO> sortedThreads = commentThreadDtos.stream().sorted(Comparator.comparing(CommentThreadDTO::getResourceUri, Comparator.nullsLast(Comparator.reverseOrder()))).collect(Collectors.toCollection(LinkedHashSet::new));
-            return createResponse("CommentRound CommentThreads", MESSAGE_TYPE_GET_RESOURCES, sortedThreads);
+            return withValidators(createResponse("CommentRound CommentThreads", MESSAGE_TYPE_GET_RESOURCES, sortedThreads), entityTag, lastModified);
         }
         throw new NotFoundException();
     }
@@ -266,15 +293,23 @@ public class CommentRoundResource implements AbstractBaseResource {
     @Path("{commentRoundIdentifier}/commentthreads/{commentThreadIdentifier}")
     public Response getCommentRoundCommentThread(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                                  @Parameter(description = "CommentThread identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentThreadIdentifier") final String commentThreadIdentifier,
-                                                 @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand) {
+                                                 @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
+                                                 @Context final Request request) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENTTHREAD, expand)));
-        final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundIdentifier, checkExpandCommentThreads(expand));
-        if (commentRound != null) {
-            final CommentThreadDTO commentThread = commentThreadService.findById(commentRound.getId());
-            if (commentThread != null) {
-                return Response.ok(commentThread).build();
-            } else {
-                throw new NotFoundException();
+        final ResourceVersion commentRoundVersion = commentRoundService.findVersionByIdentifier(commentRoundIdentifier);
+        if (commentRoundVersion != null) {
+            final ResourceVersion commentThreadVersion = commentThreadDao.findVersionByCommentRoundIdAndCommentThreadIdentifier(commentRoundVersion.getId(), commentThreadIdentifier);
+            if (commentThreadVersion != null) {
+                final EntityTag entityTag = createEntityTag(expand, commentRoundVersion, commentThreadVersion);
+                final Date lastModified = getLastModified(commentRoundVersion, commentThreadVersion);
+                final Response notModifiedResponse = evaluatePreconditions(request, entityTag, lastModified);
+                if (notModifiedResponse != null) {
+                    return notModifiedResponse;
+                }
+                final CommentThreadDTO commentThread = commentThreadService.findById(commentThreadVersion.getId());
+                if (commentThread != null) {
+                    return withValidators(Response.ok(commentThread).build(), entityTag, lastModified);
+                }
             }
         }
         throw new NotFoundException();
@@ -290,14 +325,21 @@ public class CommentRoundResource implements AbstractBaseResource {
     @Path("{commentRoundIdentifier}/commentthreads/{commentThreadIdentifier}/comments")
     public Response getCommentRoundCommentThreadComments(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                                          @Parameter(description = "CommentThread identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentThreadIdentifier") final String commentThreadIdentifier,
-                                                         @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand) {
+                                                         @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
+                                                         @Context final Request request) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENT, expand)));
-        final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundIdentifier, checkExpandCommentThreads(expand));
-        if (commentRound != null) {
-            final CommentThreadDTO commentThread = commentThreadService.findByCommentRoundIdAndCommentThreadIdentifier(commentRound.getId(), commentThreadIdentifier);
-            if (commentThread != null) {
-                final Set<CommentDTO> commentDtos = commentService.findByCommentThreadId(commentThread.getId());
-                return createResponse("CommentThread Comments", MESSAGE_TYPE_GET_RESOURCES, commentDtos);
+        final ResourceVersion commentRoundVersion = commentRoundService.findVersionByIdentifier(commentRoundIdentifier);
+        if (commentRoundVersion != null) {
+            final ResourceVersion commentThreadVersion = commentThreadDao.findVersionByCommentRoundIdAndCommentThreadIdentifier(commentRoundVersion.getId(), commentThreadIdentifier);
+            if (commentThreadVersion != null) {
+                final EntityTag entityTag = createEntityTag(expand, commentRoundVersion, commentThreadVersion);
+                final Date lastModified = getLastModified(commentRoundVersion, commentThreadVersion);
+                final Response notModifiedResponse = evaluatePreconditions(request, entityTag, lastModified);
+                if (notModifiedResponse != null) {
+                    return notModifiedResponse;
+                }
+                final Set<CommentDTO> commentDtos = commentService.findByCommentThreadId(commentThreadVersion.getId());
+                return withValidators(createResponse("CommentThread Comments", MESSAGE_TYPE_GET_RESOURCES, commentDtos), entityTag, lastModified);
             }
         }
         throw new NotFoundException();
@@ -314,15 +356,25 @@ public class CommentRoundResource implements AbstractBaseResource {
     public Response getCommentRoundCommentThreadComment(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                                         @Parameter(description = "CommentThread identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentThreadIdentifier") final String commentThreadIdentifier,
                                                         @Parameter(description = "Comment identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentIdentifier") final String commentIdentifier,
-                                                        @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand) {
+                                                        @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
+                                                        @Context final Request request) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENT, expand)));
-        final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundIdentifier, checkExpandCommentThreads(expand));
-        if (commentRound != null) {
-            final CommentThreadDTO commentThread = commentThreadService.findByCommentRoundIdAndCommentThreadIdentifier(commentRound.getId(), commentThreadIdentifier);
-            if (commentThread != null) {
-                final CommentDTO commentDto = commentService.findByCommentThreadIdAndCommentIdentifier(commentThread.getId(), commentIdentifier);
-                if (commentDto != null) {
-                    return Response.ok(commentDto).build();
+        final ResourceVersion commentRoundVersion = commentRoundService.findVersionByIdentifier(commentRoundIdentifier);
+        if (commentRoundVersion != null) {
+            final ResourceVersion commentThreadVersion = commentThreadDao.findVersionByCommentRoundIdAndCommentThreadIdentifier(commentRoundVersion.getId(), commentThreadIdentifier);
+            if (commentThreadVersion != null) {
+                final ResourceVersion commentVersion = commentDao.findVersionByCommentThreadIdAndCommentIdentifier(commentThreadVersion.getId(), commentIdentifier);
+                if (commentVersion != null) {
+                    final EntityTag entityTag = createEntityTag(expand, commentRoundVersion, commentThreadVersion, commentVersion);
+                    final Date lastModified = getLastModified(commentRoundVersion, commentThreadVersion, commentVersion);
+                    final Response notModifiedResponse = evaluatePreconditions(request, entityTag, lastModified);
+                    if (notModifiedResponse != null) {
+                        return notModifiedResponse;
+                    }
+                    final CommentDTO commentDto = commentService.findById(commentVersion.getId());
+                    if (commentDto != null) {
+                        return withValidators(Response.ok(commentDto).build(), entityTag, lastModified);
+                    }
                 }
             }
         }
@@ -339,7 +391,7 @@ public class CommentRoundResource implements AbstractBaseResource {
     @Transactional
     public Response createOrUpdateCommentRounds(@Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
                                                 @Parameter(description = "Remove orphan CommentThread objects", in = ParameterIn.QUERY) @QueryParam("removeCommentThreadOrphans") @DefaultValue("false") final boolean removeCommentThreadOrphans,
-                                                @RequestBody(description = "JSON playload for commentRound data.", required = true) final String jsonPayload) {
+                                                @RequestBody(description = "JSON playload for commentRound data.", required = true) final InputStream jsonPayload) {
         if (authorizationManager.canUserAddCommentRound()) {
             ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENTROUND, expand)));
             final Set<CommentRoundDTO> commentRoundDtos = commentRoundService.addOrUpdateCommentRoundsFromDtos(commentRoundParser.parseCommentRoundsFromJson(jsonPayload), removeCommentThreadOrphans);
@@ -363,7 +415,7 @@ public class CommentRoundResource implements AbstractBaseResource {
     public Response updateCommentRound(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                        @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
                                        @Parameter(description = "Remove orphan CommentThread objects", in = ParameterIn.QUERY) @QueryParam("removeCommentThreadOrphans") @DefaultValue("false") final boolean removeCommentThreadOrphans,
-                                       @RequestBody(description = "JSON playload for CommentRound data.", required = true) final String jsonPayload) {
+                                       @RequestBody(description = "JSON playload for CommentRound data.", required = true) final InputStream jsonPayload) {
         final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
         if (commentRound != null) {
             if (authorizationManager.canUserModifyCommentRound(commentRound)) {
@@ -394,7 +446,7 @@ public class CommentRoundResource implements AbstractBaseResource {
     @Path("{commentRoundIdentifier}/comments")
     public Response createOrUpdateCommentRoundComments(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                                        @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
-                                                       @RequestBody(description = "JSON playload for commentRound commentThread data.", required = true) final String jsonPayload) {
+                                                       @RequestBody(description = "JSON playload for commentRound commentThread data.", required = true) final InputStream jsonPayload) {
         final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
         if (authorizationManager.canUserAddCommentsToCommentRound(commentRound)) {
             ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENT, expand)));
@@ -417,7 +469,7 @@ public class CommentRoundResource implements AbstractBaseResource {
     public Response createOrUpdateCommentRoundCommentThreads(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                                              @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
                                                              @Parameter(description = "Remove orphans", in = ParameterIn.QUERY) @QueryParam("removeOrphans") @DefaultValue("false") final boolean removeOrphans,
-                                                             @RequestBody(description = "JSON playload for commentRound commentThread data.", required = true) final String jsonPayload) {
+                                                             @RequestBody(description = "JSON playload for commentRound commentThread data.", required = true) final InputStream jsonPayload) {
         final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
         if (authorizationManager.canUserAddCommentThreadsToCommentRound(commentRound)) {
             ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_COMMENTTHREAD, expand)));
@@ -442,7 +494,7 @@ public class CommentRoundResource implements AbstractBaseResource {
     public Response updateCommentRoundCommentThread(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                                     @Parameter(description = "CommentThread identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentThreadIdentifier") final String commentThreadIdentifier,
                                                     @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
-                                                    @RequestBody(description = "JSON playload for commentRound data.", required = true) final String jsonPayload) {
+                                                    @RequestBody(description = "JSON playload for commentRound data.", required = true) final InputStream jsonPayload) {
         if (authorizationManager.isSuperUser()) {
             final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
             if (commentRound != null) {
@@ -473,7 +525,7 @@ public class CommentRoundResource implements AbstractBaseResource {
     public Response createOrUpdateCommentRoundCommentThreadComments(@Parameter(description = "CommentRound identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentRoundIdentifier") final String commentRoundIdentifier,
                                                                     @Parameter(description = "CommentThread identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentThreadIdentifier") final String commentThreadIdentifier,
                                                                     @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
-                                                                    @RequestBody(description = "JSON playload for commentRound commentThread data.", required = true) final String jsonPayload) {
+                                                                    @RequestBody(description = "JSON playload for commentRound commentThread data.", required = true) final InputStream jsonPayload) {
         final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
         if (authorizationManager.canUserAddCommentsToCommentRound(commentRound)) {
             final CommentThreadDTO commentThread = commentThreadService.findByCommentRoundIdAndCommentThreadIdentifier(commentRound.getId(), commentThreadIdentifier);
@@ -503,7 +555,7 @@ public class CommentRoundResource implements AbstractBaseResource {
                                                            @Parameter(description = "CommentThread identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentThreadIdentifier") final String commentThreadIdentifier,
                                                            @Parameter(description = "Comment identifier, either UUID or sequenceId.", in = ParameterIn.PATH, required = true) @PathParam("commentIdentifier") final String commentIdentifier,
                                                            @Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
-                                                           @RequestBody(description = "JSON playload for commentRound data.", required = true) final String jsonPayload) {
+                                                           @RequestBody(description = "JSON playload for commentRound data.", required = true) final InputStream jsonPayload) {
         final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundIdentifier, checkExpandCommentThreads(expand));
         if (commentRound != null) {
             final CommentThreadDTO commentThread = commentThreadService.findByCommentRoundIdAndCommentThreadIdentifier(commentRound.getId(), commentThreadIdentifier);
@@ -1,6 +1,7 @@
 package fi.vm.yti.comments.api.resource;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.HashSet;
@@ -22,10 +23,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import fi.vm.yti.comments.api.api.ResponseWrapper;
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
 import fi.vm.yti.comments.api.dto.IntegrationResourceRequestDTO;
 import fi.vm.yti.comments.api.dto.ResourceDTO;
 import fi.vm.yti.comments.api.error.ErrorModel;
@@ -47,12 +46,15 @@ public class IntegrationResource {
 
     private final CommentRoundService commentRoundService;
     private final CommentThreadService commentThreadService;
+    private final JsonMapperRegistry jsonMapperRegistry;
 
     @Inject
     public IntegrationResource(final CommentRoundService commentRoundService,
-                               final CommentThreadService commentThreadService) {
+                               final CommentThreadService commentThreadService,
+                               final JsonMapperRegistry jsonMapperRegistry) {
         this.commentRoundService = commentRoundService;
         this.commentThreadService = commentThreadService;
+        this.jsonMapperRegistry = jsonMapperRegistry;
     }
 
     @GET
@@ -63,6 +65,8 @@ public class IntegrationResource {
     public Response getContainers(@Parameter(description = "Language code for sorting results.", in = ParameterIn.QUERY) @QueryParam("language") @DefaultValue("fi") final String language,
                                   @Parameter(description = "Pagination parameter for page size.", in = ParameterIn.QUERY) @QueryParam("pageSize") final Integer pageSize,
                                   @Parameter(description = "Pagination parameter for start index.", in = ParameterIn.QUERY) @QueryParam("from") @DefaultValue("0") final Integer from,
+                                  @Parameter(description = "Pagination cursor from the nextCursor of the previous page, takes precedence over from.", in = ParameterIn.QUERY) @QueryParam("cursor") final String cursor,
+                                  @Parameter(description = "Control boolean for counting total results, can be disabled when crawling with cursors.", in = ParameterIn.QUERY) @QueryParam("includeTotalResults") @DefaultValue("true") final boolean includeTotalResults,
                                   @Parameter(description = "Status enumerations in CSL format.", in = ParameterIn.QUERY) @QueryParam("status") final String status,
                                   @Parameter(description = "After date filtering parameter, results will be codes with modified date after this ISO 8601 formatted date string.", in = ParameterIn.QUERY) @QueryParam("after") final String after,
                                   @Parameter(description = "Before date filtering parameter, results will be codes with modified date before this ISO 8601 formatted date string.", in = ParameterIn.QUERY) @QueryParam("before") final String before,
@@ -72,13 +76,14 @@ public class IntegrationResource {
                                   @Parameter(description = "Control boolean for returning all incomplete containers.", in = ParameterIn.QUERY) @QueryParam("includeIncomplete") @DefaultValue("false") final Boolean includeIncomplete,
                                   @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty) {
         final Meta meta = new Meta(200, pageSize, from, after, before);
+        meta.setCursor(cursor);
         final Set<String> includedContainerUris;
         if (uri != null) {
             includedContainerUris = parseUris(uri);
         } else {
             includedContainerUris = null;
         }
-        final Set<ResourceDTO> containers = commentRoundService.getContainers(includedContainerUris, meta);
+        final List<ResourceDTO> containers = commentRoundService.getContainers(includedContainerUris, includeTotalResults, meta);
         meta.setResultCount(containers.size());
         final ResponseWrapper<ResourceDTO> wrapper = new ResponseWrapper<>();
         wrapper.setResults(containers);
@@ -91,7 +96,7 @@ public class IntegrationResource {
     @Operation(description = "API for fetching container resources")
     @ApiResponse(responseCode = "200", description = "Returns container resources with meta element that shows details and a results list.")
     @Produces(MediaType.APPLICATION_JSON + ";charset=UTF-8")
-    public Response getContainers(@Parameter(description = "Integration resource request parameters as JSON payload.") @RequestBody final String integrationRequestData) {
+    public Response getContainers(@Parameter(description = "Integration resource request parameters as JSON payload.") @RequestBody final InputStream integrationRequestData) {
         final IntegrationResourceRequestDTO request = parseIntegrationRequestDto(integrationRequestData);
         final Integer pageSize = request.getPageSize();
         final Integer from = request.getPageFrom();
@@ -99,7 +104,8 @@ public class IntegrationResource {
         final String before = request.getBefore();
         final Set<String> containerUris = parseUrisFromList(request.getUri());
         final Meta meta = new Meta(200, pageSize, from, after, before);
-        final Set<ResourceDTO> containers = commentRoundService.getContainers(containerUris, meta);
+        meta.setCursor(request.getCursor());
+        final List<ResourceDTO> containers = commentRoundService.getContainers(containerUris, request.getIncludeTotalResults(), meta);
         meta.setResultCount(containers.size());
         final ResponseWrapper<ResourceDTO> wrapper = new ResponseWrapper<>();
         wrapper.setResults(containers);
@@ -115,6 +121,8 @@ public class IntegrationResource {
     public Response getResources(@Parameter(description = "Language code for sorting results.", in = ParameterIn.QUERY) @DefaultValue("fi") final String language,
                                  @Parameter(description = "Pagination parameter for page size.", in = ParameterIn.QUERY) @QueryParam("pageSize") final Integer pageSize,
                                  @Parameter(description = "Pagination parameter for start index.", in = ParameterIn.QUERY) @QueryParam("from") @DefaultValue("0") final Integer from,
+                                 @Parameter(description = "Pagination cursor from the nextCursor of the previous page, takes precedence over from.", in = ParameterIn.QUERY) @QueryParam("cursor") final String cursor,
+                                 @Parameter(description = "Control boolean for counting total results, can be disabled when crawling with cursors.", in = ParameterIn.QUERY) @QueryParam("includeTotalResults") @DefaultValue("true") final boolean includeTotalResults,
                                  @Parameter(description = "Status enumerations in CSL format.", in = ParameterIn.QUERY) @QueryParam("status") final String status,
                                  @Parameter(description = "After date filtering parameter, results will be codes with modified date after this ISO 8601 formatted date string.", in = ParameterIn.QUERY) @QueryParam("after") final String after,
                                  @Parameter(description = "Before date filtering parameter, results will be codes with modified date before this ISO 8601 formatted date string.", in = ParameterIn.QUERY) @QueryParam("before") final String before,
@@ -126,6 +134,7 @@ public class IntegrationResource {
                                  @Parameter(description = "Control boolean for returning resources from incomplete code lists.", in = ParameterIn.QUERY) @QueryParam("includeIncomplete") @DefaultValue("false") final Boolean includeIncomplete,
                                  @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty) {
         final Meta meta = new Meta(200, pageSize, from, after, before);
+        meta.setCursor(cursor);
         final Set<String> includedResourceUris;
         if (uri != null && !uri.isEmpty()) {
             includedResourceUris = parseUris(uri);
@@ -138,7 +147,7 @@ public class IntegrationResource {
         } else {
             containerUris = null;
         }
-        final Set<ResourceDTO> resources = commentThreadService.getResources(includedResourceUris, containerUris, meta);
+        final List<ResourceDTO> resources = commentThreadService.getResources(includedResourceUris, containerUris, includeTotalResults, meta);
         meta.setResultCount(resources.size());
         final ResponseWrapper<ResourceDTO> wrapper = new ResponseWrapper<>();
         wrapper.setResults(resources);
@@ -151,7 +160,7 @@ public class IntegrationResource {
     @Operation(description = "API for fetching resources for a container")
     @ApiResponse(responseCode = "200", description = "Returns resources for a specific container with meta element that shows details and a results list.")
     @Produces(MediaType.APPLICATION_JSON + ";charset=UTF-8")
-    public Response getResources(@Parameter(description = "Integration resource request parameters as JSON payload.") @RequestBody final String integrationRequestData) {
+    public Response getResources(@Parameter(description = "Integration resource request parameters as JSON payload.") @RequestBody final InputStream integrationRequestData) {
         final IntegrationResourceRequestDTO request = parseIntegrationRequestDto(integrationRequestData);
         final Set<String> containerUris = parseUrisFromList(request.getContainer());
         final Integer pageSize = request.getPageSize();
@@ -160,7 +169,8 @@ public class IntegrationResource {
         final String before = request.getBefore();
         final Set<String> includedResourceUris = parseUrisFromList(request.getUri());
         final Meta meta = new Meta(200, pageSize, from, after, before);
-        final Set<ResourceDTO> resources = commentThreadService.getResources(includedResourceUris, containerUris, meta);
+        meta.setCursor(request.getCursor());
+        final List<ResourceDTO> resources = commentThreadService.getResources(includedResourceUris, containerUris, request.getIncludeTotalResults(), meta);
         meta.setResultCount(resources.size());
         final ResponseWrapper<ResourceDTO> wrapper = new ResponseWrapper<>();
         wrapper.setResults(resources);
@@ -168,11 +178,9 @@ public class IntegrationResource {
         return Response.ok(wrapper).build();
     }
 
-    private IntegrationResourceRequestDTO parseIntegrationRequestDto(final String integrationRequestData) {
+    private IntegrationResourceRequestDTO parseIntegrationRequestDto(final InputStream integrationRequestData) {
         try {
-            final ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(integrationRequestData, new TypeReference<IntegrationResourceRequestDTO>() {
-            });
+            return jsonMapperRegistry.readerFor(IntegrationResourceRequestDTO.class).readValue(integrationRequestData);
         } catch (IOException e) {
             throw new YtiCommentsException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), "Malformed resources in request body!"));
         }
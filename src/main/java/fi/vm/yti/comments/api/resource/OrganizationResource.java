@@ -1,5 +1,6 @@
 package fi.vm.yti.comments.api.resource;
 
+import java.util.Arrays;
 import java.util.Set;
 import java.util.UUID;
 
@@ -27,6 +28,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import static fi.vm.yti.comments.api.constants.ApiConstants.FILTER_NAME_COMMENTROUND;
 import static fi.vm.yti.comments.api.constants.ApiConstants.FILTER_NAME_ORGANIZATION;
 
 @Component
@@ -50,7 +52,8 @@ public class OrganizationResource implements AbstractBaseResource {
     public Response getOrganizations(@Parameter(description = "Filter string (csl) for expanding specific child objects.", in = ParameterIn.QUERY) @QueryParam("expand") final String expand,
                                      @Parameter(description = "A boolean value for only returning Organizations with CommentRounds.", in = ParameterIn.QUERY) @QueryParam("hasCommentRounds") final boolean hasCommentRounds) {
         ObjectWriterInjector.set(new AbstractBaseResource.FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_ORGANIZATION, expand)));
-        final Set<OrganizationDTO> organizations = organizationService.findByRemovedIsFalse(hasCommentRounds);
+        final boolean expandCommentRounds = expand != null && Arrays.stream(expand.split(",")).map(String::trim).anyMatch(FILTER_NAME_COMMENTROUND::equals);
+        final Set<OrganizationDTO> organizations = organizationService.findByRemovedIsFalse(hasCommentRounds, expandCommentRounds);
         return createResponse("Organizations", MESSAGE_TYPE_GET_RESOURCES, organizations);
     }
 
@@ -1,5 +1,6 @@
 package fi.vm.yti.comments.api.resource;
 
+import java.io.InputStream;
 import java.util.Set;
 import java.util.UUID;
 
@@ -79,7 +80,7 @@ public class SourceResource implements AbstractBaseResource {
     @ApiResponse(responseCode = "200", description = "Returns created or updated Sources after storing them to database.", content = { @Content(array = @ArraySchema(schema = @Schema(implementation = SourceDTO.class))) })
     @ApiResponse(responseCode = "406", description = "Data payload error, please check input data.")
     @Transactional
-    public Response createOrUpdateSources(@Parameter(description = "JSON playload for source data.", required = true) final String jsonPayload) {
+    public Response createOrUpdateSources(@Parameter(description = "JSON playload for source data.", required = true) final InputStream jsonPayload) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProvider(null, null)));
         final Set<SourceDTO> sourceDtos = sourceService.addOrUpdateSourcesFromDtos(sourceParser.parseSourcesFromJson(jsonPayload));
         return createResponse("Sources", MESSAGE_TYPE_ADDED_OR_MODIFIED, sourceDtos);
@@ -94,7 +95,7 @@ public class SourceResource implements AbstractBaseResource {
     @Transactional
     @Path("{sourceId}")
     public Response updateSource(@Parameter(description = "Source UUID.", in = ParameterIn.PATH, required = true) @PathParam("sourceId") final UUID sourceId,
-                                 @Parameter(description = "JSON playload for source data.", required = true) final String jsonPayload) {
+                                 @Parameter(description = "JSON playload for source data.", required = true) final InputStream jsonPayload) {
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProviderWithSingleFilter(FILTER_NAME_SOURCE, null)));
         final SourceDTO source = sourceParser.parseSourceFromJson(jsonPayload);
         if (source != null) {
@@ -2,6 +2,7 @@ package fi.vm.yti.comments.api.resource;
 
 import java.text.ParseException;
 import java.util.Date;
+import java.util.List;
 
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
@@ -16,17 +17,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
 
 import fi.vm.yti.comments.api.api.ApiUtils;
 import fi.vm.yti.comments.api.dto.SystemMetaCountDTO;
 import fi.vm.yti.comments.api.error.ErrorModel;
+import fi.vm.yti.comments.api.exception.UnauthorizedException;
 import fi.vm.yti.comments.api.exception.YtiCommentsException;
 import fi.vm.yti.comments.api.jpa.CommentRepository;
 import fi.vm.yti.comments.api.jpa.CommentRoundRepository;
 import fi.vm.yti.comments.api.jpa.CommentThreadRepository;
+import fi.vm.yti.comments.api.model.ScheduledJobStatus;
+import fi.vm.yti.comments.api.scheduler.ScheduledJobRunner;
+import fi.vm.yti.comments.api.security.AuthorizationManager;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -45,15 +50,21 @@ public class SystemResource implements AbstractBaseResource {
     private final CommentRoundRepository commentRoundRepository;
     private final CommentThreadRepository commentThreadRepository;
     private final CommentRepository commentRepository;
+    private final ScheduledJobRunner scheduledJobRunner;
+    private final AuthorizationManager authorizationManager;
 
     public SystemResource(final ApiUtils apiUtils,
                           final CommentRoundRepository commentRoundRepository,
                           final CommentThreadRepository commentThreadRepository,
-                          final CommentRepository commentRepository) {
+                          final CommentRepository commentRepository,
+                          final ScheduledJobRunner scheduledJobRunner,
+                          final AuthorizationManager authorizationManager) {
         this.apiUtils = apiUtils;
         this.commentRoundRepository = commentRoundRepository;
         this.commentThreadRepository = commentThreadRepository;
         this.commentRepository = commentRepository;
+        this.scheduledJobRunner = scheduledJobRunner;
+        this.authorizationManager = authorizationManager;
     }
 
     @GET
@@ -62,31 +73,31 @@ public class SystemResource implements AbstractBaseResource {
     @Operation(summary = "Get configuration values as JSON")
     @ApiResponse(responseCode = "200", description = "Returns the configuration JSON element to the frontend related to this service.")
     public Response getConfig() {
-        final ObjectMapper mapper = new ObjectMapper();
-        final ObjectNode configJson = mapper.createObjectNode();
+        final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+        final ObjectNode configJson = nodeFactory.objectNode();
 
         final String groupManagementPublicUrl = apiUtils.getGroupmanagementPublicUrl();
-        final ObjectNode groupManagementConfig = mapper.createObjectNode();
+        final ObjectNode groupManagementConfig = nodeFactory.objectNode();
         groupManagementConfig.put("url", groupManagementPublicUrl);
         configJson.set("groupManagementConfig", groupManagementConfig);
 
         final String datamodelPublicUrl = apiUtils.getDataModelPublicUrl();
-        final ObjectNode dataModelConfig = mapper.createObjectNode();
+        final ObjectNode dataModelConfig = nodeFactory.objectNode();
         dataModelConfig.put("url", datamodelPublicUrl);
         configJson.set("dataModelConfig", dataModelConfig);
 
         final String terminologyPublicUrl = apiUtils.getTerminologyPublicUrl();
-        final ObjectNode terminologyConfig = mapper.createObjectNode();
+        final ObjectNode terminologyConfig = nodeFactory.objectNode();
         terminologyConfig.put("url", terminologyPublicUrl);
         configJson.set("terminologyConfig", terminologyConfig);
 
         final String codelistPublicUrl = apiUtils.getCodelistPublicUrl();
-        final ObjectNode codelistConfig = mapper.createObjectNode();
+        final ObjectNode codelistConfig = nodeFactory.objectNode();
         codelistConfig.put("url", codelistPublicUrl);
         configJson.set("codelistConfig", codelistConfig);
 
         final boolean messagingEnabled = apiUtils.getMessagingEnabled();
-        final ObjectNode messagingConfig = mapper.createObjectNode();
+        final ObjectNode messagingConfig = nodeFactory.objectNode();
         messagingConfig.put("enabled", messagingEnabled);
         configJson.set("messagingConfig", messagingConfig);
 
@@ -117,6 +128,20 @@ public class SystemResource implements AbstractBaseResource {
         }
     }
 
+    @GET
+    @Path("jobs")
+    @Produces(MediaType.APPLICATION_JSON + ";charset=UTF-8")
+    @Operation(summary = "Get the status of the latest runs of scheduled jobs")
+    @ApiResponse(responseCode = "200", description = "Returns the latest run status of cluster wide jobs and of the jobs running on this node as JSON.")
+    @ApiResponse(responseCode = "401", description = "Not authorized for given action.")
+    public Response getScheduledJobStatuses() {
+        if (!authorizationManager.isSuperUser()) {
+            throw new UnauthorizedException();
+        }
+        final List<ScheduledJobStatus> jobStatuses = scheduledJobRunner.getJobStatuses();
+        return Response.ok(jobStatuses).build();
+    }
+
     private Date parseDateFromString(final String dateString) {
         if (dateString != null) {
             try {
@@ -21,10 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import fi.vm.yti.comments.api.api.ApiUtils;
 import fi.vm.yti.comments.api.configuration.UriProperties;
@@ -84,10 +82,7 @@ public class UriResolverResource implements AbstractBaseResource {
         String uriNoScheme = uri.replaceFirst("https?://", "");
         ensureUriHost(uriNoScheme, uriProperties.getHost() + uriProperties.getContextPath());
         final String uriPath = resolveUri.getPath();
-        final ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-        objectMapper.registerModule(new JavaTimeModule());
-        final ObjectNode json = objectMapper.createObjectNode();
+        final ObjectNode json = JsonNodeFactory.instance.objectNode();
         json.put("uri", uri);
         checkResourceValidity(uriPath);
         final String resourcePath = uriPath.substring(uriProperties.getContextPath().length() + 1);
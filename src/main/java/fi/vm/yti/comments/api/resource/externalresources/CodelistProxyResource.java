@@ -9,12 +9,12 @@ import javax.ws.rs.core.Response;
 
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import fi.vm.yti.comments.api.configuration.CodelistProperties;
 import fi.vm.yti.comments.api.dto.IntegrationContainerRequestDTO;
 import fi.vm.yti.comments.api.dto.IntegrationResourceRequestDTO;
 import fi.vm.yti.comments.api.dto.ResourceDTO;
+import fi.vm.yti.comments.api.service.IntegrationResourceService;
 import fi.vm.yti.security.AuthenticatedUserProvider;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -33,15 +33,15 @@ public class CodelistProxyResource implements AbstractIntegrationResource {
 
     private final CodelistProperties codelistProperties;
     private final AuthenticatedUserProvider authenticatedUserProvider;
-    private final RestTemplate restTemplate;
+    private final IntegrationResourceService integrationResourceService;
 
     @Inject
     public CodelistProxyResource(final CodelistProperties codelistProperties,
                                  final AuthenticatedUserProvider authenticatedUserProvider,
-                                 final RestTemplate restTemplate) {
+                                 final IntegrationResourceService integrationResourceService) {
         this.codelistProperties = codelistProperties;
         this.authenticatedUserProvider = authenticatedUserProvider;
-        this.restTemplate = restTemplate;
+        this.integrationResourceService = integrationResourceService;
     }
 
     @POST
@@ -51,7 +51,7 @@ public class CodelistProxyResource implements AbstractIntegrationResource {
     @ApiResponse(responseCode = "200", description = "Returns success.", content = { @Content(array = @ArraySchema(schema = @Schema(implementation = ResourceDTO.class))) })
     public Response getContainers(@RequestBody(description = "Request related parameters in request body.", content = @Content(schema = @Schema(implementation = IntegrationContainerRequestDTO.class))) final String searchQuery) {
         checkUser(authenticatedUserProvider);
-        return fetchIntegrationContainerData(createCodelistContainerApiUrl(), restTemplate, HttpMethod.POST, searchQuery);
+        return fetchIntegrationContainerData(createCodelistContainerApiUrl(), integrationResourceService, HttpMethod.POST, searchQuery);
     }
 
     @POST
@@ -61,7 +61,7 @@ public class CodelistProxyResource implements AbstractIntegrationResource {
     @ApiResponse(responseCode = "200", description = "Returns success.", content = { @Content(array = @ArraySchema(schema = @Schema(implementation = ResourceDTO.class))) })
     public Response getResources(@RequestBody(description = "Request related parameters in request body.", content = @Content(schema = @Schema(implementation = IntegrationResourceRequestDTO.class))) final String searchQuery) {
         checkUser(authenticatedUserProvider);
-        return fetchIntegrationResources(createCodelistResourcesApiUrl(), RESOURCES, restTemplate, HttpMethod.POST, searchQuery);
+        return fetchIntegrationResources(createCodelistResourcesApiUrl(), RESOURCES, integrationResourceService, HttpMethod.POST, searchQuery);
     }
 
     private String createCodelistContainerApiUrl() {
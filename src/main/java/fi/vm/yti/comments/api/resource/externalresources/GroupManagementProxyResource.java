@@ -21,12 +21,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 
 import fi.vm.yti.comments.api.api.ResponseWrapper;
 import fi.vm.yti.comments.api.configuration.GroupManagementProperties;
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
 import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.error.Meta;
 import fi.vm.yti.comments.api.exception.UnauthorizedException;
@@ -55,14 +53,17 @@ public class GroupManagementProxyResource implements AbstractBaseResource {
     private final AuthenticatedUserProvider authenticatedUserProvider;
     private final GroupManagementProperties groupManagementProperties;
     private final RestTemplate restTemplate;
+    private final JsonMapperRegistry jsonMapperRegistry;
 
     @Inject
     public GroupManagementProxyResource(final GroupManagementProperties groupManagementProperties,
                                         final AuthenticatedUserProvider authenticatedUserProvider,
-                                        final RestTemplate restTemplate) {
+                                        final RestTemplate restTemplate,
+                                        final JsonMapperRegistry jsonMapperRegistry) {
         this.groupManagementProperties = groupManagementProperties;
         this.authenticatedUserProvider = authenticatedUserProvider;
         this.restTemplate = restTemplate;
+        this.jsonMapperRegistry = jsonMapperRegistry;
     }
 
     @GET
@@ -76,12 +77,9 @@ public class GroupManagementProxyResource implements AbstractBaseResource {
             throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
         }
         final String response = restTemplate.getForObject(createGroupManagementRequestsApiUrl(user.getId().toString()), String.class);
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
         if (response != null) {
             try {
-                final Set<GroupManagementUserRequest> userRequests = mapper.readValue(response, new TypeReference<Set<GroupManagementUserRequest>>() {
-                });
+                final Set<GroupManagementUserRequest> userRequests = jsonMapperRegistry.readerForSetOf(GroupManagementUserRequest.class).readValue(response);
                 final Meta meta = new Meta();
                 final ResponseWrapper<GroupManagementUserRequest> wrapper = new ResponseWrapper<>(meta);
                 meta.setCode(200);
@@ -1,10 +1,11 @@
 package fi.vm.yti.comments.api.scheduler;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.Set;
+import java.util.List;
 
 import javax.inject.Inject;
 
@@ -12,11 +13,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import fi.vm.yti.comments.api.dao.CommentRoundDao;
-import fi.vm.yti.comments.api.entity.CommentRound;
-import fi.vm.yti.comments.api.service.GroupmanagementProxyService;
 import static fi.vm.yti.comments.api.constants.ApiConstants.*;
 
 @Component
@@ -24,55 +24,42 @@ public class CommentRoundScheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(CommentRoundScheduler.class);
 
+    private static final String JOB_NAME = "commentround-status";
+    private static final Duration LEASE_DURATION = Duration.ofHours(1);
+
     private final CommentRoundDao commentRoundDao;
-    private final GroupmanagementProxyService groupmanagementProxyService;
+    private final ScheduledJobRunner scheduledJobRunner;
+    private final TransactionTemplate transactionTemplate;
 
     @Inject
     public CommentRoundScheduler(final CommentRoundDao commentRoundDao,
-                                 final GroupmanagementProxyService groupmanagementProxyService) {
+                                 final ScheduledJobRunner scheduledJobRunner,
+                                 final PlatformTransactionManager transactionManager) {
         this.commentRoundDao = commentRoundDao;
-        this.groupmanagementProxyService = groupmanagementProxyService;
+        this.scheduledJobRunner = scheduledJobRunner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     @Scheduled(cron = "0 0 0 * * *", zone = "Europe/Ljubljana")
     public void updateCommentRoundStatuses() {
-        updateStatuses();
+        scheduledJobRunner.runOncePerCluster(JOB_NAME, LEASE_DURATION, () -> transactionTemplate.executeWithoutResult(status -> updateStatuses()));
     }
 
-    @Transactional
-    public void updateStatuses() {
+    private void updateStatuses() {
         final ZonedDateTime zonedDateTime = ZonedDateTime.now().withZoneSameInstant(ZoneId.of("Europe/Ljubljana"));
         LOG.info("*** Scheduled checking for comment round status changes at " + zonedDateTime + " ***");
-        changeRoundStatuses(zonedDateTime, STATUS_INPROGRESS, STATUS_ENDED);
-        changeRoundStatuses(zonedDateTime, STATUS_AWAIT, STATUS_INPROGRESS);
-        changeRoundStatuses(zonedDateTime, STATUS_INCOMPLETE, STATUS_INPROGRESS);
+        final LocalDate localDate = zonedDateTime.toLocalDate();
+        final LocalDateTime modifiedTimeStamp = zonedDateTime.withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime();
+        logStatusChanges(commentRoundDao.updateStatusByEndDateBefore(STATUS_INPROGRESS, STATUS_ENDED, localDate, modifiedTimeStamp), STATUS_INPROGRESS, STATUS_ENDED);
+        logStatusChanges(commentRoundDao.updateStatusByStartDateAndQueueInvitations(STATUS_AWAIT, STATUS_INPROGRESS, localDate, modifiedTimeStamp), STATUS_AWAIT, STATUS_INPROGRESS);
+        logStatusChanges(commentRoundDao.updateStatusByStartDateAndQueueInvitations(STATUS_INCOMPLETE, STATUS_INPROGRESS, localDate, modifiedTimeStamp), STATUS_INCOMPLETE, STATUS_INPROGRESS);
     }
 
-    private void changeRoundStatuses(final ZonedDateTime runTime,
-                                     final String currentStatus,
-                                     final String endStatus) {
-        final Set<CommentRound> commentRounds;
-        final LocalDate localDate = runTime.toLocalDate();
-        if (endStatus.equalsIgnoreCase(STATUS_ENDED)) {
-            commentRounds = commentRoundDao.findByStatusAndEndDateBefore(currentStatus, localDate);
-        } else {
-            commentRounds = commentRoundDao.findByStatusAndStartDateLessThanEqual(currentStatus, localDate);
-        }
-        if (endStatus.equalsIgnoreCase(STATUS_INPROGRESS) && commentRounds != null && commentRounds.size() > 0) {
-            commentRounds.forEach(commentRound -> groupmanagementProxyService.sendInvitationEmailsToRound(commentRound.getUri()));
-        }
-        if (commentRounds != null) {
-            commentRounds.forEach(commentRound -> {
-                commentRound.setStatus(endStatus);
-                final LocalDateTime modifiedTimeStamp = runTime.withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime();
-                commentRound.setModified(modifiedTimeStamp);
-                commentRound.setStatusModified(modifiedTimeStamp);
-            });
-            commentRoundDao.saveAll(commentRounds);
-            if (commentRounds.size() > 0) {
-                LOG.info("Updated " + commentRounds.size() + " comment round statuses from " + currentStatus + " to " + endStatus);
-            }
+    private void logStatusChanges(final List<String> commentRoundUris,
+                                  final String currentStatus,
+                                  final String endStatus) {
+        if (!commentRoundUris.isEmpty()) {
+            LOG.info("Updated " + commentRoundUris.size() + " comment round statuses from " + currentStatus + " to " + endStatus);
         }
     }
 }
@@ -0,0 +1,90 @@
+package fi.vm.yti.comments.api.scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.comments.api.dao.InvitationOutboxDao;
+import fi.vm.yti.comments.api.entity.InvitationOutboxEntry;
+import fi.vm.yti.comments.api.service.GroupmanagementProxyService;
+
+/**
+ * Sends the invitation emails queued to the outbox by comment round status changes. Failed sends are retried with
+ * exponential backoff until the maximum number of attempts is reached.
+ *
+ * Entries are claimed and their results recorded in two short transactions, and the emails are sent in between
+ * without holding row locks or a database connection.
+ */
+@Component
+public class InvitationOutboxWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvitationOutboxWorker.class);
+
+    private static final String JOB_NAME = "invitation-outbox";
+    private static final int BATCH_SIZE = 20;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long INITIAL_BACKOFF_SECONDS = 60;
+    private static final long MAX_BACKOFF_SECONDS = 6 * 60 * 60;
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final long CLAIM_SECONDS = 15 * 60;
+
+    private final InvitationOutboxDao invitationOutboxDao;
+    private final GroupmanagementProxyService groupmanagementProxyService;
+    private final ScheduledJobRunner scheduledJobRunner;
+
+    @Inject
+    public InvitationOutboxWorker(final InvitationOutboxDao invitationOutboxDao,
+                                  final GroupmanagementProxyService groupmanagementProxyService,
+                                  final ScheduledJobRunner scheduledJobRunner) {
+        this.invitationOutboxDao = invitationOutboxDao;
+        this.groupmanagementProxyService = groupmanagementProxyService;
+        this.scheduledJobRunner = scheduledJobRunner;
+    }
+
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void sendPendingInvitations() {
+        scheduledJobRunner.runOnEachNode(JOB_NAME, Duration.ZERO, this::sendInvitations);
+    }
+
+    private void sendInvitations() {
+        final LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        final List<InvitationOutboxEntry> entries = invitationOutboxDao.claimPending(now, now.plusSeconds(CLAIM_SECONDS), MAX_ATTEMPTS, BATCH_SIZE);
+        if (entries.isEmpty()) {
+            return;
+        }
+        for (final InvitationOutboxEntry entry : entries) {
+            final int attempts = entry.getAttempts();
+            try {
+                groupmanagementProxyService.sendInvitationEmailsToRound(entry.getContainerUri());
+                entry.setSent(LocalDateTime.now(ZoneId.of("UTC")));
+                entry.setLastError(null);
+            } catch (final RuntimeException e) {
+                entry.setNextAttempt(LocalDateTime.now(ZoneId.of("UTC")).plusSeconds(getBackoffSeconds(attempts)));
+                entry.setLastError(truncate(String.valueOf(e.getMessage())));
+                if (attempts >= MAX_ATTEMPTS) {
+                    LOG.error("Sending invitation emails for comment round " + entry.getContainerUri() + " failed, giving up after " + attempts + " attempts.", e);
+                } else {
+                    LOG.warn("Sending invitation emails for comment round " + entry.getContainerUri() + " failed on attempt " + attempts + ", retrying at " + entry.getNextAttempt() + ".");
+                }
+            }
+        }
+        invitationOutboxDao.saveAttempts(entries);
+    }
+
+    private long getBackoffSeconds(final int attempts) {
+        final long backoffSeconds = INITIAL_BACKOFF_SECONDS << Math.min(attempts - 1, 16);
+        return Math.min(backoffSeconds, MAX_BACKOFF_SECONDS);
+    }
+
+    private String truncate(final String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
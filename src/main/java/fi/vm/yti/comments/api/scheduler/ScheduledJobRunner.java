@@ -0,0 +1,125 @@
+package fi.vm.yti.comments.api.scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.comments.api.dao.ScheduledJobDao;
+import fi.vm.yti.comments.api.model.ScheduledJobStatus;
+import static fi.vm.yti.comments.api.model.ScheduledJobStatus.*;
+
+/**
+ * Runs scheduled jobs either once per cluster, guarded by a lease in the scheduled_job table, or on every node with a
+ * random start delay, and keeps track of the outcome of their latest runs. The runner does not open a transaction
+ * around the job, so jobs calling upstream services keep their transactions to the steps that write to the database.
+ */
+@Component
+public class ScheduledJobRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduledJobRunner.class);
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final ScheduledJobDao scheduledJobDao;
+    private final TaskScheduler taskScheduler;
+    private final String nodeName;
+    private final Map<String, ScheduledJobStatus> localJobStatuses = new ConcurrentHashMap<>();
+
+    @Inject
+    public ScheduledJobRunner(final ScheduledJobDao scheduledJobDao,
+                              final TaskScheduler taskScheduler) {
+        this(scheduledJobDao, taskScheduler, ManagementFactory.getRuntimeMXBean().getName());
+    }
+
+    ScheduledJobRunner(final ScheduledJobDao scheduledJobDao,
+                       final TaskScheduler taskScheduler,
+                       final String nodeName) {
+        this.scheduledJobDao = scheduledJobDao;
+        this.taskScheduler = taskScheduler;
+        this.nodeName = nodeName;
+    }
+
+    /**
+     * Runs the job on the node that acquires the lease of the job. The lease is kept until it expires,
+     * so the other nodes firing the same schedule within the lease duration skip the run.
+     */
+    public void runOncePerCluster(final String jobName,
+                                  final Duration leaseDuration,
+                                  final Runnable job) {
+        if (!scheduledJobDao.acquireLease(jobName, nodeName, leaseDuration)) {
+            LOG.debug("Scheduled job " + jobName + " is leased by another node, skipping run.");
+            return;
+        }
+        final LocalDateTime started = now();
+        scheduledJobDao.updateLastRun(jobName, nodeName, started, null, STATUS_RUNNING, null);
+        try {
+            job.run();
+            scheduledJobDao.updateLastRun(jobName, nodeName, started, now(), STATUS_SUCCEEDED, null);
+        } catch (final RuntimeException e) {
+            LOG.error("Scheduled job " + jobName + " failed.", e);
+            scheduledJobDao.updateLastRun(jobName, nodeName, started, now(), STATUS_FAILED, truncate(e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs the job on this node after a random delay of at most maxJitter, so that nodes do not hit upstream services
+     * at the same moment.
+     */
+    public void runOnEachNode(final String jobName,
+                              final Duration maxJitter,
+                              final Runnable job) {
+        final long jitterMillis = maxJitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(maxJitter.toMillis());
+        if (jitterMillis > 0) {
+            taskScheduler.schedule(() -> runLocally(jobName, job), Instant.now().plusMillis(jitterMillis));
+        } else {
+            runLocally(jobName, job);
+        }
+    }
+
+    public List<ScheduledJobStatus> getJobStatuses() {
+        final List<ScheduledJobStatus> jobStatuses = new ArrayList<>();
+        scheduledJobDao.findAll().forEach(job -> jobStatuses.add(new ScheduledJobStatus(job.getName(), true, job.getLastNode(), job.getLastStarted(), job.getLastFinished(), job.getLastStatus(), job.getLastError())));
+        jobStatuses.addAll(localJobStatuses.values());
+        jobStatuses.sort(Comparator.comparing(ScheduledJobStatus::getName));
+        return jobStatuses;
+    }
+
+    private void runLocally(final String jobName,
+                            final Runnable job) {
+        final LocalDateTime started = now();
+        localJobStatuses.put(jobName, new ScheduledJobStatus(jobName, false, nodeName, started, null, STATUS_RUNNING, null));
+        try {
+            job.run();
+            localJobStatuses.put(jobName, new ScheduledJobStatus(jobName, false, nodeName, started, now(), STATUS_SUCCEEDED, null));
+        } catch (final RuntimeException e) {
+            LOG.error("Scheduled job " + jobName + " failed.", e);
+            localJobStatuses.put(jobName, new ScheduledJobStatus(jobName, false, nodeName, started, now(), STATUS_FAILED, truncate(e.getMessage())));
+        }
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+
+    private String truncate(final String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -10,6 +10,7 @@ import fi.vm.yti.comments.api.dto.CommentRoundDTO;
 import fi.vm.yti.comments.api.dto.ResourceDTO;
 import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.error.Meta;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 
 public interface CommentRoundService {
 
@@ -17,31 +18,15 @@ public interface CommentRoundService {
 
     Set<CommentRoundDTO> findAll(final PageRequest pageable);
 
-    Set<CommentRoundDTO> findByOrganizationsIdAndStatusIn(final UUID organizationId,
-                                                          final Set<String> statuses,
-                                                          final boolean includeCommentThreads);
-
-    Set<CommentRoundDTO> findByOrganizationsId(final UUID organizationId,
-                                               final boolean includeCommentThreads);
-
-    Set<CommentRoundDTO> findByStatusIn(final Set<String> statuses,
-                                        final boolean includeCommentThreads);
-
-    Set<CommentRoundDTO> findBySourceContainerType(final String containerType,
-                                                   final boolean includeCommentThreads);
-
-    Set<CommentRoundDTO> findByOrganizationsIdAndSourceContainerTypeAndStatusIn(final UUID organizationId,
-                                                                                final String containerType,
-                                                                                final Set<String> statuses,
-                                                                                final boolean includeCommentThreads);
-
-    Set<CommentRoundDTO> findByOrganizationsIdAndSourceContainerType(final UUID organizationId,
-                                                                     final String containerType,
-                                                                     final boolean includeCommentThreads);
-
-    Set<CommentRoundDTO> findBySourceContainerTypeAndStatusIn(final String containerType,
-                                                              final Set<String> statuses,
-                                                              final boolean includeCommentThreads);
+    Set<CommentRoundDTO> findByFilters(final UUID organizationId,
+                                       final Set<String> statuses,
+                                       final String containerType,
+                                       final String searchTerm,
+                                       final boolean filterIncomplete,
+                                       final boolean filterContent,
+                                       final String sort,
+                                       final boolean includeCommentThreads,
+                                       final Meta meta);
 
     CommentRoundDTO findById(final UUID commentRoundId,
                              final boolean includeCommentThreads);
@@ -49,6 +34,13 @@ public interface CommentRoundService {
     CommentRoundDTO findByIdentifier(final String commentRoundIdentifier,
                                      final boolean includeCommentThreads);
 
+    /**
+     * Returns the version of the comment round output, which also covers the user directory and the organizations of
+     * the round, as the output embeds user and organization data that change without touching the round itself. Both
+     * the entity tag of the output and the snapshot key of ended rounds are built from this version.
+     */
+    ResourceVersion findVersionByIdentifier(final String commentRoundIdentifier);
+
     CommentRoundDTO addOrUpdateCommentRoundFromDto(final CommentRoundDTO fromCommentRound,
                                                    final boolean removeCommentThreadOrphans);
 
@@ -57,6 +49,7 @@ public interface CommentRoundService {
 
     void deleteCommentRound(final CommentRound commentRound);
 
-    Set<ResourceDTO> getContainers(final Set<String> commentRoundUris,
-                                   final Meta meta);
+    List<ResourceDTO> getContainers(final Set<String> commentRoundUris,
+                                    final boolean includeTotalResults,
+                                    final Meta meta);
 }
@@ -0,0 +1,22 @@
+package fi.vm.yti.comments.api.service;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import fi.vm.yti.comments.api.model.ResourceVersion;
+
+public interface CommentRoundSnapshotService {
+
+    boolean isEnabled();
+
+    /**
+     * Returns the gzip compressed snapshot of the given variant of the comment round version, creating it with the
+     * content supplier on first request. The version must come from CommentRoundService.findVersionByIdentifier, the
+     * same version the entity tag of the response is built from.
+     */
+    byte[] getSnapshot(final ResourceVersion commentRoundVersion,
+                       final String variant,
+                       final Supplier<byte[]> contentSupplier);
+
+    void evict(final UUID commentRoundId);
+}
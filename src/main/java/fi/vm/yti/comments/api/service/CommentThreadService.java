@@ -1,5 +1,6 @@
 package fi.vm.yti.comments.api.service;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -32,7 +33,8 @@ public interface CommentThreadService {
 
     void deleteCommentThread(final CommentThread commentThread);
 
-    Set<ResourceDTO> getResources(final Set<String> commentThreadUris,
-                                  final Set<String> containerUri,
-                                  final Meta meta);
+    List<ResourceDTO> getResources(final Set<String> commentThreadUris,
+                                   final Set<String> containerUri,
+                                   final boolean includeTotalResults,
+                                   final Meta meta);
 }
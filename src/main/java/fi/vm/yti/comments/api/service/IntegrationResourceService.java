@@ -0,0 +1,14 @@
+package fi.vm.yti.comments.api.service;
+
+import java.util.Set;
+
+import org.springframework.http.HttpMethod;
+
+import fi.vm.yti.comments.api.dto.ResourceDTO;
+
+public interface IntegrationResourceService {
+
+    Set<ResourceDTO> fetchIntegrationResources(final String requestUrl,
+                                               final HttpMethod httpMethod,
+                                               final String requestBody);
+}
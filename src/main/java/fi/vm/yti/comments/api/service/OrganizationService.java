@@ -4,14 +4,16 @@ import java.util.Set;
 import java.util.UUID;
 
 import fi.vm.yti.comments.api.dto.OrganizationDTO;
+import fi.vm.yti.comments.api.model.OrganizationSyncResult;
 
 public interface OrganizationService {
 
     Set<OrganizationDTO> findAll();
 
-    Set<OrganizationDTO> findByRemovedIsFalse(final boolean hasCommentRounds);
+    Set<OrganizationDTO> findByRemovedIsFalse(final boolean hasCommentRounds,
+                                              final boolean expandCommentRounds);
 
     OrganizationDTO findById(final UUID organizationId);
 
-    Set<OrganizationDTO> parseAndPersistGroupManagementOrganizationsFromJson(final String jsonPayload);
+    OrganizationSyncResult parseAndPersistGroupManagementOrganizationsFromJson(final String jsonPayload);
 }
@@ -1,13 +1,23 @@
 package fi.vm.yti.comments.api.service;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import fi.vm.yti.comments.api.dto.CommentThreadResultDTO;
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
 
 public interface ResultService {
 
     Set<CommentThreadResultDTO> getResultsForCommentThread(final UUID commentThreadId);
 
+    Map<UUID, Set<CommentThreadResultDTO>> getResultsForCommentThreads(final Set<UUID> commentThreadIds);
+
+    Set<CommentThreadResultDTO> getResultsForCommentThreadStats(final CommentThreadStats commentThreadStats);
+
+    Map<UUID, CommentThreadStats> getCommentThreadStats(final Set<UUID> commentThreadIds);
+
     String getResultsForCommentThreadAsTextInDefaultLanguage(final UUID commentThreadId);
+
+    String getResultsAsTextInDefaultLanguage(final Set<CommentThreadResultDTO> commentThreadResults);
 }
@@ -1,5 +1,6 @@
 package fi.vm.yti.comments.api.service;
 
+import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.UUID;
 
@@ -11,9 +12,22 @@ public interface UserService {
 
     void updateTempUsers();
 
+    void updateTempUsersForContainer(final String containerUri,
+                                     final Set<UserDTO> containerTempUsers);
+
     UserDTO getUserById(final UUID id);
 
     String getUserEmailById(final UUID id);
 
     Set<UserDTO> getUsersByCommentRoundUri(final String uri);
+
+    /**
+     * Returns a fingerprint of the users currently known to the service, which changes whenever a refresh changes them.
+     */
+    String getDirectoryVersion();
+
+    /**
+     * Returns the time the directory version last changed on this node.
+     */
+    LocalDateTime getDirectoryModified();
 }
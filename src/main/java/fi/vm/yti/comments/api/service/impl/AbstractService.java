@@ -3,13 +3,17 @@ package fi.vm.yti.comments.api.service.impl;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
 
 import fi.vm.yti.comments.api.error.Meta;
+import fi.vm.yti.comments.api.model.PageCursor;
 
 public class AbstractService {
 
     static final int MAX_PAGE_SIZE = 50000;
     static final String FIELD_SEQUENCE_ID = "sequenceId";
+    static final String FIELD_ID = "id";
 
     int getPageIndex(final Meta meta) {
         final Integer from = meta.getFrom();
@@ -20,6 +24,35 @@ public class AbstractService {
         return 0;
     }
 
+    int getPageSize(final Meta meta) {
+        final Integer pageSize = meta.getPageSize();
+        return pageSize != null && pageSize > 0 ? pageSize : MAX_PAGE_SIZE;
+    }
+
+    /**
+     * Offset paging is only applied when no cursor is given, so that legacy clients using "from" keep working.
+     */
+    int getPageOffset(final Meta meta,
+                      final PageCursor cursor,
+                      final int pageSize) {
+        return cursor != null ? 0 : getPageIndex(meta) * pageSize;
+    }
+
+    /**
+     * Trims a page fetched with one extra row and sets the next cursor to meta when more results are available.
+     */
+    <T> List<T> trimToPage(final List<T> items,
+                           final int pageSize,
+                           final Function<T, PageCursor> cursorMapper,
+                           final Meta meta) {
+        if (items.size() > pageSize) {
+            final List<T> page = items.subList(0, pageSize);
+            meta.setNextCursor(cursorMapper.apply(page.get(pageSize - 1)).encode());
+            return page;
+        }
+        return items;
+    }
+
     LocalDateTime convertDateToLocalDateTime(final Date date) {
         if (date != null) {
             return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
@@ -2,11 +2,15 @@ package fi.vm.yti.comments.api.service.impl;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,23 +19,38 @@ import fi.vm.yti.comments.api.dto.CommentRoundDTO;
 import fi.vm.yti.comments.api.dto.DtoMapperService;
 import fi.vm.yti.comments.api.dto.ResourceDTO;
 import fi.vm.yti.comments.api.entity.CommentRound;
+import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.error.Meta;
+import fi.vm.yti.comments.api.exception.YtiCommentsException;
+import fi.vm.yti.comments.api.model.PageCursor;
+import fi.vm.yti.comments.api.model.ResourceVersion;
 import fi.vm.yti.comments.api.service.CommentRoundService;
+import fi.vm.yti.comments.api.service.CommentRoundSnapshotService;
 import fi.vm.yti.comments.api.service.GroupmanagementProxyService;
+import fi.vm.yti.comments.api.service.UserService;
 
 @Component
 public class CommentRoundServiceImpl extends AbstractService implements CommentRoundService {
 
+    private static final String VERSION_SEPARATOR = "-";
+    private static final Set<String> COMMENTROUND_SORT_FIELDS = Set.of(FIELD_SEQUENCE_ID, "label", "status", "created", "modified", "startDate", "endDate", "contentModified", "statusModified");
+
     private final CommentRoundDao commentRoundDao;
     private final DtoMapperService dtoMapperService;
     private final GroupmanagementProxyService groupmanagementProxyService;
+    private final CommentRoundSnapshotService commentRoundSnapshotService;
+    private final UserService userService;
 
     public CommentRoundServiceImpl(final CommentRoundDao commentRoundDao,
                                    final DtoMapperService dtoMapperService,
-                                   final GroupmanagementProxyService groupmanagementProxyService) {
+                                   final GroupmanagementProxyService groupmanagementProxyService,
+                                   final CommentRoundSnapshotService commentRoundSnapshotService,
+                                   final UserService userService) {
         this.commentRoundDao = commentRoundDao;
         this.dtoMapperService = dtoMapperService;
         this.groupmanagementProxyService = groupmanagementProxyService;
+        this.commentRoundSnapshotService = commentRoundSnapshotService;
+        this.userService = userService;
     }
 
     @Transactional
@@ -50,85 +69,40 @@ public class CommentRoundServiceImpl extends AbstractService implements CommentR
     }
 
     @Transactional
-    public Set<CommentRoundDTO> findByOrganizationsIdAndStatusIn(final UUID organizationId,
-                                                                 final Set<String> statuses,
-                                                                 final boolean includeCommentThreads) {
-        final Set<CommentRound> commentRounds = commentRoundDao.findByOrganizationsIdAndStatusIn(organizationId, statuses);
-        if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRounds(commentRounds);
-        } else {
-            return dtoMapperService.mapSimpleCommentRounds(commentRounds);
+    public Set<CommentRoundDTO> findByFilters(final UUID organizationId,
+                                              final Set<String> statuses,
+                                              final String containerType,
+                                              final String searchTerm,
+                                              final boolean filterIncomplete,
+                                              final boolean filterContent,
+                                              final String sort,
+                                              final boolean includeCommentThreads,
+                                              final Meta meta) {
+        final int pageSize = getPageSize(meta);
+        final PageRequest pageRequest = PageRequest.of(getPageIndex(meta), pageSize, parseCommentRoundSort(sort));
+        final Page<CommentRound> commentRounds = commentRoundDao.findByFilters(organizationId, statuses, containerType, searchTerm, filterIncomplete, filterContent, pageRequest);
+        meta.setTotalResults((int) commentRounds.getTotalElements());
+        final Set<CommentRoundDTO> commentRoundDtos = new LinkedHashSet<>();
+        for (final CommentRound commentRound : commentRounds.getContent()) {
+            if (includeCommentThreads) {
+                commentRoundDtos.add(dtoMapperService.mapDeepCommentRound(commentRound));
+            } else {
+                commentRoundDtos.add(dtoMapperService.mapSimpleCommentRound(commentRound));
+            }
         }
+        return commentRoundDtos;
     }
 
-    @Transactional
-    public Set<CommentRoundDTO> findByOrganizationsId(final UUID organizationId,
-                                                      final boolean includeCommentThreads) {
-        final Set<CommentRound> commentRounds = commentRoundDao.findByOrganizationsId(organizationId);
-        if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRounds(commentRounds);
-        } else {
-            return dtoMapperService.mapSimpleCommentRounds(commentRounds);
+    private Sort parseCommentRoundSort(final String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return Sort.by(Sort.Direction.DESC, FIELD_SEQUENCE_ID).and(Sort.by(Sort.Direction.ASC, FIELD_ID));
         }
-    }
-
-    @Transactional
-    public Set<CommentRoundDTO> findByStatusIn(final Set<String> statuses,
-                                               final boolean includeCommentThreads) {
-        final Set<CommentRound> commentRounds = commentRoundDao.findByStatusIn(statuses);
-        if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRounds(commentRounds);
-        } else {
-            return dtoMapperService.mapSimpleCommentRounds(commentRounds);
-        }
-    }
-
-    @Transactional
-    public Set<CommentRoundDTO> findBySourceContainerType(final String containerType,
-                                                          final boolean includeCommentThreads) {
-        final Set<CommentRound> commentRounds = commentRoundDao.findBySourceContainerType(containerType);
-        if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRounds(commentRounds);
-        } else {
-            return dtoMapperService.mapSimpleCommentRounds(commentRounds);
-        }
-    }
-
-    @Transactional
-    public Set<CommentRoundDTO> findByOrganizationsIdAndSourceContainerTypeAndStatusIn(final UUID organizationId,
-                                                                                       final String containerType,
-                                                                                       final Set<String> statuses,
-                                                                                       final boolean includeCommentThreads) {
-        final Set<CommentRound> commentRounds = commentRoundDao.findByOrganizationsIdAndSourceContainerTypeAndStatusIn(organizationId, containerType, statuses);
-        if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRounds(commentRounds);
-        } else {
-            return dtoMapperService.mapSimpleCommentRounds(commentRounds);
-        }
-    }
-
-    @Transactional
-    public Set<CommentRoundDTO> findByOrganizationsIdAndSourceContainerType(final UUID organizationId,
-                                                                            final String containerType,
-                                                                            final boolean includeCommentThreads) {
-        final Set<CommentRound> commentRounds = commentRoundDao.findByOrganizationsIdAndSourceContainerType(organizationId, containerType);
-        if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRounds(commentRounds);
-        } else {
-            return dtoMapperService.mapSimpleCommentRounds(commentRounds);
-        }
-    }
-
-    @Transactional
-    public Set<CommentRoundDTO> findBySourceContainerTypeAndStatusIn(final String containerType,
-                                                                     final Set<String> statuses,
-                                                                     final boolean includeCommentThreads) {
-        final Set<CommentRound> commentRounds = commentRoundDao.findBySourceContainerTypeAndStatusIn(containerType, statuses);
-        if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRounds(commentRounds);
-        } else {
-            return dtoMapperService.mapSimpleCommentRounds(commentRounds);
+        final boolean descending = sort.startsWith("-");
+        final String field = descending ? sort.substring(1) : sort;
+        if (!COMMENTROUND_SORT_FIELDS.contains(field)) {
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.BAD_REQUEST.value(), "Invalid sort field: " + field));
         }
+        return Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, field).and(Sort.by(Sort.Direction.ASC, FIELD_ID));
     }
 
     @Transactional
@@ -145,26 +119,52 @@ public class CommentRoundServiceImpl extends AbstractService implements CommentR
     @Transactional
     public CommentRoundDTO findByIdentifier(final String commentRoundIdentifier,
                                             final boolean includeCommentThreads) {
-        final CommentRound commentRound = commentRoundDao.findByIdentifier(commentRoundIdentifier);
         if (includeCommentThreads) {
-            return dtoMapperService.mapDeepCommentRound(commentRound);
+            return dtoMapperService.mapDeepCommentRound(commentRoundDao.findDeepByIdentifier(commentRoundIdentifier));
         } else {
-            return dtoMapperService.mapSimpleCommentRound(commentRound);
+            return dtoMapperService.mapSimpleCommentRound(commentRoundDao.findByIdentifier(commentRoundIdentifier));
         }
     }
 
+    /**
+     * The last modified time is the latest of the round, the user directory and the organization changes, so that
+     * If-Modified-Since never validates output that embeds users or organizations changed after the round.
+     */
+    @Transactional
+    public ResourceVersion findVersionByIdentifier(final String commentRoundIdentifier) {
+        final ResourceVersion commentRoundVersion = commentRoundDao.findVersionByIdentifier(commentRoundIdentifier);
+        if (commentRoundVersion == null) {
+            return null;
+        }
+        final UUID commentRoundId = commentRoundVersion.getId();
+        final String version = commentRoundVersion.getVersion() + VERSION_SEPARATOR +
+            userService.getDirectoryVersion() + VERSION_SEPARATOR +
+            commentRoundDao.findOrganizationsVersionById(commentRoundId);
+        LocalDateTime lastModified = commentRoundVersion.getLastModified();
+        for (final LocalDateTime dependencyModified : new LocalDateTime[]{ userService.getDirectoryModified(), commentRoundDao.findOrganizationsModifiedById(commentRoundId) }) {
+            if (dependencyModified != null && (lastModified == null || dependencyModified.isAfter(lastModified))) {
+                lastModified = dependencyModified;
+            }
+        }
+        return new ResourceVersion(commentRoundId, lastModified, version);
+    }
+
     @Transactional
     public CommentRoundDTO addOrUpdateCommentRoundFromDto(final CommentRoundDTO fromCommentRound,
                                                           final boolean removeCommentThreadOrphans) {
         addOrUpdateGroupmanagementTempUsers(fromCommentRound);
-        return dtoMapperService.mapDeepCommentRound(commentRoundDao.addOrUpdateCommentRoundFromDto(fromCommentRound, removeCommentThreadOrphans));
+        final CommentRound commentRound = commentRoundDao.addOrUpdateCommentRoundFromDto(fromCommentRound, removeCommentThreadOrphans);
+        commentRoundSnapshotService.evict(commentRound.getId());
+        return dtoMapperService.mapDeepCommentRound(commentRound);
     }
 
     @Transactional
     public Set<CommentRoundDTO> addOrUpdateCommentRoundsFromDtos(final Set<CommentRoundDTO> fromCommentRounds,
                                                                  final boolean removeCommentThreadOrphans) {
         fromCommentRounds.forEach(this::addOrUpdateGroupmanagementTempUsers);
-        return dtoMapperService.mapDeepCommentRounds(commentRoundDao.addOrUpdateCommentRoundsFromDtos(fromCommentRounds, removeCommentThreadOrphans));
+        final Set<CommentRound> commentRounds = commentRoundDao.addOrUpdateCommentRoundsFromDtos(fromCommentRounds, removeCommentThreadOrphans);
+        commentRounds.forEach(commentRound -> commentRoundSnapshotService.evict(commentRound.getId()));
+        return dtoMapperService.mapDeepCommentRounds(commentRounds);
     }
 
     private void addOrUpdateGroupmanagementTempUsers(final CommentRoundDTO commentRoundDto) {
@@ -177,6 +177,7 @@ public class CommentRoundServiceImpl extends AbstractService implements CommentR
     public void deleteCommentRound(final CommentRound commentRound) {
         groupmanagementProxyService.addOrUpdateTempUsers(commentRound.getUri(), new HashSet<>());
         commentRoundDao.deleteCommentRound(commentRound);
+        commentRoundSnapshotService.evict(commentRound.getId());
     }
 
     @Transactional
@@ -187,19 +188,18 @@ public class CommentRoundServiceImpl extends AbstractService implements CommentR
     }
 
     @Transactional
-    public Set<ResourceDTO> getContainers(final Set<String> commentRoundUris,
-                                          final Meta meta) {
+    public List<ResourceDTO> getContainers(final Set<String> commentRoundUris,
+                                           final boolean includeTotalResults,
+                                           final Meta meta) {
         final LocalDateTime after = convertDateToLocalDateTime(meta.getAfter());
         final LocalDateTime before = convertDateToLocalDateTime(meta.getBefore());
-        final int commentRoundCount = getCommentRoundCount(commentRoundUris, after, before);
-        meta.setTotalResults(commentRoundCount);
-        int page = getPageIndex(meta);
-        final int pageSize = meta.getPageSize() != null ? meta.getPageSize() : MAX_PAGE_SIZE;
-        final PageRequest pageRequest = PageRequest.of(page, pageSize, Sort.by(Sort.Direction.ASC, FIELD_SEQUENCE_ID));
-        if (commentRoundUris != null && !commentRoundUris.isEmpty()) {
-            return dtoMapperService.mapCommentRoundsToResources(commentRoundDao.findByUriIn(commentRoundUris, after, before, pageRequest));
-        } else {
-            return dtoMapperService.mapCommentRoundsToResources(commentRoundDao.findAll(after, before, pageRequest));
+        if (includeTotalResults) {
+            meta.setTotalResults(getCommentRoundCount(commentRoundUris, after, before));
         }
+        final PageCursor cursor = PageCursor.decode(meta.getCursor());
+        final int pageSize = getPageSize(meta);
+        final List<CommentRound> commentRounds = commentRoundDao.findPage(commentRoundUris, after, before, cursor, getPageOffset(meta, cursor, pageSize), pageSize + 1);
+        final List<CommentRound> page = trimToPage(commentRounds, pageSize, commentRound -> new PageCursor(commentRound.getSequenceId(), commentRound.getId()), meta);
+        return dtoMapperService.mapCommentRoundsToResources(page);
     }
 }
@@ -0,0 +1,207 @@
+package fi.vm.yti.comments.api.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import fi.vm.yti.comments.api.configuration.CommentRoundSnapshotProperties;
+import fi.vm.yti.comments.api.error.ErrorModel;
+import fi.vm.yti.comments.api.exception.YtiCommentsException;
+import fi.vm.yti.comments.api.model.ResourceVersion;
+import fi.vm.yti.comments.api.service.CommentRoundSnapshotService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/**
+ * Stores the serialized output of ended comment rounds gzip compressed, in memory and optionally on disk, so that it
+ * survives restarts. Snapshots are keyed by the version string of the round resource version, which is the same value
+ * the entity tag of the response is built from, so a snapshot is never served under the validator of another version.
+ * Snapshots of older versions are dropped when a newer version is stored.
+ */
+@Service
+public class CommentRoundSnapshotServiceImpl implements CommentRoundSnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommentRoundSnapshotServiceImpl.class);
+
+    private static final String CACHE_NAME = "commentround.snapshots";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".gz";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String SEPARATOR = "-";
+
+    private final CommentRoundSnapshotProperties commentRoundSnapshotProperties;
+    private final Path directory;
+    private final Cache<SnapshotKey, byte[]> cache;
+
+    @Inject
+    public CommentRoundSnapshotServiceImpl(final CommentRoundSnapshotProperties commentRoundSnapshotProperties,
+                                           final MeterRegistry meterRegistry) {
+        this.commentRoundSnapshotProperties = commentRoundSnapshotProperties;
+        final String directoryName = commentRoundSnapshotProperties.getDirectory();
+        directory = directoryName != null && !directoryName.isBlank() ? Paths.get(directoryName) : null;
+        cache = CacheBuilder.newBuilder()
+            .maximumWeight(commentRoundSnapshotProperties.getMaximumSizeInBytes())
+            .weigher((final SnapshotKey key, final byte[] snapshot) -> snapshot.length)
+            .recordStats()
+            .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return commentRoundSnapshotProperties.getEnabled();
+    }
+
+    public byte[] getSnapshot(final ResourceVersion commentRoundVersion,
+                              final String variant,
+                              final Supplier<byte[]> contentSupplier) {
+        final SnapshotKey key = new SnapshotKey(commentRoundVersion.getId(), commentRoundVersion.getVersion(), String.valueOf(variant));
+        try {
+            return cache.get(key, () -> loadSnapshot(key, contentSupplier));
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Comment round snapshot creation failed!"));
+        }
+    }
+
+    public void evict(final UUID commentRoundId) {
+        cache.asMap().keySet().removeIf(key -> key.commentRoundId.equals(commentRoundId));
+        if (directory != null) {
+            deleteSnapshotFiles(directory.resolve(commentRoundId.toString()), null);
+        }
+    }
+
+    private byte[] loadSnapshot(final SnapshotKey key,
+                                final Supplier<byte[]> contentSupplier) {
+        final Path snapshotFile = directory != null ? directory.resolve(key.commentRoundId.toString()).resolve(key.getFileName()) : null;
+        if (snapshotFile != null) {
+            try {
+                return Files.readAllBytes(snapshotFile);
+            } catch (final NoSuchFileException e) {
+                LOG.debug("No stored snapshot found for comment round " + key.commentRoundId + ".");
+            } catch (final IOException e) {
+                LOG.warn("Reading snapshot for comment round " + key.commentRoundId + " failed.", e);
+            }
+        }
+        final byte[] snapshot = compress(contentSupplier.get());
+        cache.asMap().keySet().removeIf(existingKey -> existingKey.commentRoundId.equals(key.commentRoundId) && !existingKey.version.equals(key.version));
+        if (snapshotFile != null) {
+            deleteSnapshotFiles(snapshotFile.getParent(), key.getVersionHash());
+            storeSnapshot(snapshotFile, snapshot);
+        }
+        return snapshot;
+    }
+
+    private void storeSnapshot(final Path snapshotFile,
+                               final byte[] snapshot) {
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            final Path tempFile = Files.createTempFile(snapshotFile.getParent(), null, TEMP_FILE_SUFFIX);
+            Files.write(tempFile, snapshot);
+            Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            LOG.warn("Storing snapshot " + snapshotFile + " failed.", e);
+        }
+    }
+
+    /**
+     * Deletes the snapshot files in the directory, except those of the given version when one is given.
+     */
+    private void deleteSnapshotFiles(final Path roundDirectory,
+                                     final String keptVersionHash) {
+        if (!Files.isDirectory(roundDirectory)) {
+            return;
+        }
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(roundDirectory)) {
+            for (final Path file : files) {
+                if (keptVersionHash == null || !file.getFileName().toString().startsWith(keptVersionHash + SEPARATOR)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            if (keptVersionHash == null) {
+                Files.deleteIfExists(roundDirectory);
+            }
+        } catch (final IOException e) {
+            LOG.warn("Deleting snapshots from " + roundDirectory + " failed.", e);
+        }
+    }
+
+    private byte[] compress(final byte[] content) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (final GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+            gzipOutput.write(content);
+        } catch (final IOException e) {
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Comment round snapshot compression failed!"));
+        }
+        return output.toByteArray();
+    }
+
+    private static String hash(final String value) {
+        return Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).toString();
+    }
+
+    private static final class SnapshotKey {
+
+        private final UUID commentRoundId;
+        private final String version;
+        private final String variant;
+
+        private SnapshotKey(final UUID commentRoundId,
+                            final String version,
+                            final String variant) {
+            this.commentRoundId = commentRoundId;
+            this.version = version;
+            this.variant = variant;
+        }
+
+        private String getVersionHash() {
+            return hash(version);
+        }
+
+        private String getFileName() {
+            return getVersionHash() + SEPARATOR + hash(variant) + SNAPSHOT_FILE_SUFFIX;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final SnapshotKey that = (SnapshotKey) o;
+            return Objects.equals(commentRoundId, that.commentRoundId) &&
+                Objects.equals(version, that.version) &&
+                Objects.equals(variant, that.variant);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(commentRoundId, version, variant);
+        }
+    }
+}
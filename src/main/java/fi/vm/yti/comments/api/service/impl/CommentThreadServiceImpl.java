@@ -1,11 +1,11 @@
 package fi.vm.yti.comments.api.service.impl;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +18,8 @@ import fi.vm.yti.comments.api.entity.CommentRound;
 import fi.vm.yti.comments.api.entity.CommentThread;
 import fi.vm.yti.comments.api.error.Meta;
 import fi.vm.yti.comments.api.exception.NotFoundException;
+import fi.vm.yti.comments.api.model.PageCursor;
+import fi.vm.yti.comments.api.service.CommentRoundSnapshotService;
 import fi.vm.yti.comments.api.service.CommentThreadService;
 
 @Component
@@ -26,13 +28,16 @@ public class CommentThreadServiceImpl extends AbstractService implements Comment
     private final DtoMapperService dtoMapperService;
     private final CommentThreadDao commentThreadDao;
     private final CommentRoundDao commentRoundDao;
+    private final CommentRoundSnapshotService commentRoundSnapshotService;
 
     public CommentThreadServiceImpl(final DtoMapperService dtoMapperService,
                                     final CommentThreadDao commentThreadDao,
-                                    final CommentRoundDao commentRoundDao) {
+                                    final CommentRoundDao commentRoundDao,
+                                    final CommentRoundSnapshotService commentRoundSnapshotService) {
         this.dtoMapperService = dtoMapperService;
         this.commentThreadDao = commentThreadDao;
         this.commentRoundDao = commentRoundDao;
+        this.commentRoundSnapshotService = commentRoundSnapshotService;
     }
 
     @Transactional
@@ -47,7 +52,7 @@ public class CommentThreadServiceImpl extends AbstractService implements Comment
 
     @Transactional
     public CommentThreadDTO findById(final UUID commentThreadId) {
-        return dtoMapperService.mapDeepCommentThread(commentThreadDao.findById(commentThreadId));
+        return dtoMapperService.mapDeepCommentThread(commentThreadDao.findDeepById(commentThreadId));
     }
 
     @Transactional
@@ -58,7 +63,7 @@ public class CommentThreadServiceImpl extends AbstractService implements Comment
 
     @Transactional
     public Set<CommentThreadDTO> findByCommentRoundId(final UUID commentRoundId) {
-        return dtoMapperService.mapDeepCommentThreads(commentThreadDao.findByCommentRoundId(commentRoundId));
+        return dtoMapperService.mapDeepCommentThreads(commentThreadDao.findDeepByCommentRoundId(commentRoundId));
     }
 
     @Transactional
@@ -66,7 +71,9 @@ public class CommentThreadServiceImpl extends AbstractService implements Comment
                                                             final CommentThreadDTO fromCommentThread) {
         final CommentRound commentRound = commentRoundDao.findById(commentRoundId);
         if (commentRound != null) {
-            return dtoMapperService.mapDeepCommentThread(commentThreadDao.addOrUpdateCommentThreadFromDto(commentRound, fromCommentThread));
+            final CommentThread commentThread = commentThreadDao.addOrUpdateCommentThreadFromDto(commentRound, fromCommentThread);
+            commentRoundSnapshotService.evict(commentRoundId);
+            return dtoMapperService.mapDeepCommentThread(commentThread);
         } else {
             throw new NotFoundException();
         }
@@ -78,7 +85,9 @@ public class CommentThreadServiceImpl extends AbstractService implements Comment
                                                                    final boolean removeOrphans) {
         final CommentRound commentRound = commentRoundDao.findById(commentRoundId);
         if (commentRound != null) {
-            return dtoMapperService.mapDeepCommentThreads(commentThreadDao.addOrUpdateCommentThreadsFromDtos(commentRound, fromCommentThreads, removeOrphans));
+            final Set<CommentThread> commentThreads = commentThreadDao.addOrUpdateCommentThreadsFromDtos(commentRound, fromCommentThreads, removeOrphans);
+            commentRoundSnapshotService.evict(commentRoundId);
+            return dtoMapperService.mapDeepCommentThreads(commentThreads);
         } else {
             throw new NotFoundException();
         }
@@ -87,6 +96,7 @@ public class CommentThreadServiceImpl extends AbstractService implements Comment
     @Transactional
     public void deleteCommentThread(final CommentThread commentThread) {
         commentThreadDao.deleteCommentThread(commentThread);
+        commentRoundSnapshotService.evict(commentThread.getCommentRound().getId());
     }
 
     @Transactional
@@ -98,24 +108,19 @@ public class CommentThreadServiceImpl extends AbstractService implements Comment
     }
 
     @Transactional
-    public Set<ResourceDTO> getResources(final Set<String> commentThreadUris,
-                                         final Set<String> containerUris,
-                                         final Meta meta) {
+    public List<ResourceDTO> getResources(final Set<String> commentThreadUris,
+                                          final Set<String> containerUris,
+                                          final boolean includeTotalResults,
+                                          final Meta meta) {
         final LocalDateTime after = convertDateToLocalDateTime(meta.getAfter());
         final LocalDateTime before = convertDateToLocalDateTime(meta.getBefore());
-        final int commentThreadCount = getCommentThreadCount(commentThreadUris, containerUris, after, before);
-        meta.setTotalResults(commentThreadCount);
-        final int page = getPageIndex(meta);
-        final int pageSize = meta.getPageSize() != null ? meta.getPageSize() : MAX_PAGE_SIZE;
-        final PageRequest pageRequest = PageRequest.of(page, pageSize, Sort.by(Sort.Direction.ASC, FIELD_SEQUENCE_ID));
-        if (containerUris != null && !containerUris.isEmpty() && commentThreadUris != null && !commentThreadUris.isEmpty()) {
-            return dtoMapperService.mapCommentThreadsToResources(commentThreadDao.findByCommentRoundUriInAndUriIn(containerUris, commentThreadUris, after, before, pageRequest));
-        } else if (containerUris != null && !containerUris.isEmpty()) {
-            return dtoMapperService.mapCommentThreadsToResources(commentThreadDao.findByCommentRoundUriIn(containerUris, after, before, pageRequest));
-        } else if (commentThreadUris != null && !commentThreadUris.isEmpty()) {
-            return dtoMapperService.mapCommentThreadsToResources(commentThreadDao.findByUriIn(commentThreadUris, after, before, pageRequest));
-        } else {
-            return dtoMapperService.mapCommentThreadsToResources(commentThreadDao.findAll(after, before, pageRequest));
+        if (includeTotalResults) {
+            meta.setTotalResults(getCommentThreadCount(commentThreadUris, containerUris, after, before));
         }
+        final PageCursor cursor = PageCursor.decode(meta.getCursor());
+        final int pageSize = getPageSize(meta);
+        final List<CommentThread> commentThreads = commentThreadDao.findPage(containerUris, commentThreadUris, after, before, cursor, getPageOffset(meta, cursor, pageSize), pageSize + 1);
+        final List<CommentThread> page = trimToPage(commentThreads, pageSize, commentThread -> new PageCursor(commentThread.getSequenceId(), commentThread.getId()), meta);
+        return dtoMapperService.mapCommentThreadsToResources(page);
     }
 }
@@ -14,11 +14,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 
 import fi.vm.yti.comments.api.configuration.GroupManagementProperties;
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
 import fi.vm.yti.comments.api.dto.UserDTO;
 import fi.vm.yti.comments.api.error.ErrorModel;
 import fi.vm.yti.comments.api.exception.ErrorConstants;
@@ -35,13 +33,16 @@ public class GroupmanagementProxyServiceImpl implements GroupmanagementProxyServ
     private final GroupManagementProperties groupManagementProperties;
     private final RestTemplate restTemplate;
     private final UserService userService;
+    private final JsonMapperRegistry jsonMapperRegistry;
 
     public GroupmanagementProxyServiceImpl(final GroupManagementProperties groupManagementProperties,
                                            final RestTemplate restTemplate,
-                                           final UserService userService) {
+                                           final UserService userService,
+                                           final JsonMapperRegistry jsonMapperRegistry) {
         this.groupManagementProperties = groupManagementProperties;
         this.restTemplate = restTemplate;
         this.userService = userService;
+        this.jsonMapperRegistry = jsonMapperRegistry;
     }
 
     public void addOrUpdateTempUsers(final String containerUri,
@@ -49,12 +50,10 @@ public class GroupmanagementProxyServiceImpl implements GroupmanagementProxyServ
         final String requestUrl = createGroupManagementTempUsersApiUrl(containerUri);
         final HttpHeaders headers = new HttpHeaders();
         headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
         final HttpEntity<String> request;
         try {
             if (tempUsers != null) {
-                request = new HttpEntity<>(mapper.writeValueAsString(tempUsers), headers);
+                request = new HttpEntity<>(jsonMapperRegistry.writer().writeValueAsString(tempUsers), headers);
             } else {
                 request = new HttpEntity<>(headers);
             }
@@ -67,10 +66,10 @@ public class GroupmanagementProxyServiceImpl implements GroupmanagementProxyServ
             try {
                 final Object responseBody = response.getBody();
                 if (responseBody != null) {
-                    final Set<UserDTO> addedTempUsers = mapper.readValue(responseBody.toString(), new TypeReference<Set<UserDTO>>() {
-                    });
+                    final Set<UserDTO> addedTempUsers = jsonMapperRegistry.readerForSetOf(UserDTO.class).readValue(responseBody.toString());
                     if (addedTempUsers != null) {
                         LOG.debug("Added or updated " + addedTempUsers.size() + " temporary users to groupmanagement.");
+                        userService.updateTempUsersForContainer(containerUri, addedTempUsers);
                     }
                 } else {
                     LOG.error("Parsing tempUsers from addOrUpdateTempUsers to groupmanagement failed!");
@@ -80,7 +79,6 @@ public class GroupmanagementProxyServiceImpl implements GroupmanagementProxyServ
                 LOG.error("Parsing users from addOrUpdateTempUsers to groupmanagement failed!", e);
                 throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ErrorConstants.ERR_MSG_USER_500));
             }
-            userService.updateTempUsers();
         } else {
             throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ErrorConstants.ERR_MSG_USER_500));
         }
@@ -90,8 +88,6 @@ public class GroupmanagementProxyServiceImpl implements GroupmanagementProxyServ
         final String requestUrl = createGroupManagementSendContainerEmailsUrl(containerUri);
         final HttpHeaders headers = new HttpHeaders();
         headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
         final HttpEntity<String> request = new HttpEntity<>(headers);
         final ResponseEntity response = restTemplate.exchange(requestUrl, HttpMethod.POST, request, String.class);
         if (response.getStatusCode() == HttpStatus.OK) {
@@ -0,0 +1,213 @@
+package fi.vm.yti.comments.api.service.impl;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.ws.rs.core.MediaType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import fi.vm.yti.comments.api.configuration.IntegrationCacheProperties;
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
+import fi.vm.yti.comments.api.dto.ResourceDTO;
+import fi.vm.yti.comments.api.error.ErrorModel;
+import fi.vm.yti.comments.api.exception.NotFoundException;
+import fi.vm.yti.comments.api.exception.YtiCommentsException;
+import fi.vm.yti.comments.api.service.IntegrationResourceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import static fi.vm.yti.comments.api.exception.ErrorConstants.ERR_MSG_USER_406;
+
+@Service
+public class IntegrationResourceServiceImpl implements IntegrationResourceService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IntegrationResourceServiceImpl.class);
+
+    private static final String CACHE_NAME = "integration.resources";
+    private static final String RESULTS_FIELD = "results";
+
+    private final RestTemplate restTemplate;
+    private final IntegrationCacheProperties integrationCacheProperties;
+    private final ObjectReader resourceReader;
+    private final ObjectReader requestBodyReader;
+    private final ObjectWriter requestBodyWriter;
+    private final ExecutorService refreshExecutor;
+    private final LoadingCache<IntegrationRequest, Set<ResourceDTO>> cache;
+
+    @Inject
+    public IntegrationResourceServiceImpl(final RestTemplate restTemplate,
+                                          final IntegrationCacheProperties integrationCacheProperties,
+                                          final JsonMapperRegistry jsonMapperRegistry,
+                                          final MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.integrationCacheProperties = integrationCacheProperties;
+        resourceReader = jsonMapperRegistry.readerFor(ResourceDTO.class);
+        requestBodyReader = jsonMapperRegistry.readerFor(Object.class);
+        requestBodyWriter = jsonMapperRegistry.sortedKeysWriter();
+        refreshExecutor = Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setNameFormat("integration-cache-refresh-%d").setDaemon(true).build());
+        cache = CacheBuilder.newBuilder()
+            .maximumSize(integrationCacheProperties.getMaximumSize())
+            .refreshAfterWrite(integrationCacheProperties.getRefreshAfterSeconds(), TimeUnit.SECONDS)
+            .expireAfterWrite(integrationCacheProperties.getExpireAfterSeconds(), TimeUnit.SECONDS)
+            .recordStats()
+            .build(CacheLoader.asyncReloading(CacheLoader.from(this::loadIntegrationResources), refreshExecutor));
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public Set<ResourceDTO> fetchIntegrationResources(final String requestUrl,
+                                                      final HttpMethod httpMethod,
+                                                      final String requestBody) {
+        final IntegrationRequest request = new IntegrationRequest(requestUrl, httpMethod, normalizeRequestBody(requestBody));
+        if (!integrationCacheProperties.getEnabled()) {
+            return loadIntegrationResources(request);
+        }
+        try {
+            return cache.get(request);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_406));
+        }
+    }
+
+    private Set<ResourceDTO> loadIntegrationResources(final IntegrationRequest request) {
+        final Set<ResourceDTO> resources;
+        final HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.add("Content-Type", MediaType.APPLICATION_JSON);
+        requestHeaders.add("Accept", MediaType.APPLICATION_JSON);
+        final HttpEntity<String> requestEntity = new HttpEntity<>(request.requestBody.isEmpty() ? null : request.requestBody, requestHeaders);
+        try {
+            resources = restTemplate.execute(request.requestUrl, request.httpMethod, restTemplate.httpEntityCallback(requestEntity), this::extractResources);
+        } catch (final YtiCommentsException e) {
+            throw e;
+        } catch (final Exception e) {
+            LOG.warn("Integration request failed for URL: " + request.requestUrl, e);
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_406));
+        }
+        if (resources == null) {
+            throw new NotFoundException();
+        }
+        return resources;
+    }
+
+    private Set<ResourceDTO> extractResources(final ClientHttpResponse response) throws IOException {
+        if (response.getStatusCode() != HttpStatus.OK) {
+            return null;
+        }
+        try (final JsonParser parser = resourceReader.getFactory().createParser(response.getBody())) {
+            if (parser.nextToken() == null) {
+                // An empty body is reported as not found, as it was before the response was streamed.
+                return null;
+            }
+            return parseResources(parser);
+        } catch (final JsonProcessingException e) {
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to parse integration resources!"));
+        }
+    }
+
+    /**
+     * Reads the results array of an integration API response one resource at a time, skipping all other fields.
+     */
+    private Set<ResourceDTO> parseResources(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return Collections.emptySet();
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.getCurrentName();
+            final JsonToken valueToken = parser.nextToken();
+            if (RESULTS_FIELD.equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                final Set<ResourceDTO> resources = new HashSet<>();
+                JsonToken token = parser.nextToken();
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    resources.add(resourceReader.readValue(parser));
+                    token = parser.nextToken();
+                }
+                return Collections.unmodifiableSet(resources);
+            }
+            parser.skipChildren();
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Serializes the request body with sorted keys so that equivalent searches share a cache entry.
+     */
+    private String normalizeRequestBody(final String requestBody) {
+        if (requestBody == null || requestBody.isBlank()) {
+            return "";
+        }
+        try {
+            return requestBodyWriter.writeValueAsString(requestBodyReader.readValue(requestBody));
+        } catch (final IOException e) {
+            return requestBody.trim();
+        }
+    }
+
+    private static final class IntegrationRequest {
+
+        private final String requestUrl;
+        private final HttpMethod httpMethod;
+        private final String requestBody;
+
+        private IntegrationRequest(final String requestUrl,
+                                   final HttpMethod httpMethod,
+                                   final String requestBody) {
+            this.requestUrl = requestUrl;
+            this.httpMethod = httpMethod;
+            this.requestBody = requestBody;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final IntegrationRequest that = (IntegrationRequest) o;
+            return Objects.equals(requestUrl, that.requestUrl) &&
+                httpMethod == that.httpMethod &&
+                Objects.equals(requestBody, that.requestBody);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(requestUrl, httpMethod, requestBody);
+        }
+    }
+}
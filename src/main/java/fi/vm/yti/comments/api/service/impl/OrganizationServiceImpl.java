@@ -1,8 +1,14 @@
 package fi.vm.yti.comments.api.service.impl;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -10,20 +16,26 @@ import javax.inject.Singleton;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.google.common.base.Stopwatch;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
+import fi.vm.yti.comments.api.dto.CommentRoundDTO;
 import fi.vm.yti.comments.api.dto.DtoMapperService;
 import fi.vm.yti.comments.api.dto.GroupManagementOrganizationDTO;
 import fi.vm.yti.comments.api.dto.OrganizationDTO;
 import fi.vm.yti.comments.api.entity.Organization;
+import fi.vm.yti.comments.api.error.ErrorModel;
+import fi.vm.yti.comments.api.exception.YtiCommentsException;
 import fi.vm.yti.comments.api.jpa.OrganizationRepository;
+import fi.vm.yti.comments.api.model.OrganizationSyncResult;
 import fi.vm.yti.comments.api.service.OrganizationService;
+import static fi.vm.yti.comments.api.exception.ErrorConstants.ERR_MSG_USER_500;
 
 @Singleton
 @Service
@@ -32,21 +44,28 @@ public class OrganizationServiceImpl implements OrganizationService {
     private static final Logger LOG = LoggerFactory.getLogger(OrganizationServiceImpl.class);
     private final OrganizationRepository organizationRepository;
     private final DtoMapperService dtoMapperService;
+    private final JsonMapperRegistry jsonMapperRegistry;
 
     @Inject
     public OrganizationServiceImpl(final OrganizationRepository organizationRepository,
-                                   final DtoMapperService dtoMapperService) {
+                                   final DtoMapperService dtoMapperService,
+                                   final JsonMapperRegistry jsonMapperRegistry) {
         this.organizationRepository = organizationRepository;
         this.dtoMapperService = dtoMapperService;
+        this.jsonMapperRegistry = jsonMapperRegistry;
     }
 
     @Transactional
     public Set<OrganizationDTO> findAll() {
-        return dtoMapperService.mapOrganizations(organizationRepository.findAll(), true);
+        return findSummaries(true, false);
     }
 
     @Transactional
-    public Set<OrganizationDTO> findByRemovedIsFalse(final boolean hasCommentRounds) {
+    public Set<OrganizationDTO> findByRemovedIsFalse(final boolean hasCommentRounds,
+                                                     final boolean expandCommentRounds) {
+        if (!expandCommentRounds) {
+            return findSummaries(false, hasCommentRounds);
+        }
         final Set<Organization> organizations;
         if (hasCommentRounds) {
             organizations = organizationRepository.findByRemovedIsFalseAndCommentRoundsIsNotNull();
@@ -56,53 +75,157 @@ public class OrganizationServiceImpl implements OrganizationService {
         return dtoMapperService.mapOrganizations(organizations, true);
     }
 
+    /**
+     * Maps organizations with their labels, comment round identifiers and comment round count from a single query
+     * without loading the organization entities and their comment rounds. The result equals the deep mapping apart from
+     * the comment rounds, which carry only their identifiers.
+     */
+    private Set<OrganizationDTO> findSummaries(final boolean includeRemoved,
+                                               final boolean hasCommentRounds) {
+        final Set<OrganizationDTO> organizations = new HashSet<>();
+        for (final Object[] row : organizationRepository.findSummaries(includeRemoved, hasCommentRounds)) {
+            final OrganizationDTO organization = new OrganizationDTO();
+            organization.setId(UUID.fromString((String) row[0]));
+            organization.setUrl((String) row[1]);
+            organization.setRemoved((Boolean) row[2]);
+            organization.setPrefLabel(parseLocalizedValues((String) row[3]));
+            organization.setDescription(parseLocalizedValues((String) row[4]));
+            final Set<CommentRoundDTO> commentRounds = new HashSet<>();
+            final String commentRoundIds = (String) row[5];
+            if (commentRoundIds != null && !commentRoundIds.isEmpty()) {
+                for (final String commentRoundId : commentRoundIds.split(",")) {
+                    final CommentRoundDTO commentRound = new CommentRoundDTO();
+                    commentRound.setId(UUID.fromString(commentRoundId));
+                    commentRounds.add(commentRound);
+                }
+            }
+            organization.setCommentRounds(commentRounds);
+            organization.setCommentRoundCount(commentRounds.size());
+            organizations.add(organization);
+        }
+        return organizations;
+    }
+
+    private Map<String, String> parseLocalizedValues(final String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return jsonMapperRegistry.readerForMapOf(String.class, String.class).readValue(json);
+        } catch (final IOException e) {
+            LOG.error("Parsing organization localized values failed!", e);
+            throw new YtiCommentsException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ERR_MSG_USER_500));
+        }
+    }
+
     @Transactional
     public OrganizationDTO findById(final UUID organizationId) {
         return dtoMapperService.mapOrganization(organizationRepository.findById(organizationId), true);
     }
 
+    /**
+     * Synchronizes organizations from groupmanagement by comparing content hashes. Stored hashes are loaded with a
+     * single query, and only new organizations and organizations whose content has changed are loaded and written.
+     */
     @Transactional
-    public Set<OrganizationDTO> parseAndPersistGroupManagementOrganizationsFromJson(final String jsonPayload) {
+    public OrganizationSyncResult parseAndPersistGroupManagementOrganizationsFromJson(final String jsonPayload) {
         final Stopwatch watch = Stopwatch.createStarted();
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
         Set<GroupManagementOrganizationDTO> groupManagementOrganizations = new HashSet<>();
         try {
-            groupManagementOrganizations = mapper.readValue(jsonPayload, new TypeReference<Set<GroupManagementOrganizationDTO>>() {
-            });
+            groupManagementOrganizations = jsonMapperRegistry.readerForSetOf(GroupManagementOrganizationDTO.class).readValue(jsonPayload);
             LOG.info("Organization data loaded: " + groupManagementOrganizations.size() + " Organizations in " + watch);
             watch.reset().start();
         } catch (final IOException e) {
             LOG.error("Organization fetching and processing failed!", e);
         }
-        final Set<Organization> organizations = new HashSet<>();
+        final Map<UUID, String> existingContentHashes = new HashMap<>();
+        organizationRepository.findContentHashes().forEach(row -> existingContentHashes.put((UUID) row[0], (String) row[1]));
+        final Set<Organization> addedOrganizations = new HashSet<>();
+        final Map<UUID, GroupManagementOrganizationDTO> changedOrganizations = new HashMap<>();
+        int unchanged = 0;
         for (final GroupManagementOrganizationDTO groupManagementOrganization : groupManagementOrganizations) {
-            final Organization organization = createOrUpdateOrganizationFromGroupManagementOrganizationDto(groupManagementOrganization);
-            organizations.add(organization);
+            final UUID organizationId = groupManagementOrganization.getUuid();
+            if (!existingContentHashes.containsKey(organizationId)) {
+                addedOrganizations.add(createOrganization(groupManagementOrganization));
+            } else if (!createContentHash(groupManagementOrganization).equals(existingContentHashes.get(organizationId))) {
+                changedOrganizations.put(organizationId, groupManagementOrganization);
+            } else {
+                unchanged++;
+            }
         }
-        if (!organizations.isEmpty()) {
-            organizationRepository.saveAll(organizations);
+        if (!changedOrganizations.isEmpty()) {
+            organizationRepository.findByIdIn(changedOrganizations.keySet()).forEach(organization -> updateOrganization(organization, changedOrganizations.get(organization.getId())));
         }
-        return dtoMapperService.mapOrganizations(organizations, true);
+        if (!addedOrganizations.isEmpty()) {
+            organizationRepository.saveAll(addedOrganizations);
+        }
+        LOG.info("Organization sync: " + addedOrganizations.size() + " added, " + changedOrganizations.size() + " changed, " + unchanged + " unchanged in " + watch);
+        return new OrganizationSyncResult(addedOrganizations.size(), changedOrganizations.size(), unchanged);
     }
 
-    private Organization createOrUpdateOrganizationFromGroupManagementOrganizationDto(final GroupManagementOrganizationDTO groupManagementOrganizationDto) {
-        final Organization existingOrganization = organizationRepository.findById(groupManagementOrganizationDto.getUuid());
-        final Organization organization;
-        if (existingOrganization != null) {
-            existingOrganization.setUrl(groupManagementOrganizationDto.getUrl());
-            existingOrganization.setPrefLabel(groupManagementOrganizationDto.getPrefLabel());
-            existingOrganization.setDescription(groupManagementOrganizationDto.getDescription());
-            existingOrganization.setRemoved(groupManagementOrganizationDto.getRemoved());
-            organization = existingOrganization;
-        } else {
-            organization = new Organization();
-            organization.setId(groupManagementOrganizationDto.getUuid());
-            organization.setUrl(groupManagementOrganizationDto.getUrl());
+    private Organization createOrganization(final GroupManagementOrganizationDTO groupManagementOrganizationDto) {
+        final Organization organization = new Organization();
+        organization.setId(groupManagementOrganizationDto.getUuid());
+        organization.setUrl(groupManagementOrganizationDto.getUrl());
+        organization.setPrefLabel(groupManagementOrganizationDto.getPrefLabel());
+        organization.setDescription(groupManagementOrganizationDto.getDescription());
+        organization.setRemoved(groupManagementOrganizationDto.getRemoved());
+        organization.setContentHash(createContentHash(groupManagementOrganizationDto));
+        organization.setModified(LocalDateTime.now());
+        return organization;
+    }
+
+    private void updateOrganization(final Organization organization,
+                                    final GroupManagementOrganizationDTO groupManagementOrganizationDto) {
+        organization.setUrl(groupManagementOrganizationDto.getUrl());
+        organization.setRemoved(groupManagementOrganizationDto.getRemoved());
+        if (!Objects.equals(nullToEmpty(organization.getPrefLabel()), nullToEmpty(groupManagementOrganizationDto.getPrefLabel()))) {
             organization.setPrefLabel(groupManagementOrganizationDto.getPrefLabel());
+        }
+        if (!Objects.equals(nullToEmpty(organization.getDescription()), nullToEmpty(groupManagementOrganizationDto.getDescription()))) {
             organization.setDescription(groupManagementOrganizationDto.getDescription());
-            organization.setRemoved(groupManagementOrganizationDto.getRemoved());
         }
-        return organization;
+        organization.setContentHash(createContentHash(groupManagementOrganizationDto));
+        organization.setModified(LocalDateTime.now());
+    }
+
+    private Map<String, String> nullToEmpty(final Map<String, String> map) {
+        return map != null ? map : new HashMap<>();
+    }
+
+    /**
+     * Every string is hashed with its length, so that values shifting characters into their neighbours, such as the
+     * labels {"fi": "ab"} and {"fia": "b"}, never produce the same hash.
+     */
+    static String createContentHash(final GroupManagementOrganizationDTO groupManagementOrganizationDto) {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        putString(hasher, groupManagementOrganizationDto.getUrl());
+        putString(hasher, groupManagementOrganizationDto.getRemoved() != null ? String.valueOf(groupManagementOrganizationDto.getRemoved()) : null);
+        putLocalizedValues(hasher, groupManagementOrganizationDto.getPrefLabel());
+        putLocalizedValues(hasher, groupManagementOrganizationDto.getDescription());
+        return hasher.hash().toString();
+    }
+
+    private static void putLocalizedValues(final Hasher hasher,
+                                           final Map<String, String> localizedValues) {
+        if (localizedValues == null) {
+            hasher.putInt(-1);
+            return;
+        }
+        hasher.putInt(localizedValues.size());
+        new TreeMap<>(localizedValues).forEach((language, value) -> {
+            putString(hasher, language);
+            putString(hasher, value);
+        });
+    }
+
+    private static void putString(final Hasher hasher,
+                                  final String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+            return;
+        }
+        hasher.putInt(value.length());
+        hasher.putString(value, StandardCharsets.UTF_8);
     }
 }
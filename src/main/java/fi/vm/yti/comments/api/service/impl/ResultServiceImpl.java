@@ -16,52 +16,52 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.comments.api.configuration.CommentsApiProperties;
-import fi.vm.yti.comments.api.dao.CommentDao;
-import fi.vm.yti.comments.api.dao.CommentThreadDao;
+import fi.vm.yti.comments.api.dao.CommentThreadStatsDao;
 import fi.vm.yti.comments.api.dto.CommentThreadResultDTO;
-import fi.vm.yti.comments.api.entity.Comment;
-import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
 import fi.vm.yti.comments.api.service.ResultService;
 import static fi.vm.yti.comments.api.utils.StatusUtils.localizeResourceStatusToDefaultLanguage;
 
 @Component
 public class ResultServiceImpl implements ResultService {
 
-    private final CommentThreadDao commentThreadDao;
-    private final CommentDao commentDao;
+    private final CommentThreadStatsDao commentThreadStatsDao;
     private final CommentsApiProperties commentsApiProperties;
     
     @Autowired
     private MessageSource messageSource;
 
     @Inject
-    public ResultServiceImpl(@Lazy final CommentThreadDao commentThreadDao,
-                             @Lazy final CommentDao commentDao,
+    public ResultServiceImpl(@Lazy final CommentThreadStatsDao commentThreadStatsDao,
                              final CommentsApiProperties commentsApiProperties) {
-        this.commentThreadDao = commentThreadDao;
-        this.commentDao = commentDao;
+        this.commentThreadStatsDao = commentThreadStatsDao;
         this.commentsApiProperties = commentsApiProperties;
     }
 
     @Transactional
     public Set<CommentThreadResultDTO> getResultsForCommentThread(final UUID commentThreadId) {
-        final Map<String, Integer> commentThreadResultsMap = new HashMap<>();
-        final CommentThread commentThread = commentThreadDao.findById(commentThreadId);
-        if (commentThread != null) {
-            final Set<Comment> comments = commentDao.findByCommentThreadIdAndParentCommentIsNull(commentThreadId);
-            comments.forEach(comment -> {
-                final String endStatus = comment.getEndStatus();
-                if (endStatus != null && !endStatus.isEmpty() && !"NOSTATUS".equalsIgnoreCase(endStatus)) {
-                    if (commentThreadResultsMap.get(endStatus) != null) {
-                        commentThreadResultsMap.put(endStatus, commentThreadResultsMap.get(endStatus) + 1);
-                    } else {
-                        commentThreadResultsMap.put(endStatus, 1);
-                    }
-                }
-            });
+        return getResultsForCommentThreadStats(commentThreadStatsDao.findByCommentThreadId(commentThreadId));
+    }
+
+    @Transactional
+    public Map<UUID, Set<CommentThreadResultDTO>> getResultsForCommentThreads(final Set<UUID> commentThreadIds) {
+        final Map<UUID, Set<CommentThreadResultDTO>> resultsByCommentThreadId = new HashMap<>();
+        getCommentThreadStats(commentThreadIds).forEach((commentThreadId, commentThreadStats) -> resultsByCommentThreadId.put(commentThreadId, getResultsForCommentThreadStats(commentThreadStats)));
+        return resultsByCommentThreadId;
+    }
+
+    @Transactional
+    public Map<UUID, CommentThreadStats> getCommentThreadStats(final Set<UUID> commentThreadIds) {
+        return commentThreadStatsDao.findByCommentThreadIds(commentThreadIds);
+    }
+
+    public Set<CommentThreadResultDTO> getResultsForCommentThreadStats(final CommentThreadStats commentThreadStats) {
+        final Set<CommentThreadResultDTO> commentThreadResults = new HashSet<>();
+        if (commentThreadStats == null || commentThreadStats.getStatusCounts() == null) {
+            return commentThreadResults;
         }
+        final Map<String, Integer> commentThreadResultsMap = commentThreadStats.getStatusCounts();
         final int totalCount = commentThreadResultsMap.values().stream().mapToInt(i -> i).sum();
-        final Set<CommentThreadResultDTO> commentThreadResults = new HashSet<>();
         commentThreadResultsMap.forEach((status, count) -> {
             final CommentThreadResultDTO commentThreadResult = new CommentThreadResultDTO();
             commentThreadResult.setStatus(status);
@@ -75,8 +75,14 @@ public class ResultServiceImpl implements ResultService {
 
     @Transactional
     public String getResultsForCommentThreadAsTextInDefaultLanguage(final UUID commentThreadId) {
+        return getResultsAsTextInDefaultLanguage(getResultsForCommentThread(commentThreadId));
+    }
+
+    public String getResultsAsTextInDefaultLanguage(final Set<CommentThreadResultDTO> commentThreadResults) {
         final StringBuilder results = new StringBuilder();
-        final Set<CommentThreadResultDTO> commentThreadResults = getResultsForCommentThread(commentThreadId);
+        if (commentThreadResults == null) {
+            return results.toString();
+        }
         for (final CommentThreadResultDTO result : commentThreadResults) {
             results.append(localizeResourceStatusToDefaultLanguage(result.getStatus(), messageSource, Locale.forLanguageTag(this.commentsApiProperties.getDefaultLanguage())));
             results.append(": ");
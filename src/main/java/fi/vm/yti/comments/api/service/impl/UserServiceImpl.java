@@ -1,24 +1,43 @@
 package fi.vm.yti.comments.api.service.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 import fi.vm.yti.comments.api.configuration.GroupManagementProperties;
 import fi.vm.yti.comments.api.dto.UserDTO;
+import fi.vm.yti.comments.api.scheduler.ScheduledJobRunner;
 import fi.vm.yti.comments.api.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import static fi.vm.yti.comments.api.constants.ApiConstants.*;
 import static org.springframework.http.HttpMethod.GET;
 
@@ -27,23 +46,42 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger LOG = LoggerFactory.getLogger(UserServiceImpl.class);
 
-    private final Map<UUID, UserDTO> users;
-    private final Map<UUID, UserDTO> tempUsers;
+    private static final String METRIC_SYNC_DURATION = "yti.comments.users.sync.duration";
+    private static final String METRIC_SYNC_SIZE = "yti.comments.users.sync.size";
+    private static final String TAG_TYPE = "type";
+    private static final String TAG_RESULT = "result";
+    private static final String SYNC_TYPE_USERS = "users";
+    private static final String SYNC_TYPE_TEMPUSERS = "tempusers";
+    private static final String SYNC_RESULT_MODIFIED = "modified";
+    private static final String SYNC_RESULT_NOT_MODIFIED = "not_modified";
+    private static final String JOB_NAME = "user-sync";
+    private static final Duration JOB_MAX_JITTER = Duration.ofSeconds(60);
+
     private final GroupManagementProperties groupManagementProperties;
     private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledJobRunner scheduledJobRunner;
+    private final SyncState usersSyncState;
+    private final SyncState tempUsersSyncState;
+    private volatile UserDirectory userDirectory;
 
     @Inject
     public UserServiceImpl(final GroupManagementProperties groupManagementProperties,
-                           final RestTemplate restTemplate) {
+                           final RestTemplate restTemplate,
+                           final MeterRegistry meterRegistry,
+                           final ScheduledJobRunner scheduledJobRunner) {
         this.groupManagementProperties = groupManagementProperties;
         this.restTemplate = restTemplate;
-        users = new HashMap<>();
-        tempUsers = new HashMap<>();
+        this.meterRegistry = meterRegistry;
+        this.scheduledJobRunner = scheduledJobRunner;
+        usersSyncState = new SyncState();
+        tempUsersSyncState = new SyncState();
+        userDirectory = new UserDirectory(Collections.emptyMap(), Collections.emptyMap(), null);
     }
 
     @Scheduled(cron = "0 */5 * * * *")
     public void fetchUsers() {
-        updateUsers();
+        scheduledJobRunner.runOnEachNode(JOB_NAME, JOB_MAX_JITTER, this::updateUsers);
     }
 
     public void updateUsers() {
@@ -54,46 +92,177 @@ public class UserServiceImpl implements UserService {
     private void updateRegularUsers() {
         final String url = groupManagementProperties.getUrl() + "/" + GROUPMANAGEMENT_API_PRIVATE_CONTEXT_PATH + "/" + GROUPMANAGEMENT_API_USERS;
         LOG.debug("Updating users from Groupmanagement URL: " + url);
-        final Set<UserDTO> fetchedUsers = restTemplate.exchange(url, GET, null, new ParameterizedTypeReference<Set<UserDTO>>() {
-        }).getBody();
-        if (fetchedUsers != null) {
-            LOG.info(String.format("Successfully synced %d users from groupmanagement service!", fetchedUsers.size()));
+        final Set<UserDTO> fetchedUsers = fetchModifiedUsers(url, usersSyncState, SYNC_TYPE_USERS);
+        if (fetchedUsers == null) {
+            LOG.debug("Users not modified in groupmanagement service since last sync.");
+            return;
+        }
+        LOG.info(String.format("Successfully synced %d users from groupmanagement service!", fetchedUsers.size()));
+        synchronized (this) {
+            final UserDirectory currentDirectory = userDirectory;
+            userDirectory = new UserDirectory(mergeUsers(currentDirectory.users, fetchedUsers), currentDirectory.tempUsers, currentDirectory);
         }
-        Objects.requireNonNull(fetchedUsers).forEach(user -> users.put(user.getId(), user));
     }
 
     public void updateTempUsers() {
         final String url = groupManagementProperties.getUrl() + "/" + GROUPMANAGEMENT_API_PRIVATE_CONTEXT_PATH + "/" + GROUPMANAGEMENT_API_TEMPUSERS;
         LOG.debug("Updating temp users from Groupmanagement URL: " + url);
-        final Set<UserDTO> fetchedUsers = restTemplate.exchange(url, GET, null, new ParameterizedTypeReference<Set<UserDTO>>() {
-        }).getBody();
-        if (fetchedUsers != null) {
-            LOG.info(String.format("Successfully synced %d temp users from groupmanagement service!", fetchedUsers.size()));
+        final Set<UserDTO> fetchedUsers = fetchModifiedUsers(url, tempUsersSyncState, SYNC_TYPE_TEMPUSERS);
+        if (fetchedUsers == null) {
+            LOG.debug("Temp users not modified in groupmanagement service since last sync.");
+            return;
+        }
+        LOG.info(String.format("Successfully synced %d temp users from groupmanagement service!", fetchedUsers.size()));
+        synchronized (this) {
+            final UserDirectory currentDirectory = userDirectory;
+            userDirectory = new UserDirectory(currentDirectory.users, mergeUsers(currentDirectory.tempUsers, fetchedUsers), currentDirectory);
+        }
+    }
+
+    /**
+     * Upserts the temp users groupmanagement returned for a container. The response only echoes the users of the
+     * request, so the other temp users of the container are kept until the next full temp user sync.
+     */
+    public void updateTempUsersForContainer(final String containerUri,
+                                            final Set<UserDTO> containerTempUsers) {
+        synchronized (this) {
+            final UserDirectory currentDirectory = userDirectory;
+            userDirectory = new UserDirectory(currentDirectory.users, mergeUsers(currentDirectory.tempUsers, containerTempUsers), currentDirectory);
+        }
+        LOG.debug(String.format("Added or updated %d temp users for container: %s", containerTempUsers.size(), containerUri));
+    }
+
+    /**
+     * Fetches users with a conditional request, returns null when groupmanagement reports no changes since the last sync.
+     */
+    private Set<UserDTO> fetchModifiedUsers(final String url,
+                                            final SyncState syncState,
+                                            final String syncType) {
+        final HttpHeaders headers = new HttpHeaders();
+        if (syncState.eTag != null) {
+            headers.setIfNoneMatch(syncState.eTag);
         }
-        Objects.requireNonNull(fetchedUsers).forEach(user -> {
-            tempUsers.put(user.getId(), user);
+        if (syncState.lastModified > 0) {
+            headers.setIfModifiedSince(syncState.lastModified);
+        }
+        final long startTime = System.nanoTime();
+        final ResponseEntity<Set<UserDTO>> response = restTemplate.exchange(url, GET, new HttpEntity<>(headers), new ParameterizedTypeReference<Set<UserDTO>>() {
         });
+        final boolean notModified = response.getStatusCode() == HttpStatus.NOT_MODIFIED;
+        Timer.builder(METRIC_SYNC_DURATION)
+            .tag(TAG_TYPE, syncType)
+            .tag(TAG_RESULT, notModified ? SYNC_RESULT_NOT_MODIFIED : SYNC_RESULT_MODIFIED)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        if (notModified) {
+            return null;
+        }
+        final Set<UserDTO> fetchedUsers = Objects.requireNonNull(response.getBody());
+        DistributionSummary.builder(METRIC_SYNC_SIZE)
+            .tag(TAG_TYPE, syncType)
+            .register(meterRegistry)
+            .record(fetchedUsers.size());
+        syncState.eTag = response.getHeaders().getETag();
+        syncState.lastModified = response.getHeaders().getLastModified();
+        return fetchedUsers;
     }
 
     public UserDTO getUserById(final UUID id) {
-        final UserDTO user = users.get(id);
+        final UserDirectory directory = userDirectory;
+        final UserDTO user = directory.users.get(id);
         if (user == null) {
-            return tempUsers.get(id);
+            return directory.tempUsers.get(id);
         }
         return user;
     }
 
     public String getUserEmailById(final UUID id) {
-        return users.get(id).getEmail();
+        return userDirectory.users.get(id).getEmail();
     }
 
     public Set<UserDTO> getUsersByCommentRoundUri(final String uri) {
-        final Set<UserDTO> roundUsers = new HashSet<>();
-        for (final UserDTO user : tempUsers.values()) {
-            if (uri.equalsIgnoreCase(user.getContainerUri()) && user.getEmail() != null) {
-                roundUsers.add(user);
+        if (uri == null) {
+            return Collections.emptySet();
+        }
+        return userDirectory.tempUsersByContainerUri.getOrDefault(uri.toLowerCase(Locale.ROOT), Collections.emptySet());
+    }
+
+    public String getDirectoryVersion() {
+        return userDirectory.version;
+    }
+
+    public LocalDateTime getDirectoryModified() {
+        return userDirectory.modified;
+    }
+
+    private static Map<UUID, UserDTO> mergeUsers(final Map<UUID, UserDTO> existingUsers,
+                                                 final Set<UserDTO> fetchedUsers) {
+        final Map<UUID, UserDTO> mergedUsers = new HashMap<>(existingUsers);
+        fetchedUsers.forEach(user -> mergedUsers.put(user.getId(), user));
+        return mergedUsers;
+    }
+
+    private static final class SyncState {
+
+        private volatile String eTag;
+        private volatile long lastModified = -1;
+    }
+
+    /**
+     * Immutable snapshot of the users known to this service, replaced as a whole on every refresh.
+     */
+    private static final class UserDirectory {
+
+        private final Map<UUID, UserDTO> users;
+        private final Map<UUID, UserDTO> tempUsers;
+        private final Map<String, Set<UserDTO>> tempUsersByContainerUri;
+        private final String version;
+        private final LocalDateTime modified;
+
+        private UserDirectory(final Map<UUID, UserDTO> users,
+                              final Map<UUID, UserDTO> tempUsers,
+                              final UserDirectory previousDirectory) {
+            this.users = Collections.unmodifiableMap(new HashMap<>(users));
+            this.tempUsers = Collections.unmodifiableMap(new HashMap<>(tempUsers));
+            this.tempUsersByContainerUri = indexByContainerUri(this.tempUsers);
+            this.version = createVersion(this.users, this.tempUsers);
+            if (previousDirectory != null && previousDirectory.version.equals(this.version)) {
+                this.modified = previousDirectory.modified;
+            } else {
+                this.modified = LocalDateTime.now();
             }
         }
-        return roundUsers;
+
+        /**
+         * Hashes the user fields in id order, so that the version survives restarts and only changes with the content.
+         */
+        private static String createVersion(final Map<UUID, UserDTO> users,
+                                            final Map<UUID, UserDTO> tempUsers) {
+            final Hasher hasher = Hashing.murmur3_128().newHasher();
+            for (final Map<UUID, UserDTO> directoryUsers : List.of(users, tempUsers)) {
+                new TreeMap<>(directoryUsers).values().forEach(user -> {
+                    hasher.putString(String.valueOf(user.getId()), StandardCharsets.UTF_8);
+                    hasher.putString(String.valueOf(user.getEmail()), StandardCharsets.UTF_8);
+                    hasher.putString(String.valueOf(user.getFirstName()), StandardCharsets.UTF_8);
+                    hasher.putString(String.valueOf(user.getLastName()), StandardCharsets.UTF_8);
+                    hasher.putString(String.valueOf(user.getTokenRole()), StandardCharsets.UTF_8);
+                    hasher.putString(String.valueOf(user.getContainerUri()), StandardCharsets.UTF_8);
+                });
+                hasher.putInt(directoryUsers.size());
+            }
+            return hasher.hash().toString();
+        }
+
+        private static Map<String, Set<UserDTO>> indexByContainerUri(final Map<UUID, UserDTO> tempUsers) {
+            final Map<String, Set<UserDTO>> index = new HashMap<>();
+            tempUsers.values().forEach(user -> {
+                if (user.getContainerUri() != null && user.getEmail() != null) {
+                    index.computeIfAbsent(user.getContainerUri().toLowerCase(Locale.ROOT), containerUri -> new HashSet<>()).add(user);
+                }
+            });
+            final Map<String, Set<UserDTO>> immutableIndex = new HashMap<>();
+            index.forEach((containerUri, containerUsers) -> immutableIndex.put(containerUri, Collections.unmodifiableSet(containerUsers)));
+            return Collections.unmodifiableMap(immutableIndex);
+        }
     }
 }
@@ -0,0 +1,34 @@
+--- Materialized per commentthread result and comment count statistics
+
+CREATE TABLE commentthread_stats (
+  commentthread_id uuid UNIQUE NOT NULL,
+  maincomment_count integer NOT NULL DEFAULT 0,
+  comment_count integer NOT NULL DEFAULT 0,
+  lastcomment timestamp without time zone NULL,
+  CONSTRAINT commentthread_stats_pkey PRIMARY KEY (commentthread_id),
+  CONSTRAINT fk_commentthread_stats_commentthread_id FOREIGN KEY (commentthread_id) REFERENCES commentthread (id) MATCH SIMPLE ON UPDATE NO ACTION ON DELETE CASCADE
+);
+
+CREATE TABLE commentthread_stats_status (
+  commentthread_id uuid NOT NULL,
+  status text NOT NULL,
+  statuscount integer NOT NULL,
+  CONSTRAINT commentthread_stats_status_pkey PRIMARY KEY (commentthread_id, status),
+  CONSTRAINT fk_commentthread_stats_status_commentthread_id FOREIGN KEY (commentthread_id) REFERENCES commentthread_stats (commentthread_id) MATCH SIMPLE ON UPDATE NO ACTION ON DELETE CASCADE
+);
+
+--- Backfill statistics for existing commentthreads
+INSERT INTO commentthread_stats (commentthread_id, maincomment_count, comment_count, lastcomment)
+SELECT ct.id,
+       COUNT(c.id) FILTER (WHERE c.parentcomment_id IS NULL),
+       COUNT(c.id),
+       MAX(c.created)
+FROM commentthread AS ct
+LEFT JOIN comment AS c ON c.commentthread_id = ct.id
+GROUP BY ct.id;
+
+INSERT INTO commentthread_stats_status (commentthread_id, status, statuscount)
+SELECT c.commentthread_id, c.endstatus, COUNT(c.id)
+FROM comment AS c
+WHERE c.parentcomment_id IS NULL AND c.endstatus IS NOT NULL AND c.endstatus <> '' AND UPPER(c.endstatus) <> 'NOSTATUS'
+GROUP BY c.commentthread_id, c.endstatus;
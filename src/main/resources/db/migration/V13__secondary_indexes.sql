@@ -0,0 +1,22 @@
+--- Secondary indexes for foreign keys and frequent lookups
+
+--- CommentRound
+CREATE INDEX idx_commentround_status ON commentround (status);
+CREATE INDEX idx_commentround_source_id ON commentround (source_id);
+CREATE INDEX idx_commentround_created ON commentround (created);
+CREATE INDEX idx_commentround_modified ON commentround (modified);
+CREATE INDEX idx_commentround_content_modified ON commentround (content_modified);
+CREATE INDEX idx_commentround_upper_label ON commentround (upper(label) text_pattern_ops);
+CREATE INDEX idx_commentround_organization_organization_id ON commentround_organization (organization_id);
+
+--- CommentThread
+CREATE INDEX idx_commentthread_commentround_id_sequence_id ON commentthread (commentround_id, sequence_id);
+CREATE INDEX idx_commentthread_created ON commentthread (created);
+CREATE INDEX idx_commentthread_comments_modified ON commentthread (comments_modified);
+
+--- Comment
+CREATE INDEX idx_comment_commentthread_id_sequence_id ON comment (commentthread_id, sequence_id);
+CREATE INDEX idx_comment_parentcomment_id ON comment (parentcomment_id);
+CREATE INDEX idx_comment_commentthread_id_user_id_main ON comment (commentthread_id, user_id) WHERE parentcomment_id IS NULL;
+CREATE INDEX idx_comment_created ON comment (created);
+CREATE INDEX idx_comment_modified ON comment (modified);
@@ -0,0 +1,71 @@
+--- Counter table based sequence id allocation replacing per commentround and per commentthread sequences
+
+CREATE TABLE sequence_counter (
+  name text UNIQUE NOT NULL,
+  next_value integer NOT NULL,
+  CONSTRAINT sequence_counter_pkey PRIMARY KEY (name)
+);
+
+--- Remove triggers and functions that created and dropped sequences per commentround and commentthread
+DROP TRIGGER IF EXISTS trigger_sequence_for_commentround_commentthreads ON commentround;
+DROP TRIGGER IF EXISTS trigger_sequence_for_commentthread_comments ON commentthread;
+DROP TRIGGER IF EXISTS trigger_drop_existing_commentround_commentthreads_sequence ON commentround;
+DROP TRIGGER IF EXISTS trigger_drop_existing_commentthread_comments_sequence ON commentthread;
+DROP FUNCTION IF EXISTS create_sequence_for_commentround_commentthreads();
+DROP FUNCTION IF EXISTS create_sequence_for_commentthread_comments();
+DROP FUNCTION IF EXISTS drop_sequence_for_commentround_commentthreads();
+DROP FUNCTION IF EXISTS drop_sequence_for_commentthread_comments();
+
+--- Function that converts existing sequences to counters and drops the sequences
+CREATE OR REPLACE FUNCTION convert_sequences_to_counters() RETURNS VOID AS $$
+DECLARE
+  rec RECORD;
+  sequenceLastValue bigint;
+  sequenceIsCalled boolean;
+BEGIN
+  FOR rec IN SELECT c.relname
+             FROM pg_class AS c
+             JOIN pg_namespace AS n ON n.oid = c.relnamespace
+             WHERE c.relkind = 'S'
+               AND n.nspname = current_schema()
+               AND (c.relname LIKE 'seq\_round\_threads\_%' OR c.relname LIKE 'seq\_thread\_comments\_%')
+    LOOP
+      EXECUTE format('SELECT last_value, is_called FROM %I', rec.relname) INTO sequenceLastValue, sequenceIsCalled;
+      INSERT INTO sequence_counter (name, next_value) VALUES (rec.relname, CASE WHEN sequenceIsCalled THEN sequenceLastValue + 1 ELSE sequenceLastValue END);
+      EXECUTE format('DROP SEQUENCE %I', rec.relname);
+    END LOOP;
+  RETURN;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT * FROM convert_sequences_to_counters();
+
+DROP FUNCTION convert_sequences_to_counters();
+
+--- Function that removes counters for deleted commentrounds
+CREATE OR REPLACE FUNCTION delete_counter_for_commentround_commentthreads() RETURNS TRIGGER AS $$
+BEGIN
+  DELETE FROM sequence_counter WHERE name = 'seq_round_threads_' || replace(OLD.id::varchar, '-', '_');
+  return OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_delete_commentround_commentthreads_counter
+  AFTER DELETE
+  ON commentround
+  FOR EACH ROW
+EXECUTE PROCEDURE delete_counter_for_commentround_commentthreads();
+
+--- Function that removes counters for deleted commentthreads
+CREATE OR REPLACE FUNCTION delete_counter_for_commentthread_comments() RETURNS TRIGGER AS $$
+BEGIN
+  DELETE FROM sequence_counter WHERE name = 'seq_thread_comments_' || replace(OLD.id::varchar, '-', '_');
+  return OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_delete_commentthread_comments_counter
+  AFTER DELETE
+  ON commentthread
+  FOR EACH ROW
+EXECUTE PROCEDURE delete_counter_for_commentthread_comments();
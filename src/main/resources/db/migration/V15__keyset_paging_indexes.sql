@@ -0,0 +1,4 @@
+--- Indexes for keyset paging of integration containers and resources ordered by (sequence_id, id)
+
+CREATE INDEX idx_commentround_sequence_id_id ON commentround (sequence_id, id);
+CREATE INDEX idx_commentthread_sequence_id_id ON commentthread (sequence_id, id);
@@ -0,0 +1,15 @@
+--- Outbox of invitation email requests to groupmanagement, drained by a separate worker with retries
+
+CREATE TABLE invitation_outbox (
+  commentround_id uuid UNIQUE NOT NULL,
+  container_uri text NOT NULL,
+  attempts integer NOT NULL DEFAULT 0,
+  next_attempt timestamp without time zone NOT NULL,
+  last_error text NULL,
+  created timestamp without time zone NOT NULL,
+  sent timestamp without time zone NULL,
+  CONSTRAINT invitation_outbox_pkey PRIMARY KEY (commentround_id),
+  CONSTRAINT fk_invitation_outbox_commentround_id FOREIGN KEY (commentround_id) REFERENCES commentround (id) MATCH SIMPLE ON UPDATE NO ACTION ON DELETE CASCADE
+);
+
+CREATE INDEX invitation_outbox_pending_idx ON invitation_outbox (next_attempt) WHERE sent IS NULL;
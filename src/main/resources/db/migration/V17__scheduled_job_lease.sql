@@ -0,0 +1,13 @@
+--- Cluster wide leases and last run status of scheduled jobs
+
+CREATE TABLE scheduled_job (
+  name text UNIQUE NOT NULL,
+  lease_owner text NULL,
+  lease_until timestamp without time zone NULL,
+  last_node text NULL,
+  last_started timestamp without time zone NULL,
+  last_finished timestamp without time zone NULL,
+  last_status text NULL,
+  last_error text NULL,
+  CONSTRAINT scheduled_job_pkey PRIMARY KEY (name)
+);
@@ -0,0 +1,3 @@
+--- Organization content_hash field added for diff based organization sync
+
+ALTER TABLE organization ADD COLUMN content_hash text NULL;
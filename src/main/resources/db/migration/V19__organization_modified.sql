@@ -0,0 +1,3 @@
+--- Organization modified field added for the last modified time of comment round output
+
+ALTER TABLE organization ADD COLUMN modified timestamp without time zone NULL;
@@ -0,0 +1,44 @@
+package fi.vm.yti.comments.api;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Base class for integration tests run by failsafe against the Postgres container started by the docker-maven-plugin.
+ * The schema is migrated with Flyway when the application context starts.
+ */
+@SpringBootTest(classes = CommentsApplication.class)
+@ActiveProfiles("automatedtest")
+@TestPropertySource(locations = "classpath:test-port.properties", properties = "spring.cloud.config.enabled=false")
+public abstract class AbstractIntegrationTest {
+
+    @Inject
+    protected JdbcTemplate jdbcTemplate;
+
+    @Inject
+    protected PlatformTransactionManager transactionManager;
+
+    @Inject
+    protected EntityManagerFactory entityManagerFactory;
+
+    protected TransactionTemplate newTransactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    protected TestData testData() {
+        return new TestData(jdbcTemplate);
+    }
+
+    protected Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,88 @@
+package fi.vm.yti.comments.api;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static fi.vm.yti.comments.api.constants.ApiConstants.STATUS_INPROGRESS;
+
+/**
+ * Inserts minimal rows for integration tests directly with JDBC, bypassing the application layers under test.
+ */
+public class TestData {
+
+    private static final String CONTAINER_TYPE = "codelist";
+    private static final String URI_PREFIX = "http://uri.suomi.fi/comments/test/";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestData(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public UUID createSource() {
+        final UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO source (id, containertype, containeruri) VALUES (?, ?, ?)", id, CONTAINER_TYPE, URI_PREFIX + "source/" + id);
+        return id;
+    }
+
+    public UUID createOrganization() {
+        final UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO organization (id, url, removed) VALUES (?, ?, false)", id, URI_PREFIX + "organization/" + id);
+        jdbcTemplate.update("INSERT INTO organization_preflabel (organization_id, language, preflabel) VALUES (?, 'fi', ?)", id, "Organisaatio " + id);
+        return id;
+    }
+
+    public UUID createCommentRound() {
+        return createCommentRound(createSource(), STATUS_INPROGRESS);
+    }
+
+    public UUID createCommentRound(final UUID sourceId,
+                                   final String status) {
+        final UUID id = UUID.randomUUID();
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO commentround (id, user_id, label, status, fixedthreads, openthreads, created, modified, source_id, sequence_id, uri) " +
+            "VALUES (?, ?, ?, ?, false, true, ?, ?, ?, nextval('seq_rounds'), ?)", id, UUID.randomUUID(), "Round " + id, status, now, now, sourceId, URI_PREFIX + "round/" + id);
+        return id;
+    }
+
+    public void addOrganization(final UUID commentRoundId,
+                                final UUID organizationId) {
+        jdbcTemplate.update("INSERT INTO commentround_organization (commentround_id, organization_id) VALUES (?, ?)", commentRoundId, organizationId);
+    }
+
+    public UUID createCommentThread(final UUID commentRoundId,
+                                    final int sequenceId) {
+        final UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO commentthread (id, resourceuri, user_id, created, commentround_id, sequence_id, uri) VALUES (?, ?, ?, ?, ?, ?, ?)",
+            id, URI_PREFIX + "resource/" + id, UUID.randomUUID(), Timestamp.valueOf(LocalDateTime.now()), commentRoundId, sequenceId, URI_PREFIX + "thread/" + id);
+        jdbcTemplate.update("INSERT INTO commentthread_label (commentthread_id, language, label) VALUES (?, 'fi', ?), (?, 'en', ?)", id, "Ketju " + sequenceId, id, "Thread " + sequenceId);
+        jdbcTemplate.update("INSERT INTO commentthread_description (commentthread_id, language, description) VALUES (?, 'fi', ?), (?, 'en', ?)", id, "Kuvaus " + sequenceId, id, "Description " + sequenceId);
+        return id;
+    }
+
+    public UUID createComment(final UUID commentThreadId,
+                              final int sequenceId,
+                              final UUID parentCommentId,
+                              final String endStatus) {
+        final UUID id = UUID.randomUUID();
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO comment (id, user_id, content, endstatus, created, modified, parentcomment_id, commentthread_id, sequence_id, uri) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            id, UUID.randomUUID(), "Comment " + sequenceId, endStatus, now, now, parentCommentId, commentThreadId, sequenceId, URI_PREFIX + "comment/" + id);
+        return id;
+    }
+
+    public void createInvitationOutboxEntry(final UUID commentRoundId,
+                                            final int attempts,
+                                            final LocalDateTime nextAttempt) {
+        jdbcTemplate.update("INSERT INTO invitation_outbox (commentround_id, container_uri, attempts, next_attempt, created) VALUES (?, ?, ?, ?, ?)",
+            commentRoundId, URI_PREFIX + "round/" + commentRoundId, attempts, Timestamp.valueOf(nextAttempt), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public void deleteCommentRound(final UUID commentRoundId) {
+        jdbcTemplate.update("DELETE FROM commentround_organization WHERE commentround_id = ?", commentRoundId);
+        jdbcTemplate.update("DELETE FROM commentround WHERE id = ?", commentRoundId);
+    }
+}
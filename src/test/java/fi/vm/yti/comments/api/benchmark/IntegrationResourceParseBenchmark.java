@@ -0,0 +1,134 @@
+package fi.vm.yti.comments.api.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fi.vm.yti.comments.api.configuration.IntegrationCacheProperties;
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
+import fi.vm.yti.comments.api.dto.ResourceDTO;
+import fi.vm.yti.comments.api.service.impl.IntegrationResourceServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Parse throughput and allocation of integration resource responses: the streaming parse through the shared
+ * JsonMapperRegistry compared with the tree parse it replaced, which read the body into a String, parsed it into a tree
+ * and converted the results node, and with a tree parse using a new ObjectMapper per call.
+ *
+ * The main method runs with the gc profiler, its gc.alloc.rate.norm result is the allocated bytes per parsed response.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=fi.vm.yti.comments.api.benchmark.IntegrationResourceParseBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntegrationResourceParseBenchmark {
+
+    private static final String REQUEST_URL = "http://localhost/codelist-api/api/v1/integration/resources";
+    private static final String REQUEST_BODY = "{\"searchTerm\":\"benchmark\",\"status\":[\"VALID\",\"DRAFT\"]}";
+    private static final String RESULTS_FIELD = "results";
+
+    @Param({ "100", "10000" })
+    private int resourceCount;
+
+    private byte[] response;
+    private IntegrationResourceServiceImpl integrationResourceService;
+    private ObjectMapper sharedMapper;
+
+    @Setup
+    public void setUp() {
+        response = createResponse(resourceCount);
+        final RestTemplate restTemplate = new RestTemplate((uri, httpMethod) -> {
+            final MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+            request.setResponse(new MockClientHttpResponse(response, HttpStatus.OK));
+            return request;
+        });
+        final IntegrationCacheProperties integrationCacheProperties = new IntegrationCacheProperties();
+        integrationCacheProperties.setEnabled(false);
+        integrationResourceService = new IntegrationResourceServiceImpl(restTemplate, integrationCacheProperties, new JsonMapperRegistry(), new SimpleMeterRegistry());
+        sharedMapper = new ObjectMapper();
+    }
+
+    @TearDown
+    public void tearDown() {
+        integrationResourceService.shutdown();
+    }
+
+    @Benchmark
+    public Set<ResourceDTO> streamingWithSharedRegistry() {
+        return integrationResourceService.fetchIntegrationResources(REQUEST_URL, HttpMethod.POST, REQUEST_BODY);
+    }
+
+    @Benchmark
+    public Set<ResourceDTO> treeFromStringBody() throws IOException {
+        final JsonNode tree = sharedMapper.readTree(new String(response, StandardCharsets.UTF_8));
+        return sharedMapper.convertValue(tree.get(RESULTS_FIELD), new TypeReference<Set<ResourceDTO>>() {
+        });
+    }
+
+    @Benchmark
+    public Set<ResourceDTO> treeWithNewMapperPerCall() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        final JsonNode results = mapper.readTree(response).get(RESULTS_FIELD);
+        final Set<ResourceDTO> resources = new HashSet<>();
+        for (final JsonNode result : results) {
+            resources.add(mapper.treeToValue(result, ResourceDTO.class));
+        }
+        return resources;
+    }
+
+    private static byte[] createResponse(final int resourceCount) {
+        final StringBuilder response = new StringBuilder(resourceCount * 400);
+        response.append("{\"meta\":{\"code\":200,\"resultCount\":").append(resourceCount).append("},\"results\":[");
+        for (int i = 0; i < resourceCount; i++) {
+            if (i > 0) {
+                response.append(',');
+            }
+            response.append("{\"uri\":\"http://uri.suomi.fi/codelist/benchmark/").append(i).append('"')
+                .append(",\"prefLabel\":{\"fi\":\"Resurssi ").append(i).append("\",\"en\":\"Resource ").append(i).append("\"}")
+                .append(",\"description\":{\"fi\":\"Kuvaus ").append(i).append("\",\"en\":\"Description ").append(i).append("\"}")
+                .append(",\"localName\":\"resource").append(i).append('"')
+                .append(",\"type\":\"code\",\"status\":\"VALID\",\"created\":\"2020-01-01T00:00:00\",\"modified\":\"2020-01-02T00:00:00\"}");
+        }
+        response.append("]}");
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(IntegrationResourceParseBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package fi.vm.yti.comments.api.configuration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamAwareHttpRequestFactoryTest {
+
+    private static final int RESPONSE_DELAY_MILLIS = 1000;
+    private static final int SHORT_READ_TIMEOUT = 200;
+    private static final int LONG_READ_TIMEOUT = 5000;
+    private static final String RESPONSE = "ok";
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private String gatewayUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", UpstreamAwareHttpRequestFactoryTest::respondSlowly);
+        server.start();
+        gatewayUrl = "http://localhost:" + server.getAddress().getPort();
+        httpClient = HttpClients.createDefault();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void upstreamsBehindSameHostKeepTheirOwnTimeouts() {
+        final RestTemplate restTemplate = createRestTemplate(gatewayUrl + "/codelist-api", SHORT_READ_TIMEOUT, gatewayUrl + "/terminology-api/", LONG_READ_TIMEOUT);
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(gatewayUrl + "/codelist-api/api/v1/coderegistries", String.class));
+        assertEquals(RESPONSE, restTemplate.getForObject(gatewayUrl + "/terminology-api/api/v1/vocabularies", String.class));
+    }
+
+    @Test
+    void longestBaseUrlWins() {
+        final RestTemplate restTemplate = createRestTemplate(gatewayUrl, LONG_READ_TIMEOUT, gatewayUrl + "/datamodel-api", SHORT_READ_TIMEOUT);
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(gatewayUrl + "/datamodel-api/api/v1/models", String.class));
+        assertEquals(RESPONSE, restTemplate.getForObject(gatewayUrl + "/datamodel-api-legacy/api/v1/models", String.class));
+        assertEquals(RESPONSE, restTemplate.getForObject(gatewayUrl + "/groupmanagement/organizations", String.class));
+    }
+
+    @Test
+    void baseUrlKeyIgnoresTrailingSlashesAndDefaultPorts() {
+        assertEquals("https://example.com:443/api", UpstreamAwareHttpRequestFactory.createBaseUrlKey(URI.create("HTTPS://Example.com/api/")));
+        assertEquals("http://example.com:8080", UpstreamAwareHttpRequestFactory.createBaseUrlKey(URI.create("http://example.com:8080")));
+    }
+
+    private RestTemplate createRestTemplate(final String firstBaseUrl,
+                                            final int firstReadTimeout,
+                                            final String secondBaseUrl,
+                                            final int secondReadTimeout) {
+        final Map<String, RequestConfig> requestConfigsByBaseUrl = new HashMap<>();
+        requestConfigsByBaseUrl.put(UpstreamAwareHttpRequestFactory.createBaseUrlKey(URI.create(firstBaseUrl)), createRequestConfig(firstReadTimeout));
+        requestConfigsByBaseUrl.put(UpstreamAwareHttpRequestFactory.createBaseUrlKey(URI.create(secondBaseUrl)), createRequestConfig(secondReadTimeout));
+        return new RestTemplate(new UpstreamAwareHttpRequestFactory(httpClient, requestConfigsByBaseUrl));
+    }
+
+    private static RequestConfig createRequestConfig(final int readTimeout) {
+        return RequestConfig.custom()
+            .setConnectTimeout(LONG_READ_TIMEOUT)
+            .setSocketTimeout(readTimeout)
+            .build();
+    }
+
+    private static void respondSlowly(final HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(RESPONSE_DELAY_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final byte[] response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, response.length);
+        try (final OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        } catch (final IOException e) {
+            // The client may already have timed out and closed the connection.
+        } finally {
+            exchange.close();
+        }
+    }
+}
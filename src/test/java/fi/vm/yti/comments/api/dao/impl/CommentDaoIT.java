@@ -0,0 +1,104 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dao.CommentDao;
+import fi.vm.yti.comments.api.dto.CommentDTO;
+import fi.vm.yti.comments.api.dto.CommentThreadDTO;
+import fi.vm.yti.comments.api.entity.CommentRound;
+import fi.vm.yti.comments.api.jpa.CommentRoundRepository;
+import fi.vm.yti.comments.api.security.AuthorizationManager;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class CommentDaoIT extends AbstractIntegrationTest {
+
+    private static final int THREAD_COUNT = 300;
+    private static final int JDBC_BATCH_SIZE = 50;
+    // Thread and comment prefetches, label batches, sequence allocation, timestamp and statistics updates.
+    private static final long MAX_STATEMENT_COUNT = THREAD_COUNT / JDBC_BATCH_SIZE + 20;
+
+    @Inject
+    private CommentDao commentDao;
+
+    @Inject
+    private CommentRoundRepository commentRoundRepository;
+
+    @MockBean
+    private AuthorizationManager authorizationManager;
+
+    private TestData testData;
+    private UUID commentRoundId;
+    private final List<UUID> commentThreadIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(authorizationManager.getUserId()).thenReturn(UUID.randomUUID());
+        testData = testData();
+        commentRoundId = testData.createCommentRound();
+        for (int i = 1; i <= THREAD_COUNT; i++) {
+            commentThreadIds.add(testData.createCommentThread(commentRoundId, i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteCommentRound(commentRoundId);
+    }
+
+    @Test
+    void roundSubmissionRunsBoundedNumberOfStatements() {
+        final long submitStatementCount = submitComments("VALID");
+
+        assertEquals(THREAD_COUNT, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM comment AS c JOIN commentthread AS ct ON ct.id = c.commentthread_id " +
+            "WHERE ct.commentround_id = ? AND c.sequence_id = 1 AND c.endstatus = 'VALID'", Integer.class, commentRoundId));
+        assertEquals(THREAD_COUNT, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM commentthread WHERE commentround_id = ? AND comments_modified IS NOT NULL", Integer.class, commentRoundId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM commentround WHERE id = ? AND content_modified IS NOT NULL", Integer.class, commentRoundId));
+        assertTrue(submitStatementCount <= MAX_STATEMENT_COUNT, "Submitting " + THREAD_COUNT + " comments took " + submitStatementCount + " statements.");
+
+        final long resubmitStatementCount = submitComments("RETIRED");
+
+        assertEquals(THREAD_COUNT, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM comment AS c JOIN commentthread AS ct ON ct.id = c.commentthread_id " +
+            "WHERE ct.commentround_id = ? AND c.sequence_id = 1 AND c.endstatus = 'RETIRED'", Integer.class, commentRoundId));
+        assertTrue(resubmitStatementCount <= MAX_STATEMENT_COUNT, "Resubmitting " + THREAD_COUNT + " comments took " + resubmitStatementCount + " statements.");
+    }
+
+    /**
+     * Submits a main level comment with the given status to every thread and returns the number of prepared statements.
+     */
+    private long submitComments(final String endStatus) {
+        final Set<CommentDTO> comments = new HashSet<>();
+        for (final UUID commentThreadId : commentThreadIds) {
+            final CommentThreadDTO commentThread = new CommentThreadDTO();
+            commentThread.setId(commentThreadId);
+            final CommentDTO comment = new CommentDTO();
+            comment.setCommentThread(commentThread);
+            comment.setContent("Comment on " + commentThreadId);
+            comment.setEndStatus(endStatus);
+            comments.add(comment);
+        }
+        final Statistics statistics = getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        newTransactionTemplate().executeWithoutResult(status -> {
+            final CommentRound commentRound = commentRoundRepository.findById(commentRoundId);
+            statistics.clear();
+            commentDao.addOrUpdateCommentsFromDtos(commentRound, comments);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+}
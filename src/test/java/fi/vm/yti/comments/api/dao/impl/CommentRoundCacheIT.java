@@ -0,0 +1,135 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dao.CommentRoundDao;
+import fi.vm.yti.comments.api.entity.CommentRound;
+import fi.vm.yti.comments.api.entity.Source;
+import fi.vm.yti.comments.api.jpa.CommentRoundRepository;
+import static fi.vm.yti.comments.api.constants.ApiConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comment rounds are kept out of the second level cache, since the rounds in progress change with every comment and
+ * the ended rounds are served from the snapshot store. Checks that round lookups and writes bypass the cache, are seen
+ * by the next lookup and leave the cached sources in place.
+ */
+class CommentRoundCacheIT extends AbstractIntegrationTest {
+
+    @Inject
+    private CommentRoundRepository commentRoundRepository;
+
+    @Inject
+    private CommentRoundDao commentRoundDao;
+
+    @Inject
+    private ModificationTimeStampCoalescer modificationTimeStampCoalescer;
+
+    @Inject
+    private EntityManager entityManager;
+
+    private TestData testData;
+    private UUID sourceId;
+    private UUID changedCommentRoundId;
+    private UUID otherCommentRoundId;
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        sourceId = testData.createSource();
+        changedCommentRoundId = testData.createCommentRound(sourceId, STATUS_INPROGRESS);
+        otherCommentRoundId = testData.createCommentRound(sourceId, STATUS_INPROGRESS);
+        jdbcTemplate.update("UPDATE commentround SET enddate = ? WHERE id = ?", LocalDate.now().minusDays(1), changedCommentRoundId);
+        jdbcTemplate.update("UPDATE commentround SET enddate = ? WHERE id = ?", LocalDate.now().plusDays(30), otherCommentRoundId);
+        findSource();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteCommentRound(changedCommentRoundId);
+        testData.deleteCommentRound(otherCommentRoundId);
+        jdbcTemplate.update("DELETE FROM source WHERE id = ?", sourceId);
+    }
+
+    @Test
+    void commentRoundLookupsBypassTheCache() {
+        findCommentRounds();
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+        findCommentRounds();
+        findSource();
+
+        assertFalse(entityManagerFactory.getCache().contains(CommentRound.class, changedCommentRoundId));
+        assertFalse(entityManagerFactory.getCache().contains(CommentRound.class, otherCommentRoundId));
+        assertEquals(0, statistics.getQueryCachePutCount() + statistics.getQueryCacheHitCount());
+        assertRegion(statistics.getDomainDataRegionStatistics(CACHE_REGION_SOURCE), 1, 0);
+    }
+
+    @Test
+    void contentModifiedIsSeenByTheNextLookup() {
+        findCommentRounds();
+        final LocalDateTime before = jdbcTemplate.queryForObject("SELECT CAST(clock_timestamp() AS timestamp)", LocalDateTime.class);
+        newTransactionTemplate().executeWithoutResult(status -> modificationTimeStampCoalescer.contentModified(changedCommentRoundId));
+
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+        final List<CommentRound> commentRounds = findCommentRounds();
+        findSource();
+
+        assertFalse(commentRounds.get(0).getContentModified().isBefore(before));
+        assertNull(commentRounds.get(1).getContentModified());
+        assertRegion(statistics.getDomainDataRegionStatistics(CACHE_REGION_SOURCE), 1, 0);
+    }
+
+    @Test
+    void statusTransitionIsSeenByTheNextLookup() {
+        findCommentRounds();
+        final List<String> changedUris = newTransactionTemplate().execute(status -> commentRoundDao.updateStatusByEndDateBefore(STATUS_INPROGRESS, STATUS_ENDED, LocalDate.now(), LocalDateTime.now(ZoneId.of("UTC"))));
+
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+        final List<CommentRound> commentRounds = findCommentRounds();
+        findSource();
+
+        assertTrue(changedUris.contains(commentRounds.get(0).getUri()));
+        assertEquals(STATUS_ENDED, commentRounds.get(0).getStatus());
+        assertEquals(STATUS_INPROGRESS, commentRounds.get(1).getStatus());
+        assertRegion(statistics.getDomainDataRegionStatistics(CACHE_REGION_SOURCE), 1, 0);
+    }
+
+    /**
+     * Looks up the changed and the other round, in that order, through the id lookup.
+     */
+    private List<CommentRound> findCommentRounds() {
+        return newTransactionTemplate().execute(status -> List.of(commentRoundRepository.findById(changedCommentRoundId), commentRoundRepository.findById(otherCommentRoundId)));
+    }
+
+    private void findSource() {
+        newTransactionTemplate().executeWithoutResult(status -> entityManager.find(Source.class, sourceId));
+    }
+
+    private static void assertRegion(final CacheRegionStatistics regionStatistics,
+                                     final long hitCount,
+                                     final long missCount) {
+        assertEquals(hitCount, regionStatistics.getHitCount(), "Hits in region " + regionStatistics.getRegionName());
+        assertEquals(missCount, regionStatistics.getMissCount(), "Misses in region " + regionStatistics.getRegionName());
+    }
+}
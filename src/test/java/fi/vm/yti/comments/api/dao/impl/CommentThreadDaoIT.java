@@ -0,0 +1,103 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dao.CommentThreadDao;
+import fi.vm.yti.comments.api.dao.CommentThreadStatsDao;
+import fi.vm.yti.comments.api.dto.CommentRoundDTO;
+import fi.vm.yti.comments.api.dto.CommentThreadDTO;
+import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.service.CommentRoundService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentThreadDaoIT extends AbstractIntegrationTest {
+
+    private static final int THREAD_COUNT = 200;
+    private static final int COMMENTS_PER_THREAD = 3;
+    private static final long MAX_STATEMENT_COUNT = 8;
+    private static final long MAX_MAPPED_STATEMENT_COUNT = 16;
+
+    @Inject
+    private CommentThreadDao commentThreadDao;
+
+    @Inject
+    private CommentThreadStatsDao commentThreadStatsDao;
+
+    @Inject
+    private CommentRoundService commentRoundService;
+
+    private TestData testData;
+    private UUID commentRoundId;
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        commentRoundId = testData.createCommentRound();
+        testData.addOrganization(commentRoundId, testData.createOrganization());
+        final Set<UUID> commentThreadIds = new HashSet<>();
+        for (int i = 1; i <= THREAD_COUNT; i++) {
+            final UUID commentThreadId = testData.createCommentThread(commentRoundId, i);
+            commentThreadIds.add(commentThreadId);
+            final UUID mainCommentId = testData.createComment(commentThreadId, 1, null, null);
+            for (int j = 2; j <= COMMENTS_PER_THREAD; j++) {
+                testData.createComment(commentThreadId, j, mainCommentId, null);
+            }
+        }
+        newTransactionTemplate().executeWithoutResult(status -> commentThreadStatsDao.refreshCommentThreadStats(commentThreadIds));
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteCommentRound(commentRoundId);
+    }
+
+    @Test
+    void findDeepByCommentRoundIdLoadsLabelsInBatches() {
+        final Statistics statistics = getStatistics();
+        newTransactionTemplate().executeWithoutResult(status -> {
+            statistics.clear();
+            final Set<CommentThread> commentThreads = commentThreadDao.findDeepByCommentRoundId(commentRoundId);
+            int commentCount = 0;
+            for (final CommentThread commentThread : commentThreads) {
+                assertEquals(2, commentThread.getLabel().size());
+                assertEquals(2, commentThread.getDescription().size());
+                commentCount += commentThread.getComments().size();
+            }
+            assertEquals(THREAD_COUNT, commentThreads.size());
+            assertEquals(THREAD_COUNT * COMMENTS_PER_THREAD, commentCount);
+            final long statementCount = statistics.getPrepareStatementCount();
+            assertTrue(statementCount <= MAX_STATEMENT_COUNT, "Loading a deep comment round took " + statementCount + " statements.");
+        });
+    }
+
+    @Test
+    void findByIdentifierMapsDeepCommentRoundWithBoundedStatements() {
+        entityManagerFactory.getCache().evictAll();
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+        final CommentRoundDTO commentRound = commentRoundService.findByIdentifier(commentRoundId.toString(), true);
+        final long statementCount = statistics.getPrepareStatementCount();
+
+        assertEquals(commentRoundId, commentRound.getId());
+        assertEquals(1, commentRound.getOrganizations().size());
+        final Set<CommentThreadDTO> commentThreads = commentRound.getCommentThreads();
+        assertEquals(THREAD_COUNT, commentThreads.size());
+        for (final CommentThreadDTO commentThread : commentThreads) {
+            assertEquals(2, commentThread.getLabel().size());
+            assertEquals(COMMENTS_PER_THREAD, commentThread.getCommentCount());
+        }
+        assertTrue(statementCount <= MAX_MAPPED_STATEMENT_COUNT, "Mapping a deep comment round took " + statementCount + " statements.");
+    }
+}
@@ -0,0 +1,91 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dao.CommentThreadDao;
+import fi.vm.yti.comments.api.entity.CommentRound;
+import fi.vm.yti.comments.api.entity.CommentThread;
+import fi.vm.yti.comments.api.jpa.CommentRoundRepository;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentThreadSaveAllIT extends AbstractIntegrationTest {
+
+    private static final int THREAD_COUNT = 1000;
+    private static final int JDBC_BATCH_SIZE = 50;
+    private static final int LANGUAGE_COUNT = 2;
+
+    @Inject
+    private CommentThreadDao commentThreadDao;
+
+    @Inject
+    private CommentRoundRepository commentRoundRepository;
+
+    private TestData testData;
+    private UUID commentRoundId;
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        commentRoundId = testData.createCommentRound();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteCommentRound(commentRoundId);
+    }
+
+    @Test
+    void saveAllInsertsNewThreadsInBatchesWithoutSelects() {
+        final Statistics statistics = getStatistics();
+        newTransactionTemplate().executeWithoutResult(status -> {
+            final CommentRound commentRound = commentRoundRepository.findById(commentRoundId);
+            final Set<CommentThread> commentThreads = new HashSet<>();
+            for (int i = 1; i <= THREAD_COUNT; i++) {
+                commentThreads.add(createCommentThread(commentRound, i));
+            }
+            statistics.clear();
+            commentThreadDao.saveAll(commentThreads);
+        });
+
+        assertEquals(THREAD_COUNT, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount(), "New threads must be persisted, not merged.");
+        assertEquals(0, statistics.getEntityFetchCount());
+        // One statement per JDBC batch for the threads and for each of the label and description tables.
+        final long maxStatementCount = (THREAD_COUNT + 2L * THREAD_COUNT * LANGUAGE_COUNT) / JDBC_BATCH_SIZE + 10;
+        final long statementCount = statistics.getPrepareStatementCount();
+        assertTrue(statementCount <= maxStatementCount, "Saving " + THREAD_COUNT + " threads took " + statementCount + " statements.");
+        assertEquals(THREAD_COUNT, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM commentthread WHERE commentround_id = ?", Integer.class, commentRoundId));
+        assertEquals(THREAD_COUNT * LANGUAGE_COUNT, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM commentthread_label AS ctl JOIN commentthread AS ct ON ct.id = ctl.commentthread_id WHERE ct.commentround_id = ?", Integer.class, commentRoundId));
+    }
+
+    private static CommentThread createCommentThread(final CommentRound commentRound,
+                                                     final int sequenceId) {
+        final UUID id = UUID.randomUUID();
+        final CommentThread commentThread = new CommentThread();
+        commentThread.setId(id);
+        commentThread.setCommentRound(commentRound);
+        commentThread.setSequenceId(sequenceId);
+        commentThread.setUri("http://uri.suomi.fi/comments/test/thread/" + id);
+        commentThread.setResourceUri("http://uri.suomi.fi/comments/test/resource/" + id);
+        commentThread.setUserId(UUID.randomUUID());
+        commentThread.setCreated(LocalDateTime.now());
+        commentThread.setLabel(new HashMap<>(Map.of("fi", "Ketju " + sequenceId, "en", "Thread " + sequenceId)));
+        commentThread.setDescription(new HashMap<>(Map.of("fi", "Kuvaus " + sequenceId, "en", "Description " + sequenceId)));
+        return commentThread;
+    }
+}
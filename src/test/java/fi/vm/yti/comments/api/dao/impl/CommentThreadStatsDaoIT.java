@@ -0,0 +1,160 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dao.CommentThreadStatsDao;
+import fi.vm.yti.comments.api.entity.CommentThreadStats;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentThreadStatsDaoIT extends AbstractIntegrationTest {
+
+    private static final String STATUS_RESOLVED = "RESOLVED";
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final int THREAD_COUNT = 200;
+    private static final long MAX_STATEMENT_COUNT = 2;
+
+    @Inject
+    private CommentThreadStatsDao commentThreadStatsDao;
+
+    private TestData testData;
+    private UUID commentRoundId;
+    private UUID commentThreadId;
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        commentRoundId = testData.createCommentRound();
+        commentThreadId = testData.createCommentThread(commentRoundId, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteCommentRound(commentRoundId);
+    }
+
+    @Test
+    void findByCommentThreadIdsLoadsStatusCountsWithoutPerRowSelects() {
+        final Set<UUID> commentThreadIds = new HashSet<>();
+        commentThreadIds.add(commentThreadId);
+        for (int i = 2; i <= THREAD_COUNT; i++) {
+            commentThreadIds.add(testData.createCommentThread(commentRoundId, i));
+        }
+        int sequenceId = 1;
+        for (final UUID id : commentThreadIds) {
+            testData.createComment(id, sequenceId++, null, STATUS_RESOLVED);
+            testData.createComment(id, sequenceId++, null, null);
+        }
+        newTransactionTemplate().executeWithoutResult(status -> commentThreadStatsDao.refreshCommentThreadStats(commentThreadIds));
+
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+        final Map<UUID, CommentThreadStats> statsById = newTransactionTemplate().execute(status -> {
+            final Map<UUID, CommentThreadStats> stats = commentThreadStatsDao.findByCommentThreadIds(commentThreadIds);
+            stats.values().forEach(threadStats -> threadStats.getStatusCounts().size());
+            return stats;
+        });
+        final long statementCount = statistics.getPrepareStatementCount();
+
+        assertEquals(THREAD_COUNT, statsById.size());
+        statsById.values().forEach(threadStats -> {
+            assertEquals(2, threadStats.getCommentCount());
+            assertEquals(1, threadStats.getStatusCounts().get(STATUS_RESOLVED));
+        });
+        assertTrue(statementCount <= MAX_STATEMENT_COUNT, "Loading the statistics of " + THREAD_COUNT + " threads took " + statementCount + " statements.");
+    }
+
+    @Test
+    void refreshCountsBothCommentsOfConcurrentWriters() throws Exception {
+        final CountDownLatch firstRefreshed = new CountDownLatch(1);
+        final CountDownLatch secondStarted = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> first = executor.submit(() -> newTransactionTemplate().executeWithoutResult(status -> {
+                testData.createComment(commentThreadId, 1, null, STATUS_RESOLVED);
+                commentThreadStatsDao.refreshCommentThreadStats(commentThreadId);
+                firstRefreshed.countDown();
+                await(secondStarted);
+                // Give the second writer time to block on the statistics row lock before committing.
+                sleep(500);
+            }));
+            final Future<?> second = executor.submit(() -> newTransactionTemplate().executeWithoutResult(status -> {
+                await(firstRefreshed);
+                testData.createComment(commentThreadId, 2, null, STATUS_RESOLVED);
+                secondStarted.countDown();
+                commentThreadStatsDao.refreshCommentThreadStats(commentThreadId);
+            }));
+            first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT comment_count FROM commentthread_stats WHERE commentthread_id = ?", Integer.class, commentThreadId));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT maincomment_count FROM commentthread_stats WHERE commentthread_id = ?", Integer.class, commentThreadId));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT statuscount FROM commentthread_stats_status WHERE commentthread_id = ? AND status = ?", Integer.class, commentThreadId, STATUS_RESOLVED));
+    }
+
+    @Test
+    void refreshCountsCommentsOfConcurrentWritersInOverlappingOrder() throws Exception {
+        final CountDownLatch firstInserted = new CountDownLatch(1);
+        final CountDownLatch secondInserted = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> first = executor.submit(() -> newTransactionTemplate().executeWithoutResult(status -> {
+                testData.createComment(commentThreadId, 1, null, STATUS_RESOLVED);
+                firstInserted.countDown();
+                await(secondInserted);
+                commentThreadStatsDao.refreshCommentThreadStats(commentThreadId);
+            }));
+            final Future<?> second = executor.submit(() -> newTransactionTemplate().executeWithoutResult(status -> {
+                await(firstInserted);
+                testData.createComment(commentThreadId, 2, null, null);
+                secondInserted.countDown();
+                commentThreadStatsDao.refreshCommentThreadStats(commentThreadId);
+            }));
+            first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT comment_count FROM commentthread_stats WHERE commentthread_id = ?", Integer.class, commentThreadId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT statuscount FROM commentthread_stats_status WHERE commentthread_id = ? AND status = ?", Integer.class, commentThreadId, STATUS_RESOLVED));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the other writer.");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
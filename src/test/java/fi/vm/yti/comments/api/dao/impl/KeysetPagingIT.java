@@ -0,0 +1,150 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dto.ResourceDTO;
+import fi.vm.yti.comments.api.error.Meta;
+import fi.vm.yti.comments.api.service.CommentRoundService;
+import fi.vm.yti.comments.api.service.CommentThreadService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Walks the integration resource listings page by page with the returned cursors. The threads of the two rounds share
+ * their sequence ids, so the pages also depend on the id tie-breaker of the keyset.
+ */
+class KeysetPagingIT extends AbstractIntegrationTest {
+
+    private static final int THREADS_PER_ROUND = 6;
+    private static final int ROUND_COUNT = 5;
+
+    @Inject
+    private CommentThreadService commentThreadService;
+
+    @Inject
+    private CommentRoundService commentRoundService;
+
+    private TestData testData;
+    private final List<UUID> commentRoundIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        for (int i = 0; i < ROUND_COUNT; i++) {
+            commentRoundIds.add(testData.createCommentRound());
+        }
+        for (final UUID commentRoundId : commentRoundIds.subList(0, 2)) {
+            for (int sequenceId = 1; sequenceId <= THREADS_PER_ROUND; sequenceId++) {
+                testData.createCommentThread(commentRoundId, sequenceId);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRoundIds.forEach(testData::deleteCommentRound);
+    }
+
+    @Test
+    void commentThreadPagesFollowKeysetOrderWithoutDuplicatesOrGaps() {
+        final Set<String> containerUris = Set.of(findRoundUri(commentRoundIds.get(0)), findRoundUri(commentRoundIds.get(1)));
+        final List<String> expectedUris = jdbcTemplate.queryForList("SELECT uri FROM commentthread WHERE commentround_id IN (?, ?) ORDER BY sequence_id, id", String.class,
+            commentRoundIds.get(0), commentRoundIds.get(1));
+        assertEquals(2 * THREADS_PER_ROUND, expectedUris.size());
+
+        for (final int pageSize : new int[]{ 1, 4, 5, THREADS_PER_ROUND, 2 * THREADS_PER_ROUND, 2 * THREADS_PER_ROUND + 1 }) {
+            final List<List<String>> pages = readAllPages(pageSize, meta -> commentThreadService.getResources(null, containerUris, false, meta));
+            assertPages(expectedUris, pageSize, pages);
+        }
+    }
+
+    @Test
+    void commentRoundPagesFollowKeysetOrderWithoutDuplicatesOrGaps() {
+        final List<String> expectedUris = jdbcTemplate.queryForList("SELECT uri FROM commentround WHERE id IN (?, ?, ?, ?, ?) ORDER BY sequence_id, id", String.class,
+            commentRoundIds.toArray());
+        final Set<String> commentRoundUris = Set.copyOf(expectedUris);
+
+        for (final int pageSize : new int[]{ 1, 2, ROUND_COUNT, ROUND_COUNT + 1 }) {
+            final List<List<String>> pages = readAllPages(pageSize, meta -> commentRoundService.getContainers(commentRoundUris, false, meta));
+            assertPages(expectedUris, pageSize, pages);
+        }
+    }
+
+    @Test
+    void cursorSkipsRowsAddedBeforeItsPosition() {
+        final UUID commentRoundId = commentRoundIds.get(0);
+        final Set<String> containerUris = Set.of(findRoundUri(commentRoundId));
+        final Meta firstMeta = createMeta(3, null);
+        final List<ResourceDTO> firstPage = commentThreadService.getResources(null, containerUris, false, firstMeta);
+        assertEquals(3, firstPage.size());
+        assertNotNull(firstMeta.getNextCursor());
+
+        testData.createCommentThread(commentRoundId, 0);
+        final UUID addedAfterCursor = testData.createCommentThread(commentRoundId, THREADS_PER_ROUND + 1);
+
+        final Meta secondMeta = createMeta(10, firstMeta.getNextCursor());
+        final List<ResourceDTO> secondPage = commentThreadService.getResources(null, containerUris, false, secondMeta);
+        final List<String> expectedUris = jdbcTemplate.queryForList("SELECT uri FROM commentthread WHERE commentround_id = ? AND sequence_id > 3 ORDER BY sequence_id, id", String.class, commentRoundId);
+        assertEquals(expectedUris, toUris(secondPage));
+        assertEquals(jdbcTemplate.queryForObject("SELECT uri FROM commentthread WHERE id = ?", String.class, addedAfterCursor), expectedUris.get(expectedUris.size() - 1));
+        assertNull(secondMeta.getNextCursor());
+    }
+
+    private List<List<String>> readAllPages(final int pageSize,
+                                            final Function<Meta, List<ResourceDTO>> pageReader) {
+        final List<List<String>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            final Meta meta = createMeta(pageSize, cursor);
+            pages.add(toUris(pageReader.apply(meta)));
+            cursor = meta.getNextCursor();
+        } while (cursor != null && pages.size() <= 2 * THREADS_PER_ROUND);
+        return pages;
+    }
+
+    private static void assertPages(final List<String> expectedUris,
+                                    final int pageSize,
+                                    final List<List<String>> pages) {
+        final int expectedPageCount = Math.max(1, (expectedUris.size() + pageSize - 1) / pageSize);
+        assertEquals(expectedPageCount, pages.size(), "page size " + pageSize);
+        final List<String> pagedUris = new ArrayList<>();
+        for (int i = 0; i < pages.size(); i++) {
+            final List<String> page = pages.get(i);
+            final int expectedSize = i < pages.size() - 1 ? pageSize : expectedUris.size() - (pages.size() - 1) * pageSize;
+            assertEquals(expectedSize, page.size(), "page " + i + " with page size " + pageSize);
+            pagedUris.addAll(page);
+        }
+        assertEquals(expectedUris, pagedUris, "page size " + pageSize);
+    }
+
+    private static Meta createMeta(final int pageSize,
+                                   final String cursor) {
+        final Meta meta = new Meta();
+        meta.setPageSize(pageSize);
+        meta.setCursor(cursor);
+        return meta;
+    }
+
+    private static List<String> toUris(final List<ResourceDTO> resources) {
+        final List<String> uris = new ArrayList<>();
+        resources.forEach(resource -> uris.add(resource.getUri()));
+        return uris;
+    }
+
+    private String findRoundUri(final UUID commentRoundId) {
+        return jdbcTemplate.queryForObject("SELECT uri FROM commentround WHERE id = ?", String.class, commentRoundId);
+    }
+}
@@ -0,0 +1,159 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two transactions stamping the same rounds and threads: the transaction that commits last must leave its own, later
+ * timestamps behind, and overlapping flushes must wait for each other instead of deadlocking.
+ */
+class ModificationTimeStampCoalescerIT extends AbstractIntegrationTest {
+
+    private static final int THREAD_COUNT = 10;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Inject
+    private ModificationTimeStampCoalescer modificationTimeStampCoalescer;
+
+    private TestData testData;
+    private final List<UUID> commentRoundIds = new ArrayList<>();
+    private final List<UUID> commentThreadIds = new ArrayList<>();
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        for (int i = 0; i < 2; i++) {
+            commentRoundIds.add(testData.createCommentRound());
+        }
+        for (int i = 1; i <= THREAD_COUNT; i++) {
+            commentThreadIds.add(testData.createCommentThread(commentRoundIds.get(i % 2), i));
+        }
+        executorService = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+        commentRoundIds.forEach(testData::deleteCommentRound);
+    }
+
+    @Test
+    void transactionCommittingLastLeavesTheLatestTimeStamps() throws Exception {
+        final CountDownLatch firstRegistered = new CountDownLatch(1);
+        final CountDownLatch secondCommitted = new CountDownLatch(1);
+        final Future<LocalDateTime> first = executorService.submit(() -> newTransactionTemplate().execute(status -> {
+            registerTimeStamps(commentRoundIds, commentThreadIds);
+            firstRegistered.countDown();
+            await(secondCommitted);
+            return readDatabaseTime();
+        }));
+
+        await(firstRegistered);
+        newTransactionTemplate().executeWithoutResult(status -> registerTimeStamps(commentRoundIds, commentThreadIds));
+        secondCommitted.countDown();
+        final LocalDateTime firstCommitStarted = first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTimeStampsNotBefore(firstCommitStarted);
+    }
+
+    @Test
+    void overlappingFlushesInDifferentOrderDoNotDeadlock() throws Exception {
+        final CountDownLatch firstFlushed = new CountDownLatch(1);
+        final List<LocalDateTime> firstFlushedAt = new ArrayList<>();
+        final Future<?> first = executorService.submit(() -> newTransactionTemplate().executeWithoutResult(status -> {
+            registerTimeStamps(commentRoundIds, commentThreadIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void beforeCommit(final boolean readOnly) {
+                    firstFlushedAt.add(readDatabaseTime());
+                    firstFlushed.countDown();
+                    awaitLockWaiter();
+                }
+            });
+        }));
+
+        await(firstFlushed);
+        final List<UUID> reversedCommentRoundIds = new ArrayList<>(commentRoundIds);
+        Collections.reverse(reversedCommentRoundIds);
+        final List<UUID> reversedCommentThreadIds = new ArrayList<>(commentThreadIds);
+        Collections.reverse(reversedCommentThreadIds);
+        newTransactionTemplate().executeWithoutResult(status -> registerTimeStamps(reversedCommentRoundIds, reversedCommentThreadIds));
+        first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTimeStampsNotBefore(firstFlushedAt.get(0));
+    }
+
+    private void registerTimeStamps(final List<UUID> roundIds,
+                                    final List<UUID> threadIds) {
+        roundIds.forEach(modificationTimeStampCoalescer::contentModified);
+        modificationTimeStampCoalescer.commentsModified(new LinkedHashSet<>(threadIds));
+    }
+
+    private void assertTimeStampsNotBefore(final LocalDateTime timeStamp) {
+        for (final UUID commentRoundId : commentRoundIds) {
+            final LocalDateTime contentModified = jdbcTemplate.queryForObject("SELECT content_modified FROM commentround WHERE id = ?", LocalDateTime.class, commentRoundId);
+            assertFalse(contentModified.isBefore(timeStamp), "content_modified " + contentModified + " is before " + timeStamp);
+        }
+        for (final UUID commentThreadId : commentThreadIds) {
+            final LocalDateTime commentsModified = jdbcTemplate.queryForObject("SELECT comments_modified FROM commentthread WHERE id = ?", LocalDateTime.class, commentThreadId);
+            assertFalse(commentsModified.isBefore(timeStamp), "comments_modified " + commentsModified + " is before " + timeStamp);
+        }
+    }
+
+    private LocalDateTime readDatabaseTime() {
+        return jdbcTemplate.queryForObject("SELECT CAST(clock_timestamp() AS timestamp)", LocalDateTime.class);
+    }
+
+    /**
+     * Holds the flushed row locks until the other transaction is waiting for them.
+     */
+    private void awaitLockWaiter() {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity WHERE datname = current_database() AND wait_event_type = 'Lock'", Integer.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "The second transaction never waited for the row locks.");
+            sleep();
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package fi.vm.yti.comments.api.dao.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dao.SequenceCounterDao;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SequenceCounterDaoIT extends AbstractIntegrationTest {
+
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final int WRITER_COUNT = 8;
+    private static final int ALLOCATIONS_PER_WRITER = 25;
+    private static final int BLOCK_SIZE = 3;
+
+    @Inject
+    private SequenceCounterDao sequenceCounterDao;
+
+    private final String namePrefix = "test_" + UUID.randomUUID().toString().replace("-", "_") + "_";
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM sequence_counter WHERE name LIKE ?", namePrefix + "%");
+    }
+
+    @Test
+    void allocateSequenceIdsReservesConsecutiveBlocks() {
+        final String sequenceName = namePrefix + "single";
+        assertEquals(1, sequenceCounterDao.allocateSequenceIds(sequenceName, 3));
+        assertEquals(4, sequenceCounterDao.allocateSequenceIds(sequenceName, 2));
+        assertEquals(6, sequenceCounterDao.allocateSequenceIds(sequenceName, 1));
+        assertEquals(7, jdbcTemplate.queryForObject("SELECT next_value FROM sequence_counter WHERE name = ?", Integer.class, sequenceName));
+    }
+
+    @Test
+    void allocateSequenceIdsReservesBlocksForSeveralSequencesInOneStatement() {
+        final String first = namePrefix + "a";
+        final String second = namePrefix + "b";
+        sequenceCounterDao.allocateSequenceIds(first, 5);
+        final Map<String, Integer> counts = new HashMap<>();
+        counts.put(first, 2);
+        counts.put(second, 4);
+
+        final Map<String, Integer> firstIds = newTransactionTemplate().execute(status -> sequenceCounterDao.allocateSequenceIds(counts));
+
+        assertEquals(6, firstIds.get(first));
+        assertEquals(1, firstIds.get(second));
+        assertEquals(8, jdbcTemplate.queryForObject("SELECT next_value FROM sequence_counter WHERE name = ?", Integer.class, first));
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT next_value FROM sequence_counter WHERE name = ?", Integer.class, second));
+    }
+
+    @Test
+    void concurrentAllocationsReceiveDisjointBlocksWithoutGaps() throws Exception {
+        final String sequenceName = namePrefix + "concurrent";
+        final ExecutorService executor = Executors.newFixedThreadPool(WRITER_COUNT);
+        final List<Future<List<Integer>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITER_COUNT; i++) {
+                futures.add(executor.submit(() -> {
+                    final List<Integer> firstIds = new ArrayList<>();
+                    for (int j = 0; j < ALLOCATIONS_PER_WRITER; j++) {
+                        firstIds.add(newTransactionTemplate().execute(status -> sequenceCounterDao.allocateSequenceIds(sequenceName, BLOCK_SIZE)));
+                    }
+                    return firstIds;
+                }));
+            }
+            final TreeSet<Integer> allocatedIds = new TreeSet<>();
+            for (final Future<List<Integer>> future : futures) {
+                for (final Integer firstId : future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    for (int id = firstId; id < firstId + BLOCK_SIZE; id++) {
+                        allocatedIds.add(id);
+                    }
+                }
+            }
+            final int expectedCount = WRITER_COUNT * ALLOCATIONS_PER_WRITER * BLOCK_SIZE;
+            assertEquals(expectedCount, allocatedIds.size());
+            assertEquals(1, allocatedIds.first());
+            assertEquals(expectedCount, allocatedIds.last());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void deletingCommentRoundRemovesItsThreadCounter() {
+        final TestData testData = testData();
+        final UUID commentRoundId = testData.createCommentRound();
+        final String sequenceName = "seq_round_threads_" + commentRoundId.toString().replace("-", "_");
+        sequenceCounterDao.allocateSequenceIds(sequenceName, 1);
+
+        testData.deleteCommentRound(commentRoundId);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sequence_counter WHERE name = ?", Integer.class, sequenceName));
+    }
+}
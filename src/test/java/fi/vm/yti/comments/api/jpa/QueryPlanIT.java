@@ -0,0 +1,219 @@
+package fi.vm.yti.comments.api.jpa;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.dao.CommentRoundDao;
+import fi.vm.yti.comments.api.dao.CommentThreadDao;
+import fi.vm.yti.comments.api.jpa.StatementRecorder.RecordedStatement;
+import fi.vm.yti.comments.api.model.PageCursor;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plan regression tests for the hot lookups backed by the V13 and V15 indexes. The statements are recorded from the
+ * repository and DAO calls themselves and explained with their bound values against a seeded data set, with the planner
+ * at its default settings.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIT extends AbstractIntegrationTest {
+
+    private static final String SEQ_SCAN = "Seq Scan";
+    private static final Set<String> LARGE_RELATIONS = Set.of("commentround", "commentround_organization", "commentthread", "comment");
+    private static final String URI_PREFIX = "http://uri.suomi.fi/comments/queryplan/";
+    private static final int SOURCE_COUNT = 500;
+    private static final int ORGANIZATION_COUNT = 200;
+    private static final int USER_COUNT = 200;
+    private static final int ROUND_COUNT = 10000;
+    private static final int THREADS_PER_ROUND = 5;
+    private static final int COMMENTS_PER_THREAD = 4;
+    private static final int RECENT_ROUND_COUNT = 20;
+    private static final int PAGE_SIZE = 100;
+
+    @Inject
+    private CommentRoundRepository commentRoundRepository;
+
+    @Inject
+    private CommentThreadRepository commentThreadRepository;
+
+    @Inject
+    private CommentRepository commentRepository;
+
+    @Inject
+    private CommentRoundDao commentRoundDao;
+
+    @Inject
+    private CommentThreadDao commentThreadDao;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UUID roundId;
+    private String roundUri;
+    private PageCursor roundCursor;
+    private UUID organizationId;
+    private UUID threadId;
+    private UUID mainCommentUserId;
+    private LocalDateTime recentTimeStamp;
+
+    @TestConfiguration
+    static class RecordingDataSourceConfiguration {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+
+                @Override
+                public Object postProcessAfterInitialization(final Object bean,
+                                                             final String beanName) {
+                    return bean instanceof DataSource ? StatementRecorder.wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO source (id, containertype, containeruri) " +
+            "SELECT md5('queryplan-source-' || i)::uuid, (ARRAY['codelist', 'terminology', 'datamodel'])[1 + i % 3], ? || 'source/' || i " +
+            "FROM generate_series(1, ?) AS i", URI_PREFIX, SOURCE_COUNT);
+        jdbcTemplate.update("INSERT INTO organization (id, url, removed) " +
+            "SELECT md5('queryplan-organization-' || i)::uuid, ? || 'organization/' || i, false FROM generate_series(1, ?) AS i", URI_PREFIX, ORGANIZATION_COUNT);
+        jdbcTemplate.update("INSERT INTO commentround (id, user_id, label, status, fixedthreads, openthreads, created, modified, content_modified, source_id, sequence_id, uri) " +
+            "SELECT md5('queryplan-round-' || i)::uuid, md5('queryplan-user-' || i % ?)::uuid, 'Round ' || i, " +
+            "(ARRAY['INCOMPLETE', 'AWAIT', 'INPROGRESS', 'ENDED', 'ENDED'])[1 + i % 5], false, true, " +
+            "TIMESTAMP '2018-01-01' + i * INTERVAL '1 hour', TIMESTAMP '2018-01-02' + i * INTERVAL '1 hour', TIMESTAMP '2018-01-03' + i * INTERVAL '1 hour', " +
+            "md5('queryplan-source-' || 1 + i % ?)::uuid, nextval('seq_rounds'), ? || 'round/' || i " +
+            "FROM generate_series(1, ?) AS i", USER_COUNT, SOURCE_COUNT, URI_PREFIX, ROUND_COUNT);
+        jdbcTemplate.update("INSERT INTO commentround_organization (commentround_id, organization_id) " +
+            "SELECT md5('queryplan-round-' || i)::uuid, md5('queryplan-organization-' || 1 + i % ?)::uuid FROM generate_series(1, ?) AS i", ORGANIZATION_COUNT, ROUND_COUNT);
+        jdbcTemplate.update("INSERT INTO commentthread (id, resourceuri, user_id, created, comments_modified, commentround_id, sequence_id, uri) " +
+            "SELECT md5('queryplan-thread-' || i)::uuid, ? || 'resource/' || i, md5('queryplan-user-' || i % ?)::uuid, " +
+            "TIMESTAMP '2018-01-01' + i * INTERVAL '1 minute', TIMESTAMP '2018-01-02' + i * INTERVAL '1 minute', " +
+            "md5('queryplan-round-' || 1 + (i - 1) / ?)::uuid, 1 + (i - 1) % ?, ? || 'thread/' || i " +
+            "FROM generate_series(1, ?) AS i", URI_PREFIX, USER_COUNT, THREADS_PER_ROUND, THREADS_PER_ROUND, URI_PREFIX, ROUND_COUNT * THREADS_PER_ROUND);
+        jdbcTemplate.update("INSERT INTO comment (id, user_id, content, endstatus, created, modified, parentcomment_id, commentthread_id, sequence_id, uri) " +
+            "SELECT md5('queryplan-comment-' || i)::uuid, md5('queryplan-user-' || i % ?)::uuid, 'Comment ' || i, " +
+            "CASE WHEN i % 3 = 0 THEN 'RESOLVED' END, TIMESTAMP '2018-01-01' + i * INTERVAL '1 second', TIMESTAMP '2018-01-01' + i * INTERVAL '1 second', " +
+            "CASE WHEN (i - 1) % ? = 0 THEN NULL ELSE md5('queryplan-comment-' || i - (i - 1) % ?)::uuid END, " +
+            "md5('queryplan-thread-' || 1 + (i - 1) / ?)::uuid, 1 + (i - 1) % ?, ? || 'comment/' || i " +
+            "FROM generate_series(1, ?) AS i", USER_COUNT, COMMENTS_PER_THREAD, COMMENTS_PER_THREAD, COMMENTS_PER_THREAD, COMMENTS_PER_THREAD, URI_PREFIX,
+            ROUND_COUNT * THREADS_PER_ROUND * COMMENTS_PER_THREAD);
+        jdbcTemplate.execute("ANALYZE");
+
+        final int roundIndex = ROUND_COUNT / 2;
+        roundUri = URI_PREFIX + "round/" + roundIndex;
+        roundId = jdbcTemplate.queryForObject("SELECT id FROM commentround WHERE uri = ?", UUID.class, roundUri);
+        roundCursor = new PageCursor(jdbcTemplate.queryForObject("SELECT sequence_id FROM commentround WHERE id = ?", Integer.class, roundId), roundId);
+        organizationId = jdbcTemplate.queryForObject("SELECT organization_id FROM commentround_organization WHERE commentround_id = ?", UUID.class, roundId);
+        threadId = jdbcTemplate.queryForObject("SELECT id FROM commentthread WHERE commentround_id = ? AND sequence_id = 1", UUID.class, roundId);
+        mainCommentUserId = jdbcTemplate.queryForObject("SELECT user_id FROM comment WHERE commentthread_id = ? AND parentcomment_id IS NULL", UUID.class, threadId);
+        recentTimeStamp = jdbcTemplate.queryForObject("SELECT created FROM commentround WHERE uri = ?", Timestamp.class, URI_PREFIX + "round/" + (ROUND_COUNT - RECENT_ROUND_COUNT)).toLocalDateTime();
+    }
+
+    @AfterAll
+    void deleteSeed() {
+        final String uriPattern = URI_PREFIX + "%";
+        jdbcTemplate.update("DELETE FROM commentround_organization WHERE commentround_id IN (SELECT id FROM commentround WHERE uri LIKE ?)", uriPattern);
+        jdbcTemplate.update("DELETE FROM commentround WHERE uri LIKE ?", uriPattern);
+        jdbcTemplate.update("DELETE FROM organization WHERE url LIKE ?", uriPattern);
+        jdbcTemplate.update("DELETE FROM source WHERE containeruri LIKE ?", uriPattern);
+    }
+
+    Stream<Arguments> hotQueries() {
+        final Date recentDate = Timestamp.valueOf(recentTimeStamp);
+        final PageRequest newestFirst = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "sequenceId").and(Sort.by(Sort.Direction.ASC, "id")));
+        return Stream.of(
+            Arguments.of("CommentRoundRepository.findVersionById", (Runnable) () -> commentRoundRepository.findVersionById(roundId)),
+            Arguments.of("CommentRoundRepository.findOrganizationsVersionById", (Runnable) () -> commentRoundRepository.findOrganizationsVersionById(roundId)),
+            Arguments.of("CommentRoundRepository.modifiedAfterCount", (Runnable) () -> commentRoundRepository.modifiedAfterCount(recentDate)),
+            Arguments.of("CommentRoundRepository.createdAfterCount", (Runnable) () -> commentRoundRepository.createdAfterCount(recentDate)),
+            Arguments.of("CommentRoundDao.findByFilters by organization", (Runnable) () -> commentRoundDao.findByFilters(organizationId, null, null, null, false, false, newestFirst)),
+            Arguments.of("CommentRoundDao.findPage after cursor", (Runnable) () -> commentRoundDao.findPage(null, null, null, roundCursor, 0, PAGE_SIZE + 1)),
+            Arguments.of("CommentRoundDao.findPage modified after", (Runnable) () -> commentRoundDao.findPage(null, recentTimeStamp, null, null, 0, PAGE_SIZE + 1)),
+            Arguments.of("CommentThreadRepository.findByCommentRoundId", (Runnable) () -> commentThreadRepository.findByCommentRoundId(roundId)),
+            Arguments.of("CommentThreadRepository.findByCommentRoundIdAndSequenceId", (Runnable) () -> commentThreadRepository.findByCommentRoundIdAndSequenceId(roundId, 1)),
+            Arguments.of("CommentThreadRepository.findVersionByCommentRoundIdAndSequenceId", (Runnable) () -> commentThreadRepository.findVersionByCommentRoundIdAndSequenceId(roundId, 1)),
+            Arguments.of("CommentThreadDao.findPage by round uri", (Runnable) () -> commentThreadDao.findPage(Collections.singleton(roundUri), null, null, null, null, 0, PAGE_SIZE + 1)),
+            Arguments.of("CommentRepository.findByCommentThreadIdAndSequenceId", (Runnable) () -> commentRepository.findByCommentThreadIdAndSequenceId(threadId, 2)),
+            Arguments.of("CommentRepository.findByCommentThreadIdInAndUserIdAndParentCommentIsNull", (Runnable) () -> commentRepository.findByCommentThreadIdInAndUserIdAndParentCommentIsNull(Collections.singleton(threadId), mainCommentUserId)),
+            Arguments.of("CommentRepository.getCommentThreadMainCommentCount", (Runnable) () -> commentRepository.getCommentThreadMainCommentCount(threadId)),
+            Arguments.of("CommentRepository.createdAfterCount", (Runnable) () -> commentRepository.createdAfterCount(recentDate)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryDoesNotScanLargeTables(final String name,
+                                        final Runnable query) {
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        final List<RecordedStatement> statements = StatementRecorder.record(() -> newTransactionTemplate().executeWithoutResult(status -> query.run()));
+        assertFalse(statements.isEmpty(), name + " ran no statements.");
+        for (final RecordedStatement statement : statements) {
+            final String plan = explain(statement);
+            assertNotNull(plan);
+            final List<String> scannedRelations = new ArrayList<>();
+            collectSeqScans(readPlan(plan).get(0).get("Plan"), scannedRelations);
+            assertTrue(Collections.disjoint(LARGE_RELATIONS, scannedRelations), "Sequential scan of " + scannedRelations + " for " + statement.getSql() + " in plan: " + plan);
+        }
+    }
+
+    private String explain(final RecordedStatement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (final Statement jdbcStatement = connection.createStatement()) {
+                jdbcStatement.execute("PREPARE query_plan_check AS " + statement.getNumberedSql());
+                try (final ResultSet resultSet = jdbcStatement.executeQuery("EXPLAIN (FORMAT JSON) EXECUTE query_plan_check" + statement.getParameterList())) {
+                    return resultSet.next() ? resultSet.getString(1) : null;
+                } finally {
+                    jdbcStatement.execute("DEALLOCATE query_plan_check");
+                }
+            }
+        });
+    }
+
+    private JsonNode readPlan(final String plan) {
+        try {
+            return objectMapper.readTree(plan);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Unparseable plan: " + plan, e);
+        }
+    }
+
+    private static void collectSeqScans(final JsonNode node,
+                                        final List<String> scannedRelations) {
+        if (SEQ_SCAN.equals(node.path("Node Type").asText())) {
+            scannedRelations.add(node.path("Relation Name").asText());
+        }
+        node.path("Plans").forEach(child -> collectSeqScans(child, scannedRelations));
+    }
+}
@@ -0,0 +1,140 @@
+package fi.vm.yti.comments.api.jpa;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Records the SQL and the bind parameters of the prepared statements the current thread runs while recording, so that
+ * tests can inspect exactly what Hibernate and Spring Data sent to the database.
+ */
+final class StatementRecorder {
+
+    private static final ThreadLocal<List<RecordedStatement>> STATEMENTS = new ThreadLocal<>();
+
+    private StatementRecorder() {
+    }
+
+    static List<RecordedStatement> record(final Runnable action) {
+        final List<RecordedStatement> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        try {
+            action.run();
+        } finally {
+            STATEMENTS.remove();
+        }
+        return statements;
+    }
+
+    static DataSource wrap(final DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return wrap(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(final String username,
+                                            final String password) throws SQLException {
+                return wrap(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private static Connection wrap(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{ Connection.class }, (proxy, method, args) -> {
+            final Object result = invoke(connection, method, args);
+            final List<RecordedStatement> statements = STATEMENTS.get();
+            if (statements != null && "prepareStatement".equals(method.getName())) {
+                final RecordedStatement statement = new RecordedStatement((String) args[0]);
+                statements.add(statement);
+                return wrap((PreparedStatement) result, statement);
+            }
+            return result;
+        });
+    }
+
+    private static PreparedStatement wrap(final PreparedStatement preparedStatement,
+                                          final RecordedStatement statement) {
+        return (PreparedStatement) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{ PreparedStatement.class }, (proxy, method, args) -> {
+            final String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                statement.parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+            }
+            return invoke(preparedStatement, method, args);
+        });
+    }
+
+    private static Object invoke(final Object target,
+                                 final Method method,
+                                 final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    static final class RecordedStatement {
+
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private RecordedStatement(final String sql) {
+            this.sql = sql;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        /**
+         * Returns the SQL with the JDBC placeholders replaced by numbered PostgreSQL parameters for PREPARE.
+         */
+        String getNumberedSql() {
+            final StringBuilder numberedSql = new StringBuilder(sql.length() + 16);
+            int parameterIndex = 0;
+            for (final char c : sql.toCharArray()) {
+                if (c == '?') {
+                    numberedSql.append('$').append(++parameterIndex);
+                } else {
+                    numberedSql.append(c);
+                }
+            }
+            return numberedSql.toString();
+        }
+
+        /**
+         * Returns the bound values as an EXECUTE argument list, leaving the types to be inferred from the statement.
+         */
+        String getParameterList() {
+            if (parameters.isEmpty()) {
+                return "";
+            }
+            final List<String> literals = new ArrayList<>(parameters.size());
+            parameters.values().forEach(value -> literals.add(toLiteral(value)));
+            return "(" + String.join(", ", literals) + ")";
+        }
+
+        private static String toLiteral(final Object value) {
+            if (value == null) {
+                return "NULL";
+            } else if (value instanceof Number || value instanceof Boolean) {
+                return value.toString();
+            }
+            return "'" + value.toString().replace("'", "''") + "'";
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package fi.vm.yti.comments.api.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.exception.YtiCommentsException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void encodedCursorDecodesToSamePosition() {
+        final UUID id = UUID.randomUUID();
+        for (final int sequenceId : new int[]{ 0, 1, 999, Integer.MAX_VALUE }) {
+            final String encoded = new PageCursor(sequenceId, id).encode();
+            final PageCursor decoded = PageCursor.decode(encoded);
+
+            assertEquals(sequenceId, decoded.getSequenceId());
+            assertEquals(id, decoded.getId());
+            assertFalse(encoded.contains("=") || encoded.contains("+") || encoded.contains("/"), encoded);
+        }
+    }
+
+    @Test
+    void missingCursorDecodesToNull() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    void invalidCursorIsBadRequest() {
+        for (final String cursor : new String[]{ "not base64!", encode("12"), encode("x:" + UUID.randomUUID()), encode("12:not-a-uuid") }) {
+            final YtiCommentsException exception = assertThrows(YtiCommentsException.class, () -> PageCursor.decode(cursor), cursor);
+            assertEquals(400, exception.getErrorModel().getHttpStatusCode());
+        }
+    }
+
+    private static String encode(final String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
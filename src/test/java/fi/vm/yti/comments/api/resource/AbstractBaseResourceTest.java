@@ -0,0 +1,35 @@
+package fi.vm.yti.comments.api.resource;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbstractBaseResourceTest {
+
+    @Test
+    void gzipIsAcceptedWhenListed() {
+        assertTrue(AbstractBaseResource.acceptsGzip(List.of("gzip")));
+        assertTrue(AbstractBaseResource.acceptsGzip(List.of("deflate, GZIP;q=0.5")));
+        assertTrue(AbstractBaseResource.acceptsGzip(List.of("br", "x-gzip")));
+        assertTrue(AbstractBaseResource.acceptsGzip(List.of("identity;q=1, *;q=0.1")));
+    }
+
+    @Test
+    void gzipIsNotAcceptedWithZeroQuality() {
+        assertFalse(AbstractBaseResource.acceptsGzip(List.of("gzip;q=0")));
+        assertFalse(AbstractBaseResource.acceptsGzip(List.of("gzip; q=0.000, deflate")));
+        assertFalse(AbstractBaseResource.acceptsGzip(List.of("*, gzip;q=0")));
+        assertFalse(AbstractBaseResource.acceptsGzip(List.of("*;q=0")));
+    }
+
+    @Test
+    void gzipIsNotAcceptedWhenMissing() {
+        assertFalse(AbstractBaseResource.acceptsGzip(null));
+        assertFalse(AbstractBaseResource.acceptsGzip(List.of("deflate, br")));
+        assertFalse(AbstractBaseResource.acceptsGzip(List.of("identity")));
+        assertFalse(AbstractBaseResource.acceptsGzip(List.of("gzipx")));
+    }
+}
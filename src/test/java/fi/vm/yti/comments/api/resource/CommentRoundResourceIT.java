@@ -0,0 +1,158 @@
+package fi.vm.yti.comments.api.resource;
+
+import java.net.URI;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dto.UserDTO;
+import fi.vm.yti.comments.api.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import static fi.vm.yti.comments.api.constants.ApiConstants.STATUS_ENDED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Conditional requests against the comment round resource: a repeated request is answered with 304 until the round,
+ * the organizations of the round or the user directory change. Ended rounds are served from snapshots that must
+ * change together with the entity tag.
+ */
+class CommentRoundResourceIT extends AbstractIntegrationTest {
+
+    @Inject
+    private CommentRoundResource commentRoundResource;
+
+    @Inject
+    private UserService userService;
+
+    @Inject
+    private MeterRegistry meterRegistry;
+
+    private TestData testData;
+    private UUID commentRoundId;
+    private UUID organizationId;
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        commentRoundId = testData.createCommentRound();
+        organizationId = testData.createOrganization();
+        testData.addOrganization(commentRoundId, organizationId);
+        testData.createCommentThread(commentRoundId, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteCommentRound(commentRoundId);
+    }
+
+    @Test
+    void changedOrganizationInvalidatesValidators() {
+        final Response first = getCommentThreads(createRequest(null, null));
+        assertEquals(200, first.getStatus());
+        final EntityTag entityTag = first.getEntityTag();
+        final Date lastModified = first.getLastModified();
+
+        assertEquals(304, getCommentThreads(createRequest(entityTag, lastModified)).getStatus());
+        assertEquals(304, getCommentThreads(createRequest(null, lastModified)).getStatus());
+
+        final LocalDateTime organizationModified = LocalDateTime.ofInstant(lastModified.toInstant(), ZoneId.systemDefault()).plusHours(1);
+        jdbcTemplate.update("UPDATE organization SET content_hash = ?, modified = ? WHERE id = ?", "changed", Timestamp.valueOf(organizationModified), organizationId);
+
+        final Response afterChange = getCommentThreads(createRequest(entityTag, lastModified));
+        assertEquals(200, afterChange.getStatus());
+        assertNotEquals(entityTag, afterChange.getEntityTag());
+        assertTrue(afterChange.getLastModified().after(lastModified));
+        assertEquals(200, getCommentThreads(createRequest(null, lastModified)).getStatus());
+        assertEquals(304, getCommentThreads(createRequest(afterChange.getEntityTag(), afterChange.getLastModified())).getStatus());
+    }
+
+    @Test
+    void changedUserDirectoryInvalidatesValidators() {
+        final Response first = getCommentRound(createRequest(null, null));
+        assertEquals(200, first.getStatus());
+        final EntityTag entityTag = first.getEntityTag();
+
+        assertEquals(304, getCommentRound(createRequest(entityTag, first.getLastModified())).getStatus());
+
+        final UserDTO tempUser = new UserDTO();
+        tempUser.setId(UUID.randomUUID());
+        tempUser.setEmail(tempUser.getId() + "@example.org");
+        tempUser.setContainerUri("http://uri.suomi.fi/comments/round/" + commentRoundId);
+        userService.updateTempUsersForContainer(tempUser.getContainerUri(), Set.of(tempUser));
+
+        final Response afterChange = getCommentRound(createRequest(entityTag, first.getLastModified()));
+        assertEquals(200, afterChange.getStatus());
+        assertNotEquals(entityTag, afterChange.getEntityTag());
+        assertEquals(304, getCommentRound(createRequest(afterChange.getEntityTag(), afterChange.getLastModified())).getStatus());
+    }
+
+    @Test
+    void snapshotChangesTogetherWithEntityTag() {
+        jdbcTemplate.update("UPDATE commentround SET status = ? WHERE id = ?", STATUS_ENDED, commentRoundId);
+        final double missesBefore = getSnapshotMisses();
+
+        final EntityTag entityTag = getExcelCommentRound().getEntityTag();
+        assertEquals(entityTag, getExcelCommentRound().getEntityTag());
+        assertEquals(missesBefore + 1, getSnapshotMisses());
+
+        jdbcTemplate.update("UPDATE organization SET content_hash = ? WHERE id = ?", "changed", organizationId);
+
+        final EntityTag changedEntityTag = getExcelCommentRound().getEntityTag();
+        assertNotEquals(entityTag, changedEntityTag);
+        assertEquals(missesBefore + 2, getSnapshotMisses());
+        assertEquals(changedEntityTag, getExcelCommentRound().getEntityTag());
+        assertEquals(missesBefore + 2, getSnapshotMisses());
+    }
+
+    private Response getCommentRound(final ContainerRequest request) {
+        return commentRoundResource.getCommentRound(commentRoundId.toString(), null, "json", "en", request, request, null);
+    }
+
+    private Response getExcelCommentRound() {
+        final ContainerRequest request = createRequest(null, null);
+        final Response response = commentRoundResource.getCommentRound(commentRoundId.toString(), null, "excel", "en", request, request, null);
+        assertEquals(200, response.getStatus());
+        return response;
+    }
+
+    private double getSnapshotMisses() {
+        return meterRegistry.get("cache.gets").tag("cache", "commentround.snapshots").tag("result", "miss").functionCounter().count();
+    }
+
+    private Response getCommentThreads(final ContainerRequest request) {
+        return commentRoundResource.getCommentRoundCommentThreads(commentRoundId.toString(), null, request);
+    }
+
+    private static ContainerRequest createRequest(final EntityTag ifNoneMatch,
+                                                  final Date ifModifiedSince) {
+        final ContainerRequest request = new ContainerRequest(URI.create("http://localhost/"), URI.create("http://localhost/v1/commentrounds"), HttpMethod.GET, null, new MapPropertiesDelegate(), null);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch.toString());
+        }
+        if (ifModifiedSince != null) {
+            request.header(HttpHeaders.IF_MODIFIED_SINCE, DateTimeFormatter.RFC_1123_DATE_TIME.format(ifModifiedSince.toInstant().atOffset(ZoneOffset.UTC)));
+        }
+        return request;
+    }
+}
@@ -0,0 +1,52 @@
+package fi.vm.yti.comments.api.resource;
+
+import java.util.List;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.exception.UnauthorizedException;
+import fi.vm.yti.comments.api.model.ScheduledJobStatus;
+import fi.vm.yti.comments.api.scheduler.ScheduledJobRunner;
+import fi.vm.yti.comments.api.security.AuthorizationManager;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SystemResourceTest {
+
+    private ScheduledJobRunner scheduledJobRunner;
+    private AuthorizationManager authorizationManager;
+    private SystemResource systemResource;
+
+    @BeforeEach
+    void setUp() {
+        scheduledJobRunner = mock(ScheduledJobRunner.class);
+        authorizationManager = mock(AuthorizationManager.class);
+        systemResource = new SystemResource(null, null, null, null, scheduledJobRunner, authorizationManager);
+    }
+
+    @Test
+    void jobStatusesRequireSuperUser() {
+        when(authorizationManager.isSuperUser()).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, systemResource::getScheduledJobStatuses);
+        verifyNoInteractions(scheduledJobRunner);
+    }
+
+    @Test
+    void jobStatusesAreReturnedToSuperUser() {
+        final List<ScheduledJobStatus> jobStatuses = List.of(new ScheduledJobStatus("job", true, "node", null, null, ScheduledJobStatus.STATUS_SUCCEEDED, null));
+        when(authorizationManager.isSuperUser()).thenReturn(true);
+        when(scheduledJobRunner.getJobStatuses()).thenReturn(jobStatuses);
+
+        final Response response = systemResource.getScheduledJobStatuses();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(jobStatuses, response.getEntity());
+    }
+}
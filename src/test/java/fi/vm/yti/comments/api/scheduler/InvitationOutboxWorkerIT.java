@@ -0,0 +1,240 @@
+package fi.vm.yti.comments.api.scheduler;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dao.InvitationOutboxDao;
+import fi.vm.yti.comments.api.entity.InvitationOutboxEntry;
+import fi.vm.yti.comments.api.service.GroupmanagementProxyService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Claiming, backoff and giving up of the invitation outbox. The job runner is mocked so that only the runs started by
+ * the test thread execute the worker; the scheduled background runs of the worker are ignored.
+ */
+class InvitationOutboxWorkerIT extends AbstractIntegrationTest {
+
+    private static final int ENTRY_COUNT = 5;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long CLAIM_SECONDS = 15 * 60;
+    private static final long INITIAL_BACKOFF_SECONDS = 60;
+    private static final String SEND_FAILURE = "groupmanagement unavailable";
+
+    @Inject
+    private InvitationOutboxDao invitationOutboxDao;
+
+    @Inject
+    private InvitationOutboxWorker invitationOutboxWorker;
+
+    @MockBean
+    private GroupmanagementProxyService groupmanagementProxyService;
+
+    @MockBean
+    private ScheduledJobRunner scheduledJobRunner;
+
+    private TestData testData;
+    private final List<UUID> commentRoundIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        final Thread testThread = Thread.currentThread();
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == testThread) {
+                final Runnable job = invocation.getArgument(2);
+                job.run();
+            }
+            return null;
+        }).when(scheduledJobRunner).runOnEachNode(eq("invitation-outbox"), any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRoundIds.forEach(testData::deleteCommentRound);
+    }
+
+    @Test
+    void concurrentClaimsSkipLockedEntriesAndHoldThemUntilTheClaimExpires() throws Exception {
+        final LocalDateTime now = now();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            createEntry(0, now.minusMinutes(i + 1));
+        }
+        final CountDownLatch firstClaimed = new CountDownLatch(1);
+        final CountDownLatch secondClaimed = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<List<InvitationOutboxEntry>> first = executorService.submit(() -> newTransactionTemplate().execute(status -> {
+                final List<InvitationOutboxEntry> entries = invitationOutboxDao.claimPending(now, now.plusSeconds(CLAIM_SECONDS), MAX_ATTEMPTS, 2);
+                firstClaimed.countDown();
+                await(secondClaimed);
+                return entries;
+            }));
+            await(firstClaimed);
+            final List<InvitationOutboxEntry> second = invitationOutboxDao.claimPending(now, now.plusSeconds(CLAIM_SECONDS), MAX_ATTEMPTS, ENTRY_COUNT);
+            secondClaimed.countDown();
+
+            final Set<UUID> claimedIds = new HashSet<>();
+            first.get(30, TimeUnit.SECONDS).forEach(entry -> assertTrue(claimedIds.add(entry.getCommentRoundId())));
+            second.forEach(entry -> assertTrue(claimedIds.add(entry.getCommentRoundId()), "Entry claimed twice: " + entry.getCommentRoundId()));
+            assertEquals(ENTRY_COUNT - 2, second.size());
+            assertEquals(new HashSet<>(commentRoundIds), claimedIds);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertTrue(ownEntries(invitationOutboxDao.claimPending(now.plusSeconds(CLAIM_SECONDS - 1), now.plusSeconds(2 * CLAIM_SECONDS), MAX_ATTEMPTS, 100)).isEmpty());
+        final List<InvitationOutboxEntry> reclaimed = ownEntries(invitationOutboxDao.claimPending(now.plusSeconds(CLAIM_SECONDS), now.plusSeconds(2 * CLAIM_SECONDS), MAX_ATTEMPTS, 100));
+        assertEquals(ENTRY_COUNT, reclaimed.size());
+        reclaimed.forEach(entry -> assertEquals(2, entry.getAttempts()));
+    }
+
+    @Test
+    void claimSkipsSentAndExhaustedEntries() {
+        final LocalDateTime now = now();
+        final UUID pendingId = createEntry(MAX_ATTEMPTS - 1, now.minusMinutes(1));
+        createEntry(MAX_ATTEMPTS, now.minusMinutes(1));
+        final UUID sentId = createEntry(0, now.minusMinutes(1));
+        jdbcTemplate.update("UPDATE invitation_outbox SET sent = ? WHERE commentround_id = ?", Timestamp.valueOf(now), sentId);
+
+        final List<InvitationOutboxEntry> claimed = ownEntries(invitationOutboxDao.claimPending(now, now.plusSeconds(CLAIM_SECONDS), MAX_ATTEMPTS, 100));
+
+        assertEquals(1, claimed.size());
+        assertEquals(pendingId, claimed.get(0).getCommentRoundId());
+        assertEquals(MAX_ATTEMPTS, claimed.get(0).getAttempts());
+    }
+
+    @Test
+    void failedSendBacksOffExponentially() {
+        final UUID commentRoundId = createEntry(0, now().minusMinutes(1));
+        final String containerUri = findContainerUri(commentRoundId);
+        doThrow(new RuntimeException(SEND_FAILURE)).when(groupmanagementProxyService).sendInvitationEmailsToRound(containerUri);
+
+        assertBackoff(commentRoundId, 1, INITIAL_BACKOFF_SECONDS);
+        invitationOutboxWorker.sendPendingInvitations();
+        assertEquals(1, findEntry(commentRoundId).get("attempts"));
+
+        makeDue(commentRoundId);
+        assertBackoff(commentRoundId, 2, 2 * INITIAL_BACKOFF_SECONDS);
+        verify(groupmanagementProxyService, times(2)).sendInvitationEmailsToRound(containerUri);
+    }
+
+    @Test
+    void entryIsGivenUpAfterMaxAttempts() {
+        final UUID commentRoundId = createEntry(MAX_ATTEMPTS - 1, now().minusMinutes(1));
+        final String containerUri = findContainerUri(commentRoundId);
+        doThrow(new RuntimeException(SEND_FAILURE)).when(groupmanagementProxyService).sendInvitationEmailsToRound(containerUri);
+
+        invitationOutboxWorker.sendPendingInvitations();
+        makeDue(commentRoundId);
+        invitationOutboxWorker.sendPendingInvitations();
+
+        final Map<String, Object> entry = findEntry(commentRoundId);
+        assertEquals(MAX_ATTEMPTS, entry.get("attempts"));
+        assertEquals(SEND_FAILURE, entry.get("last_error"));
+        assertNull(entry.get("sent"));
+        verify(groupmanagementProxyService, times(1)).sendInvitationEmailsToRound(containerUri);
+    }
+
+    @Test
+    void successfulSendIsRecordedOnce() {
+        final UUID commentRoundId = createEntry(2, now().minusMinutes(1));
+        jdbcTemplate.update("UPDATE invitation_outbox SET last_error = ? WHERE commentround_id = ?", SEND_FAILURE, commentRoundId);
+        final String containerUri = findContainerUri(commentRoundId);
+
+        invitationOutboxWorker.sendPendingInvitations();
+        makeDue(commentRoundId);
+        invitationOutboxWorker.sendPendingInvitations();
+
+        final Map<String, Object> entry = findEntry(commentRoundId);
+        assertEquals(3, entry.get("attempts"));
+        assertNotNull(entry.get("sent"));
+        assertNull(entry.get("last_error"));
+        verify(groupmanagementProxyService, times(1)).sendInvitationEmailsToRound(containerUri);
+    }
+
+    private void assertBackoff(final UUID commentRoundId,
+                               final int expectedAttempts,
+                               final long expectedBackoffSeconds) {
+        final LocalDateTime before = now();
+        invitationOutboxWorker.sendPendingInvitations();
+        final LocalDateTime after = now();
+
+        final Map<String, Object> entry = findEntry(commentRoundId);
+        assertEquals(expectedAttempts, entry.get("attempts"));
+        assertEquals(SEND_FAILURE, entry.get("last_error"));
+        assertNull(entry.get("sent"));
+        final LocalDateTime nextAttempt = ((Timestamp) entry.get("next_attempt")).toLocalDateTime();
+        assertFalse(nextAttempt.isBefore(before.plusSeconds(expectedBackoffSeconds)), "next attempt " + nextAttempt);
+        assertFalse(nextAttempt.isAfter(after.plusSeconds(expectedBackoffSeconds)), "next attempt " + nextAttempt);
+    }
+
+    private UUID createEntry(final int attempts,
+                             final LocalDateTime nextAttempt) {
+        final UUID commentRoundId = testData.createCommentRound();
+        commentRoundIds.add(commentRoundId);
+        testData.createInvitationOutboxEntry(commentRoundId, attempts, nextAttempt);
+        return commentRoundId;
+    }
+
+    private List<InvitationOutboxEntry> ownEntries(final List<InvitationOutboxEntry> entries) {
+        final List<InvitationOutboxEntry> ownEntries = new ArrayList<>();
+        entries.stream().filter(entry -> commentRoundIds.contains(entry.getCommentRoundId())).forEach(ownEntries::add);
+        return ownEntries;
+    }
+
+    private void makeDue(final UUID commentRoundId) {
+        jdbcTemplate.update("UPDATE invitation_outbox SET next_attempt = ? WHERE commentround_id = ?", Timestamp.valueOf(now().minusMinutes(1)), commentRoundId);
+    }
+
+    private Map<String, Object> findEntry(final UUID commentRoundId) {
+        return jdbcTemplate.queryForMap("SELECT attempts, next_attempt, last_error, sent FROM invitation_outbox WHERE commentround_id = ?", commentRoundId);
+    }
+
+    private String findContainerUri(final UUID commentRoundId) {
+        return jdbcTemplate.queryForObject("SELECT container_uri FROM invitation_outbox WHERE commentround_id = ?", String.class, commentRoundId);
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
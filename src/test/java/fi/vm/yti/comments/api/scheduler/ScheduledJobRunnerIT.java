@@ -0,0 +1,138 @@
+package fi.vm.yti.comments.api.scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.dao.ScheduledJobDao;
+import static fi.vm.yti.comments.api.model.ScheduledJobStatus.STATUS_FAILED;
+import static fi.vm.yti.comments.api.model.ScheduledJobStatus.STATUS_SUCCEEDED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two runners standing in for two nodes of the cluster, competing for the lease of the same job.
+ */
+class ScheduledJobRunnerIT extends AbstractIntegrationTest {
+
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(5);
+    private static final String FIRST_NODE = "node-a";
+    private static final String SECOND_NODE = "node-b";
+
+    @Inject
+    private ScheduledJobDao scheduledJobDao;
+
+    private String jobName;
+    private ScheduledJobRunner firstRunner;
+    private ScheduledJobRunner secondRunner;
+
+    @BeforeEach
+    void setUp() {
+        jobName = "test-job-" + UUID.randomUUID();
+        firstRunner = new ScheduledJobRunner(scheduledJobDao, null, FIRST_NODE);
+        secondRunner = new ScheduledJobRunner(scheduledJobDao, null, SECOND_NODE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM scheduled_job WHERE name = ?", jobName);
+    }
+
+    @Test
+    void concurrentRunnersRunTheJobOnce() throws Exception {
+        final AtomicInteger runCount = new AtomicInteger();
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final List<Future<?>> runs = new ArrayList<>();
+            for (final ScheduledJobRunner runner : List.of(firstRunner, secondRunner)) {
+                runs.add(executorService.submit(() -> {
+                    barrier.await(30, TimeUnit.SECONDS);
+                    runner.runOncePerCluster(jobName, LEASE_DURATION, runCount::incrementAndGet);
+                    return null;
+                }));
+            }
+            for (final Future<?> run : runs) {
+                run.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(1, runCount.get());
+        final Map<String, Object> job = findJob();
+        assertEquals(job.get("lease_owner"), job.get("last_node"));
+        assertEquals(STATUS_SUCCEEDED, job.get("last_status"));
+    }
+
+    @Test
+    void leaseIsHeldAfterTheRunUntilItExpires() {
+        final AtomicInteger runCount = new AtomicInteger();
+        firstRunner.runOncePerCluster(jobName, LEASE_DURATION, runCount::incrementAndGet);
+        secondRunner.runOncePerCluster(jobName, LEASE_DURATION, runCount::incrementAndGet);
+        firstRunner.runOncePerCluster(jobName, LEASE_DURATION, runCount::incrementAndGet);
+        assertEquals(1, runCount.get());
+        assertEquals(FIRST_NODE, findJob().get("last_node"));
+
+        jdbcTemplate.update("UPDATE scheduled_job SET lease_until = LOCALTIMESTAMP - INTERVAL '1 second' WHERE name = ?", jobName);
+        secondRunner.runOncePerCluster(jobName, LEASE_DURATION, runCount::incrementAndGet);
+
+        assertEquals(2, runCount.get());
+        final Map<String, Object> job = findJob();
+        assertEquals(SECOND_NODE, job.get("lease_owner"));
+        assertEquals(SECOND_NODE, job.get("last_node"));
+    }
+
+    @Test
+    void leaseIsNotTakenWhileTheJobIsRunning() {
+        final AtomicInteger runCount = new AtomicInteger();
+        firstRunner.runOncePerCluster(jobName, LEASE_DURATION, () -> {
+            runCount.incrementAndGet();
+            secondRunner.runOncePerCluster(jobName, LEASE_DURATION, runCount::incrementAndGet);
+        });
+
+        assertEquals(1, runCount.get());
+        assertEquals(FIRST_NODE, findJob().get("last_node"));
+    }
+
+    @Test
+    void jobRunsOutsideOfATransaction() {
+        final List<Boolean> transactionActive = new ArrayList<>();
+        firstRunner.runOncePerCluster(jobName, LEASE_DURATION, () -> transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive()));
+
+        assertEquals(List.of(false), transactionActive);
+    }
+
+    @Test
+    void failedJobIsRecordedAndKeepsTheLease() {
+        firstRunner.runOncePerCluster(jobName, LEASE_DURATION, () -> {
+            throw new IllegalStateException("upstream unavailable");
+        });
+        final AtomicInteger runCount = new AtomicInteger();
+        secondRunner.runOncePerCluster(jobName, LEASE_DURATION, runCount::incrementAndGet);
+
+        final Map<String, Object> job = findJob();
+        assertEquals(STATUS_FAILED, job.get("last_status"));
+        assertEquals("upstream unavailable", job.get("last_error"));
+        assertEquals(0, runCount.get());
+    }
+
+    private Map<String, Object> findJob() {
+        return jdbcTemplate.queryForMap("SELECT lease_owner, last_node, last_status, last_error FROM scheduled_job WHERE name = ?", jobName);
+    }
+}
@@ -0,0 +1,71 @@
+package fi.vm.yti.comments.api.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.configuration.CommentRoundSnapshotProperties;
+import fi.vm.yti.comments.api.model.ResourceVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CommentRoundSnapshotServiceImplTest {
+
+    private static final String VARIANT = "json:";
+    private static final LocalDateTime LAST_MODIFIED = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private final UUID commentRoundId = UUID.randomUUID();
+    private final AtomicInteger contentCreations = new AtomicInteger();
+    private final Supplier<byte[]> contentSupplier = () -> ("content " + contentCreations.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+
+    private CommentRoundSnapshotServiceImpl commentRoundSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        commentRoundSnapshotService = new CommentRoundSnapshotServiceImpl(new CommentRoundSnapshotProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sameVersionServesStoredSnapshot() {
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1-users-1-organizations-1"), VARIANT, contentSupplier);
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1-users-1-organizations-1"), VARIANT, contentSupplier);
+
+        assertEquals(1, contentCreations.get());
+    }
+
+    @Test
+    void changedVersionRecreatesSnapshot() {
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1-users-1-organizations-1"), VARIANT, contentSupplier);
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1-users-2-organizations-1"), VARIANT, contentSupplier);
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1-users-2-organizations-2"), VARIANT, contentSupplier);
+
+        assertEquals(3, contentCreations.get());
+    }
+
+    @Test
+    void lastModifiedDoesNotChangeSnapshotKey() {
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1-users-1-organizations-1"), VARIANT, contentSupplier);
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED.plusHours(1), "round-1-users-1-organizations-1"), VARIANT, contentSupplier);
+
+        assertEquals(1, contentCreations.get());
+    }
+
+    @Test
+    void olderVersionIsDroppedWhenNewerIsStored() {
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1"), VARIANT, contentSupplier);
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-2"), VARIANT, contentSupplier);
+        commentRoundSnapshotService.getSnapshot(createVersion(LAST_MODIFIED, "round-1"), VARIANT, contentSupplier);
+
+        assertEquals(3, contentCreations.get());
+    }
+
+    private ResourceVersion createVersion(final LocalDateTime lastModified,
+                                          final String version) {
+        return new ResourceVersion(commentRoundId, lastModified, version);
+    }
+}
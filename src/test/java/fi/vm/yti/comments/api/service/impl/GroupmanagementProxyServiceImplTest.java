@@ -0,0 +1,76 @@
+package fi.vm.yti.comments.api.service.impl;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import fi.vm.yti.comments.api.configuration.GroupManagementProperties;
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
+import fi.vm.yti.comments.api.dto.UserDTO;
+import fi.vm.yti.comments.api.scheduler.ScheduledJobRunner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class GroupmanagementProxyServiceImplTest {
+
+    private static final String GROUPMANAGEMENT_URL = "http://localhost/groupmanagement";
+    private static final String TEMPUSERS_URL = GROUPMANAGEMENT_URL + "/private-api/tempusers";
+    private static final String CONTAINER_URI = "http://uri.suomi.fi/comments/round/1";
+    private static final String OTHER_CONTAINER_URI = "http://uri.suomi.fi/comments/round/2";
+
+    private MockRestServiceServer server;
+    private UserServiceImpl userService;
+    private GroupmanagementProxyServiceImpl groupmanagementProxyService;
+
+    @BeforeEach
+    void setUp() {
+        final RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        final GroupManagementProperties groupManagementProperties = new GroupManagementProperties();
+        groupManagementProperties.setUrl(GROUPMANAGEMENT_URL);
+        userService = new UserServiceImpl(groupManagementProperties, restTemplate, new SimpleMeterRegistry(), mock(ScheduledJobRunner.class));
+        groupmanagementProxyService = new GroupmanagementProxyServiceImpl(groupManagementProperties, restTemplate, userService, new JsonMapperRegistry());
+    }
+
+    @Test
+    void addingTempUsersKeepsTheContainersOtherTempUsers() {
+        final UUID existingId = UUID.randomUUID();
+        final UUID updatedId = UUID.randomUUID();
+        final UUID otherContainerId = UUID.randomUUID();
+        final UUID addedId = UUID.randomUUID();
+        server.expect(requestTo(TEMPUSERS_URL))
+            .andExpect(method(HttpMethod.GET))
+            .andRespond(withSuccess("[" + createUser(existingId, "existing", CONTAINER_URI) + "," + createUser(updatedId, "before", CONTAINER_URI) + "," +
+                createUser(otherContainerId, "other", OTHER_CONTAINER_URI) + "]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(TEMPUSERS_URL + "?containerUri=" + CONTAINER_URI))
+            .andExpect(method(HttpMethod.POST))
+            .andRespond(withSuccess("[" + createUser(updatedId, "after", CONTAINER_URI) + "," + createUser(addedId, "added", CONTAINER_URI) + "]", MediaType.APPLICATION_JSON));
+
+        userService.updateTempUsers();
+        groupmanagementProxyService.addOrUpdateTempUsers(CONTAINER_URI, Set.of(new UserDTO()));
+
+        server.verify();
+        final Set<UUID> containerUserIds = userService.getUsersByCommentRoundUri(CONTAINER_URI).stream().map(UserDTO::getId).collect(Collectors.toSet());
+        assertEquals(Set.of(existingId, updatedId, addedId), containerUserIds);
+        assertEquals("after", userService.getUserById(updatedId).getFirstName());
+        assertEquals(1, userService.getUsersByCommentRoundUri(OTHER_CONTAINER_URI).size());
+    }
+
+    private static String createUser(final UUID id,
+                                     final String firstName,
+                                     final String containerUri) {
+        return "{\"id\":\"" + id + "\",\"email\":\"" + firstName + "@example.org\",\"firstName\":\"" + firstName + "\",\"lastName\":\"Test\",\"containerUri\":\"" +
+            containerUri + "\"}";
+    }
+}
@@ -0,0 +1,118 @@
+package fi.vm.yti.comments.api.service.impl;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import fi.vm.yti.comments.api.configuration.IntegrationCacheProperties;
+import fi.vm.yti.comments.api.configuration.JsonMapperRegistry;
+import fi.vm.yti.comments.api.dto.ResourceDTO;
+import fi.vm.yti.comments.api.exception.NotFoundException;
+import fi.vm.yti.comments.api.exception.YtiCommentsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class IntegrationResourceServiceImplTest {
+
+    private static final String REQUEST_URL = "http://localhost/codelist-api/api/v1/integration/resources";
+    private static final String RESOURCE_URI_PREFIX = "http://uri.suomi.fi/codelist/test/";
+    private static final int RESOURCE_COUNT = 20000;
+
+    private MockRestServiceServer server;
+    private IntegrationResourceServiceImpl integrationResourceService;
+
+    @BeforeEach
+    void setUp() {
+        final RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        final IntegrationCacheProperties integrationCacheProperties = new IntegrationCacheProperties();
+        integrationCacheProperties.setEnabled(false);
+        integrationResourceService = new IntegrationResourceServiceImpl(restTemplate, integrationCacheProperties, new JsonMapperRegistry(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        integrationResourceService.shutdown();
+    }
+
+    @Test
+    void largeResultsArrayIsParsedCompletely() {
+        server.expect(requestTo(REQUEST_URL))
+            .andExpect(method(HttpMethod.POST))
+            .andRespond(withSuccess(createResponse(RESOURCE_COUNT), MediaType.APPLICATION_JSON));
+
+        final Set<ResourceDTO> resources = integrationResourceService.fetchIntegrationResources(REQUEST_URL, HttpMethod.POST, "{\"searchTerm\":\"test\"}");
+
+        server.verify();
+        assertEquals(RESOURCE_COUNT, resources.size());
+        final Set<String> uris = resources.stream().map(ResourceDTO::getUri).collect(Collectors.toSet());
+        assertEquals(RESOURCE_COUNT, uris.size());
+        assertTrue(uris.contains(RESOURCE_URI_PREFIX + 0));
+        assertTrue(uris.contains(RESOURCE_URI_PREFIX + (RESOURCE_COUNT - 1)));
+        final ResourceDTO resource = resources.stream().filter(r -> (RESOURCE_URI_PREFIX + 42).equals(r.getUri())).findFirst().orElseThrow();
+        assertEquals("Resurssi 42", resource.getPrefLabel().get("fi"));
+        assertEquals("Resource 42", resource.getPrefLabel().get("en"));
+        assertEquals("VALID", resource.getStatus());
+        assertEquals("resource42", resource.getLocalName());
+    }
+
+    @Test
+    void responseWithoutResultsIsEmpty() {
+        server.expect(requestTo(REQUEST_URL))
+            .andRespond(withSuccess("{\"meta\":{\"code\":200,\"resultCount\":0}}", MediaType.APPLICATION_JSON));
+
+        assertTrue(integrationResourceService.fetchIntegrationResources(REQUEST_URL, HttpMethod.GET, null).isEmpty());
+    }
+
+    @Test
+    void emptyResponseIsNotFound() {
+        server.expect(requestTo(REQUEST_URL))
+            .andRespond(withSuccess());
+
+        assertThrows(NotFoundException.class, () -> integrationResourceService.fetchIntegrationResources(REQUEST_URL, HttpMethod.GET, null));
+    }
+
+    @Test
+    void failedResponseIsNotAcceptable() {
+        server.expect(requestTo(REQUEST_URL))
+            .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        assertThrows(YtiCommentsException.class, () -> integrationResourceService.fetchIntegrationResources(REQUEST_URL, HttpMethod.GET, null));
+    }
+
+    /**
+     * Builds a response with nested fields before and after the results array, which the parser has to skip.
+     */
+    private static String createResponse(final int resourceCount) {
+        final StringBuilder response = new StringBuilder(resourceCount * 400);
+        response.append("{\"meta\":{\"code\":200,\"resultCount\":").append(resourceCount).append(",\"nested\":{\"results\":[{\"uri\":\"ignored\"}]}},");
+        response.append("\"results\":[");
+        for (int i = 0; i < resourceCount; i++) {
+            if (i > 0) {
+                response.append(',');
+            }
+            response.append("{\"uri\":\"").append(RESOURCE_URI_PREFIX).append(i).append('"')
+                .append(",\"prefLabel\":{\"fi\":\"Resurssi ").append(i).append("\",\"en\":\"Resource ").append(i).append("\"}")
+                .append(",\"description\":{\"fi\":\"Kuvaus ").append(i).append("\"}")
+                .append(",\"localName\":\"resource").append(i).append('"')
+                .append(",\"type\":\"code\",\"status\":\"VALID\"")
+                .append(",\"unknownField\":{\"values\":[1,2,3]}}");
+        }
+        response.append("],\"trailer\":[1,2,3]}");
+        return response.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package fi.vm.yti.comments.api.service.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.dto.GroupManagementOrganizationDTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class OrganizationServiceImplTest {
+
+    @Test
+    void contentHashIgnoresLanguageOrder() {
+        final Map<String, String> prefLabel = new LinkedHashMap<>();
+        prefLabel.put("fi", "Organisaatio");
+        prefLabel.put("en", "Organization");
+        final Map<String, String> reversedPrefLabel = new LinkedHashMap<>();
+        reversedPrefLabel.put("en", "Organization");
+        reversedPrefLabel.put("fi", "Organisaatio");
+
+        assertEquals(hash("http://example.org/org", false, prefLabel, null), hash("http://example.org/org", false, reversedPrefLabel, null));
+    }
+
+    @Test
+    void contentHashSeparatesLanguageAndValue() {
+        assertNotEquals(hash("http://example.org/org", false, Map.of("fi", "ab"), null), hash("http://example.org/org", false, Map.of("fia", "b"), null));
+        assertNotEquals(hash("http://example.org/org", false, Map.of("fi", "a", "sv", "b"), null), hash("http://example.org/org", false, Map.of("fi", "asv", "sv", ""), null));
+    }
+
+    @Test
+    void contentHashSeparatesNullsFromStrings() {
+        assertNotEquals(hash(null, false, null, null), hash("null", false, null, null));
+        assertNotEquals(hash("http://example.org/org", null, null, null), hash("http://example.org/org", false, null, null));
+        assertNotEquals(hash("http://example.org/org", false, Map.of("fi", "x"), null), hash("http://example.org/org", false, null, Map.of("fi", "x")));
+    }
+
+    private static String hash(final String url,
+                               final Boolean removed,
+                               final Map<String, String> prefLabel,
+                               final Map<String, String> description) {
+        final GroupManagementOrganizationDTO organization = new GroupManagementOrganizationDTO();
+        organization.setUuid(UUID.randomUUID());
+        organization.setUrl(url);
+        organization.setRemoved(removed);
+        organization.setPrefLabel(prefLabel);
+        organization.setDescription(description);
+        return OrganizationServiceImpl.createContentHash(organization);
+    }
+}
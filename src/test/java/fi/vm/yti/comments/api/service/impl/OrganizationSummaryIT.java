@@ -0,0 +1,113 @@
+package fi.vm.yti.comments.api.service.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fi.vm.yti.comments.api.AbstractIntegrationTest;
+import fi.vm.yti.comments.api.TestData;
+import fi.vm.yti.comments.api.dto.CommentRoundDTO;
+import fi.vm.yti.comments.api.dto.DtoMapperService;
+import fi.vm.yti.comments.api.dto.OrganizationDTO;
+import fi.vm.yti.comments.api.jpa.OrganizationRepository;
+import fi.vm.yti.comments.api.service.OrganizationService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The organization summaries built from the single projection query must carry the same data as the deep mapping of
+ * the organization entities, apart from the comment rounds that are reduced to their identifiers.
+ */
+class OrganizationSummaryIT extends AbstractIntegrationTest {
+
+    @Inject
+    private OrganizationService organizationService;
+
+    @Inject
+    private OrganizationRepository organizationRepository;
+
+    @Inject
+    private DtoMapperService dtoMapperService;
+
+    private TestData testData;
+    private UUID commentRoundId;
+    private UUID otherCommentRoundId;
+    private UUID removedCommentRoundId;
+    private UUID organizationWithRoundsId;
+    private UUID organizationWithoutRoundsId;
+    private UUID removedOrganizationId;
+
+    @BeforeEach
+    void setUp() {
+        testData = testData();
+        commentRoundId = testData.createCommentRound();
+        otherCommentRoundId = testData.createCommentRound();
+        removedCommentRoundId = testData.createCommentRound();
+        organizationWithRoundsId = testData.createOrganization();
+        organizationWithoutRoundsId = testData.createOrganization();
+        removedOrganizationId = testData.createOrganization();
+        testData.addOrganization(commentRoundId, organizationWithRoundsId);
+        testData.addOrganization(otherCommentRoundId, organizationWithRoundsId);
+        testData.addOrganization(removedCommentRoundId, removedOrganizationId);
+        jdbcTemplate.update("INSERT INTO organization_preflabel (organization_id, language, preflabel) VALUES (?, 'en', ?)", organizationWithRoundsId, "Organization");
+        jdbcTemplate.update("INSERT INTO organization_description (organization_id, language, description) VALUES (?, 'fi', ?)", organizationWithoutRoundsId, "Kuvaus");
+        jdbcTemplate.update("UPDATE organization SET removed = true WHERE id = ?", removedOrganizationId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteCommentRound(commentRoundId);
+        testData.deleteCommentRound(otherCommentRoundId);
+        testData.deleteCommentRound(removedCommentRoundId);
+        for (final UUID organizationId : List.of(organizationWithRoundsId, organizationWithoutRoundsId, removedOrganizationId)) {
+            jdbcTemplate.update("DELETE FROM organization_preflabel WHERE organization_id = ?", organizationId);
+            jdbcTemplate.update("DELETE FROM organization_description WHERE organization_id = ?", organizationId);
+            jdbcTemplate.update("DELETE FROM organization WHERE id = ?", organizationId);
+        }
+    }
+
+    @Test
+    void summariesOfActiveOrganizationsEqualTheDeepMapping() {
+        for (final boolean hasCommentRounds : new boolean[]{ false, true }) {
+            final Map<UUID, List<Object>> summaries = toComparable(organizationService.findByRemovedIsFalse(hasCommentRounds, false));
+            final Map<UUID, List<Object>> deep = toComparable(organizationService.findByRemovedIsFalse(hasCommentRounds, true));
+
+            assertEquals(deep, summaries, "hasCommentRounds " + hasCommentRounds);
+            assertTrue(summaries.containsKey(organizationWithRoundsId));
+            assertEquals(!hasCommentRounds, summaries.containsKey(organizationWithoutRoundsId));
+            assertFalse(summaries.containsKey(removedOrganizationId));
+        }
+    }
+
+    @Test
+    void summariesOfAllOrganizationsEqualTheDeepMapping() {
+        final Map<UUID, List<Object>> summaries = toComparable(organizationService.findAll());
+        final Map<UUID, List<Object>> deep = toComparable(newTransactionTemplate().execute(status -> dtoMapperService.mapOrganizations(organizationRepository.findAll(), true)));
+
+        assertEquals(deep, summaries);
+        assertEquals(Arrays.asList("http://uri.suomi.fi/comments/test/organization/" + removedOrganizationId, true, Map.of("fi", "Organisaatio " + removedOrganizationId), null, 1, Set.of(removedCommentRoundId)),
+            summaries.get(removedOrganizationId));
+        assertEquals(Set.of(commentRoundId, otherCommentRoundId), summaries.get(organizationWithRoundsId).get(5));
+    }
+
+    private static Map<UUID, List<Object>> toComparable(final Set<OrganizationDTO> organizations) {
+        final Map<UUID, List<Object>> comparable = new HashMap<>();
+        for (final OrganizationDTO organization : organizations) {
+            final Set<UUID> commentRoundIds = organization.getCommentRounds() != null ? organization.getCommentRounds().stream().map(CommentRoundDTO::getId).collect(Collectors.toSet()) : null;
+            comparable.put(organization.getId(), Arrays.asList(organization.getUrl(), organization.getRemoved(), organization.getPrefLabel(), organization.getDescription(),
+                organization.getCommentRoundCount(), commentRoundIds));
+        }
+        return comparable;
+    }
+}